@@ -0,0 +1,70 @@
+package com.smartjournal.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * The app lives in the unnamed package, which named packages cannot import,
+ * and JMH refuses benchmarks in the unnamed package. Benchmarks therefore
+ * reach the app through method handles held in static finals, which the JIT
+ * treats as constants and inlines like a direct call. Both sides are in the
+ * unnamed module, so package-private and private members are reachable too.
+ */
+final class AppHandles {
+
+    private AppHandles() {
+    }
+
+    static Class<?> type(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("App class not on the classpath: " + name, e);
+        }
+    }
+
+    /** A static method, adapted to return Object so non-public return types can be used. */
+    static MethodHandle staticMethod(String className, String name, Class<?> returnType, Class<?>... params) {
+        try {
+            Class<?> owner = type(className);
+            MethodHandle handle = MethodHandles.privateLookupIn(owner, MethodHandles.lookup()).findStatic(owner, name,
+                    MethodType.methodType(returnType, params));
+            return handle.asType(handle.type().changeReturnType(Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No " + className + "." + name, e);
+        }
+    }
+
+    /** A constructor, adapted to return Object. */
+    static MethodHandle constructor(String className, Class<?>... params) {
+        try {
+            Class<?> owner = type(className);
+            MethodHandle handle = MethodHandles.privateLookupIn(owner, MethodHandles.lookup()).findConstructor(owner,
+                    MethodType.methodType(void.class, params));
+            return handle.asType(handle.type().changeReturnType(Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No constructor for " + className, e);
+        }
+    }
+
+    /** An instance method, adapted to take the receiver as Object and return Object. */
+    static MethodHandle virtualMethod(String className, String name, Class<?> returnType, Class<?>... params) {
+        try {
+            Class<?> owner = type(className);
+            MethodHandle handle = MethodHandles.privateLookupIn(owner, MethodHandles.lookup()).findVirtual(owner, name,
+                    MethodType.methodType(returnType, params));
+            return handle.asType(handle.type().changeReturnType(Object.class).changeParameterType(0, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No " + className + "." + name, e);
+        }
+    }
+
+    static RuntimeException rethrow(Throwable t) {
+        if (t instanceof RuntimeException r)
+            return r;
+        if (t instanceof Error e)
+            throw e;
+        return new IllegalStateException(t);
+    }
+}
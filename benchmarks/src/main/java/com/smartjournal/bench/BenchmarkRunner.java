@@ -0,0 +1,161 @@
+package com.smartjournal.bench;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler (so every result carries
+ * gc.alloc.rate.norm, bytes allocated per operation) and optionally compares
+ * them with a saved baseline.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar [regex]          run, results in target/jmh-result.json
+ *   --save baseline.json                           also keep the results as the new baseline
+ *   --baseline baseline.json                       compare; exit code 2 on any regression
+ *   --threshold 10                                 % slower / more allocation that counts as a regression
+ *   --quick                                        1 warm-up and 2 measurement iterations, for smoke runs
+ * </pre>
+ *
+ * A time regression must also exceed the two runs' combined error margins, so
+ * noisy benchmarks don't fail a comparison on their own. Any other arguments
+ * are passed through to JMH's own command line instead.
+ */
+public class BenchmarkRunner {
+
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        String include = ".*";
+        Path save = null;
+        Path baseline = null;
+        double threshold = 10;
+        boolean quick = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--save" -> save = Path.of(args[++i]);
+                case "--baseline" -> baseline = Path.of(args[++i]);
+                case "--threshold" -> threshold = Double.parseDouble(args[++i]);
+                case "--quick" -> quick = true;
+                default -> {
+                    if (args[i].startsWith("-")) {
+                        org.openjdk.jmh.Main.main(args);
+                        return;
+                    }
+                    include = args[i];
+                }
+            }
+        }
+
+        Path result = Path.of("target", "jmh-result.json");
+        Files.createDirectories(result.getParent());
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result.toString());
+        if (quick)
+            options.warmupIterations(1).measurementIterations(2);
+        new Runner(options.build()).run();
+
+        if (save != null) {
+            Files.copy(result, save, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Baseline saved to " + save);
+        }
+        if (baseline != null) {
+            int regressions = compare(read(baseline), read(result), threshold);
+            if (regressions > 0) {
+                System.out.println(regressions + " regression(s) against " + baseline);
+                System.exit(2);
+            }
+            System.out.println("No regressions against " + baseline);
+        }
+    }
+
+    // --- BASELINE COMPARISON ---
+    record Score(double value, double error, String unit, double allocated) {
+    }
+
+    /** benchmark + params -> score, from a JMH JSON result file. */
+    static Map<String, Score> read(Path file) throws IOException {
+        Map<String, Score> scores = new TreeMap<>();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            JsonArray runs = JsonParser.parseReader(reader).getAsJsonArray();
+            for (JsonElement element : runs) {
+                JsonObject run = element.getAsJsonObject();
+                String key = run.get("benchmark").getAsString().replace("com.smartjournal.bench.", "");
+                if (run.has("params")) {
+                    Map<String, String> params = new LinkedHashMap<>();
+                    for (Map.Entry<String, JsonElement> p : run.getAsJsonObject("params").entrySet()) {
+                        params.put(p.getKey(), p.getValue().getAsString());
+                    }
+                    key += params;
+                }
+                JsonObject primary = run.getAsJsonObject("primaryMetric");
+                double error = primary.get("scoreError").isJsonPrimitive()
+                        && !"NaN".equals(primary.get("scoreError").getAsString())
+                                ? primary.get("scoreError").getAsDouble()
+                                : 0;
+                double allocated = Double.NaN;
+                JsonObject secondary = run.getAsJsonObject("secondaryMetrics");
+                if (secondary != null && secondary.has(ALLOCATION))
+                    allocated = secondary.getAsJsonObject(ALLOCATION).get("score").getAsDouble();
+                scores.put(key, new Score(primary.get("score").getAsDouble(), error,
+                        primary.get("scoreUnit").getAsString(), allocated));
+            }
+        }
+        return scores;
+    }
+
+    static int compare(Map<String, Score> baseline, Map<String, Score> current, double thresholdPercent) {
+        double limit = 1 + thresholdPercent / 100;
+        int regressions = 0;
+        System.out.printf("%n%-64s %14s %14s %8s %12s %12s  %s%n", "benchmark", "baseline", "current", "change",
+                "base B/op", "curr B/op", "verdict");
+        for (Map.Entry<String, Score> e : current.entrySet()) {
+            Score now = e.getValue();
+            Score then = baseline.get(e.getKey());
+            if (then == null) {
+                System.out.printf("%-64s %14s %14.3f %8s %12s %12.0f  new%n", e.getKey(), "-", now.value, "", "-",
+                        now.allocated);
+                continue;
+            }
+            if (!then.unit.equals(now.unit)) {
+                System.out.printf("%-64s unit changed (%s -> %s), not compared%n", e.getKey(), then.unit, now.unit);
+                continue;
+            }
+            double change = (now.value / then.value - 1) * 100;
+            boolean slower = now.value > then.value * limit && now.value - then.value > now.error + then.error;
+            // B/op wobbles by a few bytes between runs (TLAB accounting); ignore differences up to 16
+            boolean allocates = !Double.isNaN(then.allocated) && !Double.isNaN(now.allocated)
+                    && now.allocated > then.allocated * limit + 16;
+            String verdict = slower && allocates ? "REGRESSION (time, alloc)"
+                    : slower ? "REGRESSION (time)" : allocates ? "REGRESSION (alloc)"
+                            : now.value < then.value / limit ? "faster" : "ok";
+            if (slower || allocates)
+                regressions++;
+            System.out.printf("%-64s %14.3f %14.3f %+7.1f%% %12.0f %12.0f  %s%n", e.getKey(), then.value, now.value,
+                    change, then.allocated, now.allocated, verdict);
+        }
+        for (String missing : baseline.keySet()) {
+            if (!current.containsKey(missing))
+                System.out.printf("%-64s not run%n", missing);
+        }
+        return regressions;
+    }
+}
@@ -0,0 +1,63 @@
+package com.smartjournal.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/** Deterministic journal entries and markdown of a given size. */
+final class Entries {
+
+    private static final MethodHandle NEW_ENTRY = AppHandles.constructor("SmartJournal$JournalEntry", LocalDate.class,
+            String.class, String.class, String.class, int.class, float.class);
+
+    private static final String[] MOODS = { "Very Negative", "Negative", "Neutral", "Positive", "Very Positive" };
+    private static final String[] WORDS = { "today", "walked", "the", "park", "felt", "tired", "but", "happy",
+            "coffee", "with", "friends", "work", "was", "busy", "deadline", "rain", "\"quoted\"", "tab\there" };
+
+    private Entries() {
+    }
+
+    static String text(int chars, long seed) {
+        Random random = new Random(seed);
+        StringBuilder sb = new StringBuilder(chars + 16);
+        while (sb.length() < chars) {
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+            sb.append(random.nextInt(12) == 0 ? '\n' : ' ');
+        }
+        sb.setLength(chars);
+        return sb.toString();
+    }
+
+    static Object entry(LocalDate date, int chars, long seed) {
+        int mood = (int) Math.floorMod(seed, MOODS.length);
+        try {
+            return NEW_ENTRY.invokeExact(date, text(chars, seed), MOODS[mood], "Clear", mood + 1, 0.9f);
+        } catch (Throwable t) {
+            throw AppHandles.rethrow(t);
+        }
+    }
+
+    static List<Object> week(int chars) {
+        List<Object> entries = new ArrayList<>();
+        LocalDate day = LocalDate.of(2025, 3, 10);
+        for (int i = 0; i < 7; i++) {
+            entries.add(entry(day.minusDays(i), chars, i));
+        }
+        return entries;
+    }
+
+    /** A summary-shaped markdown document of roughly {@code chars} characters. */
+    static String markdown(int chars) {
+        StringBuilder md = new StringBuilder();
+        int section = 1;
+        while (md.length() < chars) {
+            md.append("### ").append(section).append(". Your **Weekly** Vibe Check\n");
+            md.append("* **Overall Feeling:** ").append(text(120, section)).append('\n');
+            md.append("* Best day: *Tuesday* - ").append(text(200, section + 100)).append("\n\n");
+            section++;
+        }
+        return md.toString();
+    }
+}
@@ -0,0 +1,79 @@
+package com.smartjournal.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * MoodInsights folding a whole history into its contingency tables. The rows
+ * are held in memory in the shape the cursor returns them (stored weather
+ * string, ISO weekday, hour or -1, mood score), with weather written the way
+ * WeatherManager and DataGenerator write it, so this measures the per-row
+ * work of MoodInsights.compute without the database.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InsightsBenchmark {
+
+    private static final MethodHandle NEW_INSIGHTS = AppHandles.constructor("MoodInsights");
+    private static final MethodHandle ADD = AppHandles.virtualMethod("MoodInsights", "add", void.class,
+            String.class, int.class, int.class, int.class);
+
+    private static final String[] CITIES = { "Kuala Lumpur", "Penang", "Johor Bahru", "Kuching" };
+    private static final String[] WEATHER = { "Clear Sky", "Partly Cloudy", "Cloudy", "Foggy", "Drizzle",
+            "Showers", "Rain", "Thunderstorms", "Cerah", "Mendung", "Hujan", "Ribut Petir" };
+
+    @Param({ "100000" })
+    public int rows;
+
+    private String[] weather;
+    private int[] weekday;
+    private int[] hour;
+    private int[] mood;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        weather = new String[rows];
+        weekday = new int[rows];
+        hour = new int[rows];
+        mood = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            int kind = random.nextInt(100);
+            // A few legacy rows: no weather, or text from before the "City: Description" format
+            weather[i] = kind == 0 ? null
+                    : kind == 1 ? "Weather unavailable"
+                            : CITIES[random.nextInt(CITIES.length)] + ": "
+                                    + WEATHER[random.nextInt(WEATHER.length)] + " (Updated: "
+                                    + (1 + random.nextInt(12)) + ":" + (10 + random.nextInt(50)) + " PM)";
+            weekday[i] = 1 + i % 7;
+            hour[i] = random.nextInt(50) == 0 ? -1 : random.nextInt(24);
+            mood[i] = random.nextInt(6);
+        }
+    }
+
+    /** One full history, 100k rows by default: the request's "well under a second" target. */
+    @Benchmark
+    public Object fold() throws Throwable {
+        Object insights = NEW_INSIGHTS.invokeExact();
+        for (int i = 0; i < rows; i++) {
+            Object ignored = ADD.invokeExact(insights, weather[i], weekday[i], hour[i], mood[i]);
+        }
+        return insights;
+    }
+}
@@ -0,0 +1,56 @@
+package com.smartjournal.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** The hand-rolled JSON scanning applied to Open-Meteo and Hugging Face responses. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParsingBenchmark {
+
+    private static final MethodHandle EXTRACT_JSON_VALUE = AppHandles.staticMethod("WeatherManager",
+            "extractJsonValue", String.class, String.class, String.class, int.class);
+    private static final MethodHandle PARSE_AND_FORMAT_WEATHER = AppHandles.staticMethod("WeatherManager",
+            "parseAndFormatWeather", String.class, String.class, String.class, boolean.class);
+    private static final MethodHandle PARSE_BEST_SENTIMENT = AppHandles.staticMethod("JournalService",
+            "parseBestSentiment", AppHandles.type("JournalService$MoodReading"), String.class);
+
+    // Trimmed real responses
+    private final String weatherJson = "{\"latitude\":3.125,\"longitude\":101.6875,\"generationtime_ms\":0.04,"
+            + "\"utc_offset_seconds\":28800,\"timezone\":\"Asia/Kuala_Lumpur\",\"timezone_abbreviation\":\"+08\","
+            + "\"elevation\":62.0,\"current_weather_units\":{\"time\":\"iso8601\",\"interval\":\"seconds\","
+            + "\"temperature\":\"°C\",\"windspeed\":\"km/h\",\"winddirection\":\"°\",\"is_day\":\"\","
+            + "\"weathercode\":\"wmo code\"},\"current_weather\":{\"time\":\"2025-03-14T15:45\",\"interval\":900,"
+            + "\"temperature\":31.4,\"windspeed\":7.6,\"winddirection\":214,\"is_day\":1,\"weathercode\":80}}";
+    private final String sentimentJson = "[[{\"label\":\"Positive\",\"score\":0.6214},"
+            + "{\"label\":\"Very Positive\",\"score\":0.2011},{\"label\":\"Neutral\",\"score\":0.1132},"
+            + "{\"label\":\"Negative\",\"score\":0.0421},{\"label\":\"Very Negative\",\"score\":0.0222}]]";
+
+    @Benchmark
+    public Object weatherExtractValue() throws Throwable {
+        return EXTRACT_JSON_VALUE.invokeExact(weatherJson, "weathercode", 0);
+    }
+
+    @Benchmark
+    public Object weatherParseAndFormat() throws Throwable {
+        return PARSE_AND_FORMAT_WEATHER.invokeExact("Kuala Lumpur", weatherJson, false);
+    }
+
+    @Benchmark
+    public Object parseBestSentiment() throws Throwable {
+        return PARSE_BEST_SENTIMENT.invokeExact(sentimentJson);
+    }
+}
@@ -0,0 +1,49 @@
+package com.smartjournal.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The password KDF itself, on the calling thread (PasswordHasher.hash adds the
+ * worker pool hand-off on top). Cost is linear in iterations, so a small count
+ * is enough to catch regressions; the legacy SHA-256 path is what every login
+ * of an un-migrated account still runs once.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordBenchmark {
+
+    private static final MethodHandle DERIVE = AppHandles.staticMethod("PasswordHasher", "derive", byte[].class,
+            char[].class, byte[].class, int.class);
+    private static final MethodHandle LEGACY_HASH = AppHandles.staticMethod("PasswordHasher", "legacyHash",
+            String.class, String.class);
+
+    @Param({ "10000" })
+    public int iterations;
+
+    private final byte[] salt = new byte[16];
+
+    @Benchmark
+    public Object pbkdf2() throws Throwable {
+        return DERIVE.invokeExact("correct horse battery".toCharArray(), salt, iterations);
+    }
+
+    @Benchmark
+    public Object legacySha256() throws Throwable {
+        return LEGACY_HASH.invokeExact("correct horse battery");
+    }
+}
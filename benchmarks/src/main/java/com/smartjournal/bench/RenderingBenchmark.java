@@ -0,0 +1,64 @@
+package com.smartjournal.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Summary markdown to HTML, and the per-entry strings the timeline cells display. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RenderingBenchmark {
+
+    private static final MethodHandle RENDER_HTML = AppHandles.staticMethod("MarkdownRenderer", "renderHtml",
+            String.class, String.class, boolean.class);
+    private static final MethodHandle BUILD_PREVIEW = AppHandles.staticMethod("EntryRenderModel", "buildPreview",
+            String.class, String.class);
+    private static final MethodHandle NEW_RENDER_MODEL = AppHandles.constructor("EntryRenderModel",
+            AppHandles.type("SmartJournal$JournalEntry"));
+
+    /** Characters of markdown (a real weekly summary is about 2000) or of entry text. */
+    @Param({ "2000", "20000" })
+    public int size;
+
+    private String markdown;
+    private String content;
+    private Object entry;
+
+    @Setup
+    public void setUp() {
+        markdown = Entries.markdown(size);
+        content = Entries.text(size, 42);
+        entry = Entries.entry(LocalDate.of(2025, 3, 14), size, 42);
+    }
+
+    @Benchmark
+    public Object renderHtml() throws Throwable {
+        return RENDER_HTML.invokeExact(markdown, true);
+    }
+
+    @Benchmark
+    public Object timelinePreview() throws Throwable {
+        return BUILD_PREVIEW.invokeExact(content);
+    }
+
+    /** Everything a timeline cell shows: date, day, preview, mood tag and weather. */
+    @Benchmark
+    public Object timelineRenderModel() throws Throwable {
+        return NEW_RENDER_MODEL.invoke(entry);
+    }
+}
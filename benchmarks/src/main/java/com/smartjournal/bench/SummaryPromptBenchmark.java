@@ -0,0 +1,54 @@
+package com.smartjournal.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Building the Gemini request for a week of entries, without the HTTP call. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SummaryPromptBenchmark {
+
+    private static final MethodHandle BUILD_REQUEST = AppHandles.staticMethod("SummaryGenerator", "buildRequest",
+            String.class, List.class, boolean.class);
+    private static final MethodHandle ESCAPE_JSON = AppHandles.staticMethod("SummaryGenerator", "escapeJson",
+            String.class, String.class);
+
+    /** Characters per entry. */
+    @Param({ "300", "3000" })
+    public int entryLength;
+
+    private List<Object> week;
+    private String text;
+
+    @Setup
+    public void setUp() {
+        week = Entries.week(entryLength);
+        text = Entries.text(entryLength * 7, 7);
+    }
+
+    @Benchmark
+    public Object buildRequest() throws Throwable {
+        return BUILD_REQUEST.invoke(week, true);
+    }
+
+    @Benchmark
+    public Object escapeJson() throws Throwable {
+        return ESCAPE_JSON.invokeExact(text);
+    }
+}
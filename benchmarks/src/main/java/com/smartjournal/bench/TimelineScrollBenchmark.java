@@ -0,0 +1,121 @@
+package com.smartjournal.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Flinging through a 10k-entry timeline, headless. A frame rebinds the cells
+ * that scrolled into view the way TimelineCell.updateItem does:
+ * EntryRenderModel.of plus every getter the cell reads. {@code frame} is
+ * steady-state scrolling once every entry has its model, so its B/op is the
+ * per-frame allocation; {@code coldPass} scrolls fresh entries end to end and
+ * builds every model on the way. Both count frames whose cell binding alone
+ * takes longer than a 60 Hz frame as {@code droppedFrames}.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class TimelineScrollBenchmark {
+
+    private static final int ENTRIES = 10_000;
+    private static final int VISIBLE_CELLS = 12;
+    private static final long FRAME_BUDGET_NANOS = 16_666_667L;
+
+    private static final MethodHandle MODEL_OF = AppHandles.staticMethod("EntryRenderModel", "of",
+            AppHandles.type("EntryRenderModel"), AppHandles.type("SmartJournal$JournalEntry"));
+    private static final MethodHandle[] GETTERS = {
+            AppHandles.virtualMethod("EntryRenderModel", "getFormattedDate", String.class),
+            AppHandles.virtualMethod("EntryRenderModel", "getDayOfMonth", String.class),
+            AppHandles.virtualMethod("EntryRenderModel", "getPreview", String.class),
+            AppHandles.virtualMethod("EntryRenderModel", "getMoodText", String.class),
+            AppHandles.virtualMethod("EntryRenderModel", "getWeatherText", String.class),
+            AppHandles.virtualMethod("EntryRenderModel", "getMoodStyleClass", String.class),
+            AppHandles.virtualMethod("EntryRenderModel", "isToday", boolean.class) };
+
+    /** Rows scrolled per frame: a slow drag, a wheel flick, a scrollbar fling. */
+    @Param({ "1", "8", "40" })
+    public int rowsPerFrame;
+
+    private Object[] entries;
+    private int top;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Frames {
+        public long droppedFrames;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            droppedFrames = 0;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp(BenchmarkParams params) throws Throwable {
+        // Fresh entries each iteration, so coldPass always starts with an empty model cache
+        entries = new Object[ENTRIES];
+        LocalDate day = LocalDate.of(2025, 3, 14);
+        for (int i = 0; i < ENTRIES; i++) {
+            entries[i] = Entries.entry(day.minusDays(i), 200 + (i * 37) % 1800, i);
+        }
+        top = 0;
+        if (params.getBenchmark().endsWith(".frame")) {
+            for (Object entry : entries) {
+                MODEL_OF.invoke(entry);
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void frame(Frames frames, Blackhole bh) throws Throwable {
+        long start = System.nanoTime();
+        scroll(bh);
+        if (System.nanoTime() - start > FRAME_BUDGET_NANOS)
+            frames.droppedFrames++;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 10)
+    public void coldPass(Frames frames, Blackhole bh) throws Throwable {
+        for (int scrolled = 0; scrolled < ENTRIES; scrolled += rowsPerFrame) {
+            long start = System.nanoTime();
+            scroll(bh);
+            if (System.nanoTime() - start > FRAME_BUDGET_NANOS)
+                frames.droppedFrames++;
+        }
+    }
+
+    // Cells that stay on screen keep their item; only the rows that scrolled in are rebound
+    private void scroll(Blackhole bh) throws Throwable {
+        top = (top + rowsPerFrame) % ENTRIES;
+        int rebound = Math.min(rowsPerFrame, VISIBLE_CELLS);
+        for (int i = VISIBLE_CELLS - rebound; i < VISIBLE_CELLS; i++) {
+            Object model = MODEL_OF.invoke(entries[(top + i) % ENTRIES]);
+            for (MethodHandle getter : GETTERS) {
+                bh.consume(getter.invoke(model));
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the first-screen load after login: the single
+ * {@link JournalManager#loadSessionBootstrap} statement against the sequence
+ * it replaced (user row, progress, recent entries, unlocked achievements;
+ * one pooled round trip each). The two alternate, iteration by iteration, so
+ * both see the same cache state. The achievement query is run directly
+ * because AchievementEngine would otherwise answer from its cached mask.
+ *
+ * <p>--rtt adds a simulated network round trip (via {@link LatencyProxy})
+ * in front of the database, to show what each extra round trip costs over a
+ * remote pooler link.
+ *
+ * <pre>
+ * --iterations 500     measured loads per variant
+ * --warmup 50          unmeasured loads per variant first
+ * --rtt 0              simulated round-trip time to the database (ms)
+ * --user EMAIL         account to load (default: a synthetic account, see DataGenerator)
+ * </pre>
+ */
+public class BootstrapComparison {
+
+    private static final Pattern JDBC_URL = Pattern.compile("^(jdbc:postgresql://)([^/:?]+)(?::(\\d+))?(.*)$");
+    private static final String USER_SQL = "SELECT display_name, start_of_week FROM users WHERE email = ?";
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("iterations", "500");
+        options.put("warmup", "50");
+        options.put("rtt", "0");
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        System.out.println("Bootstrap comparison: " + options);
+
+        // The proxy has to be in place before the pool reads DB_URL
+        LatencyProxy proxy = null;
+        int rtt = Integer.parseInt(options.get("rtt"));
+        if (rtt > 0) {
+            Matcher m = JDBC_URL.matcher(String.valueOf(EnvLoader.get("DB_URL")));
+            if (!m.matches())
+                throw new IllegalArgumentException("Can't proxy DB_URL " + EnvLoader.get("DB_URL"));
+            proxy = new LatencyProxy(m.group(2), m.group(3) == null ? 5432 : Integer.parseInt(m.group(3)), rtt);
+            System.setProperty("DB_URL", m.group(1) + "127.0.0.1:" + proxy.getPort() + m.group(4));
+        }
+        System.setProperty("DB_POOL_SIZE", "2");
+
+        try {
+            String email = options.get("user");
+            if (email == null) {
+                try (Connection conn = DatabaseConnectionPool.getConnection()) {
+                    email = PlanCheck.pickUser(conn);
+                }
+            }
+            if (email == null) {
+                System.out.println("No account to load; pass --user EMAIL or run DataGenerator first.");
+                System.exit(1);
+            }
+            run(new User(email, "", ""), Integer.parseInt(options.get("warmup")),
+                    Integer.parseInt(options.get("iterations")), rtt);
+        } finally {
+            DatabaseConnectionPool.close();
+            if (proxy != null)
+                proxy.close();
+        }
+        System.exit(0);
+    }
+
+    private static void run(User user, int warmup, int iterations, int rtt) {
+        LatencyStats bootstrap = new LatencyStats();
+        LatencyStats sequential = new LatencyStats();
+        for (int i = 0; i < warmup + iterations; i++) {
+            if (i == warmup) {
+                bootstrap.reset();
+                sequential.reset();
+            }
+            long t0 = System.nanoTime();
+            boolean ok = JournalManager.loadSessionBootstrap(user) != null;
+            bootstrap.record(System.nanoTime() - t0, ok);
+
+            t0 = System.nanoTime();
+            try {
+                ok = sequential(user);
+            } catch (SQLException e) {
+                ok = false;
+            }
+            sequential.record(System.nanoTime() - t0, ok);
+        }
+        bootstrap.roll();
+        sequential.roll();
+
+        System.out.printf("%n%-12s %7s %8s %8s %8s %8s %7s%n", "variant", "trips", "p50", "p95", "p99", "max",
+                "errors");
+        print("bootstrap", 1, bootstrap);
+        print("sequential", 4, sequential);
+        System.out.printf("%nsequential / bootstrap at p50: %.2fx", sequential.totalMillis(50)
+                / Math.max(0.001, bootstrap.totalMillis(50)));
+        System.out.println(rtt > 0 ? " (with a simulated " + rtt + " ms round trip)" : "");
+    }
+
+    private static void print(String name, int trips, LatencyStats stats) {
+        System.out.printf("%-12s %7d %8.2f %8.2f %8.2f %8.2f %7d%n", name, trips, stats.totalMillis(50),
+                stats.totalMillis(95), stats.totalMillis(99), stats.maxMillis(), stats.totalErrors());
+    }
+
+    // What the first screen used to need, one query and one pooled connection at a time
+    private static boolean sequential(User user) throws SQLException {
+        boolean found;
+        try (Connection conn = DatabaseConnectionPool.getConnection();
+                PreparedStatement ps = conn.prepareStatement(USER_SQL)) {
+            ps.setString(1, user.getEmail());
+            try (ResultSet rs = ps.executeQuery()) {
+                found = rs.next();
+            }
+        }
+        JournalManager.loadUserProgress(user);
+        JournalManager.getRecentEntries(user);
+        List<String> unlocked = new ArrayList<>();
+        try (Connection conn = DatabaseConnectionPool.getConnection();
+                PreparedStatement ps = conn.prepareStatement(AchievementEngine.LOAD_UNLOCKED_SQL)) {
+            ps.setString(1, user.getEmail());
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    unlocked.add(rs.getString(1));
+                }
+            }
+        }
+        return found;
+    }
+}
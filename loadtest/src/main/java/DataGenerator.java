@@ -0,0 +1,403 @@
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+/**
+ * Fills the configured Postgres with synthetic users and years of journal
+ * history through COPY, so query plans and latencies can be checked at
+ * production scale (see {@link PlanCheck}). Users get individual writing
+ * habits (streaky daily writers to occasional ones, some joining late), a
+ * mood baseline, entry lengths from a few words to several paragraphs, and
+ * matching user_progress (streak calendar, XP, week XP), recent quest
+ * progress and achievements. Every synthetic account is
+ * userNNNNNNN@synthetic.test with password {@value #PASSWORD}; output is
+ * deterministic for a given --seed.
+ *
+ * <pre>
+ * --users 15000      accounts; with the default habits 15000 x 3 years is about 10M entries
+ * --years 3          days of history per account, ending today
+ * --workers 4        parallel COPY connections
+ * --seed 42
+ * --replace false    delete existing synthetic accounts first (otherwise refuse to run)
+ * </pre>
+ */
+public class DataGenerator {
+
+    static final String DOMAIN = "@synthetic.test";
+    static final String PASSWORD = "synthetic-password";
+    private static final int CHUNK_USERS = 250; // accounts per COPY round
+    private static final int FLUSH_CHARS = 1 << 20;
+
+    private static final String[] MOODS = { null, "Very Negative", "Negative", "Neutral", "Positive",
+            "Very Positive" };
+    private static final String[] CITIES = { "Kuala Lumpur", "Petaling Jaya", "Penang", "Johor Bahru", "Ipoh",
+            "Kuching", "Kota Kinabalu", "Melaka", "Singapore", "London", "Berlin", "Toronto" };
+    private static final String[] WEATHER = { "Clear Sky", "Partly Cloudy", "Cloudy", "Foggy", "Drizzle", "Showers",
+            "Rain", "Thunderstorms", "Cerah", "Mendung", "Hujan" };
+    private static final String[] WORDS = ("today i felt really quite tired happy busy calm anxious grateful "
+            + "work meeting project deadline friend family dinner lunch coffee walk run gym rain sun morning evening "
+            + "night sleep read book movie music call message plan weekend class exam study code bug fixed shipped "
+            + "talked laughed cooked cleaned travelled waited thought about the a and but so because with after before "
+            + "finally again still not very much more little long short good bad better worse than usual")
+            .split(" ");
+
+    private final int users;
+    private final LocalDate first;
+    private final LocalDate today = LocalDate.now();
+    private final long seed;
+    private final String passwordHash;
+    private final LocalDate weekStart = Leaderboard.currentWeekStart();
+
+    private final AtomicLong usersDone = new AtomicLong();
+    private final AtomicLong entries = new AtomicLong();
+    private final AtomicLong otherRows = new AtomicLong();
+    private final AtomicLong chars = new AtomicLong();
+    private final long startNanos = System.nanoTime();
+    private volatile long lastReport = startNanos;
+
+    DataGenerator(int users, int years, long seed, String passwordHash) {
+        this.users = users;
+        this.first = today.minusDays(365L * years - 1);
+        this.seed = seed;
+        this.passwordHash = passwordHash;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("users", "15000");
+        options.put("years", "3");
+        options.put("workers", "4");
+        options.put("seed", "42");
+        options.put("replace", "false");
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        System.out.println("Data generator: " + options);
+        int workers = Integer.parseInt(options.get("workers"));
+        System.setProperty("DB_POOL_SIZE", String.valueOf(workers + 1));
+        DbManager.initializeDatabase();
+
+        try {
+            if (!clearExisting(Boolean.parseBoolean(options.get("replace"))))
+                System.exit(1);
+            // One real hash shared by every account, so they can log in (SoakTest, the app)
+            DataGenerator generator = new DataGenerator(Integer.parseInt(options.get("users")),
+                    Integer.parseInt(options.get("years")), Long.parseLong(options.get("seed")),
+                    PasswordHasher.hash(PASSWORD));
+            generator.run(workers);
+        } finally {
+            DatabaseConnectionPool.close();
+        }
+        System.exit(0);
+    }
+
+    // --- SETUP ---
+    private static boolean clearExisting(boolean replace) throws SQLException {
+        try (Connection conn = DatabaseConnectionPool.getConnection();
+                Statement st = conn.createStatement()) {
+            boolean exists;
+            try (ResultSet rs = st.executeQuery("SELECT 1 FROM users WHERE email LIKE '%" + DOMAIN + "' LIMIT 1")) {
+                exists = rs.next();
+            }
+            if (!exists)
+                return true;
+            if (!replace) {
+                System.out.println("Synthetic accounts already exist; pass --replace true to regenerate them.");
+                return false;
+            }
+            System.out.println("Deleting existing synthetic accounts...");
+            for (String table : new String[] { "user_quest_progress", "user_achievements", "user_progress",
+                    "journals" }) {
+                st.executeUpdate("DELETE FROM " + table + " WHERE user_email LIKE '%" + DOMAIN + "'");
+            }
+            st.executeUpdate("DELETE FROM users WHERE email LIKE '%" + DOMAIN + "'");
+            return true;
+        }
+    }
+
+    static String email(int user) {
+        return String.format("user%07d%s", user, DOMAIN);
+    }
+
+    // --- RUN ---
+    void run(int workers) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        List<Future<?>> chunks = new ArrayList<>();
+        for (int from = 0; from < users; from += CHUNK_USERS) {
+            int start = from;
+            int end = Math.min(users, from + CHUNK_USERS);
+            chunks.add(pool.submit(() -> {
+                copyChunk(start, end);
+                return null;
+            }));
+        }
+        try {
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        report(true);
+
+        System.out.println("Vacuuming and analyzing...");
+        try (Connection conn = DatabaseConnectionPool.getConnection();
+                Statement st = conn.createStatement()) {
+            // Fresh statistics for the planner; the visibility map lets index-only scans skip the heap
+            for (String table : new String[] { "users", "journals", "user_progress", "user_quest_progress",
+                    "user_achievements" }) {
+                st.execute("VACUUM (ANALYZE) " + table);
+            }
+        }
+        System.out.printf("Done in %d s%n", (System.nanoTime() - startNanos) / 1_000_000_000L);
+    }
+
+    // Users first (foreign keys), then their entries; the rows derived from the
+    // entries are buffered and copied once the journal COPY is finished
+    private void copyChunk(int from, int to) throws SQLException {
+        try (Connection conn = DatabaseConnectionPool.getConnection()) {
+            PGConnection pg = conn.unwrap(PGConnection.class);
+            Copy userRows = new Copy(pg, "users (email, display_name, password_hash, start_of_week, "
+                    + "leaderboard_opt_in)");
+            for (int u = from; u < to; u++) {
+                SplittableRandom rng = random(u);
+                userRows.field(email(u)).field("Synthetic User " + u).field(passwordHash)
+                        .field(rng.nextInt(4) == 0 ? "MONDAY" : "SUNDAY").field(rng.nextInt(10) < 3 ? "t" : "f")
+                        .endRow();
+            }
+            userRows.end();
+
+            Copy progress = new Copy(null, "user_progress (user_email, current_streak, total_xp, current_level, "
+                    + "last_journal_date, longest_streak, journal_days, journal_days_base, week_xp, week_start)");
+            Copy quests = new Copy(null, "user_quest_progress (user_email, quest_date, quest_id, progress, "
+                    + "completed_at)");
+            Copy achievements = new Copy(null, "user_achievements (user_email, achievement_id, unlocked_at)");
+            Copy journals = new Copy(pg, "journals (user_email, entry_date, content, weather, mood, mood_score, "
+                    + "mood_confidence, saved_at)");
+            for (int u = from; u < to; u++) {
+                writeUser(u, journals, progress, quests, achievements);
+                usersDone.incrementAndGet();
+                report(false);
+            }
+            journals.end();
+            progress.copyTo(pg);
+            quests.copyTo(pg);
+            achievements.copyTo(pg);
+            otherRows.addAndGet(progress.rows + quests.rows + achievements.rows);
+        }
+    }
+
+    private SplittableRandom random(int user) {
+        return new SplittableRandom(seed * 0x9E3779B97F4A7C15L + user);
+    }
+
+    // --- ONE USER ---
+    private void writeUser(int user, Copy journals, Copy progress, Copy quests, Copy achievements)
+            throws SQLException {
+        SplittableRandom rng = random(user);
+        rng.nextInt(4); // keep in step with the users row
+        rng.nextInt(10);
+        String email = email(user);
+
+        // Habit: occasional, regular or near-daily; 40% sign up somewhere in the first half
+        int kind = rng.nextInt(10);
+        double habit = kind < 2 ? 0.1 + 0.3 * rng.nextDouble()
+                : kind < 7 ? 0.5 + 0.35 * rng.nextDouble() : 0.85 + 0.14 * rng.nextDouble();
+        long span = today.toEpochDay() - first.toEpochDay() + 1;
+        LocalDate joined = rng.nextInt(10) < 4 ? first.plusDays(rng.nextLong(span / 2)) : first;
+        double moodMean = 2.5 + 1.7 * rng.nextDouble();
+        String city = CITIES[rng.nextInt(CITIES.length)];
+
+        List<Long> days = new ArrayList<>();
+        boolean wroteYesterday = false;
+        int xp = 0;
+        int weekXp = 0;
+        for (LocalDate day = joined; !day.isAfter(today); day = day.plusDays(1)) {
+            // Runs: writing yesterday makes writing today likelier, which gives realistic streaks
+            double p = wroteYesterday ? Math.min(0.98, habit + 0.1) : habit * 0.7;
+            wroteYesterday = rng.nextDouble() < p;
+            if (!wroteYesterday)
+                continue;
+            days.add(day.toEpochDay());
+
+            int score = rng.nextInt(30) == 0 ? MoodScale.UNKNOWN
+                    : (int) Math.max(1, Math.min(5, Math.round(moodMean + rng.nextGaussian())));
+            int length = (int) Math.max(10, Math.min(8000, Math.exp(5.5 + 0.9 * rng.nextGaussian())));
+            String content = text(rng, length);
+            int hour = rng.nextInt(3) == 0 ? 7 + rng.nextInt(12) : 19 + rng.nextInt(5);
+            int minute = rng.nextInt(60);
+            String updated = (hour % 12 == 0 ? 12 : hour % 12) + ":" + two(minute) + (hour < 12 ? " AM" : " PM");
+            String stamp = day + " " + two(hour) + ":" + two(minute);
+            journals.field(email).field(day.toString()).field(content)
+                    .field(city + ": " + WEATHER[rng.nextInt(WEATHER.length)] + " (Updated: " + updated + ")")
+                    .field(MOODS[score]).field(score)
+                    .field(score == MoodScale.UNKNOWN ? null : String.valueOf(0.5f + rng.nextFloat() / 2))
+                    .field(stamp + ":" + two(rng.nextInt(60))).endRow();
+            chars.addAndGet(content.length());
+            // Quest rewards (see quest_definitions) are the only XP source here
+            int gained = 50 + (length > 100 ? 100 : 0) + (hour >= 20 ? 150 : 0) + (score >= 4 ? 75 : 0);
+            xp += gained;
+            if (!day.isBefore(weekStart))
+                weekXp += gained;
+
+            // Quest rows only for the last month, as the app writes them day by day
+            if (today.toEpochDay() - day.toEpochDay() < 30) {
+                quests.field(email).field(day.toString()).field("q_entry").field(1).field(stamp).endRow();
+                if (length > 100)
+                    quests.field(email).field(day.toString()).field("q_long").field(1).field(stamp).endRow();
+            }
+        }
+        entries.addAndGet(days.size());
+        if (days.isEmpty())
+            return;
+
+        long[] epochDays = days.stream().mapToLong(Long::longValue).toArray();
+        StreakEngine.JournalDays calendar = StreakEngine.JournalDays.fromEpochDays(epochDays);
+        LocalDate last = LocalDate.ofEpochDay(epochDays[epochDays.length - 1]);
+        progress.field(email).field(calendar.getCurrentStreak(today)).field(xp)
+                .field(GamificationManager.calculateLevel(xp)).field(last.toString())
+                .field(calendar.getLongestStreak()).bytes(calendar.toBytes()).field(calendar.getBaseDay())
+                .field(weekXp).field(weekStart.toString()).endRow();
+
+        achievements.field(email).field("ach_1").field(LocalDate.ofEpochDay(epochDays[0]).toString()).endRow();
+        if (calendar.getLongestStreak() >= 7)
+            achievements.field(email).field("ach_7").field(last.toString()).endRow();
+        if (GamificationManager.calculateLevel(xp) >= 100)
+            achievements.field(email).field("ach_100").field(last.toString()).endRow();
+    }
+
+    private static String text(SplittableRandom rng, int length) {
+        StringBuilder sb = new StringBuilder(length + 16);
+        boolean sentenceStart = true;
+        while (sb.length() < length) {
+            String word = WORDS[rng.nextInt(WORDS.length)];
+            if (sentenceStart) {
+                sb.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+                sentenceStart = false;
+            } else {
+                sb.append(word);
+            }
+            int r = rng.nextInt(40);
+            if (r < 4) {
+                sb.append(r == 0 ? "!" : ".");
+                sb.append(rng.nextInt(12) == 0 ? "\n\n" : " ");
+                sentenceStart = true;
+            } else {
+                sb.append(r < 6 ? ", " : " ");
+            }
+        }
+        return sb.toString().trim();
+    }
+
+    private static String two(int n) {
+        return n < 10 ? "0" + n : String.valueOf(n);
+    }
+
+    private void report(boolean force) {
+        long now = System.nanoTime();
+        if (!force && now - lastReport < 10_000_000_000L)
+            return;
+        lastReport = now;
+        double seconds = Math.max(0.001, (now - startNanos) / 1e9);
+        System.out.printf("users %,d/%,d  entries %,d (%,.0f/s, %,.1f MB text)  other rows %,d%n", usersDone.get(),
+                users, entries.get(), entries.get() / seconds, chars.get() / 1e6, otherRows.get());
+    }
+
+    // --- COPY (text format) ---
+    // Streams rows into COPY ... FROM STDIN in ~1 MB writes when given a
+    // connection; without one it buffers until copyTo()
+    private static class Copy {
+        private final String target;
+        private final StringBuilder sb = new StringBuilder();
+        private CopyIn in;
+        private boolean rowStart = true;
+        long rows;
+
+        Copy(PGConnection pg, String target) throws SQLException {
+            this.target = target;
+            if (pg != null)
+                in = pg.getCopyAPI().copyIn("COPY " + target + " FROM STDIN");
+        }
+
+        Copy field(String value) {
+            separate();
+            if (value == null) {
+                sb.append("\\N");
+                return this;
+            }
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '\\' -> sb.append("\\\\");
+                    case '\t' -> sb.append("\\t");
+                    case '\n' -> sb.append("\\n");
+                    case '\r' -> sb.append("\\r");
+                    default -> sb.append(c);
+                }
+            }
+            return this;
+        }
+
+        Copy field(long value) {
+            separate();
+            sb.append(value);
+            return this;
+        }
+
+        // bytea hex input; the backslash itself is escaped for COPY
+        Copy bytes(byte[] value) {
+            separate();
+            sb.append("\\\\x");
+            for (byte b : value) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return this;
+        }
+
+        private void separate() {
+            if (!rowStart)
+                sb.append('\t');
+            rowStart = false;
+        }
+
+        void endRow() throws SQLException {
+            sb.append('\n');
+            rowStart = true;
+            rows++;
+            if (in != null && sb.length() >= FLUSH_CHARS)
+                flush();
+        }
+
+        private void flush() throws SQLException {
+            byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+            in.writeToCopy(bytes, 0, bytes.length);
+            sb.setLength(0);
+        }
+
+        void end() throws SQLException {
+            flush();
+            in.endCopy();
+        }
+
+        void copyTo(PGConnection pg) throws SQLException {
+            if (rows == 0)
+                return;
+            in = pg.getCopyAPI().copyIn("COPY " + target + " FROM STDIN");
+            end();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local TCP relay that delays every chunk by half the configured round trip
+ * in each direction, so a local Postgres behaves like one behind a remote
+ * pooler. Delays are applied per chunk without throttling bandwidth: data is
+ * read immediately and released once its delay has passed, in order.
+ */
+class LatencyProxy implements AutoCloseable {
+
+    private final ServerSocket server;
+    private final String targetHost;
+    private final int targetPort;
+    private final long oneWayNanos;
+
+    private record Chunk(byte[] data, long due) {
+    }
+
+    private static final Chunk EOF = new Chunk(new byte[0], 0);
+
+    LatencyProxy(String targetHost, int targetPort, int roundTripMillis) throws IOException {
+        this.targetHost = targetHost;
+        this.targetPort = targetPort;
+        this.oneWayNanos = TimeUnit.MILLISECONDS.toNanos(roundTripMillis) / 2;
+        server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread.ofVirtual().name("latency-proxy").start(this::acceptLoop);
+    }
+
+    int getPort() {
+        return server.getLocalPort();
+    }
+
+    private void acceptLoop() {
+        while (!server.isClosed()) {
+            try {
+                Socket client = server.accept();
+                Socket upstream = new Socket(targetHost, targetPort);
+                client.setTcpNoDelay(true);
+                upstream.setTcpNoDelay(true);
+                relay(client, upstream);
+                relay(upstream, client);
+            } catch (IOException e) {
+                if (!server.isClosed())
+                    System.err.println("[LatencyProxy] " + e.getMessage());
+            }
+        }
+    }
+
+    // One reader and one delayed writer per direction
+    private void relay(Socket from, Socket to) throws IOException {
+        InputStream in = from.getInputStream();
+        OutputStream out = to.getOutputStream();
+        BlockingQueue<Chunk> queue = new LinkedBlockingQueue<>();
+        Thread.ofVirtual().start(() -> {
+            byte[] buf = new byte[64 * 1024];
+            try {
+                int n;
+                while ((n = in.read(buf)) > 0) {
+                    queue.add(new Chunk(Arrays.copyOf(buf, n), System.nanoTime() + oneWayNanos));
+                }
+            } catch (IOException ignored) {
+                // peer closed
+            }
+            queue.add(EOF);
+        });
+        Thread.ofVirtual().start(() -> {
+            try {
+                while (true) {
+                    Chunk chunk = queue.take();
+                    if (chunk == EOF)
+                        break;
+                    long wait = chunk.due - System.nanoTime();
+                    if (wait > 0)
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    out.write(chunk.data);
+                    out.flush();
+                }
+            } catch (IOException | InterruptedException ignored) {
+                // peer closed
+            } finally {
+                try {
+                    to.shutdownOutput();
+                } catch (IOException ignored) {
+                }
+            }
+        });
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+    }
+}
@@ -0,0 +1,78 @@
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Latency and error counts for one operation. Recording goes into an
+ * HdrHistogram {@link Recorder} (wait-free, 3 significant digits, up to a
+ * minute), which is drained once per reporting interval and folded into a
+ * run-wide histogram, so both interval and whole-run percentiles are exact
+ * to the histogram's precision.
+ */
+class LatencyStats {
+
+    private static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Recorder recorder = new Recorder(MAX_MICROS, 3);
+    private final Histogram total = new Histogram(MAX_MICROS, 3);
+    private final LongAdder errors = new LongAdder();
+    private Histogram interval;
+    private long intervalErrors;
+    private long reportedErrors;
+    private long errorBase;
+
+    void record(long nanos, boolean ok) {
+        recorder.recordValue(Math.min(MAX_MICROS, Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos))));
+        if (!ok)
+            errors.increment();
+    }
+
+    /** Swaps out the samples since the last call; read them with the interval getters. */
+    synchronized void roll() {
+        interval = recorder.getIntervalHistogram(interval);
+        total.add(interval);
+        long e = errors.sum();
+        intervalErrors = e - reportedErrors;
+        reportedErrors = e;
+    }
+
+    synchronized long intervalCount() {
+        return interval == null ? 0 : interval.getTotalCount();
+    }
+
+    synchronized long intervalErrors() {
+        return intervalErrors;
+    }
+
+    synchronized double intervalMillis(double percentile) {
+        return interval == null || interval.getTotalCount() == 0 ? 0
+                : interval.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    synchronized long totalCount() {
+        return total.getTotalCount();
+    }
+
+    synchronized long totalErrors() {
+        return errors.sum() - errorBase;
+    }
+
+    synchronized double totalMillis(double percentile) {
+        return total.getTotalCount() == 0 ? 0 : total.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    synchronized double maxMillis() {
+        return total.getTotalCount() == 0 ? 0 : total.getMaxValue() / 1000.0;
+    }
+
+    /** Drops everything recorded so far, e.g. at the end of warm-up. */
+    synchronized void reset() {
+        recorder.reset();
+        total.reset();
+        interval = null;
+        intervalErrors = 0;
+        reportedErrors = errors.sum();
+        errorBase = reportedErrors;
+    }
+}
@@ -0,0 +1,199 @@
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-loop load test for JournalServer. Each virtual user registers and
+ * logs in once, then, with its session token, repeatedly saves an entry, lists
+ * entries and reads progress until the run ends. Prints throughput, error
+ * counts and latency percentiles per endpoint.
+ *
+ * <pre>
+ * --url http://localhost:8080   server base URL
+ * --users 1000                  concurrent virtual users
+ * --duration 60                 seconds of measured load
+ * --ramp 10                     seconds over which users start
+ * --think 200                   max random pause between requests (ms)
+ * </pre>
+ */
+public class LoadTest {
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final Map<String, LatencyStats> stats = new LinkedHashMap<>();
+    private volatile boolean measuring;
+    private volatile boolean running = true;
+
+    LoadTest(String baseUrl, int users) {
+        this.baseUrl = baseUrl;
+        this.client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        for (String name : new String[] { "register", "login", "save_entry", "list_entries", "progress" }) {
+            stats.put(name, new LatencyStats());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("url", "http://localhost:8080");
+        options.put("users", "1000");
+        options.put("duration", "60");
+        options.put("ramp", "10");
+        options.put("think", "200");
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+
+        int users = Integer.parseInt(options.get("users"));
+        int duration = Integer.parseInt(options.get("duration"));
+        int ramp = Integer.parseInt(options.get("ramp"));
+        int think = Integer.parseInt(options.get("think"));
+        System.out.println("Load test: " + options);
+
+        LoadTest test = new LoadTest(options.get("url"), users);
+        test.run(users, duration, ramp, think);
+    }
+
+    void run(int users, int durationSeconds, int rampSeconds, int thinkMillis) throws InterruptedException {
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor();
+        for (int i = 0; i < users; i++) {
+            int user = i;
+            long delay = rampSeconds * 1000L * i / Math.max(1, users);
+            pool.submit(() -> {
+                Thread.sleep(delay);
+                virtualUser("lt-" + runId + "-" + user + "@loadtest.local", thinkMillis);
+                return null;
+            });
+        }
+
+        // Warm-up is the ramp; only steady state is measured
+        Thread.sleep(rampSeconds * 1000L);
+        measuring = true;
+        long start = System.nanoTime();
+        Thread.sleep(durationSeconds * 1000L);
+        measuring = false;
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        running = false;
+        pool.shutdown();
+        pool.awaitTermination(30, TimeUnit.SECONDS);
+
+        report(elapsed);
+    }
+
+    private void virtualUser(String email, int thinkMillis) {
+        String password = "loadtest-password";
+        String basic = "Basic " + Base64.getEncoder()
+                .encodeToString((email + ":" + password).getBytes(StandardCharsets.UTF_8));
+
+        JsonObject registration = new JsonObject();
+        registration.addProperty("email", email);
+        registration.addProperty("displayName", "Load " + email.hashCode());
+        registration.addProperty("password", password);
+        call("register", post("/api/register", registration.toString(), null));
+
+        // Credentials are checked once; every later request carries the session token
+        String token = login(post("/api/login", "{}", basic));
+        if (token == null)
+            return;
+        String auth = "Bearer " + token;
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (running) {
+            JsonObject entry = new JsonObject();
+            entry.addProperty("date", LocalDate.now().minusDays(random.nextInt(365)).toString());
+            entry.addProperty("content", "Load test entry " + random.nextLong() + " ".repeat(random.nextInt(400)));
+            entry.addProperty("weather", "Clear");
+            call("save_entry", post("/api/entries", entry.toString(), auth));
+            pause(thinkMillis);
+            call("list_entries", get("/api/entries", auth));
+            pause(thinkMillis);
+            call("progress", get("/api/progress", auth));
+            pause(thinkMillis);
+        }
+    }
+
+    private String login(HttpRequest request) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            boolean ok = response.statusCode() == 200;
+            stats.get("login").record(System.nanoTime() - start, ok);
+            return ok ? JsonParser.parseString(response.body()).getAsJsonObject().get("token").getAsString() : null;
+        } catch (Exception e) {
+            stats.get("login").record(System.nanoTime() - start, false);
+            return null;
+        }
+    }
+
+    private HttpRequest get(String path, String auth) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).header("Authorization", auth)
+                .timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    private HttpRequest post(String path, String json, String auth) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (auth != null)
+            builder.header("Authorization", auth);
+        return builder.build();
+    }
+
+    private void call(String name, HttpRequest request) {
+        long start = System.nanoTime();
+        boolean ok;
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            ok = response.statusCode() < 400 || (name.equals("register") && response.statusCode() == 409);
+        } catch (Exception e) {
+            ok = false;
+        }
+        if (measuring || name.equals("register"))
+            stats.get(name).record(System.nanoTime() - start, ok);
+    }
+
+    private static void pause(int maxMillis) {
+        if (maxMillis <= 0)
+            return;
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextInt(maxMillis));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void report(double seconds) {
+        System.out.printf("%n%-14s %9s %8s %9s %8s %8s %8s %8s%n", "endpoint", "requests", "errors", "req/s",
+                "p50", "p95", "p99", "p99.9");
+        long total = 0;
+        for (Map.Entry<String, LatencyStats> e : stats.entrySet()) {
+            LatencyStats s = e.getValue();
+            s.roll();
+            long n = s.totalCount();
+            boolean setup = e.getKey().equals("register") || e.getKey().equals("login");
+            if (!setup)
+                total += n;
+            System.out.printf("%-14s %9d %8d %9.1f %6.1fms %6.1fms %6.1fms %6.1fms%n", e.getKey(), n,
+                    s.totalErrors(), setup ? 0.0 : n / seconds, s.totalMillis(50), s.totalMillis(95),
+                    s.totalMillis(99), s.totalMillis(99.9));
+        }
+        System.out.printf("%nSteady state: %.1f req/s over %.0f s%n", total / seconds, seconds);
+    }
+}
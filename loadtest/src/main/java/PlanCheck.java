@@ -0,0 +1,327 @@
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Query-plan regression suite. Runs every JournalManager and
+ * GamificationManager query (including the quest and achievement queries
+ * GamificationManager delegates to) under {@code EXPLAIN (ANALYZE, BUFFERS)}
+ * against a large dataset, usually one made by {@link DataGenerator}, and
+ * fails when a plan sequentially scans a per-user table or a query's median
+ * execution time is over its budget. Writes run inside a transaction that is
+ * rolled back. Each query is named after its Metrics timer, and its SQL is
+ * the constant the manager itself executes.
+ *
+ * <pre>
+ * --runs 5                 EXPLAIN ANALYZE runs per query (after one warm-up); the median is checked
+ * --budgets name=ms,...    override per-query budgets, e.g. JournalManager.getWeeklyStats=2
+ * --min-rows 10000000      refuse to run on a smaller journals table (the budgets assume 10M rows)
+ * --user EMAIL             account to query (default: a synthetic account from the middle)
+ * --out DIR                also write each plan as DIR/name.json
+ * </pre>
+ *
+ * Exits 2 if any query regressed, 1 if the check could not run.
+ */
+public class PlanCheck {
+
+    // Catalogue tables are a handful of rows; a sequential scan there is the right plan
+    private static final Set<String> SMALL_TABLES = Set.of("quest_definitions", "achievement_definitions");
+
+    @FunctionalInterface
+    interface Binder {
+        void bind(PreparedStatement ps) throws SQLException;
+    }
+
+    record Query(String name, String sql, double budgetMillis, Binder binder) {
+    }
+
+    record Result(Query query, double medianMillis, long sharedHit, long sharedRead, List<String> scans,
+            List<String> seqScans, JsonElement plan) {
+        boolean slow() {
+            return medianMillis > query.budgetMillis;
+        }
+
+        boolean failed() {
+            return slow() || !seqScans.isEmpty();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("runs", "5");
+        options.put("min-rows", "10000000");
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        System.out.println("Plan check: " + options);
+        System.setProperty("DB_POOL_SIZE", "2");
+
+        int exit;
+        try (Connection conn = DatabaseConnectionPool.getConnection()) {
+            exit = run(conn, options);
+        } finally {
+            DatabaseConnectionPool.close();
+        }
+        System.exit(exit);
+    }
+
+    private static int run(Connection conn, Map<String, String> options) throws SQLException, IOException {
+        long rows = estimatedRows(conn, "journals");
+        long minRows = Long.parseLong(options.get("min-rows"));
+        System.out.printf("journals: ~%,d rows%n", rows);
+        if (rows < minRows) {
+            System.out.printf("The budgets assume at least %,d journal rows. Run DataGenerator first, "
+                    + "or pass --min-rows 0 to check plans on this dataset anyway.%n", minRows);
+            return 1;
+        }
+
+        String email = options.containsKey("user") ? options.get("user") : pickUser(conn);
+        if (email == null) {
+            System.out.println("No account to query; pass --user EMAIL.");
+            return 1;
+        }
+        LocalDate lastEntry = lastEntry(conn, email);
+        System.out.println("Querying as " + email + ", last entry " + lastEntry);
+
+        List<Query> queries = queries(email, lastEntry);
+        applyBudgets(queries, options.get("budgets"));
+        Path out = options.containsKey("out") ? Path.of(options.get("out")) : null;
+        if (out != null)
+            Files.createDirectories(out);
+
+        int runs = Math.max(1, Integer.parseInt(options.get("runs")));
+        List<Result> results = new ArrayList<>();
+        for (Query query : queries) {
+            Result result = check(conn, query, runs);
+            results.add(result);
+            if (out != null)
+                Files.writeString(out.resolve(query.name + ".json"),
+                        new GsonBuilder().setPrettyPrinting().create().toJson(result.plan));
+        }
+        return print(results);
+    }
+
+    // --- QUERIES ---
+    private static List<Query> queries(String email, LocalDate day) {
+        List<Query> q = new ArrayList<>();
+        q.add(new Query("JournalManager.saveJournal", JournalManager.SAVE_JOURNAL_SQL, 10, ps -> {
+            ps.setString(1, email);
+            ps.setDate(2, Date.valueOf(day)); // an existing day, so the conflict/update path runs
+            ps.setString(3, "Plan check entry");
+            ps.setString(4, "Kuala Lumpur: Cloudy (Updated: 9:00 PM)");
+            ps.setString(5, "Positive");
+            ps.setShort(6, (short) MoodScale.POSITIVE);
+            ps.setFloat(7, 0.9f);
+        }));
+        q.add(new Query("JournalManager.saveUserProgress", JournalManager.SAVE_PROGRESS_SQL, 10, ps -> {
+            ps.setString(1, email);
+            for (int i = 0; i < 2; i++) {
+                ps.setInt(2 + 3 * i, 3);
+                ps.setInt(3 + 3 * i, 1500);
+                ps.setInt(4 + 3 * i, 4);
+            }
+        }));
+        q.add(new Query("JournalManager.addUserProgress", JournalManager.SAVE_PROGRESS_DAYS_SQL, 10,
+                ps -> {
+                    StreakEngine.JournalDays days = StreakEngine.JournalDays
+                            .fromEpochDays(new long[] { day.toEpochDay() - 1, day.toEpochDay() });
+                    ps.setString(1, email);
+                    ps.setInt(2, 2);
+                    ps.setInt(3, 60);
+                    ps.setInt(4, 1);
+                    ps.setInt(5, days.getLongestStreak());
+                    ps.setBytes(6, days.toBytes());
+                    ps.setInt(7, (int) days.getBaseDay());
+                    ps.setInt(8, 60);
+                    ps.setDate(9, Date.valueOf(Leaderboard.currentWeekStart()));
+                }));
+        q.add(new Query("JournalManager.getRecentEntries", JournalManager.RECENT_ENTRIES_SQL, 5,
+                ps -> ps.setString(1, email)));
+        q.add(new Query("JournalManager.getWeeklyStats", JournalManager.WEEKLY_STATS_SQL, 5, ps -> {
+            ps.setString(1, email);
+            ps.setDate(2, Date.valueOf(day.minusDays(6)));
+            ps.setDate(3, Date.valueOf(day));
+        }));
+        q.add(new Query("JournalManager.loadUserProgress", JournalManager.LOAD_PROGRESS_SQL, 2,
+                ps -> ps.setString(1, email)));
+        q.add(new Query("JournalManager.loadSessionBootstrap", JournalManager.BOOTSTRAP_SQL, 10, ps -> {
+            for (int i = 1; i <= 4; i++) {
+                ps.setString(i, email);
+            }
+        }));
+        q.add(new Query("JournalManager.isEmailTaken", JournalManager.EMAIL_TAKEN_SQL, 2,
+                ps -> ps.setString(1, email)));
+        q.add(new Query("GamificationManager.grantXp", GamificationManager.GRANT_XP_SQL, 5, ps -> {
+            ps.setInt(1, 50);
+            ps.setString(2, email);
+        }));
+        q.add(new Query("QuestEngine.loadProgress", QuestEngine.LOAD_PROGRESS_SQL, 2, ps -> {
+            ps.setString(1, email);
+            ps.setDate(2, Date.valueOf(day));
+        }));
+        q.add(new Query("QuestEngine.saveProgress", QuestEngine.UPSERT_SQL, 10, ps -> {
+            ps.setString(1, email);
+            ps.setDate(2, Date.valueOf(day));
+            ps.setArray(3, ps.getConnection().createArrayOf("varchar", new String[] { "q_entry", "q_long" }));
+            ps.setArray(4, ps.getConnection().createArrayOf("int4", new Integer[] { 1, 1 }));
+            ps.setArray(5, ps.getConnection().createArrayOf("bool", new Boolean[] { true, true }));
+        }));
+        q.add(new Query("AchievementEngine.loadUnlocked", AchievementEngine.LOAD_UNLOCKED_SQL, 2,
+                ps -> ps.setString(1, email)));
+        q.add(new Query("AchievementEngine.saveUnlocked", AchievementEngine.SAVE_UNLOCKED_SQL, 5, ps -> {
+            ps.setString(1, email);
+            ps.setArray(2, ps.getConnection().createArrayOf("varchar", new String[] { "ach_1", "ach_7" }));
+        }));
+        return q;
+    }
+
+    private static void applyBudgets(List<Query> queries, String spec) {
+        if (spec == null)
+            return;
+        for (String part : spec.split(",")) {
+            String[] kv = part.split("=");
+            if (kv.length != 2)
+                throw new IllegalArgumentException("--budgets expects name=ms, got " + part);
+            boolean found = false;
+            for (int i = 0; i < queries.size(); i++) {
+                Query q = queries.get(i);
+                if (q.name.equals(kv[0].trim())) {
+                    queries.set(i, new Query(q.name, q.sql, Double.parseDouble(kv[1].trim()), q.binder));
+                    found = true;
+                }
+            }
+            if (!found)
+                throw new IllegalArgumentException("--budgets: no query named " + kv[0]);
+        }
+    }
+
+    // --- EXPLAIN ---
+    private static Result check(Connection conn, Query query, int runs) throws SQLException {
+        double[] times = new double[runs];
+        JsonObject last = null;
+        for (int run = -1; run < runs; run++) { // run -1 warms the cache and is not counted
+            last = explain(conn, query);
+            if (run >= 0)
+                times[run] = last.get("Execution Time").getAsDouble();
+        }
+        Arrays.sort(times);
+        JsonObject plan = last.getAsJsonObject("Plan");
+        List<String> scans = new ArrayList<>();
+        List<String> seqScans = new ArrayList<>();
+        collectScans(plan, scans, seqScans);
+        return new Result(query, times[runs / 2], blocks(plan, "Shared Hit Blocks"),
+                blocks(plan, "Shared Read Blocks"), scans, seqScans, last);
+    }
+
+    private static JsonObject explain(Connection conn, Query query) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false); // ANALYZE really executes; writes are rolled back below
+        try (PreparedStatement ps = conn.prepareStatement("EXPLAIN (ANALYZE, BUFFERS, FORMAT JSON) " + query.sql)) {
+            query.binder.bind(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return JsonParser.parseString(rs.getString(1)).getAsJsonArray().get(0).getAsJsonObject();
+            }
+        } finally {
+            conn.rollback();
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static long blocks(JsonObject node, String key) {
+        return node.has(key) ? node.get(key).getAsLong() : 0;
+    }
+
+    // Every relation access in the plan tree, e.g. "Index Scan journals_pkey on journals"
+    private static void collectScans(JsonObject node, List<String> scans, List<String> seqScans) {
+        String type = node.get("Node Type").getAsString();
+        if (node.has("Relation Name")) {
+            String relation = node.get("Relation Name").getAsString();
+            String index = node.has("Index Name") ? " " + node.get("Index Name").getAsString() : "";
+            scans.add(type + index + " on " + relation);
+            if (type.equals("Seq Scan") && !SMALL_TABLES.contains(relation))
+                seqScans.add(relation);
+        }
+        if (node.has("Plans")) {
+            JsonArray children = node.getAsJsonArray("Plans");
+            for (JsonElement child : children) {
+                collectScans(child.getAsJsonObject(), scans, seqScans);
+            }
+        }
+    }
+
+    // --- DATASET ---
+    private static long estimatedRows(Connection conn, String table) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT GREATEST(reltuples, 0)::bigint FROM pg_class WHERE oid = to_regclass(?)")) {
+            ps.setString(1, table);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    static String pickUser(Connection conn) throws SQLException {
+        String sql = "SELECT email FROM users WHERE email LIKE ? ORDER BY email "
+                + "OFFSET (SELECT count(*) / 2 FROM users WHERE email LIKE ?) LIMIT 1";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, "%" + DataGenerator.DOMAIN);
+            ps.setString(2, "%" + DataGenerator.DOMAIN);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+
+    private static LocalDate lastEntry(Connection conn, String email) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT max(entry_date) FROM journals WHERE user_email = ?")) {
+            ps.setString(1, email);
+            try (ResultSet rs = ps.executeQuery()) {
+                Date date = rs.next() ? rs.getDate(1) : null;
+                return date == null ? LocalDate.now() : date.toLocalDate();
+            }
+        }
+    }
+
+    // --- REPORT ---
+    private static int print(List<Result> results) {
+        System.out.printf("%n%-40s %9s %9s %8s %8s  %-6s %s%n", "query", "median ms", "budget", "hit", "read",
+                "status", "access paths");
+        int failed = 0;
+        for (Result r : results) {
+            String status = !r.seqScans.isEmpty() ? "SEQ" : r.slow() ? "SLOW" : "ok";
+            if (r.failed())
+                failed++;
+            System.out.printf("%-40s %9.3f %9.1f %8d %8d  %-6s %s%n", r.query.name, r.medianMillis,
+                    r.query.budgetMillis, r.sharedHit, r.sharedRead, status, String.join(", ", r.scans));
+        }
+        System.out.println();
+        for (Result r : results) {
+            if (!r.seqScans.isEmpty())
+                System.out.println("FAIL " + r.query.name + ": sequential scan on " + String.join(", ", r.seqScans));
+            if (r.slow())
+                System.out.printf("FAIL %s: median %.3f ms over the %.1f ms budget%n", r.query.name, r.medianMillis,
+                        r.query.budgetMillis);
+        }
+        System.out.println(failed == 0 ? "All " + results.size() + " query plans within budget."
+                : failed + " of " + results.size() + " queries regressed.");
+        return failed == 0 ? 0 : 2;
+    }
+}
@@ -0,0 +1,346 @@
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process soak test: virtual users drive the same code paths as the
+ * desktop app (UserManager, JournalService.saveEntry behind
+ * SmartJournal.processEntry, JournalManager reads, summaries, weather)
+ * against the configured Postgres, with AI and weather calls answered by a
+ * local {@link StubServer}. Every interval it prints throughput, error rate,
+ * latency percentiles, connection-pool saturation and heap; at the end, a
+ * per-operation table for the whole measured run.
+ *
+ * <pre>
+ * --users 500                   concurrent virtual users
+ * --duration 600                seconds of measured load (after the ramp)
+ * --ramp 30                     seconds over which users start; not measured
+ * --think 500                   mean pause between operations (ms, uniform 0..2x)
+ * --interval 10                 seconds between progress lines
+ * --mix save=40,list=25,...     relative weights of save, list, progress, open, login, summary, weather
+ * --ai-latency 100              stub mood latency (ms); summaries take 5x
+ * --pool 50                     DB_POOL_SIZE for this run (default: from .env / environment)
+ * --ai-quotas off               keep the app's AI rate limits (on) or lift them (off)
+ * </pre>
+ */
+public class SoakTest {
+
+    private static final String[] OPERATIONS = { "save", "list", "progress", "open", "login", "summary", "weather" };
+    private static final String DEFAULT_MIX = "save=40,list=25,progress=15,open=10,login=5,summary=3,weather=2";
+    private static final String PASSWORD = "soak-password";
+
+    private final Map<String, LatencyStats> stats = new LinkedHashMap<>();
+    private final LatencyStats all = new LatencyStats();
+    private final LatencyStats setup = new LatencyStats();
+    private final String[] wheel; // operation per weight unit
+    private final PoolSampler pool = new PoolSampler();
+    private volatile boolean running = true;
+
+    SoakTest(Map<String, Integer> mix) {
+        List<String> slots = new ArrayList<>();
+        for (String op : OPERATIONS) {
+            stats.put(op, new LatencyStats());
+            for (int i = 0; i < mix.getOrDefault(op, 0); i++) {
+                slots.add(op);
+            }
+        }
+        if (slots.isEmpty())
+            throw new IllegalArgumentException("--mix selects no operations");
+        wheel = slots.toArray(new String[0]);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("users", "500");
+        options.put("duration", "600");
+        options.put("ramp", "30");
+        options.put("think", "500");
+        options.put("interval", "10");
+        options.put("mix", DEFAULT_MIX);
+        options.put("ai-latency", "100");
+        options.put("ai-quotas", "off");
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        System.out.println("Soak test: " + options);
+
+        // Settings must be in place before the app classes read them
+        StubServer stub = StubServer.start(Integer.parseInt(options.get("ai-latency")));
+        if (options.containsKey("pool"))
+            System.setProperty("DB_POOL_SIZE", options.get("pool"));
+        if ("off".equals(options.get("ai-quotas"))) {
+            for (String key : new String[] { "AI_MOOD_RPM", "AI_MOOD_USER_RPM", "AI_SUMMARY_RPM",
+                    "AI_SUMMARY_USER_RPM" }) {
+                System.setProperty(key, "1000000");
+            }
+        }
+        DbManager.initializeDatabase();
+
+        SoakTest test = new SoakTest(parseMix(options.get("mix")));
+        try {
+            test.run(Integer.parseInt(options.get("users")), Integer.parseInt(options.get("duration")),
+                    Integer.parseInt(options.get("ramp")), Integer.parseInt(options.get("think")),
+                    Integer.parseInt(options.get("interval")));
+        } finally {
+            stub.stop();
+            DatabaseConnectionPool.close();
+        }
+        System.exit(0);
+    }
+
+    static Map<String, Integer> parseMix(String spec) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String part : spec.split(",")) {
+            String[] kv = part.trim().split("=");
+            if (kv.length != 2 || !List.of(OPERATIONS).contains(kv[0].trim()))
+                throw new IllegalArgumentException("Bad --mix entry: " + part);
+            mix.put(kv[0].trim(), Integer.parseInt(kv[1].trim()));
+        }
+        return mix;
+    }
+
+    void run(int users, int durationSeconds, int rampSeconds, int thinkMillis, int intervalSeconds)
+            throws InterruptedException {
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(pool::sample, 0, 100, TimeUnit.MILLISECONDS);
+
+        ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+        AtomicInteger started = new AtomicInteger();
+        for (int i = 0; i < users; i++) {
+            int n = i;
+            long delay = rampSeconds * 1000L * i / Math.max(1, users);
+            workers.submit(() -> {
+                Thread.sleep(delay);
+                virtualUser("soak-" + runId + "-" + n + "@loadtest.local", thinkMillis, started);
+                return null;
+            });
+        }
+
+        Thread.sleep(rampSeconds * 1000L);
+        System.out.printf("Ramp done: %d/%d users signed in, setup p50 %.1f ms p99 %.1f ms, %d errors%n",
+                started.get(), users, rollAndGet(setup, 50), setup.totalMillis(99), setup.totalErrors());
+        for (LatencyStats s : stats.values()) {
+            s.reset();
+        }
+        all.reset();
+        pool.reset();
+
+        System.out.printf("%n%8s %9s %8s %8s %8s %8s %11s %8s %8s%n", "time", "ops/s", "err%", "p50", "p95", "p99",
+                "pool act", "waiting", "heap MB");
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+        long next = start;
+        while ((next += TimeUnit.SECONDS.toNanos(intervalSeconds)) <= end) {
+            TimeUnit.NANOSECONDS.sleep(next - System.nanoTime());
+            printInterval(intervalSeconds, (System.nanoTime() - start) / 1e9);
+        }
+        TimeUnit.NANOSECONDS.sleep(Math.max(0, end - System.nanoTime()));
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        running = false;
+        workers.shutdown();
+        workers.awaitTermination(30, TimeUnit.SECONDS);
+        sampler.shutdownNow();
+        report(elapsed);
+    }
+
+    // --- VIRTUAL USER ---
+    private void virtualUser(String email, int thinkMillis, AtomicInteger started) {
+        User user = signIn(email);
+        if (user == null)
+            return;
+        started.incrementAndGet();
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (running) {
+            String op = wheel[random.nextInt(wheel.length)];
+            long t0 = System.nanoTime();
+            boolean ok;
+            try {
+                ok = execute(op, user, random);
+            } catch (Exception e) {
+                ok = false;
+            }
+            long nanos = System.nanoTime() - t0;
+            stats.get(op).record(nanos, ok);
+            all.record(nanos, ok);
+            pause(thinkMillis <= 0 ? 0 : random.nextInt(2 * thinkMillis));
+        }
+    }
+
+    // Registration and first login hash passwords; retry briefly if the hasher sheds load
+    private User signIn(String email) {
+        UserManager users = new UserManager();
+        for (int attempt = 0; attempt < 10 && running; attempt++) {
+            long t0 = System.nanoTime();
+            try {
+                try {
+                    users.register(email, "Soak " + email.hashCode(), PASSWORD);
+                } catch (IllegalArgumentException alreadyRegistered) {
+                    // reruns with the same id
+                }
+                User user = users.login(email, PASSWORD);
+                setup.record(System.nanoTime() - t0, user != null);
+                if (user != null)
+                    return user;
+            } catch (RuntimeException e) {
+                setup.record(System.nanoTime() - t0, false);
+            }
+            pause(500 * (attempt + 1));
+        }
+        return null;
+    }
+
+    // "ok" means no exception and a usable result; the managers log and swallow SQL errors
+    private static boolean execute(String op, User user, ThreadLocalRandom random) throws SQLException {
+        switch (op) {
+            case "save": {
+                LocalDate date = LocalDate.now().minusDays(random.nextInt(60));
+                String text = "Soak entry " + random.nextLong() + " " + "lorem ipsum ".repeat(random.nextInt(60));
+                JournalService.SaveResult result = JournalService.saveEntry(user, date, text, "Clear",
+                        LocalDateTime.now());
+                return result != null && MoodScale.isKnown(result.entry.getMoodScore());
+            }
+            case "list":
+                return JournalManager.getRecentEntries(user) != null;
+            case "progress":
+                return JournalManager.loadUserProgress(user) != null;
+            case "open":
+                return JournalManager.loadSessionBootstrap(user) != null;
+            case "login":
+                return new UserManager().login(user.getEmail(), PASSWORD) != null;
+            case "summary": {
+                LocalDate end = LocalDate.now();
+                String summary = SummaryGenerator.generate(user, JournalManager.getWeeklyStats(user,
+                        end.minusDays(6), end), true);
+                return summary != null && !summary.startsWith("Error") && !summary.startsWith("Could not");
+            }
+            case "weather": {
+                String weather = WeatherManager.getCurrentWeather(true);
+                return weather != null && weather.contains("Updated");
+            }
+            default:
+                throw new IllegalArgumentException(op);
+        }
+    }
+
+    private static void pause(int millis) {
+        if (millis <= 0)
+            return;
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // --- POOL SATURATION ---
+    static class PoolSampler {
+        private int samples;
+        private int saturatedSamples;
+        private int maxActive;
+        private int maxWaiting;
+        private int totalSamples;
+        private int totalSaturated;
+        private int peakWaiting;
+
+        synchronized void sample() {
+            int active = DatabaseConnectionPool.getActiveConnections();
+            int waiting = DatabaseConnectionPool.getThreadsAwaitingConnection();
+            samples++;
+            totalSamples++;
+            if (waiting > 0) {
+                saturatedSamples++;
+                totalSaturated++;
+            }
+            maxActive = Math.max(maxActive, active);
+            maxWaiting = Math.max(maxWaiting, waiting);
+            peakWaiting = Math.max(peakWaiting, waiting);
+        }
+
+        /** Max active, max waiting and % of samples with waiters since the last call. */
+        synchronized int[] roll() {
+            int[] window = { maxActive, maxWaiting, samples == 0 ? 0 : 100 * saturatedSamples / samples };
+            samples = saturatedSamples = maxActive = maxWaiting = 0;
+            return window;
+        }
+
+        synchronized void reset() {
+            roll();
+            totalSamples = totalSaturated = peakWaiting = 0;
+        }
+
+        synchronized double saturatedPercent() {
+            return totalSamples == 0 ? 0 : 100.0 * totalSaturated / totalSamples;
+        }
+
+        synchronized int peakWaiting() {
+            return peakWaiting;
+        }
+    }
+
+    // --- REPORTING ---
+    private static double rollAndGet(LatencyStats s, double percentile) {
+        s.roll();
+        return s.totalMillis(percentile);
+    }
+
+    private void printInterval(int intervalSeconds, double elapsed) {
+        for (LatencyStats s : stats.values()) {
+            s.roll();
+        }
+        all.roll();
+        long n = all.intervalCount();
+        int[] window = pool.roll();
+        Runtime rt = Runtime.getRuntime();
+        System.out.printf("%7.0fs %9.1f %7.2f%% %6.1fms %6.1fms %6.1fms %6d/%-4d %8d %8d%n", elapsed,
+                (double) n / intervalSeconds, n == 0 ? 0.0 : 100.0 * all.intervalErrors() / n,
+                all.intervalMillis(50), all.intervalMillis(95), all.intervalMillis(99), window[0],
+                DatabaseConnectionPool.getMaximumPoolSize(), window[1], (rt.totalMemory() - rt.freeMemory()) >> 20);
+    }
+
+    private void report(double seconds) {
+        for (LatencyStats s : stats.values()) {
+            s.roll();
+        }
+        all.roll();
+        System.out.printf("%nFinished at %s after %.0f s measured%n",
+                LocalTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss")), seconds);
+        System.out.printf("%n%-10s %9s %8s %9s %8s %8s %8s %8s %8s%n", "operation", "count", "errors", "ops/s",
+                "p50", "p95", "p99", "p99.9", "max");
+        for (Map.Entry<String, LatencyStats> e : stats.entrySet()) {
+            printRow(e.getKey(), e.getValue(), seconds);
+        }
+        printRow("all", all, seconds);
+        System.out.printf("%nPool: max %d connections, waiters seen in %.1f%% of samples, peak %d waiting%n",
+                DatabaseConnectionPool.getMaximumPoolSize(), pool.saturatedPercent(), pool.peakWaiting());
+        System.out.printf("Password hashing: %d hashes, mean %.1f ms, %d shed%n", PasswordHasher.getHashCount(),
+                PasswordHasher.getMeanHashMillis(), PasswordHasher.getRejectedCount());
+        for (RateLimiter.Stats s : RateLimiter.getStats()) {
+            System.out.printf("AI quota %-8s granted %d, delayed %d (mean %.0f ms), throttled %d%n", s.upstream,
+                    s.granted, s.delayed, s.meanWaitMillis, s.throttled);
+        }
+    }
+
+    private static void printRow(String name, LatencyStats s, double seconds) {
+        long n = s.totalCount();
+        if (n == 0)
+            return;
+        System.out.printf("%-10s %9d %8d %9.1f %6.1fms %6.1fms %6.1fms %6.1fms %6.0fms%n", name, n, s.totalErrors(),
+                n / seconds, s.totalMillis(50), s.totalMillis(95), s.totalMillis(99), s.totalMillis(99.9),
+                s.maxMillis());
+    }
+}
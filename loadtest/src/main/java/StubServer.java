@@ -0,0 +1,118 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Stand-ins for Hugging Face, Gemini, IP2Location and Open-Meteo with a
+ * configurable, jittered latency, so load tests measure our backend rather
+ * than someone else's rate limits. Responses are shaped exactly like the
+ * real ones as far as the app's parsers are concerned.
+ *
+ * <p>Run standalone ({@code StubServer [port] [aiLatencyMs]}) and point a
+ * JournalServer at it with the printed properties, or use {@link #start}
+ * in-process.
+ */
+public class StubServer {
+
+    private static final String[] MOODS = { "Very Negative", "Negative", "Neutral", "Positive", "Very Positive" };
+
+    private final HttpServer server;
+    private final int aiLatencyMillis;
+
+    private StubServer(int port, int aiLatencyMillis) throws IOException {
+        this.aiLatencyMillis = aiLatencyMillis;
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 1024);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/mood", exchange -> respond(exchange, aiLatencyMillis, moodJson()));
+        server.createContext("/summary", exchange -> respond(exchange, aiLatencyMillis * 5,
+                "{\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"**Your Weekly Vibe Check**\\n"
+                        + "A steady week with a few bright moments.\"}]}}]}"));
+        server.createContext("/ip", exchange -> respond(exchange, 20,
+                "{\"ip\":\"127.0.0.1\",\"city_name\":\"Kuala Lumpur\",\"latitude\":3.1412,\"longitude\":101.6865}"));
+        server.createContext("/weather", exchange -> respond(exchange, 20,
+                "{\"current_weather\":{\"time\":\"2026-01-01T12:00\",\"temperature\":31.0,\"weathercode\":2}}"));
+    }
+
+    /** Starts on an ephemeral port and points the app's endpoint settings at it. */
+    public static StubServer start(int aiLatencyMillis) throws IOException {
+        StubServer stub = new StubServer(0, aiLatencyMillis);
+        stub.server.start();
+        stub.configure();
+        return stub;
+    }
+
+    // System properties are read by EnvLoader before .env and the environment
+    void configure() {
+        for (String[] kv : properties()) {
+            System.setProperty(kv[0], kv[1]);
+        }
+    }
+
+    String[][] properties() {
+        String base = "http://127.0.0.1:" + server.getAddress().getPort();
+        return new String[][] {
+                { "MOOD_API_URL", base + "/mood" },
+                { "SUMMARY_API_URL", base + "/summary" },
+                { "IP2LOCATION_API_URL", base + "/ip?" },
+                { "WEATHER_API_URL", base + "/weather" },
+                { "GEMINI_API_KEY", "stub" },
+                { "IP2LOCATION_KEY", "stub" },
+        };
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    private static String moodJson() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int best = random.nextInt(MOODS.length);
+        StringBuilder json = new StringBuilder("[[");
+        json.append("{\"label\":\"").append(MOODS[best]).append("\",\"score\":0.81}");
+        for (int i = 0; i < MOODS.length; i++) {
+            if (i != best)
+                json.append(",{\"label\":\"").append(MOODS[i]).append("\",\"score\":0.0").append(i + 1).append('}');
+        }
+        return json.append("]]").toString();
+    }
+
+    private static void respond(HttpExchange exchange, int latencyMillis, String json) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        if (latencyMillis > 0) {
+            // +-50% jitter around the configured latency
+            int jitter = ThreadLocalRandom.current().nextInt(latencyMillis + 1);
+            try {
+                Thread.sleep(latencyMillis / 2 + jitter);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+        exchange.close();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8090;
+        int latency = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        StubServer stub = new StubServer(port, latency);
+        stub.server.start();
+        System.out.println("Stub AI / weather endpoints on port " + port + ", AI latency ~" + latency
+                + " ms. Start the server with:");
+        for (String[] kv : stub.properties()) {
+            System.out.println("  -D" + kv[0] + "=" + kv[1]);
+        }
+    }
+}
@@ -5,18 +5,41 @@ import java.net.URI;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.io.OutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class API {
 
+    private static final Logger log = LoggerFactory.getLogger(API.class);
+
     // Using new Hugging Face multilingual model
-    public static final String MOOD_API_URL = "https://router.huggingface.co/hf-inference/models/tabularisai/multilingual-sentiment-analysis";
+    public static final String MOOD_API_URL = endpoint("MOOD_API_URL",
+            "https://router.huggingface.co/hf-inference/models/tabularisai/multilingual-sentiment-analysis");
     // Using Gemini 2.5 Flash
-    public static final String SUMMARY_API_URL = "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.5-flash:generateContent";
+    public static final String SUMMARY_API_URL = endpoint("SUMMARY_API_URL",
+            "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.5-flash:generateContent");
+
+    /** The URL configured under {@code key} (e.g. a local stub for load tests), else the default. */
+    static String endpoint(String key, String defaultUrl) {
+        String configured = EnvLoader.get(key);
+        return configured == null || configured.isBlank() ? defaultUrl : configured.trim();
+    }
 
     /**
      * GENERIC GET REQUEST
      */
     public static String get(String urlString) {
+        FxWatchdog.checkNotFxThread("http:" + endpointName(urlString));
+        try (Tracer.Span span = Tracer.start("GET " + endpointName(urlString))) {
+            String body = doGet(urlString);
+            span.attr("ok", body != null);
+            return body;
+        }
+    }
+
+    private static String doGet(String urlString) {
+        long start = System.nanoTime();
+        JfrEvents.HttpCallEvent event = begin();
         try {
             URL url = URI.create(urlString).toURL();
             HttpURLConnection conn = (HttpURLConnection) url.openConnection();
@@ -26,8 +49,11 @@ public class API {
             conn.setConnectTimeout(15000);
             conn.setReadTimeout(15000);
 
-            return readResponse(conn);
+            String body = readResponse(conn);
+            record(event, "GET", urlString, start, conn.getResponseCode(), null, body);
+            return body;
         } catch (Exception e) {
+            record(event, "GET", urlString, start, -1, null, null);
             return null;
         }
     }
@@ -36,36 +62,145 @@ public class API {
      * GENERIC POST REQUEST (For Mood/AI)
      */
     public static String post(String urlString, String jsonInputString) {
-        try {
-            URL url = URI.create(urlString).toURL();
-            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-            conn.setRequestMethod("POST");
-            conn.setRequestProperty("Content-Type", "application/json");
-            conn.setRequestProperty("Accept", "application/json");
-            conn.setDoOutput(true);
-
-            // Load Token
-            // If communicating with Google APIs (Gemini), DO NOT attach the Bearer token intended for Hugging Face.
-            if (!urlString.contains("googleapis.com")) {
-                String token = EnvLoader.get("BEARER_TOKEN");
-                if (token != null)
-                    conn.setRequestProperty("Authorization", "Bearer " + token);
-            }
+        return post(urlString, jsonInputString, null);
+    }
 
-            conn.setConnectTimeout(15000);
-            conn.setReadTimeout(15000);
+    /**
+     * POST within the AI quotas: waits for a token for {@code user} (null = global
+     * only) and retries after a 429 while the limiter's deadline allows. Returns
+     * null if the call could not be made in time.
+     */
+    public static String post(String urlString, String jsonInputString, String user) {
+        FxWatchdog.checkNotFxThread("http:" + endpointName(urlString));
+        try (Tracer.Span span = Tracer.start("POST " + endpointName(urlString))) {
+            String body = doPost(urlString, jsonInputString, user);
+            span.attr("ok", body != null);
+            return body;
+        }
+    }
 
-            try (OutputStream os = conn.getOutputStream()) {
-                byte[] input = jsonInputString.getBytes(StandardCharsets.UTF_8);
-                os.write(input, 0, input.length);
+    private static String doPost(String urlString, String jsonInputString, String user) {
+        long deadline = System.nanoTime() + RateLimiter.DEADLINE_NANOS;
+        while (true) {
+            long start = System.nanoTime();
+            JfrEvents.HttpCallEvent event = begin();
+            if (!RateLimiter.acquire(urlString, user, deadline)) {
+                record(event, "POST", urlString, start, 0, jsonInputString, null);
+                log.warn("POST throttled: quota wait exceeded deadline ({})", endpointName(urlString));
+                return null;
             }
-            return readResponse(conn);
-        } catch (Exception e) {
-            System.err.println("API POST Error: " + e.getMessage());
+            // Time the request itself; quota waits show up in the limiter's own stats
+            start = System.nanoTime();
+            event = begin();
+            try {
+                HttpURLConnection conn = openPost(urlString, jsonInputString);
+                if (conn.getResponseCode() == 429) {
+                    record(event, "POST", urlString, start, 429, jsonInputString, null);
+                    RateLimiter.onUpstreamLimited(urlString, retryAfterMillis(conn));
+                    conn.disconnect();
+                    continue;
+                }
+                String body = readResponse(conn);
+                record(event, "POST", urlString, start, conn.getResponseCode(), jsonInputString, body);
+                return body;
+            } catch (Exception e) {
+                record(event, "POST", urlString, start, -1, jsonInputString, null);
+                log.warn("POST {} failed: {}", endpointName(urlString), e.getMessage());
+                return null;
+            }
+        }
+    }
+
+    // --- METRICS ---
+    private static JfrEvents.HttpCallEvent begin() {
+        JfrEvents.HttpCallEvent event = new JfrEvents.HttpCallEvent();
+        event.begin();
+        return event;
+    }
+
+    // api_request_seconds by endpoint and status (HTTP code, "error" or "throttled"), anything
+    // but a 2xx also in api_errors_total, and one JFR event. status: -1 = no response, 0 = throttled
+    private static void record(JfrEvents.HttpCallEvent event, String method, String urlString, long startNanos,
+            int status, String request, String response) {
+        String endpoint = endpointName(urlString);
+        String label = status > 0 ? String.valueOf(status) : status == 0 ? "throttled" : "error";
+        Tracer.annotate("status", label); // the last attempt's, after any 429 retries
+        Metrics.timer("api_request_seconds", "Outbound HTTP call latency", "endpoint", endpoint, "status", label)
+                .recordSince(startNanos);
+        if (status < 200 || status >= 300)
+            Metrics.counter("api_errors_total", "Outbound HTTP calls that failed or were refused", "endpoint",
+                    endpoint, "status", label).inc();
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.method = method;
+            event.host = hostOf(urlString);
+            event.endpoint = endpoint;
+            event.status = status;
+            event.requestBytes = request == null ? 0 : request.getBytes(StandardCharsets.UTF_8).length;
+            event.responseBytes = response == null ? 0 : response.getBytes(StandardCharsets.UTF_8).length;
+            event.commit();
+        }
+    }
+
+    // A short, bounded label: the AI endpoints by role, anything else by host and path
+    static String endpointName(String urlString) {
+        if (urlString.startsWith(MOOD_API_URL))
+            return "mood";
+        if (urlString.startsWith(SUMMARY_API_URL))
+            return "summary";
+        try {
+            URI uri = URI.create(urlString);
+            return uri.getHost() + uri.getPath();
+        } catch (IllegalArgumentException e) {
+            return "invalid";
+        }
+    }
+
+    private static String hostOf(String urlString) {
+        try {
+            return URI.create(urlString).getHost();
+        } catch (IllegalArgumentException e) {
             return null;
         }
     }
 
+    private static HttpURLConnection openPost(String urlString, String jsonInputString) throws Exception {
+        URL url = URI.create(urlString).toURL();
+        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        conn.setRequestMethod("POST");
+        conn.setRequestProperty("Content-Type", "application/json");
+        conn.setRequestProperty("Accept", "application/json");
+        conn.setDoOutput(true);
+
+        // Load Token
+        // If communicating with Google APIs (Gemini), DO NOT attach the Bearer token intended for Hugging Face.
+        if (!urlString.contains("googleapis.com")) {
+            String token = EnvLoader.get("BEARER_TOKEN");
+            if (token != null)
+                conn.setRequestProperty("Authorization", "Bearer " + token);
+        }
+
+        conn.setConnectTimeout(15000);
+        conn.setReadTimeout(15000);
+
+        try (OutputStream os = conn.getOutputStream()) {
+            byte[] input = jsonInputString.getBytes(StandardCharsets.UTF_8);
+            os.write(input, 0, input.length);
+        }
+        return conn;
+    }
+
+    // Retry-After in seconds; the HTTP-date form is rare for these APIs and falls back to the default
+    private static long retryAfterMillis(HttpURLConnection conn) {
+        String header = conn.getHeaderField("Retry-After");
+        try {
+            return header == null ? 0 : Long.parseLong(header.trim()) * 1000;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
     private static String readResponse(HttpURLConnection conn) throws Exception {
         int status = conn.getResponseCode();
         BufferedReader br;
@@ -0,0 +1,313 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Rule-based achievements. achievement_definitions is read once into an
+ * immutable catalogue where each achievement owns one bit; a user's unlocked
+ * set is a single {@code long}. Rules are grouped by type and sorted by
+ * threshold, so evaluating an event is a binary search per rule type plus a
+ * look at the achievements it actually reaches. The panel is rendered from the
+ * mask alone.
+ */
+public class AchievementEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(AchievementEngine.class);
+
+    /** Progress value a rule compares against its threshold. */
+    public enum Rule {
+        ENTRY_COUNT, // distinct journaled days
+        STREAK, // current streak in days
+        LEVEL // current level
+    }
+
+    private static final int MAX_ACHIEVEMENTS = Long.SIZE;
+
+    private static class Definition {
+        final int bit;
+        final String id;
+        final String title;
+        final String description;
+        final String icon;
+        final int threshold;
+
+        Definition(int bit, String id, String title, String description, String icon, int threshold) {
+            this.bit = bit;
+            this.id = id;
+            this.title = title;
+            this.description = description;
+            this.icon = icon;
+            this.threshold = threshold;
+        }
+    }
+
+    // Immutable once built: definitions in display order, plus per-rule indexes sorted by threshold
+    private static class Catalogue {
+        final Definition[] all;
+        final Map<Rule, Definition[]> byRule;
+        final Map<Rule, int[]> thresholds;
+
+        Catalogue(Definition[] all, Map<Rule, Definition[]> byRule, Map<Rule, int[]> thresholds) {
+            this.all = all;
+            this.byRule = byRule;
+            this.thresholds = thresholds;
+        }
+
+        int bitOf(String id) {
+            for (Definition def : all) {
+                if (def.id.equals(id))
+                    return def.bit;
+            }
+            return -1;
+        }
+    }
+
+    private static volatile Catalogue catalogue;
+    private static final Map<String, Long> unlocked = new ConcurrentHashMap<>();
+    private static final LongAdder maskHits = new LongAdder();
+    private static final LongAdder maskMisses = new LongAdder();
+
+    private static final Metrics.Call LOAD_CATALOGUE = Metrics.dbQuery("AchievementEngine.loadCatalogue");
+    private static final Metrics.Call LOAD_UNLOCKED = Metrics.dbQuery("AchievementEngine.loadUnlocked");
+    private static final Metrics.Call SAVE_UNLOCKED = Metrics.dbQuery("AchievementEngine.saveUnlocked");
+
+    static {
+        Metrics.cache("achievement_masks", maskHits::sum, maskMisses::sum);
+    }
+
+    // null while the definitions can't be loaded; a failed load isn't cached, so the next call retries
+    private static Catalogue catalogue() {
+        Catalogue c = catalogue;
+        if (c != null)
+            return c;
+        synchronized (AchievementEngine.class) {
+            if (catalogue == null)
+                catalogue = loadCatalogue();
+            return catalogue;
+        }
+    }
+
+    private static Catalogue loadCatalogue() {
+        List<Definition> defs = new ArrayList<>();
+        Map<Rule, List<Definition>> grouped = new EnumMap<>(Rule.class);
+        String sql = "SELECT id, title, description, icon_char, rule_type, threshold FROM achievement_definitions "
+                + "ORDER BY id";
+        Metrics.Span span = LOAD_CATALOGUE.begin();
+        try (Connection conn = DatabaseConnectionPool.getConnection();
+                PreparedStatement ps = conn.prepareStatement(sql);
+                ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                if (defs.size() == MAX_ACHIEVEMENTS) {
+                    log.warn("More than {} achievements defined; ignoring the rest", MAX_ACHIEVEMENTS);
+                    break;
+                }
+                Definition def = new Definition(defs.size(), rs.getString("id"), rs.getString("title"),
+                        rs.getString("description"), rs.getString("icon_char"), rs.getInt("threshold"));
+                defs.add(def);
+                String rule = rs.getString("rule_type");
+                if (rule == null)
+                    continue; // display-only, unlocked manually
+                try {
+                    grouped.computeIfAbsent(Rule.valueOf(rule), r -> new ArrayList<>()).add(def);
+                } catch (IllegalArgumentException e) {
+                    log.warn("Unknown achievement rule {} for {}", rule, def.id);
+                }
+            }
+            span.success(defs.size());
+        } catch (SQLException e) {
+            span.failure();
+            log.error("loadCatalogue failed", e);
+            return null;
+        }
+
+        Map<Rule, Definition[]> byRule = new EnumMap<>(Rule.class);
+        Map<Rule, int[]> thresholds = new EnumMap<>(Rule.class);
+        for (Rule rule : Rule.values()) {
+            Definition[] sorted = grouped.getOrDefault(rule, List.of()).stream()
+                    .sorted((a, b) -> Integer.compare(a.threshold, b.threshold)).toArray(Definition[]::new);
+            int[] t = new int[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                t[i] = sorted[i].threshold;
+            }
+            byRule.put(rule, sorted);
+            thresholds.put(rule, t);
+        }
+        return new Catalogue(defs.toArray(new Definition[0]), byRule, thresholds);
+    }
+
+    // --- UNLOCK STATE ---
+    /** Seeds the user's mask from already-fetched unlocked ids (e.g. the session bootstrap). */
+    public static void install(User user, Collection<String> unlockedIds) {
+        Catalogue c = catalogue();
+        if (c != null)
+            unlocked.put(user.getEmail(), maskFor(c, unlockedIds));
+    }
+
+    private static long maskFor(Catalogue c, Collection<String> unlockedIds) {
+        long mask = 0;
+        for (String id : unlockedIds) {
+            int bit = c.bitOf(id);
+            if (bit >= 0)
+                mask |= 1L << bit;
+        }
+        return mask;
+    }
+
+    static final String LOAD_UNLOCKED_SQL = "SELECT achievement_id FROM user_achievements WHERE user_email = ?";
+
+    /**
+     * The user's unlocked set, loaded once. null if it can't be loaded: an
+     * empty mask would make the next evaluate re-report every existing unlock,
+     * so nothing is cached and callers skip their work instead.
+     */
+    private static Long maskOf(Catalogue c, User user) {
+        Long mask = unlocked.get(user.getEmail());
+        if (mask != null) {
+            maskHits.increment();
+            return mask;
+        }
+        maskMisses.increment();
+        List<String> ids = new ArrayList<>();
+        Metrics.Span span = LOAD_UNLOCKED.begin();
+        try (Connection conn = DatabaseConnectionPool.getConnection();
+                PreparedStatement ps = conn.prepareStatement(LOAD_UNLOCKED_SQL)) {
+            ps.setString(1, user.getEmail());
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getString(1));
+                }
+            }
+            span.success(ids.size());
+        } catch (SQLException e) {
+            span.failure();
+            log.error("maskOf failed", e);
+            return null;
+        }
+        // An install or unlock that raced with the query wins
+        long loaded = maskFor(c, ids);
+        Long existing = unlocked.putIfAbsent(user.getEmail(), loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    public static void evict(String email) {
+        unlocked.remove(email);
+    }
+
+    // --- PUBLIC API ---
+    /** Every achievement with its unlocked flag, straight from the cached mask; empty if they can't be loaded. */
+    public static List<Achievement> getAchievements(User user) {
+        Catalogue c = catalogue();
+        if (c == null)
+            return List.of();
+        Long loaded = maskOf(c, user);
+        if (loaded == null)
+            return List.of();
+        long mask = loaded;
+        List<Achievement> list = new ArrayList<>(c.all.length);
+        for (Definition def : c.all) {
+            list.add(new Achievement(def.id, def.title, def.description, def.icon, (mask & (1L << def.bit)) != 0));
+        }
+        return list;
+    }
+
+    /**
+     * Checks the rules against the user's current totals and persists any new
+     * unlocks in one statement.
+     *
+     * @return achievements unlocked by this call (usually empty, and empty when the unlocked set can't be loaded)
+     */
+    public static List<Achievement> evaluate(User user, int entryCount, int streak, int level) {
+        Catalogue c = catalogue();
+        if (c == null)
+            return List.of();
+        Long mask = maskOf(c, user);
+        if (mask == null)
+            return List.of();
+        long before = mask;
+        long found = reached(c, Rule.ENTRY_COUNT, entryCount, before)
+                | reached(c, Rule.STREAK, streak, before)
+                | reached(c, Rule.LEVEL, level, before);
+        if (found == 0)
+            return List.of();
+
+        long after = unlocked.merge(user.getEmail(), found, (a, b) -> a | b);
+        List<Achievement> fresh = new ArrayList<>();
+        List<String> ids = new ArrayList<>();
+        for (Definition def : c.all) {
+            if ((found & (1L << def.bit)) != 0 && (before & (1L << def.bit)) == 0) {
+                ids.add(def.id);
+                fresh.add(new Achievement(def.id, def.title, def.description, def.icon, true));
+            }
+        }
+        if (!persist(user.getEmail(), ids)) {
+            // Forget the unlocks so the next event retries them
+            unlocked.put(user.getEmail(), after & ~found);
+            return List.of();
+        }
+        return fresh;
+    }
+
+    /** Unlocks by id, for achievements that aren't rule-driven. */
+    public static void unlock(User user, String achievementId) {
+        Catalogue c = catalogue();
+        if (c == null)
+            return;
+        int bit = c.bitOf(achievementId);
+        if (bit < 0)
+            return;
+        Long before = maskOf(c, user);
+        if (before == null || (before & (1L << bit)) != 0)
+            return;
+        if (persist(user.getEmail(), List.of(achievementId)))
+            unlocked.merge(user.getEmail(), 1L << bit, (a, b) -> a | b);
+    }
+
+    // Bits of the rule's achievements whose threshold is met and that aren't unlocked yet
+    private static long reached(Catalogue c, Rule rule, int value, long mask) {
+        int[] thresholds = c.thresholds.get(rule);
+        Definition[] defs = c.byRule.get(rule);
+        int lo = 0;
+        int hi = thresholds.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (thresholds[mid] <= value)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        long bits = 0;
+        for (int i = 0; i < lo; i++) {
+            bits |= 1L << defs[i].bit;
+        }
+        return bits & ~mask;
+    }
+
+    static final String SAVE_UNLOCKED_SQL = "INSERT INTO user_achievements (user_email, achievement_id) "
+            + "SELECT ?, unnest(?::varchar[]) ON CONFLICT DO NOTHING";
+
+    private static boolean persist(String email, List<String> ids) {
+        Metrics.Span span = SAVE_UNLOCKED.begin();
+        try (Connection conn = DatabaseConnectionPool.getConnection();
+                PreparedStatement ps = conn.prepareStatement(SAVE_UNLOCKED_SQL)) {
+            ps.setString(1, email);
+            ps.setArray(2, conn.createArrayOf("varchar", ids.toArray()));
+            int rows = ps.executeUpdate();
+            span.success(rows);
+            return true;
+        } catch (SQLException e) {
+            span.failure();
+            log.error("persist failed", e);
+            return false;
+        }
+    }
+}
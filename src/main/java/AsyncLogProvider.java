@@ -0,0 +1,75 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.ILoggerFactory;
+import org.slf4j.IMarkerFactory;
+import org.slf4j.Logger;
+import org.slf4j.helpers.BasicMarkerFactory;
+import org.slf4j.helpers.NOPMDCAdapter;
+import org.slf4j.spi.MDCAdapter;
+import org.slf4j.spi.SLF4JServiceProvider;
+
+/**
+ * SLF4J binding for {@link AsyncLogger}, registered in
+ * META-INF/services/org.slf4j.spi.SLF4JServiceProvider (it replaces
+ * slf4j-simple). LOG_LEVEL sets the default threshold (INFO);
+ * LOG_LEVELS=prefix=LEVEL,... overrides it per logger name prefix, e.g.
+ * {@code LOG_LEVELS=com.zaxxer.hikari=WARN,WeatherManager=DEBUG}.
+ */
+public class AsyncLogProvider implements SLF4JServiceProvider {
+
+    private final IMarkerFactory markerFactory = new BasicMarkerFactory();
+    private final MDCAdapter mdcAdapter = new NOPMDCAdapter();
+    private ILoggerFactory loggerFactory;
+
+    @Override
+    public void initialize() {
+        int defaultLevel = AsyncLogger.parseLevel(EnvLoader.get("LOG_LEVEL"), AsyncLogger.INFO);
+        Map<String, Integer> overrides = new LinkedHashMap<>();
+        String spec = EnvLoader.get("LOG_LEVELS");
+        if (spec != null) {
+            for (String part : spec.split(",")) {
+                int eq = part.indexOf('=');
+                if (eq > 0)
+                    overrides.put(part.substring(0, eq).trim(),
+                            AsyncLogger.parseLevel(part.substring(eq + 1), defaultLevel));
+            }
+        }
+        Map<String, Logger> loggers = new ConcurrentHashMap<>();
+        loggerFactory = name -> loggers.computeIfAbsent(name, n -> new AsyncLogger(n, levelFor(n, defaultLevel,
+                overrides)));
+    }
+
+    // Longest matching prefix wins
+    private static int levelFor(String name, int defaultLevel, Map<String, Integer> overrides) {
+        int level = defaultLevel;
+        int best = -1;
+        for (Map.Entry<String, Integer> o : overrides.entrySet()) {
+            if (name.startsWith(o.getKey()) && o.getKey().length() > best) {
+                best = o.getKey().length();
+                level = o.getValue();
+            }
+        }
+        return level;
+    }
+
+    @Override
+    public ILoggerFactory getLoggerFactory() {
+        return loggerFactory;
+    }
+
+    @Override
+    public IMarkerFactory getMarkerFactory() {
+        return markerFactory;
+    }
+
+    @Override
+    public MDCAdapter getMDCAdapter() {
+        return mdcAdapter;
+    }
+
+    @Override
+    public String getRequestedApiVersion() {
+        return "2.0.99";
+    }
+}
@@ -0,0 +1,198 @@
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import com.google.gson.JsonObject;
+
+/**
+ * The log queue behind {@link AsyncLogger}: a fixed ring of preallocated
+ * slots filled by any number of threads and drained by one writer thread.
+ * Producers claim a slot with one CAS and never take a lock or touch the
+ * console; if the ring is full the record is dropped and counted rather than
+ * blocking a request (the writer reports the gap once it catches up).
+ *
+ * <p>LOG_BUFFER sets the slot count (default 8192, rounded up to a power of
+ * two), LOG_FORMAT=json writes one JSON object per line instead of text.
+ */
+public class AsyncLogRing {
+
+    private static final class Slot {
+        volatile long published = -1; // sequence number once the fields below are complete
+        long timeMillis;
+        int level;
+        String thread;
+        String logger;
+        String message;
+        Throwable error;
+    }
+
+    private static final int capacity;
+    private static final int mask;
+    private static final Slot[] slots;
+    private static final boolean json;
+
+    // Next sequence to claim / next sequence the writer will read
+    private static final AtomicLong claimed = new AtomicLong();
+    private static volatile long consumed;
+    private static final LongAdder dropped = new LongAdder();
+    private static final LongAdder written = new LongAdder();
+
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS")
+            .withZone(ZoneId.systemDefault());
+    private static final String[] LEVELS = { "TRACE", "DEBUG", "INFO", "WARN", "ERROR" };
+
+    // Raw stderr, buffered; only the writer thread touches it
+    private static final PrintStream out = new PrintStream(
+            new BufferedOutputStream(new FileOutputStream(FileDescriptor.err), 64 * 1024), false,
+            StandardCharsets.UTF_8);
+
+    static {
+        int requested = 8192;
+        String size = EnvLoader.get("LOG_BUFFER");
+        if (size != null) {
+            try {
+                requested = Math.max(64, Integer.parseInt(size.trim()));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        capacity = Integer.highestOneBit(requested - 1) << 1;
+        mask = capacity - 1;
+        slots = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot();
+        }
+        json = "json".equalsIgnoreCase(EnvLoader.get("LOG_FORMAT"));
+
+        Thread writer = new Thread(AsyncLogRing::drainLoop, "log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        // Whatever is still queued at exit is written before the JVM goes
+        Runtime.getRuntime().addShutdownHook(new Thread(AsyncLogRing::drain, "log-flush"));
+
+        Metrics.gauge("log_queue_depth", "Log records waiting for the writer", AsyncLogRing::getQueueDepth);
+        Metrics.counterFunction("log_dropped_total", "Log records dropped with a full buffer", dropped::sum);
+        Metrics.counterFunction("log_written_total", "Log records written", written::sum);
+    }
+
+    // --- PRODUCERS ---
+    /** Queues one record; never blocks. */
+    static void publish(int level, String logger, String message, Throwable error) {
+        long seq;
+        do {
+            seq = claimed.get();
+            if (seq - consumed >= capacity) {
+                dropped.increment();
+                return;
+            }
+        } while (!claimed.compareAndSet(seq, seq + 1));
+
+        Slot slot = slots[(int) (seq & mask)];
+        slot.timeMillis = System.currentTimeMillis();
+        slot.level = level;
+        slot.thread = Thread.currentThread().getName();
+        slot.logger = logger;
+        slot.message = message;
+        slot.error = error;
+        slot.published = seq; // volatile write publishes the fields above
+    }
+
+    public static int getQueueDepth() {
+        return (int) Math.max(0, claimed.get() - consumed);
+    }
+
+    public static long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    // --- WRITER ---
+    private static void drainLoop() {
+        int idle = 0;
+        while (true) {
+            if (drain() > 0) {
+                idle = 0;
+                continue;
+            }
+            // Spin briefly, then back off; producers never wake the writer, so logging stays syscall-free
+            if (++idle < 100)
+                Thread.onSpinWait();
+            else
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(idle < 200 ? 1 : 10));
+        }
+    }
+
+    private static long reportedDrops;
+
+    // Writes every published record in order; returns how many it wrote
+    private static synchronized int drain() {
+        int n = 0;
+        long next = consumed;
+        while (true) {
+            Slot slot = slots[(int) (next & mask)];
+            if (slot.published != next)
+                break;
+            write(slot);
+            slot.message = null;
+            slot.error = null;
+            next++;
+            consumed = next; // frees the slot
+            n++;
+        }
+        long drops = dropped.sum();
+        if (drops != reportedDrops) {
+            write(System.currentTimeMillis(), 3, "log-writer", "AsyncLogRing",
+                    (drops - reportedDrops) + " log records dropped (buffer full)", null);
+            reportedDrops = drops;
+            out.flush();
+        }
+        if (n > 0) {
+            out.flush(); // one write syscall per batch, not per line
+            written.add(n);
+        }
+        return n;
+    }
+
+    private static void write(Slot s) {
+        write(s.timeMillis, s.level, s.thread, s.logger, s.message, s.error);
+    }
+
+    private static void write(long timeMillis, int level, String thread, String logger, String message,
+            Throwable error) {
+        String time = TIME.format(Instant.ofEpochMilli(timeMillis));
+        if (json) {
+            JsonObject o = new JsonObject();
+            o.addProperty("time", time);
+            o.addProperty("level", LEVELS[level]);
+            o.addProperty("thread", thread);
+            o.addProperty("logger", logger);
+            o.addProperty("message", message);
+            if (error != null) {
+                StringWriter trace = new StringWriter();
+                error.printStackTrace(new PrintWriter(trace));
+                o.addProperty("error", trace.toString());
+            }
+            out.println(o);
+        } else {
+            out.print(time);
+            out.print(' ');
+            out.print(LEVELS[level]);
+            out.print(" [");
+            out.print(thread);
+            out.print("] ");
+            out.print(logger);
+            out.print(" - ");
+            out.println(message);
+            if (error != null)
+                error.printStackTrace(out);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+import org.slf4j.Marker;
+import org.slf4j.event.Level;
+import org.slf4j.helpers.LegacyAbstractLogger;
+import org.slf4j.helpers.MessageFormatter;
+
+/**
+ * SLF4J logger that formats on the calling thread and hands the line to
+ * {@link AsyncLogRing}. The threshold is a final field, so a disabled
+ * {@code log.debug(...)} is one compare the JIT folds away, with no argument
+ * formatting.
+ */
+public class AsyncLogger extends LegacyAbstractLogger {
+
+    private static final long serialVersionUID = 1L;
+
+    static final int TRACE = 0, DEBUG = 1, INFO = 2, WARN = 3, ERROR = 4, OFF = 5;
+
+    private final int threshold;
+
+    AsyncLogger(String name, int threshold) {
+        this.name = name;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public boolean isTraceEnabled() {
+        return threshold <= TRACE;
+    }
+
+    @Override
+    public boolean isDebugEnabled() {
+        return threshold <= DEBUG;
+    }
+
+    @Override
+    public boolean isInfoEnabled() {
+        return threshold <= INFO;
+    }
+
+    @Override
+    public boolean isWarnEnabled() {
+        return threshold <= WARN;
+    }
+
+    @Override
+    public boolean isErrorEnabled() {
+        return threshold <= ERROR;
+    }
+
+    @Override
+    protected String getFullyQualifiedCallerName() {
+        return null;
+    }
+
+    @Override
+    protected void handleNormalizedLoggingCall(Level level, Marker marker, String messagePattern, Object[] arguments,
+            Throwable throwable) {
+        String message = arguments == null || arguments.length == 0 ? messagePattern
+                : MessageFormatter.basicArrayFormat(messagePattern, arguments);
+        AsyncLogRing.publish(levelOf(level), name, message, throwable);
+    }
+
+    private static int levelOf(Level level) {
+        return switch (level) {
+            case TRACE -> TRACE;
+            case DEBUG -> DEBUG;
+            case INFO -> INFO;
+            case WARN -> WARN;
+            case ERROR -> ERROR;
+        };
+    }
+
+    /** TRACE..ERROR or OFF by name; {@code fallback} if unrecognized. */
+    static int parseLevel(String value, int fallback) {
+        if (value == null)
+            return fallback;
+        return switch (value.trim().toUpperCase()) {
+            case "TRACE" -> TRACE;
+            case "DEBUG" -> DEBUG;
+            case "INFO" -> INFO;
+            case "WARN" -> WARN;
+            case "ERROR" -> ERROR;
+            case "OFF" -> OFF;
+            default -> fallback;
+        };
+    }
+}
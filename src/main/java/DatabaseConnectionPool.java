@@ -1,11 +1,29 @@
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import java.sql.Connection;
 import java.sql.SQLException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class DatabaseConnectionPool {
 
-    private static HikariDataSource dataSource;
+    private static final Logger log = LoggerFactory.getLogger(DatabaseConnectionPool.class);
+
+    private static volatile HikariDataSource dataSource;
+
+    private static final Metrics.Timer ACQUIRE = Metrics.timer("db_connection_acquire_seconds",
+            "Time to borrow a pooled connection");
+
+    static {
+        Metrics.gauge("db_pool_active_connections", "Connections in use",
+                DatabaseConnectionPool::getActiveConnections);
+        Metrics.gauge("db_pool_idle_connections", "Connections idle in the pool",
+                DatabaseConnectionPool::getIdleConnections);
+        Metrics.gauge("db_pool_threads_awaiting", "Threads blocked waiting for a connection",
+                DatabaseConnectionPool::getThreadsAwaitingConnection);
+        Metrics.gauge("db_pool_max_connections", "Configured pool size", DatabaseConnectionPool::getMaximumPoolSize);
+    }
 
     private static synchronized void initDataSource() {
         if (dataSource != null && !dataSource.isClosed())
@@ -17,47 +35,88 @@ public class DatabaseConnectionPool {
             String dbPassword = EnvLoader.get("DB_PASSWORD");
 
             if (dbUrl == null || dbUser == null || dbPassword == null) {
-                System.err.println("FATAL: Database credentials missing in .env");
+                log.error("Database credentials missing in .env");
                 return;
             }
 
             HikariConfig config = new HikariConfig();
 
-            // Construct JDBC URL with SSL safe defaults for Supabase
+            // Construct JDBC URL with SSL safe defaults for Supabase (DB_SSLMODE=disable for a local server)
             String separator = dbUrl.contains("?") ? "&" : "?";
-            String jdbcUrl = String.format("%s%suser=%s&password=%s&sslmode=require", dbUrl, separator, dbUser,
-                    dbPassword);
+            String jdbcUrl = String.format("%s%suser=%s&password=%s", dbUrl, separator, dbUser, dbPassword);
+            if (!dbUrl.contains("sslmode=")) {
+                String sslMode = EnvLoader.get("DB_SSLMODE");
+                jdbcUrl += "&sslmode=" + (sslMode == null ? "require" : sslMode);
+            }
+
+            // The desktop app needs few connections; the server shares one larger pool across all requests
+            String poolSize = EnvLoader.get("DB_POOL_SIZE");
 
             config.setJdbcUrl(jdbcUrl);
-            config.setMaximumPoolSize(10);
+            config.setMaximumPoolSize(poolSize == null ? 10 : Integer.parseInt(poolSize));
             config.setMinimumIdle(2);
             config.setIdleTimeout(30000);
             config.setConnectionTimeout(20000);
             config.setDriverClassName("org.postgresql.Driver");
 
             dataSource = new HikariDataSource(config);
-            System.out.println("[DatabaseConnectionPool] Pool initialized successfully.");
+            log.info("Pool initialized successfully");
 
         } catch (Exception e) {
-            System.err.println("[DatabaseConnectionPool] Initialization Error: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Initialization error", e);
         }
     }
 
     public static Connection getConnection() throws SQLException {
+        FxWatchdog.checkNotFxThread("db.connection");
         if (dataSource == null || dataSource.isClosed()) {
             initDataSource();
         }
         if (dataSource == null) {
             throw new SQLException("DataSource is null. Check .env configuration.");
         }
-        return dataSource.getConnection();
+        long start = System.nanoTime();
+        Connection conn = dataSource.getConnection();
+        ACQUIRE.recordSince(start);
+        return conn;
+    }
+
+    // --- POOL STATS --- (0 before the pool exists)
+    public static int getActiveConnections() {
+        HikariPoolMXBean pool = poolBean();
+        return pool == null ? 0 : pool.getActiveConnections();
+    }
+
+    public static int getIdleConnections() {
+        HikariPoolMXBean pool = poolBean();
+        return pool == null ? 0 : pool.getIdleConnections();
+    }
+
+    public static int getTotalConnections() {
+        HikariPoolMXBean pool = poolBean();
+        return pool == null ? 0 : pool.getTotalConnections();
+    }
+
+    /** Threads blocked waiting for a connection; non-zero means the pool is saturated. */
+    public static int getThreadsAwaitingConnection() {
+        HikariPoolMXBean pool = poolBean();
+        return pool == null ? 0 : pool.getThreadsAwaitingConnection();
+    }
+
+    public static int getMaximumPoolSize() {
+        HikariDataSource ds = dataSource;
+        return ds == null ? 0 : ds.getMaximumPoolSize();
+    }
+
+    private static HikariPoolMXBean poolBean() {
+        HikariDataSource ds = dataSource;
+        return ds == null || ds.isClosed() ? null : ds.getHikariPoolMXBean();
     }
 
     public static void close() {
         if (dataSource != null && !dataSource.isClosed()) {
             dataSource.close();
-            System.out.println("[DatabaseConnectionPool] Pool closed.");
+            log.info("Pool closed");
         }
     }
 }
@@ -1,13 +1,17 @@
 import java.sql.Connection;
 import java.sql.SQLException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class DbManager {
 
+    private static final Logger log = LoggerFactory.getLogger(DbManager.class);
+
     static {
         try {
             Class.forName("org.postgresql.Driver");
         } catch (ClassNotFoundException e) {
-            System.err.println("FATAL: PostgreSQL JDBC Driver not found.");
+            log.error("PostgreSQL JDBC driver not found");
         }
     }
 
@@ -17,13 +21,13 @@ public class DbManager {
         try {
             return DatabaseConnectionPool.getConnection();
         } catch (SQLException e) {
-            System.err.println("[DbManager] Could not get connection from pool: " + e.getMessage());
+            log.error("Could not get connection from pool: {}", e.getMessage());
             return null;
         }
     }
 
     public static void initializeDatabase() {
-        System.out.println("[DbManager] Initializing database schema...");
+        log.info("Initializing database schema...");
         try (Connection conn = getConnection()) {
             if (conn == null)
                 return;
@@ -31,7 +35,7 @@ public class DbManager {
             // Read schema.sql from resources
             String schemaSql = loadSchemaSql();
             if (schemaSql == null || schemaSql.isEmpty()) {
-                System.err.println("[DbManager] schema.sql not found or empty.");
+                log.error("schema.sql not found or empty");
                 return;
             }
 
@@ -46,11 +50,10 @@ public class DbManager {
 
             try (java.sql.Statement stmt = conn.createStatement()) {
                 stmt.execute(schemaSql);
-                System.out.println("[DbManager] Database schema initialized successfully.");
+                log.info("Database schema initialized");
             }
         } catch (Exception e) {
-            System.err.println("[DbManager] Error initializing database: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error initializing database", e);
         }
     }
 
@@ -60,7 +63,7 @@ public class DbManager {
                 return null;
             return new String(is.readAllBytes(), java.nio.charset.StandardCharsets.UTF_8);
         } catch (java.io.IOException e) {
-            e.printStackTrace();
+            log.error("Could not read schema.sql", e);
             return null;
         }
     }
@@ -0,0 +1,102 @@
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Display strings and style class for one timeline entry, computed once and
+ * cached so {@code TimelineCell.updateItem} only assigns precomputed values.
+ * Entries are immutable, so the cache is keyed by identity and released with
+ * the entry. Accessed from the FX thread only.
+ */
+public class EntryRenderModel {
+
+    static final int PREVIEW_LENGTH = 140;
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("EEEE, MMM dd, yyyy");
+
+    private static final Map<SmartJournal.JournalEntry, EntryRenderModel> cache = new WeakHashMap<>();
+
+    // "Today" only changes at midnight; avoid LocalDate.now() per cell update
+    private static long todayEpochDay = Long.MIN_VALUE;
+    private static long todayValidUntil = 0;
+
+    private final long epochDay;
+    private final String formattedDate;
+    private final String dayOfMonth;
+    private final String preview;
+    private final String moodText;
+    private final String moodStyleClass;
+    private final String weatherText;
+
+    EntryRenderModel(SmartJournal.JournalEntry entry) {
+        LocalDate date = entry.getDate();
+        this.epochDay = date.toEpochDay();
+        this.formattedDate = date.format(DATE_FORMAT);
+        this.dayOfMonth = String.valueOf(date.getDayOfMonth());
+        this.preview = buildPreview(entry.getContent());
+
+        String mood = entry.getAiMood();
+        if (mood == null)
+            mood = "Neutral";
+        this.moodText = mood;
+        this.moodStyleClass = MoodScale.tagClass(entry.getMoodScore());
+        this.weatherText = "☁ " + entry.getWeather();
+    }
+
+    public static EntryRenderModel of(SmartJournal.JournalEntry entry) {
+        return cache.computeIfAbsent(entry, EntryRenderModel::new);
+    }
+
+    // Only the first PREVIEW_LENGTH chars are touched, however long the entry is
+    static String buildPreview(String content) {
+        if (content == null)
+            return "";
+        int len = Math.min(content.length(), PREVIEW_LENGTH);
+        char[] out = new char[len + (content.length() > PREVIEW_LENGTH ? 3 : 0)];
+        for (int i = 0; i < len; i++) {
+            char c = content.charAt(i);
+            out[i] = (c == '\n') ? ' ' : c;
+        }
+        if (out.length > len) {
+            out[len] = '.';
+            out[len + 1] = '.';
+            out[len + 2] = '.';
+        }
+        return new String(out);
+    }
+
+    public boolean isToday() {
+        long now = System.currentTimeMillis();
+        if (now >= todayValidUntil) {
+            LocalDate today = LocalDate.now();
+            todayEpochDay = today.toEpochDay();
+            todayValidUntil = today.plusDays(1).atStartOfDay(java.time.ZoneId.systemDefault()).toInstant()
+                    .toEpochMilli();
+        }
+        return epochDay == todayEpochDay;
+    }
+
+    public String getFormattedDate() {
+        return formattedDate;
+    }
+
+    public String getDayOfMonth() {
+        return dayOfMonth;
+    }
+
+    public String getPreview() {
+        return preview;
+    }
+
+    public String getMoodText() {
+        return moodText;
+    }
+
+    public String getMoodStyleClass() {
+        return moodStyleClass;
+    }
+
+    public String getWeatherText() {
+        return weatherText;
+    }
+}
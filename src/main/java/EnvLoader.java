@@ -1,12 +1,33 @@
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 public class EnvLoader {
 
+    // Parsed on first use; request paths read settings per call and must not hit the disk each time
+    private static final class DotEnv {
+        static final Map<String, String> VALUES = load(".env"); // The file must be in the project root
+    }
+
     public static String get(String key) {
-        String filePath = ".env"; // The file must be in the project root
-        
+        // -Dkey=value wins, so harnesses can point the app at stub endpoints in-process
+        String property = System.getProperty(key);
+        if (property != null)
+            return property;
+
+        String value = DotEnv.VALUES.get(key);
+        if (value != null)
+            return value;
+
+        // Not in .env: fall back to the process environment (server / container deployments)
+        return System.getenv(key);
+    }
+
+    private static Map<String, String> load(String filePath) {
+        Map<String, String> values = new HashMap<>();
         try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
             String line;
             while ((line = reader.readLine()) != null) {
@@ -15,21 +36,16 @@ public class EnvLoader {
                     continue;
                 }
 
-                // Split by the first "=" found
+                // Split by the first "=" found; the first occurrence of a key wins
                 String[] parts = line.split("=", 2);
                 if (parts.length >= 2) {
-                    String currentKey = parts[0].trim();
-                    String currentValue = parts[1].trim();
-                    
-                    if (currentKey.equals(key)) {
-                        return currentValue;
-                    }
+                    values.putIfAbsent(parts[0].trim(), parts[1].trim());
                 }
             }
         } catch (IOException e) {
+            // Not a logger: the log backend reads its settings through here while it starts
             System.err.println("Error reading .env file: " + e.getMessage());
         }
-        
-        return null; // Return null if key not found
+        return Collections.unmodifiableMap(values);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,146 @@
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Watches the JavaFX application thread. A background probe posts a no-op
+ * with {@code runLater} every PROBE_MILLIS and times how long it waits; if
+ * one is still waiting after FX_STALL_MS (default 250), the FX thread's stack
+ * is logged once for that stall. Scenes registered with {@link #watch} also
+ * time their CSS/layout pass on every pulse.
+ *
+ * <p>Blocking I/O entry points (pool checkout, outbound HTTP, password
+ * hashing) call {@link #checkNotFxThread}. Normally that only counts and logs
+ * the first offence per operation; with FX_STRICT=true (e.g.
+ * {@code -DFX_STRICT=true} in a test run) it throws instead, so the offending
+ * path fails loudly.
+ */
+public class FxWatchdog {
+
+    private static final Logger log = LoggerFactory.getLogger(FxWatchdog.class);
+
+    private static final long PROBE_MILLIS = 100;
+
+    private static volatile Thread fxThread;
+    private static volatile boolean strict;
+    private static ScheduledExecutorService probe;
+
+    // When the outstanding probe was posted; 0 while none is outstanding
+    private static final AtomicLong pendingSince = new AtomicLong();
+    private static volatile boolean stallReported;
+    private static volatile long stallThresholdNanos;
+
+    private static final Metrics.Timer RUN_LATER = Metrics.timer("fx_runlater_latency_seconds",
+            "Wait between Platform.runLater and the task running");
+    private static final Metrics.Timer LAYOUT = Metrics.timer("fx_pulse_layout_seconds",
+            "CSS and layout time per pulse");
+    private static final Metrics.Timer STALLS = Metrics.timer("fx_stall_seconds",
+            "FX thread blocked past the stall threshold");
+    private static final Map<String, Metrics.Counter> blockingCalls = new ConcurrentHashMap<>();
+    private static final Set<String> reported = ConcurrentHashMap.newKeySet();
+
+    // --- LIFECYCLE ---
+    /** Call on the FX thread at startup. Safe to call again (e.g. after a restart for a language change). */
+    public static synchronized void install() {
+        fxThread = Thread.currentThread();
+        strict = "true".equalsIgnoreCase(EnvLoader.get("FX_STRICT"));
+        stallThresholdNanos = TimeUnit.MILLISECONDS.toNanos(stallMillis());
+        if (probe != null)
+            return;
+        probe = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "fx-watchdog");
+            t.setDaemon(true);
+            return t;
+        });
+        probe.scheduleAtFixedRate(FxWatchdog::tick, PROBE_MILLIS, PROBE_MILLIS, TimeUnit.MILLISECONDS);
+        Metrics.gauge("fx_blocked_seconds", "How long the FX thread has been unresponsive right now", () -> {
+            long since = pendingSince.get();
+            return since == 0 ? 0 : (System.nanoTime() - since) / 1e9;
+        });
+    }
+
+    /** Times the CSS/layout pass of every pulse that renders {@code scene}. */
+    public static void watch(Scene scene) {
+        long[] layoutStart = new long[1]; // listeners run on the FX thread
+        scene.addPreLayoutPulseListener(() -> layoutStart[0] = System.nanoTime());
+        scene.addPostLayoutPulseListener(() -> LAYOUT.recordSince(layoutStart[0]));
+    }
+
+    private static int stallMillis() {
+        String value = EnvLoader.get("FX_STALL_MS");
+        try {
+            return value == null ? 250 : Math.max(10, Integer.parseInt(value.trim()));
+        } catch (NumberFormatException e) {
+            return 250;
+        }
+    }
+
+    // --- PROBE ---
+    private static void tick() {
+        long now = System.nanoTime();
+        long since = pendingSince.get();
+        if (since != 0) {
+            // Previous probe hasn't run yet: the FX thread is busy
+            if (!stallReported && now - since > stallThresholdNanos) {
+                stallReported = true;
+                reportStall(now - since);
+            }
+            return;
+        }
+        if (!pendingSince.compareAndSet(0, now))
+            return;
+        try {
+            Platform.runLater(FxWatchdog::probed);
+        } catch (IllegalStateException e) {
+            pendingSince.set(0); // toolkit gone (shutting down)
+        }
+    }
+
+    private static void probed() {
+        long since = pendingSince.getAndSet(0);
+        if (since == 0)
+            return;
+        long waited = System.nanoTime() - since;
+        RUN_LATER.record(waited);
+        if (waited > stallThresholdNanos) {
+            STALLS.record(waited);
+            if (stallReported)
+                log.warn("FX thread recovered after {} ms", waited / 1_000_000);
+        }
+        stallReported = false;
+    }
+
+    private static void reportStall(long blockedNanos) {
+        Thread fx = fxThread;
+        StringBuilder frames = new StringBuilder();
+        if (fx != null) {
+            frames.append(", currently at:");
+            for (StackTraceElement frame : fx.getStackTrace()) {
+                frames.append("\n\tat ").append(frame);
+            }
+        }
+        log.warn("FX thread blocked for {} ms{}", blockedNanos / 1_000_000, frames);
+    }
+
+    // --- BLOCKING I/O CHECK ---
+    /** Flags {@code operation} if it's running on the FX thread; throws in strict mode. */
+    public static void checkNotFxThread(String operation) {
+        if (Thread.currentThread() != fxThread)
+            return;
+        blockingCalls.computeIfAbsent(operation, op -> Metrics.counter("fx_blocking_calls_total",
+                "Blocking I/O started on the FX thread", "operation", op)).inc();
+        if (strict)
+            throw new IllegalStateException("Blocking I/O on the FX thread: " + operation);
+        if (reported.add(operation)) {
+            log.warn("Blocking I/O on the FX thread: {}", operation, new Throwable("FX thread call site"));
+        }
+    }
+}
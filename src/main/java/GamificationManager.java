@@ -1,88 +1,59 @@
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.util.ArrayList;
+import java.time.LocalDate;
 import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class GamificationManager {
 
+    private static final Logger log = LoggerFactory.getLogger(GamificationManager.class);
+
+    private static final Metrics.Call GRANT_XP = Metrics.dbQuery("GamificationManager.grantXp");
+
     // --- XP & LEVELING ---
+    // Simple linear progression: Level = 1 + (XP / 500). JournalManager applies the same rule in SQL.
+    static final int XP_PER_LEVEL = 500;
+
     public static int calculateLevel(int xp) {
-        // Simple linear progression: Level = 1 + (XP / 500)
-        return 1 + (xp / 500);
+        return 1 + (xp / XP_PER_LEVEL);
     }
 
     public static int getXpNextLevel(int currentLevel) {
-        return currentLevel * 500;
+        return currentLevel * XP_PER_LEVEL;
     }
 
     // --- QUESTS ---
-    public static List<Quest> getDailyQuests(User user) {
-        // In a real app, these would be fetched/generated from DB based on date
-        List<Quest> quests = new ArrayList<>();
-        quests.add(new Quest("q_entry", "Write a journal entry", 1, 50));
-        quests.add(new Quest("q_long", "Write over 100 characters", 1, 100));
-        quests.add(new Quest("q_night", "Journal after 8 PM", 1, 150));
-        return quests;
+    public static List<Quest> getDailyQuests(User user, LocalDate today) {
+        // Definitions come from quest_definitions, progress from today's rows
+        return QuestEngine.getDailyQuests(user, today);
     }
 
     // --- ACHIEVEMENTS ---
-    // --- ACHIEVEMENTS ---
+    // Served from the engine's cached catalogue and unlock mask, no query per call
     public static List<Achievement> getAchievements(User user) {
-        List<Achievement> achievements = new ArrayList<>();
-        if (DbManager.getConnection() == null)
-            return achievements;
-
-        // Fetch all definitions + unlock status for this user
-        // LEFT JOIN ensures we get all achievements, and unlocked_at is non-null if
-        // user has it
-        String sql = "SELECT ad.id, ad.title, ad.description, ad.icon_char, ua.unlocked_at " +
-                "FROM achievement_definitions ad " +
-                "LEFT JOIN user_achievements ua ON ad.id = ua.achievement_id AND ua.user_email = ?";
-
-        try (Connection conn = DbManager.getConnection();
-                PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, user.getEmail());
-            try (java.sql.ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    String id = rs.getString("id");
-                    String title = rs.getString("title");
-                    String desc = rs.getString("description");
-                    String icon = rs.getString("icon_char");
-                    boolean unlocked = rs.getTimestamp("unlocked_at") != null;
-
-                    achievements.add(new Achievement(id, title, desc, icon, unlocked));
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return achievements;
+        return AchievementEngine.getAchievements(user);
     }
 
     public static void unlockAchievement(User user, String achievementId) {
-        // Insert if not exists
-        String sql = "INSERT INTO user_achievements (user_email, achievement_id) VALUES (?, ?) ON CONFLICT DO NOTHING";
-        try (Connection conn = DbManager.getConnection();
-                PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, user.getEmail());
-            ps.setString(2, achievementId);
-            ps.executeUpdate();
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        AchievementEngine.unlock(user, achievementId);
     }
 
     // --- DB OPERATIONS ---
+    static final String GRANT_XP_SQL = "UPDATE user_progress SET total_xp = total_xp + ? WHERE user_email = ?";
+
     public static void grantXp(User user, int amount) {
-        String sql = "UPDATE user_progress SET xp = xp + ? WHERE user_email = ?";
-        try (Connection conn = DbManager.getConnection();
-                PreparedStatement ps = conn.prepareStatement(sql)) {
+        Metrics.Span span = GRANT_XP.begin();
+        try (Connection conn = DatabaseConnectionPool.getConnection();
+                PreparedStatement ps = conn.prepareStatement(GRANT_XP_SQL)) {
             ps.setInt(1, amount);
             ps.setString(2, user.getEmail());
-            ps.executeUpdate();
+            int rows = ps.executeUpdate();
+            span.success(rows);
         } catch (SQLException e) {
-            e.printStackTrace();
+            span.failure();
+            log.error("grantXp failed", e);
         }
     }
 }
@@ -0,0 +1,100 @@
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.scene.chart.BarChart;
+import javafx.scene.chart.CategoryAxis;
+import javafx.scene.chart.NumberAxis;
+import javafx.scene.chart.XYChart;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.Tab;
+import javafx.scene.control.TabPane;
+import javafx.scene.layout.VBox;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Average mood by weather, weekday and hour of day, computed in the
+ * background by {@link MoodInsights} over the user's full history.
+ */
+public class InsightsView extends VBox {
+
+    private static final Logger log = LoggerFactory.getLogger(InsightsView.class);
+
+    private volatile boolean closed;
+
+    public InsightsView(User user) {
+        super(10);
+        setPadding(new Insets(10));
+        setPrefSize(720, 460);
+
+        Label status = new Label(LanguageManager.get("insights.loading"));
+        getChildren().addAll(new ProgressIndicator(), status);
+
+        Thread worker = new Thread(() -> {
+            try {
+                long start = System.nanoTime();
+                MoodInsights insights = MoodInsights.compute(user, () -> closed);
+                long millis = (System.nanoTime() - start) / 1_000_000;
+                if (insights == null)
+                    return;
+                Platform.runLater(() -> show(insights, millis));
+            } catch (Exception e) {
+                log.error("Insights failed", e);
+                Platform.runLater(() -> getChildren().setAll(new Label("Error: " + e.getMessage())));
+            }
+        }, "insights-loader");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public void dispose() {
+        closed = true;
+    }
+
+    private void show(MoodInsights insights, long millis) {
+        if (insights.getRowCount() == 0) {
+            getChildren().setAll(new Label(LanguageManager.get("insights.empty")));
+            return;
+        }
+
+        String[] hours = new String[24];
+        for (int h = 0; h < 24; h++) {
+            hours[h] = String.format("%02d", h);
+        }
+
+        TabPane tabs = new TabPane();
+        tabs.setTabClosingPolicy(TabPane.TabClosingPolicy.UNAVAILABLE);
+        tabs.getTabs().addAll(
+                new Tab(LanguageManager.get("insights.weather"),
+                        chart(WeatherManager.CATEGORIES, insights.getWeatherByMood())),
+                new Tab(LanguageManager.get("insights.weekday"),
+                        chart(MoodInsights.WEEKDAYS, insights.getWeekdayByMood())),
+                new Tab(LanguageManager.get("insights.hour"), chart(hours, insights.getHourByMood())));
+
+        Label footer = new Label(insights.getRowCount() + " entries analysed in " + millis + " ms");
+        footer.setStyle("-fx-text-fill: -color-text-secondary; -fx-font-size: 11px;");
+        getChildren().setAll(tabs, footer);
+    }
+
+    private static BarChart<String, Number> chart(String[] labels, int[][] table) {
+        CategoryAxis x = new CategoryAxis();
+        NumberAxis y = new NumberAxis(1, 5, 1);
+        y.setLabel(LanguageManager.get("insights.avgmood"));
+
+        BarChart<String, Number> chart = new BarChart<>(x, y);
+        chart.setLegendVisible(false);
+        chart.setAnimated(false);
+
+        XYChart.Series<String, Number> series = new XYChart.Series<>();
+        for (int i = 0; i < labels.length; i++) {
+            double avg = MoodInsights.averageMood(table[i]);
+            // Rows without any scored entry are left out rather than drawn as zero
+            if (!Double.isNaN(avg)) {
+                String label = labels[i] + " (" + MoodInsights.scoredCount(table[i]) + ")";
+                series.getData().add(new XYChart.Data<>(label, avg));
+            }
+        }
+        chart.getData().add(series);
+        return chart;
+    }
+}
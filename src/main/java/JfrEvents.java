@@ -0,0 +1,126 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Custom flight recorder events. Each one is begun before the work and
+ * committed after it, so JMC shows real durations and nests them under the
+ * save that caused them. With no recording running, begin() and commit() are
+ * no-ops the JIT removes. Stack traces are off: the names already say where
+ * the time went, and capturing stacks is the expensive part of an event.
+ */
+public class JfrEvents {
+
+    private static final String CATEGORY = "SmartJournal";
+
+    // --- DATABASE ---
+    @Name("smartjournal.Query")
+    @Label("SQL Query")
+    @Category({ CATEGORY, "Database" })
+    @StackTrace(false)
+    public static class QueryEvent extends Event {
+        @Label("Query")
+        @Description("Class.method that issued the statement")
+        public String query;
+
+        @Label("Rows")
+        @Description("Rows read or written; -1 when not counted")
+        public long rows = -1;
+
+        @Label("Succeeded")
+        public boolean succeeded;
+    }
+
+    // --- HTTP ---
+    @Name("smartjournal.HttpCall")
+    @Label("Outbound HTTP Call")
+    @Category({ CATEGORY, "HTTP" })
+    @StackTrace(false)
+    public static class HttpCallEvent extends Event {
+        @Label("Method")
+        public String method;
+
+        @Label("Host")
+        public String host;
+
+        @Label("Endpoint")
+        public String endpoint;
+
+        @Label("Status")
+        @Description("HTTP status code; -1 if no response, 0 if refused by the local quota")
+        public int status;
+
+        @Label("Request Size")
+        @DataAmount
+        public long requestBytes;
+
+        @Label("Response Size")
+        @DataAmount
+        public long responseBytes;
+    }
+
+    // --- SAVE PIPELINE ---
+    @Name("smartjournal.SaveEntry")
+    @Label("Save Entry")
+    @Category({ CATEGORY, "Save" })
+    @StackTrace(false)
+    public static class SaveEntryEvent extends Event {
+        @Label("Text Length")
+        public int textLength;
+
+        @Label("Update")
+        @Description("The date already had an entry")
+        public boolean update;
+
+        @Label("XP Gained")
+        public int xpGained;
+    }
+
+    @Name("smartjournal.SaveStage")
+    @Label("Save Stage")
+    @Category({ CATEGORY, "Save" })
+    @StackTrace(false)
+    public static class SaveStageEvent extends Event {
+        @Label("Stage")
+        public String stage;
+
+        /** A begun event for {@code stage}. */
+        public static SaveStageEvent start(String stage) {
+            SaveStageEvent event = new SaveStageEvent();
+            event.stage = stage;
+            event.begin();
+            return event;
+        }
+
+        /** Commits this stage and starts the next one, so stages tile the save without gaps. */
+        public SaveStageEvent next(String stage) {
+            commit();
+            return start(stage);
+        }
+    }
+
+    // --- SUMMARY ---
+    @Name("smartjournal.Summary")
+    @Label("Summary Generation")
+    @Category({ CATEGORY, "AI" })
+    @StackTrace(false)
+    public static class SummaryEvent extends Event {
+        @Label("Entries")
+        public int entries;
+
+        @Label("English")
+        public boolean english;
+
+        @Label("Prompt Length")
+        @Description("Characters in the request body")
+        public int promptChars;
+
+        @Label("Response Length")
+        @Description("Characters of generated text; 0 if the call failed")
+        public int responseChars;
+    }
+}
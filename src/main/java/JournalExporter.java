@@ -0,0 +1,257 @@
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams every entry of a user from a server-side cursor straight into an
+ * export file. Only one row is held at a time, so memory use is constant
+ * however large the journal is. Output goes to a ".part" file first and is
+ * moved into place only when the export completes.
+ */
+public class JournalExporter {
+
+    public enum Format {
+        NDJSON("JSON Lines", "*.ndjson"),
+        CSV("CSV", "*.csv"),
+        MARKDOWN_ZIP("Markdown (ZIP)", "*.zip");
+
+        public final String label;
+        public final String extension;
+
+        Format(String label, String extension) {
+            this.label = label;
+            this.extension = extension;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    /** Receives (rows written, total rows) after each row. */
+    public interface Progress {
+        void update(long done, long total);
+    }
+
+    private static final int FETCH_SIZE = 500;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String COUNT_SQL = "SELECT count(*) FROM journals WHERE user_email = ?";
+    private static final String STREAM_SQL = "SELECT entry_date, mood, mood_score, weather, content FROM journals "
+            + "WHERE user_email = ? ORDER BY entry_date";
+
+    /**
+     * @return number of entries written
+     * @throws CancellationException if {@code cancelled} fires; the partial file is removed
+     */
+    public static long export(User user, Format format, Path target, Progress progress, BooleanSupplier cancelled)
+            throws IOException, SQLException {
+        Path part = target.resolveSibling(target.getFileName() + ".part");
+        long written = 0;
+        try (Connection conn = DatabaseConnectionPool.getConnection()) {
+
+            long total = 0;
+            try (PreparedStatement ps = conn.prepareStatement(COUNT_SQL)) {
+                ps.setString(1, user.getEmail());
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next())
+                        total = rs.getLong(1);
+                }
+            }
+
+            conn.setAutoCommit(false); // required for pgjdbc to use a cursor
+            try (FileChannel channel = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+                    OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+                    PreparedStatement ps = conn.prepareStatement(STREAM_SQL)) {
+                ps.setFetchSize(FETCH_SIZE);
+                ps.setString(1, user.getEmail());
+                try (ResultSet rs = ps.executeQuery()) {
+                    RowWriter writer = switch (format) {
+                        case NDJSON -> new NdjsonWriter(out);
+                        case CSV -> new CsvWriter(out);
+                        case MARKDOWN_ZIP -> new MarkdownZipWriter(out);
+                    };
+                    while (rs.next()) {
+                        if (cancelled.getAsBoolean())
+                            throw new CancellationException("Export cancelled");
+                        writer.write(rs.getString(1), rs.getString(2), rs.getInt(3), rs.getString(4),
+                                rs.getString(5));
+                        written++;
+                        progress.update(written, total);
+                    }
+                    writer.finish();
+                }
+            } finally {
+                conn.commit();
+                conn.setAutoCommit(true);
+            }
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
+            return written;
+        } catch (IOException | SQLException | RuntimeException e) {
+            Files.deleteIfExists(part);
+            throw e;
+        }
+    }
+
+    // --- FORMAT WRITERS ---
+    // Package-private so tests can round-trip them through the importer's parsers
+    interface RowWriter {
+        void write(String date, String mood, int moodScore, String weather, String content) throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    static class NdjsonWriter implements RowWriter {
+        private final Writer w;
+
+        NdjsonWriter(OutputStream out) {
+            this.w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        }
+
+        @Override
+        public void write(String date, String mood, int moodScore, String weather, String content)
+                throws IOException {
+            w.write("{\"date\":");
+            jsonString(w, date);
+            w.write(",\"mood\":");
+            jsonString(w, mood);
+            w.write(",\"mood_score\":");
+            w.write(Integer.toString(moodScore));
+            w.write(",\"weather\":");
+            jsonString(w, weather);
+            w.write(",\"content\":");
+            jsonString(w, content);
+            w.write("}\n");
+        }
+
+        @Override
+        public void finish() throws IOException {
+            w.flush();
+        }
+
+        private static void jsonString(Writer w, String s) throws IOException {
+            if (s == null) {
+                w.write("null");
+                return;
+            }
+            w.write('"');
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                switch (c) {
+                    case '"' -> w.write("\\\"");
+                    case '\\' -> w.write("\\\\");
+                    case '\n' -> w.write("\\n");
+                    case '\r' -> w.write("\\r");
+                    case '\t' -> w.write("\\t");
+                    default -> {
+                        if (c < 0x20) {
+                            w.write(String.format("\\u%04x", (int) c));
+                        } else {
+                            w.write(c);
+                        }
+                    }
+                }
+            }
+            w.write('"');
+        }
+    }
+
+    static class CsvWriter implements RowWriter {
+        private final Writer w;
+
+        CsvWriter(OutputStream out) throws IOException {
+            this.w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+            w.write("date,mood,mood_score,weather,content\r\n");
+        }
+
+        @Override
+        public void write(String date, String mood, int moodScore, String weather, String content)
+                throws IOException {
+            w.write(date);
+            w.write(',');
+            field(mood);
+            w.write(',');
+            w.write(Integer.toString(moodScore));
+            w.write(',');
+            field(weather);
+            w.write(',');
+            field(content);
+            w.write("\r\n");
+        }
+
+        @Override
+        public void finish() throws IOException {
+            w.flush();
+        }
+
+        // RFC 4180: always quote, double embedded quotes
+        private void field(String s) throws IOException {
+            if (s == null)
+                return;
+            w.write('"');
+            int from = 0;
+            int quote;
+            while ((quote = s.indexOf('"', from)) >= 0) {
+                w.write(s, from, quote - from + 1);
+                w.write('"');
+                from = quote + 1;
+            }
+            w.write(s, from, s.length() - from);
+            w.write('"');
+        }
+    }
+
+    static class MarkdownZipWriter implements RowWriter {
+        private final ZipOutputStream zip;
+        private final Writer w;
+
+        MarkdownZipWriter(OutputStream out) {
+            this.zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+            // Unbuffered on purpose: flushed into the current zip entry before it's closed
+            this.w = new OutputStreamWriter(zip, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void write(String date, String mood, int moodScore, String weather, String content)
+                throws IOException {
+            // journal/2025/2025-01-31.md
+            zip.putNextEntry(new ZipEntry("journal/" + date.substring(0, 4) + "/" + date + ".md"));
+            w.write("# ");
+            w.write(date);
+            w.write("\n\n**Mood:** ");
+            w.write(mood == null ? "Unknown" : mood);
+            w.write("  \n**Weather:** ");
+            w.write(weather == null ? "-" : weather);
+            w.write("\n\n");
+            w.write(content == null ? "" : content);
+            w.write('\n');
+            w.flush();
+            zip.closeEntry();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            zip.finish();
+        }
+    }
+}
@@ -0,0 +1,493 @@
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bulk import of the formats written by {@link JournalExporter}: CSV, NDJSON,
+ * a ZIP of per-day Markdown files or a plain folder of them. Parsed rows are
+ * validated and streamed through COPY into a temporary staging table, then
+ * merged into journals with one INSERT ... ON CONFLICT, all in a single
+ * transaction. When a date appears more than once the last row wins.
+ */
+public class JournalImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(JournalImporter.class);
+
+    /** Receives (bytes read, total bytes) as the source is parsed. */
+    public interface Progress {
+        void update(long done, long total);
+    }
+
+    public static class Result {
+        public long parsed;
+        public long invalid;
+        public long duplicates;
+        public long inserted;
+        public long updated;
+        public boolean dryRun;
+        public long millis;
+        public final List<String> errors = new ArrayList<>();
+
+        @Override
+        public String toString() {
+            return (dryRun ? "[dry run] " : "") + inserted + " new, " + updated + " updated, " + duplicates
+                    + " duplicate, " + invalid + " invalid (" + millis + " ms)";
+        }
+    }
+
+    private static final int MAX_ERRORS = 20;
+    private static final int MAX_LABEL = 50; // weather / mood are VARCHAR(50)
+    private static final int COPY_BUFFER = 64 * 1024;
+
+    // --- PUBLIC API ---
+    /**
+     * Imports a file (.csv, .zip, anything else as NDJSON) or a folder of
+     * {@code yyyy-MM-dd.md} files.
+     *
+     * @param dryRun parse, stage and merge, then roll back; the result still has real counts
+     * @throws CancellationException if {@code cancelled} fires; nothing is written
+     */
+    public static Result importFrom(User user, Path source, boolean dryRun, Progress progress,
+            BooleanSupplier cancelled) throws IOException, SQLException {
+        long start = System.nanoTime();
+        Result result = new Result();
+        result.dryRun = dryRun;
+        String email = user.getEmail();
+
+        try (Connection conn = DatabaseConnectionPool.getConnection()) {
+            conn.setAutoCommit(false);
+            boolean committed = false;
+            try {
+                try (Statement st = conn.createStatement()) {
+                    st.execute("CREATE TEMP TABLE import_staging (seq INT, entry_date DATE, content TEXT, "
+                            + "weather VARCHAR(50), mood VARCHAR(50), mood_score SMALLINT) ON COMMIT DROP");
+                }
+
+                PGCopyOutputStream copy = new PGCopyOutputStream(conn.unwrap(PGConnection.class),
+                        "COPY import_staging FROM STDIN WITH (FORMAT csv)", COPY_BUFFER);
+                try {
+                    Writer out = new BufferedWriter(new OutputStreamWriter(copy, StandardCharsets.UTF_8), COPY_BUFFER);
+                    RowSink sink = new RowSink(out, result, cancelled);
+                    parse(source, sink, progress);
+                    out.close(); // ends the COPY
+                } finally {
+                    if (copy.isActive())
+                        copy.cancelCopy();
+                }
+
+                merge(conn, email, result);
+                if (dryRun) {
+                    conn.rollback();
+                } else {
+                    conn.commit();
+                    committed = true;
+                }
+            } finally {
+                if (!committed)
+                    conn.rollback();
+                conn.setAutoCommit(true);
+            }
+        }
+
+        if (!dryRun && result.inserted + result.updated > 0) {
+            // The stored calendar was cleared with the merge, so a failed rebuild is retried on next use
+            try {
+                JournalService.refreshAfterImport(user);
+            } catch (SQLException e) {
+                log.warn("Calendar rebuild after import failed; it will be rebuilt on next use", e);
+            }
+        }
+        result.millis = (System.nanoTime() - start) / 1_000_000;
+        return result;
+    }
+
+    private static void merge(Connection conn, String email, Result result) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT count(DISTINCT s.entry_date), count(DISTINCT j.entry_date) FROM import_staging s "
+                        + "LEFT JOIN journals j ON j.user_email = ? AND j.entry_date = s.entry_date")) {
+            ps.setString(1, email);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                long distinct = rs.getLong(1);
+                result.updated = rs.getLong(2);
+                result.duplicates = (result.parsed - result.invalid) - distinct;
+                result.inserted = distinct - result.updated;
+            }
+        }
+
+        String sql = "INSERT INTO journals (user_email, entry_date, content, weather, mood, mood_score, saved_at) "
+                + "SELECT DISTINCT ON (entry_date) ?, entry_date, content, weather, mood, mood_score, CURRENT_TIMESTAMP "
+                + "FROM import_staging ORDER BY entry_date, seq DESC "
+                + "ON CONFLICT (user_email, entry_date) DO UPDATE SET content = EXCLUDED.content, "
+                + "weather = EXCLUDED.weather, mood = EXCLUDED.mood, mood_score = EXCLUDED.mood_score, "
+                + "mood_confidence = NULL, saved_at = EXCLUDED.saved_at";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, email);
+            ps.executeUpdate();
+        }
+        try (PreparedStatement ps = conn.prepareStatement(
+                "UPDATE user_progress SET journal_days = NULL WHERE user_email = ?")) {
+            ps.setString(1, email);
+            ps.executeUpdate();
+        }
+    }
+
+    // --- STAGING ---
+    // Validates one parsed row and writes it to the COPY stream as CSV
+    static class RowSink {
+        private final Writer out;
+        private final Result result;
+        private final BooleanSupplier cancelled;
+        private final LocalDate today = LocalDate.now();
+        private int seq;
+
+        RowSink(Writer out, Result result, BooleanSupplier cancelled) {
+            this.out = out;
+            this.result = result;
+            this.cancelled = cancelled;
+        }
+
+        void accept(String where, String date, String mood, String weather, String content) throws IOException {
+            result.parsed++;
+            if ((result.parsed & 1023) == 0 && cancelled.getAsBoolean())
+                throw new CancellationException("Import cancelled");
+
+            LocalDate day;
+            try {
+                day = LocalDate.parse(date == null ? "" : date.trim());
+            } catch (DateTimeParseException e) {
+                reject(where, "bad date '" + date + "'");
+                return;
+            }
+            if (day.isAfter(today)) {
+                reject(where, "date " + day + " is in the future");
+                return;
+            }
+            if (content == null || content.isBlank()) {
+                reject(where, "empty content");
+                return;
+            }
+            mood = clip(mood);
+            weather = clip(weather);
+
+            out.write(Integer.toString(seq++));
+            out.write(',');
+            out.write(day.toString());
+            out.write(',');
+            field(content);
+            out.write(',');
+            field(weather);
+            out.write(',');
+            field(mood);
+            out.write(',');
+            out.write(Integer.toString(MoodScale.fromLabel(mood)));
+            out.write('\n');
+        }
+
+        private void reject(String where, String reason) {
+            result.invalid++;
+            if (result.errors.size() < MAX_ERRORS)
+                result.errors.add(where + ": " + reason);
+        }
+
+        private static String clip(String s) {
+            if (s == null)
+                return null;
+            s = s.trim();
+            if (s.isEmpty())
+                return null;
+            return s.length() > MAX_LABEL ? s.substring(0, MAX_LABEL) : s;
+        }
+
+        // COPY csv: unquoted empty = NULL, quoted = literal string
+        private void field(String s) throws IOException {
+            if (s == null)
+                return;
+            out.write('"');
+            int from = 0;
+            int quote;
+            while ((quote = s.indexOf('"', from)) >= 0) {
+                out.write(s, from, quote - from + 1);
+                out.write('"');
+                from = quote + 1;
+            }
+            out.write(s, from, s.length() - from);
+            out.write('"');
+        }
+    }
+
+    // --- PARSERS ---
+    private static void parse(Path source, RowSink sink, Progress progress) throws IOException {
+        if (Files.isDirectory(source)) {
+            parseMarkdownFolder(source, sink, progress);
+            return;
+        }
+        long total = Files.size(source);
+        String name = source.getFileName().toString().toLowerCase(Locale.ROOT);
+        try (CountingInputStream in = new CountingInputStream(Files.newInputStream(source), total, progress)) {
+            if (name.endsWith(".csv")) {
+                parseCsv(reader(in), sink);
+            } else if (name.endsWith(".zip")) {
+                parseMarkdownZip(in, sink);
+            } else {
+                parseNdjson(reader(in), sink);
+            }
+        }
+    }
+
+    private static Reader reader(InputStream in) {
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), COPY_BUFFER);
+    }
+
+    private static void parseNdjson(Reader in, RowSink sink) throws IOException {
+        JsonReader json = new JsonReader(in);
+        json.setLenient(true); // one object per line, no enclosing array
+        int line = 0;
+        while (json.peek() != JsonToken.END_DOCUMENT) {
+            line++;
+            String date = null, mood = null, weather = null, content = null;
+            json.beginObject();
+            while (json.hasNext()) {
+                String key = json.nextName();
+                if (json.peek() == JsonToken.NULL) {
+                    json.nextNull();
+                    continue;
+                }
+                switch (key) {
+                    case "date" -> date = json.nextString();
+                    case "mood" -> mood = json.nextString();
+                    case "weather" -> weather = json.nextString();
+                    case "content" -> content = json.nextString();
+                    default -> json.skipValue();
+                }
+            }
+            json.endObject();
+            sink.accept("record " + line, date, mood, weather, content);
+        }
+    }
+
+    static void parseCsv(Reader in, RowSink sink) throws IOException {
+        CsvReader csv = new CsvReader(in);
+        List<String> header = csv.next();
+        if (header == null)
+            return;
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("date") || !columns.containsKey("content"))
+            throw new IOException("CSV header must contain 'date' and 'content' columns");
+
+        List<String> row;
+        int line = 1;
+        while ((row = csv.next()) != null) {
+            line++;
+            sink.accept("line " + line, column(row, columns, "date"), column(row, columns, "mood"),
+                    column(row, columns, "weather"), column(row, columns, "content"));
+        }
+    }
+
+    private static String column(List<String> row, Map<String, Integer> columns, String name) {
+        Integer i = columns.get(name);
+        return i == null || i >= row.size() ? null : row.get(i);
+    }
+
+    static void parseMarkdownZip(InputStream in, RowSink sink) throws IOException {
+        ZipInputStream zip = new ZipInputStream(in, StandardCharsets.UTF_8);
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            if (!entry.isDirectory() && entry.getName().endsWith(".md")) {
+                String text = new String(zip.readAllBytes(), StandardCharsets.UTF_8);
+                parseMarkdown(entry.getName(), text, sink);
+            }
+        }
+    }
+
+    private static void parseMarkdownFolder(Path folder, RowSink sink, Progress progress) throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(folder)) {
+            files = walk.filter(p -> p.getFileName().toString().endsWith(".md")).sorted().toList();
+        }
+        for (int i = 0; i < files.size(); i++) {
+            Path file = files.get(i);
+            parseMarkdown(file.toString(), Files.readString(file), sink);
+            progress.update(i + 1, files.size());
+        }
+    }
+
+    /**
+     * Reads one day file. The date comes from the file name; the optional
+     * "# date" heading and Mood / Weather lines written by the exporter are
+     * stripped from the content.
+     */
+    private static void parseMarkdown(String path, String text, RowSink sink) throws IOException {
+        String name = path.substring(Math.max(path.lastIndexOf('/'), path.lastIndexOf('\\')) + 1);
+        String date = name.substring(0, name.length() - ".md".length());
+        String mood = null;
+        String weather = null;
+
+        String[] lines = text.split("\r?\n", -1);
+        int body = 0;
+        if (body < lines.length && lines[body].startsWith("# "))
+            body++;
+        while (body < lines.length) {
+            String line = lines[body].trim();
+            if (line.isEmpty()) {
+                body++;
+            } else if (line.startsWith("**Mood:**")) {
+                mood = line.substring("**Mood:**".length()).trim();
+                body++;
+            } else if (line.startsWith("**Weather:**")) {
+                weather = line.substring("**Weather:**".length()).trim();
+                body++;
+            } else {
+                break;
+            }
+        }
+        if ("Unknown".equals(mood))
+            mood = null;
+        if ("-".equals(weather))
+            weather = null;
+
+        StringBuilder content = new StringBuilder();
+        for (int i = body; i < lines.length; i++) {
+            if (content.length() > 0)
+                content.append('\n');
+            content.append(lines[i]);
+        }
+        sink.accept(path, date, mood, weather, content.toString().strip());
+    }
+
+    // RFC 4180 records; quoted fields may span lines
+    static class CsvReader {
+        private final Reader in;
+        private final StringBuilder field = new StringBuilder();
+        private boolean eof;
+
+        CsvReader(Reader in) {
+            this.in = in;
+        }
+
+        List<String> next() throws IOException {
+            if (eof)
+                return null;
+            List<String> row = new ArrayList<>();
+            field.setLength(0);
+            boolean quoted = false;
+            boolean wasQuoted = false;
+            int c;
+            while (true) {
+                c = in.read();
+                if (c == -1) {
+                    eof = true;
+                    if (row.isEmpty() && field.length() == 0 && !wasQuoted)
+                        return null;
+                    row.add(value(wasQuoted));
+                    return row;
+                }
+                if (quoted) {
+                    if (c == '"') {
+                        in.mark(1);
+                        int peek = in.read();
+                        if (peek == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            if (peek != -1)
+                                in.reset();
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                    wasQuoted = true;
+                } else if (c == ',') {
+                    row.add(value(wasQuoted));
+                    field.setLength(0);
+                    wasQuoted = false;
+                } else if (c == '\n') {
+                    row.add(value(wasQuoted));
+                    return row;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+            }
+        }
+
+        // Unquoted empty fields are NULL, matching the exporter
+        private String value(boolean wasQuoted) {
+            return field.length() == 0 && !wasQuoted ? null : field.toString();
+        }
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        private final long total;
+        private final Progress progress;
+        private long count;
+        private long reported;
+
+        CountingInputStream(InputStream in, long total, Progress progress) {
+            super(in);
+            this.total = total;
+            this.progress = progress;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0)
+                advance(1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0)
+                advance(n);
+            return n;
+        }
+
+        private void advance(long n) {
+            count += n;
+            if (count - reported >= COPY_BUFFER || count == total) {
+                reported = count;
+                progress.update(count, total);
+            }
+        }
+    }
+}
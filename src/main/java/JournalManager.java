@@ -1,43 +1,72 @@
+import com.google.gson.Gson;
+import java.io.IOException;
+import java.io.Reader;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class JournalManager {
-    private static final Connection dbConnection = DbManager.getConnection();
 
-    // --- SAVE & UPDATE ---
-    public static void saveJournal(User user, SmartJournal.JournalEntry entry) {
-        if (dbConnection == null)
-            return;
+    private static final Logger log = LoggerFactory.getLogger(JournalManager.class);
+
+    // Every call borrows a pooled connection, so concurrent callers (desktop
+    // executor threads, server request threads) never share one session.
+    // Each query is timed, and counted as an error when it throws.
+    private static final Metrics.Call SAVE_JOURNAL = Metrics.dbQuery("JournalManager.saveJournal");
+    private static final Metrics.Call SAVE_PROGRESS = Metrics.dbQuery("JournalManager.saveUserProgress");
+    private static final Metrics.Call RECENT_ENTRIES = Metrics.dbQuery("JournalManager.getRecentEntries");
+    private static final Metrics.Call WEEKLY_STATS = Metrics.dbQuery("JournalManager.getWeeklyStats");
+    private static final Metrics.Call LOAD_PROGRESS = Metrics.dbQuery("JournalManager.loadUserProgress");
+    private static final Metrics.Call BOOTSTRAP = Metrics.dbQuery("JournalManager.loadSessionBootstrap");
+    private static final Metrics.Call EMAIL_TAKEN = Metrics.dbQuery("JournalManager.isEmailTaken");
 
-        // UPSERT Logic: Insert new or update existing for the same day
-        String sql = "INSERT INTO journals (user_email, entry_date, content, weather, mood) "
-                + "VALUES (?, ?, ?, ?, ?) "
-                + "ON CONFLICT (user_email, entry_date) DO UPDATE "
-                + "SET content = EXCLUDED.content, weather = EXCLUDED.weather, mood = EXCLUDED.mood";
+    // --- SAVE & UPDATE ---
+    // UPSERT Logic: Insert new or update existing for the same day
+    static final String SAVE_JOURNAL_SQL = "INSERT INTO journals (user_email, entry_date, content, weather, mood, "
+            + "mood_score, mood_confidence) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT (user_email, entry_date) DO UPDATE "
+            + "SET content = EXCLUDED.content, weather = EXCLUDED.weather, mood = EXCLUDED.mood, "
+            + "mood_score = EXCLUDED.mood_score, mood_confidence = EXCLUDED.mood_confidence, "
+            + "saved_at = CURRENT_TIMESTAMP";
 
-        try (PreparedStatement ps = dbConnection.prepareStatement(sql)) {
+    /** @throws SQLException if the row wasn't written; callers must not record the day anywhere else then */
+    public static void saveJournal(User user, SmartJournal.JournalEntry entry) throws SQLException {
+        Metrics.Span span = SAVE_JOURNAL.begin();
+        try (Connection conn = DatabaseConnectionPool.getConnection();
+                PreparedStatement ps = conn.prepareStatement(SAVE_JOURNAL_SQL)) {
             ps.setString(1, user.getEmail());
             ps.setDate(2, Date.valueOf(entry.getDate()));
             ps.setString(3, entry.getContent());
             ps.setString(4, entry.getWeather());
             ps.setString(5, entry.getAiMood());
-            ps.executeUpdate();
+            ps.setShort(6, (short) entry.getMoodScore());
+            if (Float.isNaN(entry.getMoodConfidence()))
+                ps.setNull(7, Types.REAL);
+            else
+                ps.setFloat(7, entry.getMoodConfidence());
+            int rows = ps.executeUpdate();
+            span.success(rows);
+            MoodHeatmap.patch(user, entry.getDate(), entry.getMoodScore());
         } catch (SQLException e) {
-            e.printStackTrace();
+            span.failure();
+            throw e;
         }
     }
 
+    static final String SAVE_PROGRESS_SQL = "INSERT INTO user_progress (user_email, current_streak, total_xp, "
+            + "current_level, last_journal_date) "
+            + "VALUES (?, ?, ?, ?, CURRENT_DATE) "
+            + "ON CONFLICT (user_email) DO UPDATE SET "
+            + "current_streak = ?, total_xp = ?, current_level = ?, last_journal_date = CURRENT_DATE";
+
     public static void saveUserProgress(User user, int streak, int xp, int level) {
-        if (dbConnection == null)
-            return;
-        String sql = "INSERT INTO user_progress (user_email, current_streak, total_xp, current_level, last_journal_date) "
-                +
-                "VALUES (?, ?, ?, ?, CURRENT_DATE) " +
-                "ON CONFLICT (user_email) DO UPDATE SET " +
-                "current_streak = ?, total_xp = ?, current_level = ?, last_journal_date = CURRENT_DATE";
-        try (PreparedStatement ps = dbConnection.prepareStatement(sql)) {
+        Metrics.Span span = SAVE_PROGRESS.begin();
+        try (Connection conn = DatabaseConnectionPool.getConnection();
+                PreparedStatement ps = conn.prepareStatement(SAVE_PROGRESS_SQL)) {
             ps.setString(1, user.getEmail());
             ps.setInt(2, streak);
             ps.setInt(3, xp);
@@ -45,21 +74,72 @@ public class JournalManager {
             ps.setInt(5, streak);
             ps.setInt(6, xp);
             ps.setInt(7, level);
-            ps.executeUpdate();
+            int rows = ps.executeUpdate();
+            span.success(rows);
+        } catch (SQLException e) {
+            span.failure();
+            log.error("saveUserProgress failed", e);
+        }
+    }
+
+    static final String SAVE_PROGRESS_DAYS_SQL = "INSERT INTO user_progress (user_email, current_streak, total_xp, "
+            + "current_level, last_journal_date, longest_streak, journal_days, journal_days_base, week_xp, week_start) "
+            + "VALUES (?, ?, ?, ?, CURRENT_DATE, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT (user_email) DO UPDATE SET "
+            + "current_streak = EXCLUDED.current_streak, "
+            + "total_xp = COALESCE(user_progress.total_xp, 0) + EXCLUDED.total_xp, "
+            + "current_level = 1 + (COALESCE(user_progress.total_xp, 0) + EXCLUDED.total_xp) / "
+            + GamificationManager.XP_PER_LEVEL + ", "
+            + "last_journal_date = CURRENT_DATE, "
+            + "longest_streak = EXCLUDED.longest_streak, journal_days = EXCLUDED.journal_days, "
+            + "journal_days_base = EXCLUDED.journal_days_base, "
+            + "week_xp = CASE WHEN user_progress.week_start = EXCLUDED.week_start "
+            + "THEN COALESCE(user_progress.week_xp, 0) ELSE 0 END + EXCLUDED.week_xp, "
+            + "week_start = EXCLUDED.week_start "
+            + "RETURNING total_xp, week_xp";
+
+    // Like the above, plus the streak engine's calendar and longest streak, but
+    // XP is an increment applied by the statement itself: there is no
+    // read-modify-write that a failed read could turn into a reset. week_xp
+    // gets the same increment and restarts at 0 when the (ISO) week changes.
+    // Returns the new total XP and week XP.
+    public static int[] addUserProgress(User user, int streak, int xpGained, StreakEngine.JournalDays days)
+            throws SQLException {
+        Metrics.Span span = SAVE_PROGRESS.begin();
+        try (Connection conn = DatabaseConnectionPool.getConnection();
+                PreparedStatement ps = conn.prepareStatement(SAVE_PROGRESS_DAYS_SQL)) {
+            ps.setString(1, user.getEmail());
+            ps.setInt(2, streak);
+            ps.setInt(3, xpGained);
+            ps.setInt(4, GamificationManager.calculateLevel(xpGained)); // first row: the gain is the total
+            ps.setInt(5, days.getLongestStreak());
+            ps.setBytes(6, days.toBytes());
+            ps.setInt(7, (int) days.getBaseDay());
+            ps.setInt(8, xpGained);
+            ps.setDate(9, java.sql.Date.valueOf(Leaderboard.currentWeekStart()));
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next())
+                    throw new SQLException("Progress upsert returned no row");
+                int[] progress = { rs.getInt(1), rs.getInt(2) };
+                span.success(1);
+                return progress;
+            }
         } catch (SQLException e) {
-            e.printStackTrace();
+            span.failure();
+            throw e;
         }
     }
 
     // --- FETCH DATA ---
+    static final String RECENT_ENTRIES_SQL = "SELECT entry_date, content, mood, weather, mood_score, mood_confidence "
+            + "FROM journals WHERE user_email = ? ORDER BY entry_date DESC LIMIT 20";
+
     public static List<SmartJournal.JournalEntry> getRecentEntries(User user) {
         List<SmartJournal.JournalEntry> history = new ArrayList<>();
-        if (dbConnection == null)
-            return history;
-
-        String sql = "SELECT entry_date, content, mood, weather FROM journals WHERE user_email = ? ORDER BY entry_date DESC LIMIT 20";
 
-        try (PreparedStatement ps = dbConnection.prepareStatement(sql)) {
+        Metrics.Span span = RECENT_ENTRIES.begin();
+        try (Connection conn = DatabaseConnectionPool.getConnection();
+                PreparedStatement ps = conn.prepareStatement(RECENT_ENTRIES_SQL)) {
             ps.setString(1, user.getEmail());
             ResultSet rs = ps.executeQuery();
 
@@ -70,27 +150,29 @@ public class JournalManager {
                 String weather = rs.getString("weather");
 
                 // Reconstruct entry
-                history.add(new SmartJournal.JournalEntry(date, content, mood, weather));
+                history.add(new SmartJournal.JournalEntry(date, content, mood, weather, rs.getShort("mood_score"),
+                        readConfidence(rs)));
             }
+            span.success(history.size());
         } catch (SQLException e) {
-            e.printStackTrace();
+            span.failure();
+            log.error("getRecentEntries failed", e);
         }
         return history;
     }
 
     // NEW: Fetch last 7 days for the Summary Page
     // NEW: Fetch weekly stats based on explicit date range
+    static final String WEEKLY_STATS_SQL = "SELECT entry_date, content, mood, weather, mood_score, mood_confidence "
+            + "FROM journals WHERE user_email = ? AND entry_date >= ? AND entry_date <= ? "
+            + "ORDER BY entry_date ASC";
+
     public static List<SmartJournal.JournalEntry> getWeeklyStats(User user, LocalDate startDate, LocalDate endDate) {
         List<SmartJournal.JournalEntry> weekStats = new ArrayList<>();
-        if (dbConnection == null)
-            return weekStats;
-
-        // Get entries within the date range
-        String sql = "SELECT entry_date, content, mood, weather FROM journals " +
-                "WHERE user_email = ? AND entry_date >= ? AND entry_date <= ? " +
-                "ORDER BY entry_date ASC";
 
-        try (PreparedStatement ps = dbConnection.prepareStatement(sql)) {
+        Metrics.Span span = WEEKLY_STATS.begin();
+        try (Connection conn = DatabaseConnectionPool.getConnection();
+                PreparedStatement ps = conn.prepareStatement(WEEKLY_STATS_SQL)) {
             ps.setString(1, user.getEmail());
             ps.setDate(2, Date.valueOf(startDate));
             ps.setDate(3, Date.valueOf(endDate));
@@ -101,20 +183,26 @@ public class JournalManager {
                 String mood = rs.getString("mood");
                 String weather = rs.getString("weather");
                 String content = rs.getString("content"); // Fetch content too for summary context
-                weekStats.add(new SmartJournal.JournalEntry(date, content, mood, weather));
+                weekStats.add(new SmartJournal.JournalEntry(date, content, mood, weather, rs.getShort("mood_score"),
+                        readConfidence(rs)));
             }
+            span.success(weekStats.size());
         } catch (SQLException e) {
-            e.printStackTrace();
+            span.failure();
+            log.error("getWeeklyStats failed", e);
         }
         return weekStats;
     }
 
+    static final String LOAD_PROGRESS_SQL = "SELECT current_streak, total_xp, current_level FROM user_progress "
+            + "WHERE user_email = ?";
+
+    /** Streak, total XP and level; zeros for a user with no progress yet, null if the read failed. */
     public static int[] loadUserProgress(User user) {
         int[] stats = { 0, 0, 1 };
-        if (dbConnection == null)
-            return stats;
-        String sql = "SELECT current_streak, total_xp, current_level FROM user_progress WHERE user_email = ?";
-        try (PreparedStatement ps = dbConnection.prepareStatement(sql)) {
+        Metrics.Span span = LOAD_PROGRESS.begin();
+        try (Connection conn = DatabaseConnectionPool.getConnection();
+                PreparedStatement ps = conn.prepareStatement(LOAD_PROGRESS_SQL)) {
             ps.setString(1, user.getEmail());
             ResultSet rs = ps.executeQuery();
             if (rs.next()) {
@@ -122,20 +210,78 @@ public class JournalManager {
                 stats[1] = rs.getInt("total_xp");
                 stats[2] = rs.getInt("current_level");
             }
+            span.success();
         } catch (SQLException e) {
-            e.printStackTrace();
+            span.failure();
+            log.error("loadUserProgress failed", e);
+            return null;
         }
         return stats;
     }
 
+    // --- SESSION BOOTSTRAP ---
+    // One statement instead of separate round trips for the user row, progress,
+    // recent entries and unlocked achievement ids. Postgres assembles a single JSON document
+    // that Gson reads straight off the result stream.
+    static final String BOOTSTRAP_SQL = "SELECT json_build_object("
+            + "'user', (SELECT json_build_object('display_name', u.display_name, 'start_of_week', u.start_of_week) "
+            + "         FROM users u WHERE u.email = ?), "
+            + "'progress', (SELECT json_build_object('current_streak', p.current_streak, 'total_xp', p.total_xp, "
+            + "             'current_level', p.current_level, 'longest_streak', p.longest_streak, "
+            + "             'journal_days', encode(p.journal_days, 'base64'), 'journal_days_base', p.journal_days_base) "
+            + "             FROM user_progress p WHERE p.user_email = ?), "
+            + "'entries', (SELECT COALESCE(json_agg(j ORDER BY j.entry_date DESC), '[]'::json) FROM ("
+            + "             SELECT entry_date, content, mood, weather, mood_score, mood_confidence "
+            + "             FROM journals WHERE user_email = ? "
+            + "             ORDER BY entry_date DESC LIMIT 20) j), "
+            + "'unlocked_achievements', (SELECT COALESCE(json_agg(ua.achievement_id), '[]'::json) "
+            + "             FROM user_achievements ua WHERE ua.user_email = ?)"
+            + ")";
+
+    private static final Gson gson = new Gson();
+
+    public static SessionBootstrap loadSessionBootstrap(User user) {
+        Metrics.Span span = BOOTSTRAP.begin();
+        try (Connection conn = DatabaseConnectionPool.getConnection();
+                PreparedStatement ps = conn.prepareStatement(BOOTSTRAP_SQL)) {
+            for (int i = 1; i <= 4; i++) {
+                ps.setString(i, user.getEmail());
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                SessionBootstrap bootstrap = null;
+                if (rs.next()) {
+                    try (Reader json = rs.getCharacterStream(1)) {
+                        bootstrap = gson.fromJson(json, SessionBootstrap.class);
+                    }
+                }
+                span.success();
+                return bootstrap;
+            }
+        } catch (SQLException | IOException e) {
+            span.failure();
+            log.error("loadSessionBootstrap failed", e);
+        }
+        return null;
+    }
+
+    private static float readConfidence(ResultSet rs) throws SQLException {
+        float confidence = rs.getFloat("mood_confidence");
+        return rs.wasNull() ? Float.NaN : confidence;
+    }
+
     // --- AUTH UTILS ---
+    static final String EMAIL_TAKEN_SQL = "SELECT 1 FROM users WHERE email = ?";
+
     public static boolean isEmailTaken(String email) {
-        if (dbConnection == null)
-            return false;
-        try (PreparedStatement ps = dbConnection.prepareStatement("SELECT 1 FROM users WHERE email = ?")) {
+        Metrics.Span span = EMAIL_TAKEN.begin();
+        try (Connection conn = DatabaseConnectionPool.getConnection();
+                PreparedStatement ps = conn.prepareStatement(EMAIL_TAKEN_SQL)) {
             ps.setString(1, email);
-            return ps.executeQuery().next();
+            boolean taken = ps.executeQuery().next();
+            span.success(taken ? 1 : 0);
+            return taken;
         } catch (SQLException e) {
+            span.failure();
             return true;
         }
     }
@@ -0,0 +1,438 @@
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Headless JSON API over the same managers the desktop app uses. Every
+ * request runs on its own virtual thread, so blocking JDBC and AI calls are
+ * cheap; all of them share the one Hikari pool (size via DB_POOL_SIZE).
+ *
+ * <pre>
+ * GET  /health
+ * POST /api/register   {"email", "displayName", "password"}
+ * POST /api/login                                  (Basic auth) -> {"token", "expiresAt", "user"}
+ * POST /api/logout
+ * GET  /api/entries                                (Bearer token from here on)
+ * POST /api/entries    {"date"?, "content", "weather"?}
+ * GET  /api/progress
+ * GET  /api/summary?start=yyyy-MM-dd&end=yyyy-MM-dd&lang=en|bm
+ * GET  /api/weather?lang=en|bm
+ * </pre>
+ *
+ * Run with {@code java -cp ... JournalServer [port]} (default SERVER_PORT or 8080).
+ */
+public class JournalServer {
+
+    private static final Logger log = LoggerFactory.getLogger(JournalServer.class);
+
+    private static final Gson gson = new Gson();
+    // Generous for a journal entry; anything larger is refused before it's parsed
+    private static final int MAX_BODY_BYTES = 1 << 20;
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public JournalServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), 4096);
+        server.setExecutor(executor);
+        server.createContext("/health", exchange -> {
+            JsonObject ok = new JsonObject();
+            ok.addProperty("status", "ok");
+            JsonObject hashing = new JsonObject();
+            hashing.addProperty("iterations", PasswordHasher.getIterations());
+            hashing.addProperty("queueDepth", PasswordHasher.getQueueDepth());
+            hashing.addProperty("activeWorkers", PasswordHasher.getActiveWorkers());
+            hashing.addProperty("hashes", PasswordHasher.getHashCount());
+            hashing.addProperty("meanMillis", PasswordHasher.getMeanHashMillis());
+            hashing.addProperty("maxMillis", PasswordHasher.getMaxHashMillis());
+            hashing.addProperty("rejected", PasswordHasher.getRejectedCount());
+            hashing.addProperty("rehashed", PasswordHasher.getRehashCount());
+            ok.add("passwordHashing", hashing);
+            JsonArray quotas = new JsonArray();
+            for (RateLimiter.Stats stats : RateLimiter.getStats()) {
+                quotas.add(gson.toJsonTree(stats));
+            }
+            ok.add("aiQuotas", quotas);
+            send(exchange, 200, ok);
+        });
+        server.createContext("/api/register", route("POST", false, this::register));
+        server.createContext("/api/login", route("POST", false, this::login));
+        server.createContext("/api/logout", route("POST", true, this::logout));
+        server.createContext("/api/entries", exchange -> {
+            if ("POST".equals(exchange.getRequestMethod()))
+                route("POST", true, this::saveEntry).handle(exchange);
+            else
+                route("GET", true, this::entries).handle(exchange);
+        });
+        server.createContext("/api/progress", route("GET", true, this::progress));
+        server.createContext("/api/summary", route("GET", true, this::summary));
+        server.createContext("/api/weather", route("GET", true, this::weather));
+    }
+
+    public void start() {
+        Metrics.startFromEnv();
+        RecordingManager.startFromEnv();
+        Leaderboard.start();
+        server.start();
+        log.info("Listening on port {}", server.getAddress().getPort());
+    }
+
+    public void stop() {
+        server.stop(2);
+        executor.shutdown();
+        Leaderboard.stop();
+        DatabaseConnectionPool.close();
+    }
+
+    public static void main(String[] args) throws IOException {
+        String configured = EnvLoader.get("SERVER_PORT");
+        int port = args.length > 0 ? Integer.parseInt(args[0])
+                : configured != null ? Integer.parseInt(configured) : 8080;
+        DbManager.initializeDatabase();
+        JournalServer journalServer = new JournalServer(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(journalServer::stop, "server-shutdown"));
+        journalServer.start();
+    }
+
+    // --- ROUTING ---
+    private interface Endpoint {
+        Object handle(HttpExchange exchange, User user) throws Exception;
+    }
+
+    /** Thrown by endpoints to answer with a status and message instead of 500. */
+    static class ApiException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private HttpHandler route(String method, boolean authenticated, Endpoint endpoint) {
+        return exchange -> {
+            // Each request runs on its own virtual thread, so the root span is simply thread-local
+            Tracer.Span trace = Tracer.startRoot(exchange.getRequestMethod() + " "
+                    + exchange.getHttpContext().getPath());
+            try {
+                handle(exchange, method, authenticated, endpoint);
+            } finally {
+                trace.close();
+            }
+        };
+    }
+
+    private void handle(HttpExchange exchange, String method, boolean authenticated, Endpoint endpoint) {
+        try {
+            if (!method.equals(exchange.getRequestMethod()))
+                throw new ApiException(405, "Method not allowed");
+            User user = null;
+            if (authenticated) {
+                user = authenticate(exchange);
+                if (user == null) {
+                    exchange.getResponseHeaders().set("WWW-Authenticate", "Bearer realm=\"SmartJournal\"");
+                    throw new ApiException(401, "Authentication required");
+                }
+            }
+            Object body = endpoint.handle(exchange, user);
+            send(exchange, 200, body);
+        } catch (ApiException e) {
+            sendError(exchange, e.status, e.getMessage());
+        } catch (PasswordHasher.OverloadedException e) {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            sendError(exchange, 503, e.getMessage());
+        } catch (IllegalArgumentException | JsonParseException | DateTimeParseException e) {
+            sendError(exchange, 400, e.getMessage());
+        } catch (Exception e) {
+            log.error("{} {} failed", exchange.getRequestMethod(), exchange.getRequestURI().getPath(), e);
+            sendError(exchange, 500, "Internal error");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // Identity comes from the session cache; no database round trip
+    private static User authenticate(HttpExchange exchange) {
+        return SessionManager.lookup(bearerToken(exchange));
+    }
+
+    private static String bearerToken(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.startsWith("Bearer "))
+            return null;
+        return header.substring(7).trim();
+    }
+
+    // Credentials are only checked here, once per session
+    private static User checkBasicCredentials(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.startsWith("Basic "))
+            return null;
+        String decoded;
+        try {
+            decoded = new String(Base64.getDecoder().decode(header.substring(6).trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        int colon = decoded.indexOf(':');
+        if (colon < 0)
+            return null;
+        return new UserManager().login(decoded.substring(0, colon), decoded.substring(colon + 1));
+    }
+
+    // --- ENDPOINTS ---
+    private Object register(HttpExchange exchange, User ignored) throws IOException {
+        JsonObject body = readJson(exchange);
+        String email = string(body, "email");
+        String displayName = string(body, "displayName");
+        String password = string(body, "password");
+        if (email == null || displayName == null || password == null)
+            throw new ApiException(400, "email, displayName and password are required");
+        try {
+            new UserManager().register(email.trim(), displayName.trim(), password);
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(e.getMessage().contains("taken") ? 409 : 400, e.getMessage());
+        }
+        JsonObject created = new JsonObject();
+        created.addProperty("email", email.trim());
+        return created;
+    }
+
+    private Object login(HttpExchange exchange, User ignored) {
+        User user = checkBasicCredentials(exchange);
+        if (user == null) {
+            exchange.getResponseHeaders().set("WWW-Authenticate", "Basic realm=\"SmartJournal\"");
+            throw new ApiException(401, "Invalid credentials");
+        }
+        SessionManager.Session session = SessionManager.create(user);
+        JsonObject json = new JsonObject();
+        json.addProperty("token", session.token);
+        json.addProperty("expiresAt", session.getExpiresAt());
+        json.add("user", userJson(user));
+        return json;
+    }
+
+    private Object logout(HttpExchange exchange, User user) {
+        SessionManager.invalidate(bearerToken(exchange));
+        JsonObject json = new JsonObject();
+        json.addProperty("status", "logged out");
+        return json;
+    }
+
+    private Object entries(HttpExchange exchange, User user) {
+        JsonArray list = new JsonArray();
+        for (SmartJournal.JournalEntry entry : JournalManager.getRecentEntries(user)) {
+            list.add(entryJson(entry));
+        }
+        return list;
+    }
+
+    private Object saveEntry(HttpExchange exchange, User user) throws IOException, SQLException {
+        JsonObject body = readJson(exchange);
+        String content = string(body, "content");
+        if (content == null || content.isBlank())
+            throw new ApiException(400, "content is required");
+        LocalDateTime now = clientNow(exchange);
+        String dateText = string(body, "date");
+        LocalDate date = dateText == null ? now.toLocalDate() : LocalDate.parse(dateText);
+        if (date.isAfter(now.toLocalDate()))
+            throw new ApiException(400, "date is in the future");
+
+        JournalService.SaveResult result = JournalService.saveEntry(user, date, content, string(body, "weather"),
+                now);
+        JsonObject json = new JsonObject();
+        json.add("entry", entryJson(result.entry));
+        json.addProperty("update", result.update);
+        json.addProperty("xpGained", result.xpGained);
+        json.addProperty("totalXp", result.totalXp);
+        json.addProperty("level", result.level);
+        json.addProperty("levelUp", result.isLevelUp());
+        json.addProperty("streak", result.streak);
+        json.add("quests", questsJson(result.quests));
+        JsonArray unlocked = new JsonArray();
+        for (Achievement a : result.newAchievements) {
+            unlocked.add(a.getId());
+        }
+        json.add("newAchievements", unlocked);
+        return json;
+    }
+
+    private Object progress(HttpExchange exchange, User user) throws SQLException {
+        LocalDate today = clientNow(exchange).toLocalDate();
+        int[] stats = JournalManager.loadUserProgress(user);
+        if (stats == null)
+            throw new SQLException("Progress unavailable");
+        JsonObject json = new JsonObject();
+        json.addProperty("streak", StreakEngine.getOrLoad(user).getCurrentStreak(today));
+        json.addProperty("totalXp", stats[1]);
+        json.addProperty("level", stats[2]);
+        json.add("quests", questsJson(QuestEngine.getDailyQuests(user, today)));
+        JsonArray achievements = new JsonArray();
+        for (Achievement a : AchievementEngine.getAchievements(user)) {
+            JsonObject item = new JsonObject();
+            item.addProperty("id", a.getId());
+            item.addProperty("title", a.getTitle());
+            item.addProperty("unlocked", a.isUnlocked());
+            achievements.add(item);
+        }
+        json.add("achievements", achievements);
+        return json;
+    }
+
+    private Object summary(HttpExchange exchange, User user) {
+        Map<String, String> query = query(exchange);
+        LocalDate end = query.containsKey("end") ? LocalDate.parse(query.get("end"))
+                : clientNow(exchange).toLocalDate();
+        LocalDate start = query.containsKey("start") ? LocalDate.parse(query.get("start")) : end.minusDays(6);
+        if (start.isAfter(end) || start.plusDays(31).isBefore(end))
+            throw new ApiException(400, "start must be before end and at most 31 days earlier");
+        List<SmartJournal.JournalEntry> range = JournalManager.getWeeklyStats(user, start, end);
+        JsonObject json = new JsonObject();
+        json.addProperty("start", start.toString());
+        json.addProperty("end", end.toString());
+        json.addProperty("entries", range.size());
+        json.addProperty("summary", SummaryGenerator.generate(user, range, !"bm".equals(query.get("lang"))));
+        return json;
+    }
+
+    private Object weather(HttpExchange exchange, User user) {
+        JsonObject json = new JsonObject();
+        json.addProperty("weather", WeatherManager.getCurrentWeather(!"bm".equals(query(exchange).get("lang"))));
+        return json;
+    }
+
+    // --- JSON HELPERS ---
+    private static JsonObject userJson(User user) {
+        JsonObject json = new JsonObject();
+        json.addProperty("email", user.getEmail());
+        json.addProperty("displayName", user.getDisplayName());
+        json.addProperty("startOfWeek", user.getStartOfWeek());
+        return json;
+    }
+
+    private static JsonObject entryJson(SmartJournal.JournalEntry entry) {
+        JsonObject json = new JsonObject();
+        json.addProperty("date", entry.getDate().toString());
+        json.addProperty("content", entry.getContent());
+        json.addProperty("mood", entry.getAiMood());
+        json.addProperty("moodScore", entry.getMoodScore());
+        if (!Float.isNaN(entry.getMoodConfidence()))
+            json.addProperty("moodConfidence", entry.getMoodConfidence());
+        json.addProperty("weather", entry.getWeather());
+        return json;
+    }
+
+    private static JsonArray questsJson(List<Quest> quests) {
+        JsonArray list = new JsonArray();
+        for (Quest q : quests) {
+            JsonObject item = new JsonObject();
+            item.addProperty("id", q.getId());
+            item.addProperty("description", q.getDescription());
+            item.addProperty("progress", q.getProgress());
+            item.addProperty("target", q.getTarget());
+            item.addProperty("xpReward", q.getXpReward());
+            item.addProperty("completed", q.isCompleted());
+            list.add(item);
+        }
+        return list;
+    }
+
+    // The user's wall clock: X-Time-Zone (an IANA zone id such as Asia/Kuala_Lumpur) if sent, else the server's
+    private static LocalDateTime clientNow(HttpExchange exchange) {
+        String zone = exchange.getRequestHeaders().getFirst("X-Time-Zone");
+        if (zone == null || zone.isBlank())
+            return LocalDateTime.now();
+        try {
+            return LocalDateTime.now(ZoneId.of(zone.trim()));
+        } catch (DateTimeException e) {
+            throw new ApiException(400, "unknown time zone " + zone);
+        }
+    }
+
+    private static String string(JsonObject body, String key) {
+        JsonElement value = body.get(key);
+        if (value == null || value.isJsonNull())
+            return null;
+        if (!value.isJsonPrimitive())
+            throw new ApiException(400, key + " must be a string");
+        return value.getAsString();
+    }
+
+    private static JsonObject readJson(HttpExchange exchange) throws IOException {
+        String length = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (length != null && !length.isBlank() && Long.parseLong(length.trim()) > MAX_BODY_BYTES)
+            throw new ApiException(413, "Request body too large");
+        byte[] bytes;
+        try (InputStream in = exchange.getRequestBody()) {
+            bytes = in.readNBytes(MAX_BODY_BYTES + 1); // also caps chunked bodies, which have no length
+        }
+        if (bytes.length > MAX_BODY_BYTES)
+            throw new ApiException(413, "Request body too large");
+        JsonObject body = gson.fromJson(new String(bytes, StandardCharsets.UTF_8), JsonObject.class);
+        if (body == null)
+            throw new ApiException(400, "JSON body required");
+        return body;
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null)
+            return params;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static void send(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = gson.toJson(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        Tracer.annotate("status", status);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) {
+        JsonObject error = new JsonObject();
+        error.addProperty("error", message == null ? "Error" : message);
+        try {
+            send(exchange, status, error);
+        } catch (IOException e) {
+            // Client went away; nothing left to tell it
+        }
+    }
+}
@@ -0,0 +1,211 @@
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The save-an-entry workflow without any UI: sentiment, the entry upsert,
+ * XP / level / streak, quests, leaderboard and achievements. The desktop app
+ * applies the result to its properties; the HTTP server returns it as JSON.
+ */
+public class JournalService {
+
+    private static final Gson gson = new Gson();
+
+    // Saves for the same user are serialized (the cached calendar is read-modify-write). Striped
+    // ReentrantLocks rather than synchronized so virtual threads don't pin.
+    private static final ReentrantLock[] locks = new ReentrantLock[256];
+
+    static {
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    private static ReentrantLock lockFor(User user) {
+        return locks[(user.getEmail().hashCode() & 0x7fffffff) % locks.length];
+    }
+
+    public static class SaveResult {
+        public final SmartJournal.JournalEntry entry;
+        public final boolean update;
+        public final int xpGained;
+        public final int totalXp;
+        public final int previousLevel;
+        public final int level;
+        public final int streak;
+        public final int weekXp;
+        public final List<Quest> quests;
+        public final List<Achievement> newAchievements;
+
+        SaveResult(SmartJournal.JournalEntry entry, boolean update, int xpGained, int totalXp, int previousLevel,
+                int level, int streak, int weekXp, List<Quest> quests, List<Achievement> newAchievements) {
+            this.entry = entry;
+            this.update = update;
+            this.xpGained = xpGained;
+            this.totalXp = totalXp;
+            this.previousLevel = previousLevel;
+            this.level = level;
+            this.streak = streak;
+            this.weekXp = weekXp;
+            this.quests = quests;
+            this.newAchievements = newAchievements;
+        }
+
+        public boolean isLevelUp() {
+            return level > previousLevel;
+        }
+    }
+
+    /**
+     * Runs the whole save; blocks on the sentiment API and the database.
+     *
+     * @param localNow the user's wall-clock time; quests and the current streak follow the user's day
+     * @throws SQLException if the user's journal calendar can't be loaded or the entry can't be written
+     *         (the calendar, XP, quests and achievements are untouched then), or if the progress upsert
+     *         fails (the entry is saved, the XP isn't)
+     */
+    public static SaveResult saveEntry(User user, LocalDate date, String text, String weather,
+            LocalDateTime localNow) throws SQLException {
+        LocalDate today = localNow.toLocalDate();
+        // One event for the whole save, with a stage event per step nested under it
+        JfrEvents.SaveEntryEvent save = new JfrEvents.SaveEntryEvent();
+        save.begin();
+        JfrEvents.SaveStageEvent stage = JfrEvents.SaveStageEvent.start("sentiment");
+        Tracer.Span span = Tracer.start("JournalService.saveEntry");
+
+        // Sentiment is the slow part and needs no lock
+        MoodReading mood = analyzeSentiment(user, text);
+        SmartJournal.JournalEntry entry = new SmartJournal.JournalEntry(date, text, mood.label, weather, mood.score,
+                mood.confidence);
+
+        stage = stage.next("lock");
+        ReentrantLock lock = lockFor(user);
+        lock.lock();
+        try {
+            // An update is any date already on the user's journal calendar
+            stage = stage.next("calendar");
+            StreakEngine.JournalDays days = StreakEngine.getOrLoad(user);
+            boolean isUpdate = days.isJournaled(date);
+
+            // Everything below derives from this row existing, so a failed write ends the save here
+            stage = stage.next("journal");
+            JournalManager.saveJournal(user, entry);
+
+            // Logic: 10 XP for update, 50+ chars for new.
+            int xpGained = isUpdate ? 10 : (50 + text.length());
+
+            // Quests advanced by this save add their rewards on top
+            stage = stage.next("quests");
+            QuestEngine.Outcome quests = QuestEngine.onJournalSaved(user, today,
+                    new QuestEngine.JournalEvent(text.length(), localNow.getHour(), mood.score));
+            xpGained += quests.xpEarned;
+
+            // Streak comes from the calendar: gaps reset it, back-dated entries can bridge runs
+            stage = stage.next("progress");
+            days.record(date);
+            int streak = days.getCurrentStreak(today);
+
+            // The database adds the XP, so the stored total is never read back and overwritten
+            int[] progress = JournalManager.addUserProgress(user, streak, xpGained, days);
+            int totalXp = progress[0];
+            int weekXp = progress[1];
+            int previousLevel = GamificationManager.calculateLevel(totalXp - xpGained);
+            int level = GamificationManager.calculateLevel(totalXp);
+            stage = stage.next("leaderboard");
+            Leaderboard.onProgress(user, totalXp, weekXp, streak);
+            stage = stage.next("achievements");
+            List<Achievement> unlocked = AchievementEngine.evaluate(user, days.getDayCount(), streak, level);
+
+            save.update = isUpdate;
+            save.xpGained = xpGained;
+            span.attr("update", isUpdate).attr("xp", xpGained);
+            return new SaveResult(entry, isUpdate, xpGained, totalXp, previousLevel, level, streak, weekXp,
+                    quests.quests, unlocked);
+        } finally {
+            lock.unlock();
+            stage.commit();
+            save.textLength = text.length();
+            save.commit();
+            span.close();
+        }
+    }
+
+    /**
+     * Re-derives everything a save would have updated after journals were
+     * written in bulk (an import): the streak calendar, the streak leaderboard,
+     * today's quest state and achievements. Runs under the same per-user lock
+     * as saves, so a concurrent save can't interleave with the rebuild.
+     *
+     * @throws SQLException if the calendar can't be rebuilt; the cached one has been dropped by then
+     */
+    public static void refreshAfterImport(User user) throws SQLException {
+        ReentrantLock lock = lockFor(user);
+        lock.lock();
+        try {
+            StreakEngine.evict(user.getEmail());
+            MoodHeatmap.invalidate(user.getEmail());
+            // Imported rows may include today, which the in-memory quest progress hasn't seen
+            QuestEngine.evict(user.getEmail());
+
+            StreakEngine.JournalDays days = StreakEngine.rebuild(user.getEmail());
+            int streak = days.getCurrentStreak(LocalDate.now());
+            Leaderboard.onStreak(user, streak);
+            int[] progress = JournalManager.loadUserProgress(user);
+            if (progress != null)
+                AchievementEngine.evaluate(user, days.getDayCount(), streak, progress[2]);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // --- SENTIMENT ---
+    static class MoodReading {
+        final String label;
+        final int score;
+        final float confidence;
+
+        MoodReading(String label, float confidence) {
+            this.label = label;
+            this.score = MoodScale.fromLabel(label);
+            this.confidence = confidence;
+        }
+    }
+
+    static MoodReading analyzeSentiment(User user, String text) {
+        try {
+            JsonObject jsonBody = new JsonObject();
+            jsonBody.addProperty("inputs", text);
+
+            String responseBody = API.post(API.MOOD_API_URL, gson.toJson(jsonBody), user.getEmail());
+            if (responseBody == null)
+                return new MoodReading("Unknown", Float.NaN);
+            return parseBestSentiment(responseBody);
+        } catch (Exception e) {
+            return new MoodReading("Neutral", Float.NaN);
+        }
+    }
+
+    static MoodReading parseBestSentiment(String json) {
+        String bestLabel = "Neutral";
+        double maxScore = -1.0;
+        java.util.regex.Pattern pattern = java.util.regex.Pattern
+                .compile("\\{\"label\":\"(.*?)\",\"score\":([\\d\\.]+)\\}");
+        java.util.regex.Matcher matcher = pattern.matcher(json);
+        while (matcher.find()) {
+            String label = matcher.group(1);
+            try {
+                double score = Double.parseDouble(matcher.group(2));
+                if (score > maxScore) {
+                    maxScore = score;
+                    bestLabel = label;
+                }
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return new MoodReading(bestLabel, maxScore < 0 ? Float.NaN : (float) maxScore);
+    }
+}
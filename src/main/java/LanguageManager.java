@@ -13,6 +13,39 @@ public class LanguageManager {
         en.put("menu.settings", "⚙ Settings");
         en.put("menu.summary", "📊 Weekly Summary");
         en.put("menu.logout", "🚪 Logout");
+        en.put("menu.heatmap", "📅 Year in Review");
+        en.put("heatmap.title", "Year in Review");
+        en.put("heatmap.entries", "entries this year");
+        en.put("heatmap.error", "Couldn't load this year. Try again later.");
+        en.put("menu.insights", "🔎 Insights");
+        en.put("insights.title", "Mood Insights");
+        en.put("insights.loading", "Analysing your journal history...");
+        en.put("insights.empty", "No entries to analyse yet.");
+        en.put("insights.weather", "Weather");
+        en.put("insights.weekday", "Day of Week");
+        en.put("insights.hour", "Time of Day");
+        en.put("insights.avgmood", "Average mood (1-5)");
+        en.put("menu.leaderboard", "🏆 Leaderboard");
+        en.put("leaderboard.title", "Leaderboard");
+        en.put("leaderboard.optin", "Show me on the leaderboard");
+        en.put("leaderboard.global", "All Time");
+        en.put("leaderboard.weekly", "This Week");
+        en.put("leaderboard.streak", "Streaks");
+        en.put("leaderboard.rank", "Your rank: #%d of %d");
+        en.put("leaderboard.hidden", "You are not on the leaderboard.");
+        en.put("leaderboard.days", "days");
+        en.put("menu.export", "📦 Export Journal");
+        en.put("export.title", "Export Journal");
+        en.put("export.format", "Choose an export format");
+        en.put("export.running", "Exporting entries...");
+        en.put("export.done", "entries exported to");
+        en.put("menu.import", "📥 Import Journal");
+        en.put("import.title", "Import Journal");
+        en.put("import.hint", "Import a CSV, NDJSON or Markdown ZIP export, or a folder of yyyy-MM-dd.md files. Existing entries on the same date are replaced.");
+        en.put("import.file", "Choose File...");
+        en.put("import.folder", "Choose Folder...");
+        en.put("import.dryrun", "Dry run (validate only, save nothing)");
+        en.put("import.running", "Importing entries...");
         en.put("login.title", "SmartJournal Access");
         en.put("login.signin", "Sign In");
         en.put("login.create", "Create an account");
@@ -66,6 +99,39 @@ public class LanguageManager {
         bm.put("menu.settings", "⚙ Tetapan");
         bm.put("menu.summary", "📊 Ringkasan Mingguan");
         bm.put("menu.logout", "🚪 Log Keluar");
+        bm.put("menu.heatmap", "📅 Imbasan Tahunan");
+        bm.put("heatmap.title", "Imbasan Tahunan");
+        bm.put("heatmap.entries", "entri tahun ini");
+        bm.put("heatmap.error", "Tidak dapat memuatkan tahun ini. Cuba lagi nanti.");
+        bm.put("menu.insights", "🔎 Analisis");
+        bm.put("insights.title", "Analisis Mood");
+        bm.put("insights.loading", "Menganalisis sejarah jurnal anda...");
+        bm.put("insights.empty", "Tiada entri untuk dianalisis lagi.");
+        bm.put("insights.weather", "Cuaca");
+        bm.put("insights.weekday", "Hari");
+        bm.put("insights.hour", "Masa");
+        bm.put("insights.avgmood", "Purata mood (1-5)");
+        bm.put("menu.leaderboard", "🏆 Papan Pendahulu");
+        bm.put("leaderboard.title", "Papan Pendahulu");
+        bm.put("leaderboard.optin", "Paparkan saya di papan pendahulu");
+        bm.put("leaderboard.global", "Sepanjang Masa");
+        bm.put("leaderboard.weekly", "Minggu Ini");
+        bm.put("leaderboard.streak", "Rentetan");
+        bm.put("leaderboard.rank", "Kedudukan anda: #%d daripada %d");
+        bm.put("leaderboard.hidden", "Anda tiada di papan pendahulu.");
+        bm.put("leaderboard.days", "hari");
+        bm.put("menu.export", "📦 Eksport Jurnal");
+        bm.put("export.title", "Eksport Jurnal");
+        bm.put("export.format", "Pilih format eksport");
+        bm.put("export.running", "Mengeksport entri...");
+        bm.put("export.done", "entri dieksport ke");
+        bm.put("menu.import", "📥 Import Jurnal");
+        bm.put("import.title", "Import Jurnal");
+        bm.put("import.hint", "Import fail eksport CSV, NDJSON atau ZIP Markdown, atau folder fail yyyy-MM-dd.md. Entri sedia ada pada tarikh yang sama akan diganti.");
+        bm.put("import.file", "Pilih Fail...");
+        bm.put("import.folder", "Pilih Folder...");
+        bm.put("import.dryrun", "Percubaan (semak sahaja, tiada simpanan)");
+        bm.put("import.running", "Mengimport entri...");
         bm.put("login.title", "Akses SmartJournal");
         bm.put("login.signin", "Log Masuk");
         bm.put("login.create", "Cipta akaun");
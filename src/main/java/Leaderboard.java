@@ -0,0 +1,405 @@
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Opt-in leaderboards (total XP, XP this week, current streak) over
+ * user_progress. Each board keeps a Fenwick tree of user counts per score
+ * bucket (exact below 1024, log-scaled above), so "your rank" is a prefix sum
+ * over a fixed-size tree plus the few distinct scores above it in its bucket,
+ * and a skip list ordered by score for top-N pages. Boards are built from one window query at startup and
+ * rebuilt in the background every {@link #REFRESH_MILLIS} (which also rolls the
+ * weekly board over), then swapped in whole; between rebuilds they're patched in
+ * place on every local progress change. Requests never wait on a rebuild.
+ */
+public class Leaderboard {
+
+    private static final Logger log = LoggerFactory.getLogger(Leaderboard.class);
+
+    public enum Board {
+        GLOBAL, WEEKLY, STREAK
+    }
+
+    public static class Row {
+        public final int rank;
+        public final String email;
+        public final String displayName;
+        public final int score;
+
+        Row(int rank, String email, String displayName, int score) {
+            this.rank = rank;
+            this.email = email;
+            this.displayName = displayName;
+            this.score = score;
+        }
+    }
+
+    private static final long REFRESH_MILLIS = 5 * 60_000;
+
+    // --- RANK INDEX ---
+    private static class Entry {
+        final String email;
+        final String displayName;
+        final int score;
+
+        Entry(String email, String displayName, int score) {
+            this.email = email;
+            this.displayName = displayName;
+            this.score = score;
+        }
+    }
+
+    private static final Comparator<Entry> ORDER = Comparator.<Entry>comparingInt(e -> -e.score)
+            .thenComparing(e -> e.email);
+
+    // Writers synchronize on the index; page reads walk the skip list without locking
+    static class RankIndex {
+        // Scores below EXACT get a bucket each; above it every doubling is split into 2^SUB_BITS buckets,
+        // so the tree has a fixed size however high a score goes
+        static final int EXACT = 1024;
+        static final int SUB_BITS = 6;
+        static final int BUCKETS = EXACT + ((31 - Integer.numberOfTrailingZeros(EXACT)) << SUB_BITS);
+
+        private final Map<String, Entry> byUser = new HashMap<>();
+        private final ConcurrentSkipListSet<Entry> ordered = new ConcurrentSkipListSet<>(ORDER);
+        private final int[] tree = new int[BUCKETS + 1]; // Fenwick tree of users per bucket, 1-based
+        private final TreeMap<Integer, Integer> usersByScore = new TreeMap<>(); // exact order inside a bucket
+        private int size;
+
+        static int bucketOf(int score) {
+            if (score < EXACT)
+                return score;
+            int exp = 31 - Integer.numberOfLeadingZeros(score);
+            int sub = (score >>> (exp - SUB_BITS)) & ((1 << SUB_BITS) - 1);
+            return EXACT + ((exp - Integer.numberOfTrailingZeros(EXACT)) << SUB_BITS) + sub;
+        }
+
+        // Highest score that shares score's bucket
+        static int bucketTop(int score) {
+            if (score < EXACT)
+                return score;
+            int shift = 31 - Integer.numberOfLeadingZeros(score) - SUB_BITS;
+            return ((score >>> shift) << shift) + ((1 << shift) - 1);
+        }
+
+        synchronized void put(String email, String displayName, int score) {
+            score = Math.max(0, score);
+            Entry old = byUser.get(email);
+            if (old != null) {
+                if (old.score == score && old.displayName.equals(displayName))
+                    return;
+                ordered.remove(old);
+                count(old.score, -1);
+                size--;
+            }
+            Entry entry = new Entry(email, displayName, score);
+            byUser.put(email, entry);
+            ordered.add(entry);
+            count(score, 1);
+            size++;
+        }
+
+        synchronized void remove(String email) {
+            Entry old = byUser.remove(email);
+            if (old != null) {
+                ordered.remove(old);
+                count(old.score, -1);
+                size--;
+            }
+        }
+
+        synchronized boolean contains(String email) {
+            return byUser.containsKey(email);
+        }
+
+        /** Competition rank (ties share a rank), 0 if the user isn't on the board. */
+        synchronized int rankOf(String email) {
+            Entry entry = byUser.get(email);
+            return entry == null ? 0 : rankOfScore(entry.score);
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized int scoreOf(String email) {
+            Entry entry = byUser.get(email);
+            return entry == null ? 0 : entry.score;
+        }
+
+        List<Row> page(int offset, int limit) {
+            List<Row> rows = new ArrayList<>(limit);
+            Iterator<Entry> it = ordered.iterator();
+            for (int i = 0; i < offset && it.hasNext(); i++) {
+                it.next();
+            }
+            while (rows.size() < limit && it.hasNext()) {
+                Entry e = it.next();
+                int rank;
+                synchronized (this) {
+                    rank = rankOfScore(e.score);
+                }
+                rows.add(new Row(rank, e.email, e.displayName, e.score));
+            }
+            return rows;
+        }
+
+        // 1 + users in higher buckets (a prefix sum) + users higher up in the same bucket
+        private int rankOfScore(int score) {
+            int above = size - countThroughBucket(bucketOf(score));
+            if (score < bucketTop(score)) {
+                for (int users : usersByScore.subMap(score, false, bucketTop(score), true).values()) {
+                    above += users;
+                }
+            }
+            return 1 + above;
+        }
+
+        private void count(int score, int delta) {
+            usersByScore.merge(score, delta, (a, b) -> a + b == 0 ? null : a + b);
+            for (int i = bucketOf(score) + 1; i < tree.length; i += i & -i) {
+                tree[i] += delta;
+            }
+        }
+
+        private int countThroughBucket(int bucket) {
+            int sum = 0;
+            for (int i = bucket + 1; i > 0; i -= i & -i) {
+                sum += tree[i];
+            }
+            return sum;
+        }
+    }
+
+    // --- BOARDS ---
+    // Replaced wholesale by each refresh; patched in place by local progress in between
+    private static volatile Map<Board, RankIndex> boards;
+    private static final ReentrantLock refreshLock = new ReentrantLock();
+    private static ScheduledExecutorService refresher;
+
+    // Latest local scores per user, replayed onto a rebuilt board so progress saved while its query ran isn't lost.
+    // A negative score means "unchanged".
+    private record Update(long at, String displayName, int totalXp, int weekXp, int streak) {
+        Update then(Update next) {
+            return new Update(next.at, next.displayName, next.totalXp >= 0 ? next.totalXp : totalXp,
+                    next.weekXp >= 0 ? next.weekXp : weekXp, next.streak >= 0 ? next.streak : streak);
+        }
+    }
+
+    private static final Map<String, Update> recent = new ConcurrentHashMap<>();
+
+    static LocalDate currentWeekStart() {
+        return LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    /** Builds the boards in the background and rebuilds them every {@link #REFRESH_MILLIS}. Call once at startup. */
+    public static synchronized void start() {
+        if (refresher != null)
+            return;
+        refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "leaderboard-refresh");
+            t.setDaemon(true);
+            return t;
+        });
+        refresher.scheduleWithFixedDelay(Leaderboard::refresh, 0, REFRESH_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public static synchronized void stop() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+            refresher = null;
+        }
+    }
+
+    private static Map<Board, RankIndex> boards() {
+        Map<Board, RankIndex> b = boards;
+        if (b != null)
+            return b;
+        // Only until the first build lands: wait for it (or run it, if start() wasn't called)
+        start();
+        refreshLock.lock();
+        try {
+            if (boards == null)
+                refresh();
+            if (boards == null)
+                boards = empty(); // database down; the scheduled refresh fills it in later
+            return boards;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    // Rebuilds every board off to the side and swaps them in; readers keep the old ones until then
+    private static void refresh() {
+        refreshLock.lock();
+        try {
+            long startedAt = System.nanoTime();
+            Map<Board, RankIndex> fresh = load(currentWeekStart());
+            if (fresh == null)
+                return;
+            for (Map.Entry<String, Update> e : recent.entrySet()) {
+                if (e.getValue().at() >= startedAt)
+                    apply(fresh, e.getKey(), e.getValue());
+            }
+            boards = fresh;
+            // Anything older is already in the query's snapshot
+            recent.values().removeIf(u -> u.at() < startedAt);
+        } catch (RuntimeException e) {
+            // Keep the schedule alive; the next run retries
+            log.error("refresh failed", e);
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private static Map<Board, RankIndex> empty() {
+        Map<Board, RankIndex> map = new EnumMap<>(Board.class);
+        for (Board board : Board.values()) {
+            map.put(board, new RankIndex());
+        }
+        return map;
+    }
+
+    // Streaks not extended since yesterday are already broken, and last week's XP no longer counts.
+    // The database ranks each board too; they're checked against the index after a build.
+    private static final String LOAD_SQL = "WITH scores AS (SELECT u.email, u.display_name, "
+            + "GREATEST(COALESCE(p.total_xp, 0), 0) AS total_xp, "
+            + "CASE WHEN p.week_start = ? THEN GREATEST(COALESCE(p.week_xp, 0), 0) ELSE 0 END AS week_xp, "
+            + "CASE WHEN p.last_journal_date >= CURRENT_DATE - 1 THEN GREATEST(COALESCE(p.current_streak, 0), 0) "
+            + "ELSE 0 END AS streak "
+            + "FROM users u LEFT JOIN user_progress p ON p.user_email = u.email WHERE u.leaderboard_opt_in) "
+            + "SELECT email, display_name, total_xp, week_xp, streak, "
+            + "rank() OVER (ORDER BY total_xp DESC), rank() OVER (ORDER BY week_xp DESC), "
+            + "rank() OVER (ORDER BY streak DESC) FROM scores";
+
+    private static Map<Board, RankIndex> load(LocalDate weekStart) {
+        Map<Board, RankIndex> map = empty();
+        List<String> emails = new ArrayList<>();
+        List<int[]> ranks = new ArrayList<>();
+        try (Connection conn = DatabaseConnectionPool.getConnection();
+                PreparedStatement ps = conn.prepareStatement(LOAD_SQL)) {
+            ps.setDate(1, Date.valueOf(weekStart));
+            ps.setFetchSize(1000);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String email = rs.getString(1);
+                    String name = rs.getString(2);
+                    map.get(Board.GLOBAL).put(email, name, rs.getInt(3));
+                    map.get(Board.WEEKLY).put(email, name, rs.getInt(4));
+                    map.get(Board.STREAK).put(email, name, rs.getInt(5));
+                    emails.add(email);
+                    ranks.add(new int[] { rs.getInt(6), rs.getInt(7), rs.getInt(8) });
+                }
+            }
+        } catch (SQLException e) {
+            log.error("load failed", e);
+            return null;
+        }
+        int mismatches = 0;
+        for (int i = 0; i < emails.size(); i++) {
+            for (Board board : Board.values()) {
+                if (map.get(board).rankOf(emails.get(i)) != ranks.get(i)[board.ordinal()])
+                    mismatches++;
+            }
+        }
+        if (mismatches > 0)
+            log.warn("Leaderboard index disagrees with the database on {} ranks", mismatches);
+        return map;
+    }
+
+    // --- PUBLIC API ---
+    public static List<Row> top(Board board, int offset, int limit) {
+        return boards().get(board).page(offset, limit);
+    }
+
+    public static int rankOf(Board board, User user) {
+        return boards().get(board).rankOf(user.getEmail());
+    }
+
+    public static int scoreOf(Board board, User user) {
+        return boards().get(board).scoreOf(user.getEmail());
+    }
+
+    public static int size(Board board) {
+        return boards().get(board).size();
+    }
+
+    public static boolean isOptedIn(User user) {
+        return boards().get(Board.GLOBAL).contains(user.getEmail());
+    }
+
+    /** Called after progress is saved; a no-op for users who haven't opted in. */
+    public static void onProgress(User user, int totalXp, int weekXp, int streak) {
+        record(user, new Update(System.nanoTime(), user.getDisplayName(), totalXp, weekXp, streak));
+    }
+
+    /** Streak-only update, for when journals change without a save (e.g. an import). */
+    public static void onStreak(User user, int streak) {
+        record(user, new Update(System.nanoTime(), user.getDisplayName(), -1, -1, streak));
+    }
+
+    private static void record(User user, Update update) {
+        Map<Board, RankIndex> b = boards;
+        if (b == null || !b.get(Board.GLOBAL).contains(user.getEmail()))
+            return;
+        recent.merge(user.getEmail(), update, Update::then);
+        apply(b, user.getEmail(), update);
+    }
+
+    private static void apply(Map<Board, RankIndex> b, String email, Update u) {
+        if (!b.get(Board.GLOBAL).contains(email))
+            return; // opted out since
+        if (u.totalXp() >= 0)
+            b.get(Board.GLOBAL).put(email, u.displayName(), u.totalXp());
+        if (u.weekXp() >= 0)
+            b.get(Board.WEEKLY).put(email, u.displayName(), u.weekXp());
+        if (u.streak() >= 0)
+            b.get(Board.STREAK).put(email, u.displayName(), u.streak());
+    }
+
+    /** Opting in rebuilds the boards right away so the user sees their rank; call off the FX thread. */
+    public static void setOptIn(User user, boolean optIn) {
+        try (Connection conn = DatabaseConnectionPool.getConnection();
+                PreparedStatement ps = conn.prepareStatement(
+                        "UPDATE users SET leaderboard_opt_in = ? WHERE email = ?")) {
+            ps.setBoolean(1, optIn);
+            ps.setString(2, user.getEmail());
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            log.error("setOptIn failed", e);
+            return;
+        }
+        if (!optIn) {
+            recent.remove(user.getEmail());
+            Map<Board, RankIndex> b = boards;
+            if (b != null) {
+                for (RankIndex index : b.values()) {
+                    index.remove(user.getEmail());
+                }
+            }
+            return;
+        }
+        refresh();
+    }
+}
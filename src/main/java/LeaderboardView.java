@@ -0,0 +1,105 @@
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.Tab;
+import javafx.scene.control.TabPane;
+import javafx.scene.layout.VBox;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Top players per {@link Leaderboard.Board} plus the user's own rank, with the
+ * opt-in switch. Everything is read from the in-memory boards on a background
+ * thread (the first open loads them).
+ */
+public class LeaderboardView extends VBox {
+
+    private static final int PAGE_SIZE = 20;
+
+    private final User user;
+    private final CheckBox optIn = new CheckBox(LanguageManager.get("leaderboard.optin"));
+    private final TabPane tabs = new TabPane();
+    private final Map<Leaderboard.Board, ListView<Leaderboard.Row>> lists = new EnumMap<>(Leaderboard.Board.class);
+    private final Map<Leaderboard.Board, Label> ranks = new EnumMap<>(Leaderboard.Board.class);
+
+    public LeaderboardView(User user) {
+        super(10);
+        this.user = user;
+        setPadding(new Insets(10));
+        setPrefSize(420, 480);
+
+        tabs.setTabClosingPolicy(TabPane.TabClosingPolicy.UNAVAILABLE);
+        for (Leaderboard.Board board : Leaderboard.Board.values()) {
+            ListView<Leaderboard.Row> list = new ListView<>();
+            list.setCellFactory(v -> new RowCell(board));
+            Label rank = new Label();
+            rank.getStyleClass().add("subheader-text");
+            lists.put(board, list);
+            ranks.put(board, rank);
+            tabs.getTabs().add(new Tab(LanguageManager.get("leaderboard." + board.name().toLowerCase()),
+                    new VBox(8, rank, list)));
+        }
+
+        optIn.setDisable(true);
+        optIn.setOnAction(e -> {
+            boolean selected = optIn.isSelected();
+            optIn.setDisable(true);
+            refresh(() -> Leaderboard.setOptIn(user, selected));
+        });
+
+        getChildren().addAll(optIn, new ProgressIndicator());
+        refresh(() -> {
+        });
+    }
+
+    private void refresh(Runnable before) {
+        Thread worker = new Thread(() -> {
+            before.run();
+            boolean in = Leaderboard.isOptedIn(user);
+            Map<Leaderboard.Board, List<Leaderboard.Row>> pages = new EnumMap<>(Leaderboard.Board.class);
+            Map<Leaderboard.Board, String> rankText = new EnumMap<>(Leaderboard.Board.class);
+            for (Leaderboard.Board board : Leaderboard.Board.values()) {
+                pages.put(board, Leaderboard.top(board, 0, PAGE_SIZE));
+                int rank = Leaderboard.rankOf(board, user);
+                rankText.put(board, rank == 0 ? LanguageManager.get("leaderboard.hidden")
+                        : String.format(LanguageManager.get("leaderboard.rank"), rank, Leaderboard.size(board)));
+            }
+            Platform.runLater(() -> {
+                optIn.setSelected(in);
+                optIn.setDisable(false);
+                for (Leaderboard.Board board : Leaderboard.Board.values()) {
+                    lists.get(board).getItems().setAll(pages.get(board));
+                    ranks.get(board).setText(rankText.get(board));
+                }
+                getChildren().setAll(optIn, tabs);
+            });
+        }, "leaderboard-loader");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    private class RowCell extends ListCell<Leaderboard.Row> {
+        private final String unit;
+
+        RowCell(Leaderboard.Board board) {
+            this.unit = board == Leaderboard.Board.STREAK ? LanguageManager.get("leaderboard.days") : "XP";
+        }
+
+        @Override
+        protected void updateItem(Leaderboard.Row row, boolean empty) {
+            super.updateItem(row, empty);
+            if (empty || row == null) {
+                setText(null);
+                setStyle("");
+                return;
+            }
+            setText("#" + row.rank + "  " + row.displayName + "  —  " + row.score + " " + unit);
+            setStyle(row.email.equals(user.getEmail()) ? "-fx-font-weight: bold;" : "");
+        }
+    }
+}
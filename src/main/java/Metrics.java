@@ -0,0 +1,364 @@
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Process-wide counters, gauges and latency histograms. Recording is a
+ * LongAdder increment, so instrumented code pays next to nothing; rendering
+ * walks the registry on demand. Exposed as Prometheus text and as a JSON
+ * snapshot, on a local port if METRICS_PORT is set.
+ *
+ * <p>Metric names follow Prometheus conventions: {@code _total} for counters,
+ * {@code _seconds} for timers. Labels are given as alternating name/value
+ * pairs.
+ */
+public class Metrics {
+
+    // Upper bounds in seconds; DB calls sit at the low end, AI calls at the high end
+    private static final double[] BUCKETS = { 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5,
+            10, 30 };
+
+    private enum Type {
+        COUNTER, GAUGE, HISTOGRAM
+    }
+
+    private static class Family {
+        final String name;
+        final String help;
+        final Type type;
+        final Map<String, Object> series = new ConcurrentHashMap<>(); // label string -> metric
+
+        Family(String name, String help, Type type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+    }
+
+    private static final Map<String, Family> families = new ConcurrentHashMap<>();
+
+    // --- METRIC TYPES ---
+    public static final class Counter {
+        private final LongAdder value = new LongAdder();
+
+        public void inc() {
+            value.increment();
+        }
+
+        public void add(long n) {
+            value.add(n);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+    }
+
+    public static final class Timer {
+        private final LongAdder[] buckets = new LongAdder[BUCKETS.length];
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sumNanos = new LongAdder();
+
+        Timer() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        public void record(long nanos) {
+            double seconds = nanos / 1e9;
+            for (int i = 0; i < BUCKETS.length; i++) {
+                if (seconds <= BUCKETS[i]) {
+                    buckets[i].increment();
+                    break;
+                }
+            }
+            count.increment();
+            sumNanos.add(nanos);
+        }
+
+        /** Records the time since {@code startNanos} (a System.nanoTime() value). */
+        public void recordSince(long startNanos) {
+            record(System.nanoTime() - startNanos);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        double sumSeconds() {
+            return sumNanos.sum() / 1e9;
+        }
+
+        // Bucket upper bound containing the quantile; good enough for dashboards
+        double quantile(double q) {
+            long total = count.sum();
+            if (total == 0)
+                return 0;
+            long rank = (long) Math.ceil(total * q);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS.length; i++) {
+                seen += buckets[i].sum();
+                if (seen >= rank)
+                    return BUCKETS[i];
+            }
+            return Double.POSITIVE_INFINITY;
+        }
+    }
+
+    /** One SQL query: a latency timer, an error count, a JFR event and a trace span per execution. */
+    public static final class Call {
+        private final String query;
+        private final Timer timer;
+        private final Counter errors;
+
+        Call(String query, Timer timer, Counter errors) {
+            this.query = query;
+            this.timer = timer;
+            this.errors = errors;
+        }
+
+        /** Starts timing one execution; finish it with success() or failure(). */
+        public Span begin() {
+            return new Span(this);
+        }
+    }
+
+    public static final class Span {
+        private final Call call;
+        private final long startNanos = System.nanoTime();
+        private final JfrEvents.QueryEvent event = new JfrEvents.QueryEvent();
+        private final Tracer.Span trace;
+
+        Span(Call call) {
+            this.call = call;
+            this.trace = Tracer.start(call.query);
+            event.begin();
+        }
+
+        public void success() {
+            success(-1);
+        }
+
+        /** Finishes the execution with the rows it read or wrote. */
+        public void success(long rows) {
+            call.timer.recordSince(startNanos);
+            finish(rows, true);
+        }
+
+        public void failure() {
+            call.timer.recordSince(startNanos);
+            call.errors.inc();
+            finish(-1, false);
+        }
+
+        private void finish(long rows, boolean succeeded) {
+            trace.attr("rows", rows).attr("ok", succeeded).close();
+            event.end();
+            if (!event.shouldCommit())
+                return;
+            event.query = call.query;
+            event.rows = rows;
+            event.succeeded = succeeded;
+            event.commit();
+        }
+    }
+
+    // --- REGISTRATION ---
+    public static Counter counter(String name, String help, String... labels) {
+        return (Counter) family(name, help, Type.COUNTER).series.computeIfAbsent(labelString(labels),
+                l -> new Counter());
+    }
+
+    public static Timer timer(String name, String help, String... labels) {
+        return (Timer) family(name, help, Type.HISTOGRAM).series.computeIfAbsent(labelString(labels),
+                l -> new Timer());
+    }
+
+    /** A value read at scrape time. Re-registering the same series replaces the supplier. */
+    public static void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        family(name, help, Type.GAUGE).series.put(labelString(labels), value);
+    }
+
+    /** A counter kept elsewhere (e.g. an existing LongAdder), read at scrape time. */
+    public static void counterFunction(String name, String help, DoubleSupplier value, String... labels) {
+        family(name, help, Type.COUNTER).series.put(labelString(labels), value);
+    }
+
+    /** One SQL query: db_query_seconds and db_query_errors_total labelled with its name. */
+    public static Call dbQuery(String query) {
+        return new Call(query, timer("db_query_seconds", "SQL query latency", "query", query),
+                counter("db_query_errors_total", "SQL queries that threw", "query", query));
+    }
+
+    /** Hit and miss counters plus a hit ratio gauge for one cache. */
+    public static void cache(String cache, DoubleSupplier hits, DoubleSupplier misses) {
+        counterFunction("cache_hits_total", "Cache lookups served from memory", hits, "cache", cache);
+        counterFunction("cache_misses_total", "Cache lookups that went to the source", misses, "cache", cache);
+        gauge("cache_hit_ratio", "Hits / lookups since start", () -> {
+            double h = hits.getAsDouble();
+            double total = h + misses.getAsDouble();
+            return total == 0 ? 0 : h / total;
+        }, "cache", cache);
+    }
+
+    private static Family family(String name, String help, Type type) {
+        Family family = families.computeIfAbsent(name, n -> new Family(n, help, type));
+        if (family.type != type)
+            throw new IllegalArgumentException(name + " is already registered as a " + family.type);
+        return family;
+    }
+
+    private static String labelString(String... labels) {
+        if (labels.length % 2 != 0)
+            throw new IllegalArgumentException("Labels must be name/value pairs");
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (sb.length() > 0)
+                sb.append(',');
+            sb.append(labels[i]).append("=\"").append(escape(labels[i + 1])).append('"');
+        }
+        return sb.toString();
+    }
+
+    private static String escape(String value) {
+        return value == null ? "" : value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    // --- EXPOSITION ---
+    /** Prometheus text exposition format 0.0.4. */
+    public static String prometheus() {
+        StringBuilder out = new StringBuilder(4096);
+        for (Family f : new TreeMap<>(families).values()) {
+            out.append("# HELP ").append(f.name).append(' ').append(f.help).append('\n');
+            out.append("# TYPE ").append(f.name).append(' ').append(f.type.name().toLowerCase()).append('\n');
+            for (Map.Entry<String, Object> s : new TreeMap<>(f.series).entrySet()) {
+                String labels = s.getKey();
+                Object metric = s.getValue();
+                if (metric instanceof Timer timer) {
+                    long cumulative = 0;
+                    for (int i = 0; i < BUCKETS.length; i++) {
+                        cumulative += timer.buckets[i].sum();
+                        sample(out, f.name + "_bucket", join(labels, "le=\"" + BUCKETS[i] + "\""), cumulative);
+                    }
+                    long count = timer.getCount();
+                    sample(out, f.name + "_bucket", join(labels, "le=\"+Inf\""), count);
+                    sample(out, f.name + "_sum", labels, timer.sumSeconds());
+                    sample(out, f.name + "_count", labels, count);
+                } else {
+                    sample(out, f.name, labels, value(metric));
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    /** Name -> series -> value (timers as count, sum and approximate quantiles). */
+    public static String json() {
+        JsonObject root = new JsonObject();
+        for (Family f : new TreeMap<>(families).values()) {
+            JsonArray series = new JsonArray();
+            for (Map.Entry<String, Object> s : new TreeMap<>(f.series).entrySet()) {
+                JsonObject point = new JsonObject();
+                point.addProperty("labels", s.getKey());
+                if (s.getValue() instanceof Timer timer) {
+                    point.addProperty("count", timer.getCount());
+                    point.addProperty("sumSeconds", timer.sumSeconds());
+                    point.addProperty("p50Seconds", timer.quantile(0.50));
+                    point.addProperty("p95Seconds", timer.quantile(0.95));
+                    point.addProperty("p99Seconds", timer.quantile(0.99));
+                } else {
+                    point.addProperty("value", value(s.getValue()));
+                }
+                series.add(point);
+            }
+            root.add(f.name, series);
+        }
+        return new GsonBuilder().serializeSpecialFloatingPointValues().disableHtmlEscaping().create().toJson(root);
+    }
+
+    private static double value(Object metric) {
+        if (metric instanceof Counter counter)
+            return counter.get();
+        try {
+            return ((DoubleSupplier) metric).getAsDouble();
+        } catch (RuntimeException e) {
+            return Double.NaN; // a broken gauge must not break the scrape
+        }
+    }
+
+    private static String join(String labels, String extra) {
+        return labels.isEmpty() ? extra : labels + "," + extra;
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+        if (!labels.isEmpty())
+            out.append('{').append(labels).append('}');
+        out.append(' ');
+        if (value == Math.rint(value) && !Double.isInfinite(value))
+            out.append((long) value);
+        else
+            out.append(value);
+        out.append('\n');
+    }
+
+    // --- HTTP ENDPOINT ---
+    private static HttpServer server;
+
+    /** Serves /metrics (Prometheus) and /metrics.json on localhost if METRICS_PORT is set. */
+    public static synchronized void startFromEnv() {
+        String port = EnvLoader.get("METRICS_PORT");
+        if (port == null || port.isBlank() || server != null)
+            return;
+        // Not a static field: the log backend registers its gauges here while it starts
+        Logger log = LoggerFactory.getLogger(Metrics.class);
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                    Integer.parseInt(port.trim())), 16);
+            server.setExecutor(Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "metrics-http");
+                t.setDaemon(true);
+                return t;
+            }));
+            server.createContext("/metrics", exchange -> respond(exchange, "text/plain; version=0.0.4", prometheus()));
+            server.createContext("/metrics.json", exchange -> respond(exchange, "application/json", json()));
+            // The dispatcher thread inherits daemon status from its creator; it must not keep the app alive
+            Thread starter = new Thread(server::start, "metrics-start");
+            starter.setDaemon(true);
+            starter.start();
+            starter.join();
+            log.info("Serving http://localhost:{}/metrics", port.trim());
+        } catch (IOException | NumberFormatException e) {
+            log.warn("Could not start metrics endpoint: {}", e.getMessage());
+            server = null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType + "; charset=utf-8");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+        exchange.close();
+    }
+}
@@ -0,0 +1,154 @@
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Per-user, per-year mood arrays for the year-in-review heatmap. Each year is
+ * a 366-byte array indexed by day-of-year - 1: 0 = no entry, 1-5 = mood score,
+ * {@link #UNKNOWN_MOOD} = entry without a recognized mood. Arrays come from one
+ * aggregated query, are kept in a small LRU and patched in place on every save,
+ * so the view never loads entry content.
+ */
+public class MoodHeatmap {
+
+    private static final Logger log = LoggerFactory.getLogger(MoodHeatmap.class);
+
+    public static final byte NO_ENTRY = 0;
+    public static final byte UNKNOWN_MOOD = 6;
+    private static final int MAX_CACHED_YEARS = 8;
+
+    // email|year -> mood array, least recently viewed evicted first
+    private static final Map<String, byte[]> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+            return size() > MAX_CACHED_YEARS;
+        }
+    };
+
+    // Years being queried right now; saves bump the version so a load that raced one isn't cached
+    private static final Map<String, Load> loading = new HashMap<>();
+    private static final int MAX_LOAD_ATTEMPTS = 3;
+
+    private static final class Load {
+        long version;
+        int inFlight;
+    }
+
+    private static String key(String email, int year) {
+        return email + "|" + year;
+    }
+
+    public static byte[] getCached(User user, int year) {
+        synchronized (cache) {
+            return cache.get(key(user.getEmail(), year));
+        }
+    }
+
+    /**
+     * Returns the year's array, querying once on a cache miss. Call off the FX thread.
+     *
+     * @return null if the query failed; nothing is cached then, so the next call retries
+     */
+    public static byte[] getYear(User user, int year) {
+        String key = key(user.getEmail(), year);
+        byte[] loaded = null;
+        for (int attempt = 0; attempt < MAX_LOAD_ATTEMPTS; attempt++) {
+            Load load;
+            long version;
+            synchronized (cache) {
+                byte[] cached = cache.get(key);
+                if (cached != null)
+                    return cached;
+                load = loading.computeIfAbsent(key, k -> new Load());
+                load.inFlight++;
+                version = load.version;
+            }
+            boolean current;
+            try {
+                loaded = loadYear(user.getEmail(), year);
+            } catch (SQLException e) {
+                log.error("Heatmap load failed for {}", year, e);
+                return null;
+            } finally {
+                synchronized (cache) {
+                    current = load.version == version;
+                    if (--load.inFlight == 0)
+                        loading.remove(key);
+                }
+            }
+            if (current) {
+                synchronized (cache) {
+                    // Another thread may have loaded (and patched) it meanwhile
+                    byte[] existing = cache.putIfAbsent(key, loaded);
+                    return existing != null ? existing : loaded;
+                }
+            }
+            // A save landed while the query ran and may be missing from its snapshot; query again
+        }
+        // Saves kept racing the query: hand back the last result without caching it
+        return loaded;
+    }
+
+    /** Keeps a cached year in step with a saved entry; uncached years load fresh later. */
+    public static void patch(User user, LocalDate date, int moodScore) {
+        synchronized (cache) {
+            String key = key(user.getEmail(), date.getYear());
+            byte[] year = cache.get(key);
+            if (year != null)
+                year[date.getDayOfYear() - 1] = encode(moodScore);
+            Load load = loading.get(key);
+            if (load != null)
+                load.version++;
+        }
+    }
+
+    public static void invalidate(String email) {
+        synchronized (cache) {
+            cache.keySet().removeIf(k -> k.startsWith(email + "|"));
+            for (Map.Entry<String, Load> load : loading.entrySet()) {
+                if (load.getKey().startsWith(email + "|"))
+                    load.getValue().version++;
+            }
+        }
+    }
+
+    static byte encode(int moodScore) {
+        return MoodScale.isKnown(moodScore) ? (byte) moodScore : UNKNOWN_MOOD;
+    }
+
+    // One row back: parallel arrays of day-of-year and score for the whole year
+    private static byte[] loadYear(String email, int year) throws SQLException {
+        byte[] days = new byte[366];
+        String sql = "SELECT array_agg(EXTRACT(DOY FROM entry_date)::int), array_agg(COALESCE(mood_score, 0)) "
+                + "FROM journals WHERE user_email = ? AND entry_date >= ? AND entry_date < ?";
+        try (Connection conn = DatabaseConnectionPool.getConnection();
+                PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, email);
+            ps.setDate(2, Date.valueOf(LocalDate.of(year, 1, 1)));
+            ps.setDate(3, Date.valueOf(LocalDate.of(year + 1, 1, 1)));
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    Object[] doys = toArray(rs.getArray(1));
+                    Object[] scores = toArray(rs.getArray(2));
+                    for (int i = 0; i < doys.length; i++) {
+                        days[((Number) doys[i]).intValue() - 1] = encode(((Number) scores[i]).intValue());
+                    }
+                }
+            }
+        }
+        return days;
+    }
+
+    private static Object[] toArray(Array array) throws SQLException {
+        return array == null ? new Object[0] : (Object[]) array.getArray();
+    }
+}
@@ -0,0 +1,159 @@
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.Tooltip;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * GitHub-style calendar of a year's moods, drawn on a canvas straight from the
+ * {@link MoodHeatmap} byte array. Weeks run left to right, Sunday on top.
+ */
+public class MoodHeatmapView extends VBox {
+
+    private static final int CELL = 13;
+    private static final int GAP = 3;
+    private static final int LEFT = 30;
+    private static final int TOP = 18;
+    private static final DateTimeFormatter TOOLTIP_DATE = DateTimeFormatter.ofPattern("EEE, MMM d");
+    private static final String[] MONTHS = { "Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct",
+            "Nov", "Dec" };
+
+    // Indexed by encoded value: none, 1-5 (same palette as the mood tags), unknown
+    private static final Color[] COLORS = {
+            Color.web("#e5e7eb"), Color.web("#dc2626"), Color.web("#fca5a5"), Color.web("#9ca3af"),
+            Color.web("#86efac"), Color.web("#16a34a"), Color.web("#cbd5e1") };
+    private static final String[] MOOD_NAMES = { "", "Very Negative", "Negative", "Neutral", "Positive",
+            "Very Positive", "Unknown" };
+
+    private final User user;
+    private final Canvas canvas = new Canvas(LEFT + 54 * (CELL + GAP), TOP + 7 * (CELL + GAP));
+    private final Label yearLabel = new Label();
+    private final Label countLabel = new Label();
+    private final Tooltip tooltip = new Tooltip();
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "heatmap-loader");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private int year;
+    private byte[] moods;
+
+    public MoodHeatmapView(User user, int initialYear) {
+        super(12);
+        this.user = user;
+        setPadding(new Insets(10));
+
+        Button prev = new Button("◀");
+        Button next = new Button("▶");
+        prev.getStyleClass().add("secondary-button");
+        next.getStyleClass().add("secondary-button");
+        prev.setOnAction(e -> showYear(year - 1));
+        next.setOnAction(e -> showYear(year + 1));
+        yearLabel.getStyleClass().add("subheader-text");
+
+        HBox header = new HBox(15, prev, yearLabel, next);
+        header.setAlignment(Pos.CENTER);
+
+        countLabel.setStyle("-fx-text-fill: -color-text-secondary;");
+        Tooltip.install(canvas, tooltip);
+        canvas.setOnMouseMoved(e -> updateTooltip(e.getX(), e.getY()));
+
+        getChildren().addAll(header, canvas, countLabel);
+        showYear(initialYear);
+    }
+
+    public void showYear(int newYear) {
+        year = newYear;
+        yearLabel.setText(String.valueOf(newYear));
+
+        byte[] cached = MoodHeatmap.getCached(user, newYear);
+        if (cached != null) {
+            render(cached);
+        } else {
+            render(null);
+            loader.submit(() -> {
+                byte[] loaded = MoodHeatmap.getYear(user, newYear);
+                Platform.runLater(() -> {
+                    if (year != newYear)
+                        return;
+                    render(loaded);
+                    if (loaded == null)
+                        countLabel.setText(LanguageManager.get("heatmap.error"));
+                });
+            });
+        }
+        // Warm the year the user is most likely to open next
+        loader.submit(() -> MoodHeatmap.getYear(user, newYear - 1));
+    }
+
+    private void render(byte[] data) {
+        moods = data;
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        g.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+
+        LocalDate jan1 = LocalDate.of(year, 1, 1);
+        int offset = jan1.getDayOfWeek().getValue() % 7; // Sunday = 0
+        int length = jan1.lengthOfYear();
+
+        g.setFill(Color.GRAY);
+        g.fillText("Mon", 0, TOP + 1 * (CELL + GAP) + CELL - 2);
+        g.fillText("Wed", 0, TOP + 3 * (CELL + GAP) + CELL - 2);
+        g.fillText("Fri", 0, TOP + 5 * (CELL + GAP) + CELL - 2);
+
+        int entries = 0;
+        int lastMonth = -1;
+        for (int i = 0; i < length; i++) {
+            int slot = i + offset;
+            int col = slot / 7;
+            int row = slot % 7;
+            int value = data == null ? MoodHeatmap.NO_ENTRY : data[i];
+            if (value != MoodHeatmap.NO_ENTRY)
+                entries++;
+
+            double x = LEFT + col * (CELL + GAP);
+            double y = TOP + row * (CELL + GAP);
+            g.setFill(COLORS[value]);
+            g.fillRoundRect(x, y, CELL, CELL, 3, 3);
+
+            int month = jan1.plusDays(i).getMonthValue() - 1;
+            if (month != lastMonth && row == 0) {
+                g.setFill(Color.GRAY);
+                g.fillText(MONTHS[month], x, TOP - 5);
+                lastMonth = month;
+            }
+        }
+        countLabel.setText(data == null ? "…" : entries + " " + LanguageManager.get("heatmap.entries"));
+    }
+
+    private void updateTooltip(double mx, double my) {
+        int col = (int) ((mx - LEFT) / (CELL + GAP));
+        int row = (int) ((my - TOP) / (CELL + GAP));
+        if (mx < LEFT || my < TOP || row > 6 || moods == null) {
+            tooltip.setText("");
+            return;
+        }
+        LocalDate jan1 = LocalDate.of(year, 1, 1);
+        int index = col * 7 + row - jan1.getDayOfWeek().getValue() % 7;
+        if (index < 0 || index >= jan1.lengthOfYear()) {
+            tooltip.setText("");
+            return;
+        }
+        String mood = moods[index] == MoodHeatmap.NO_ENTRY ? "—" : MOOD_NAMES[moods[index]];
+        tooltip.setText(jan1.plusDays(index).format(TOOLTIP_DATE) + ": " + mood);
+    }
+
+    public void dispose() {
+        loader.shutdownNow();
+    }
+}
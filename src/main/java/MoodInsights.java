@@ -0,0 +1,113 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.ZoneId;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Weather/weekday/hour x mood contingency tables over a user's whole history.
+ * Rows are streamed with a server-side cursor (non-autocommit + fetch size),
+ * so heap use is flat regardless of history length, and folded straight into
+ * primitive count tables.
+ */
+public class MoodInsights {
+
+    private static final int FETCH_SIZE = 2000;
+    public static final String[] WEEKDAYS = { "Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun" };
+
+    // Mood columns are indexed by score (0 = unknown, 1-5)
+    private final int[][] weatherByMood = new int[WeatherManager.CATEGORIES.length][6];
+    private final int[][] weekdayByMood = new int[7][6];
+    private final int[][] hourByMood = new int[24][6];
+    private int rows;
+
+    /** Folds one entry. Weekday is ISO (1 = Monday), hour is -1 when unknown. */
+    public void add(int weatherCategory, int isoWeekday, int hour, int moodScore) {
+        int mood = MoodScale.isKnown(moodScore) ? moodScore : MoodScale.UNKNOWN;
+        weatherByMood[weatherCategory][mood]++;
+        weekdayByMood[isoWeekday - 1][mood]++;
+        if (hour >= 0)
+            hourByMood[hour][mood]++;
+        rows++;
+    }
+
+    public void add(String weather, int isoWeekday, int hour, int moodScore) {
+        add(WeatherManager.categoryOf(weather), isoWeekday, hour, moodScore);
+    }
+
+    // --- DERIVED VALUES ---
+    public int getRowCount() {
+        return rows;
+    }
+
+    public int[][] getWeatherByMood() {
+        return weatherByMood;
+    }
+
+    public int[][] getWeekdayByMood() {
+        return weekdayByMood;
+    }
+
+    public int[][] getHourByMood() {
+        return hourByMood;
+    }
+
+    /** Count of entries with a known mood in one row of a table. */
+    public static int scoredCount(int[] row) {
+        int n = 0;
+        for (int score = MoodScale.VERY_NEGATIVE; score <= MoodScale.VERY_POSITIVE; score++) {
+            n += row[score];
+        }
+        return n;
+    }
+
+    /** Average mood (1-5) of one row, NaN if it has no scored entries. */
+    public static double averageMood(int[] row) {
+        int n = 0;
+        long sum = 0;
+        for (int score = MoodScale.VERY_NEGATIVE; score <= MoodScale.VERY_POSITIVE; score++) {
+            n += row[score];
+            sum += (long) score * row[score];
+        }
+        return n == 0 ? Double.NaN : sum / (double) n;
+    }
+
+    // --- STREAMING LOAD ---
+    private static final String HISTORY_SQL = "SELECT weather, EXTRACT(ISODOW FROM entry_date)::int, "
+            + "EXTRACT(HOUR FROM saved_at AT TIME ZONE ?)::int, COALESCE(mood_score, 0) "
+            + "FROM journals WHERE user_email = ?";
+
+    /**
+     * Streams the user's full history into a new insights object.
+     *
+     * @param cancelled polled every fetch batch; returns null if it fires
+     */
+    public static MoodInsights compute(User user, BooleanSupplier cancelled) throws SQLException {
+        MoodInsights insights = new MoodInsights();
+        try (Connection conn = DatabaseConnectionPool.getConnection()) {
+            // pgjdbc only uses a cursor (instead of buffering every row) outside autocommit
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(HISTORY_SQL, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY)) {
+                ps.setFetchSize(FETCH_SIZE);
+                ps.setString(1, ZoneId.systemDefault().getId());
+                ps.setString(2, user.getEmail());
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        int hour = rs.getInt(3);
+                        if (rs.wasNull())
+                            hour = -1;
+                        insights.add(rs.getString(1), rs.getInt(2), hour, rs.getInt(4));
+                        if (insights.rows % FETCH_SIZE == 0 && cancelled.getAsBoolean())
+                            return null;
+                    }
+                }
+            } finally {
+                conn.commit();
+                conn.setAutoCommit(true);
+            }
+        }
+        return insights;
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * Normalized 1-5 mood score. The sentiment model returns free-text labels
+ * ("5 stars", "Very Positive", ...); they are mapped once, when an entry is
+ * analyzed or loaded, and everything downstream works on the small integer.
+ * 0 means the mood is unknown (API failure, unrecognized label).
+ */
+public class MoodScale {
+
+    public static final int UNKNOWN = 0;
+    public static final int VERY_NEGATIVE = 1;
+    public static final int NEGATIVE = 2;
+    public static final int NEUTRAL = 3;
+    public static final int POSITIVE = 4;
+    public static final int VERY_POSITIVE = 5;
+
+    // Indexed by score; unknown renders like neutral
+    private static final String[] KEYS = { "neutral", "very-negative", "negative", "neutral", "positive",
+            "very-positive" };
+    private static final String[] TAG_CLASSES = new String[KEYS.length];
+    private static final String[] ROW_CLASSES = new String[KEYS.length];
+    private static final String[] DISTINCT_ROW_CLASSES;
+
+    static {
+        for (int i = 0; i < KEYS.length; i++) {
+            TAG_CLASSES[i] = "tag-" + KEYS[i];
+            ROW_CLASSES[i] = "table-row-" + KEYS[i];
+        }
+        DISTINCT_ROW_CLASSES = java.util.Arrays.copyOfRange(ROW_CLASSES, 1, ROW_CLASSES.length);
+    }
+
+    /** Keep in sync with the backfill CASE expression in schema.sql. */
+    public static int fromLabel(String label) {
+        if (label == null)
+            return UNKNOWN;
+        String l = label.trim().toLowerCase();
+        return switch (l) {
+            case "very negative", "1 star" -> VERY_NEGATIVE;
+            case "negative", "2 stars" -> NEGATIVE;
+            case "neutral", "3 stars" -> NEUTRAL;
+            case "positive", "4 stars" -> POSITIVE;
+            case "very positive", "5 stars" -> VERY_POSITIVE;
+            default -> UNKNOWN;
+        };
+    }
+
+    public static boolean isKnown(int score) {
+        return score >= VERY_NEGATIVE && score <= VERY_POSITIVE;
+    }
+
+    public static String tagClass(int score) {
+        return TAG_CLASSES[isKnown(score) ? score : UNKNOWN];
+    }
+
+    public static String rowClass(int score) {
+        return ROW_CLASSES[isKnown(score) ? score : UNKNOWN];
+    }
+
+    /** Every row class once, for clearing a reused row. Do not modify. */
+    public static String[] allRowClasses() {
+        return DISTINCT_ROW_CLASSES;
+    }
+}
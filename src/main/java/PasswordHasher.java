@@ -0,0 +1,286 @@
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Salted PBKDF2-HMAC-SHA256 password hashes, computed on a small pool sized
+ * to the cores so a burst of logins can't take every CPU from the rest of the
+ * app. The pool's queue is bounded: when it is full, callers get an
+ * {@link OverloadedException} straight away instead of waiting behind it.
+ *
+ * <p>Stored format is {@code pbkdf2$<iterations>$<salt>$<hash>} (base64).
+ * The iteration count is tuned once at startup so one hash takes about
+ * PASSWORD_HASH_TARGET_MS (default 100); older rows, including legacy unsalted
+ * SHA-256 hex, report {@link #needsRehash} and are upgraded on login.
+ */
+public class PasswordHasher {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHasher.class);
+
+    private static final String PREFIX = "pbkdf2";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final int MIN_ITERATIONS = 100_000;
+    private static final int MAX_ITERATIONS = 5_000_000;
+    private static final int QUEUE_PER_WORKER = 16;
+
+    /** Thrown when the hashing queue is full; the request should be retried later. */
+    public static class OverloadedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        OverloadedException() {
+            super("Too many sign-ins at once, please try again shortly.");
+        }
+    }
+
+    private static final SecureRandom random = new SecureRandom();
+    private static final ThreadPoolExecutor pool;
+    private static final int iterations;
+    private static volatile String unknownUserHash; // see verifyUnknownUser
+
+    // --- METRICS ---
+    private static final LongAdder hashes = new LongAdder();
+    private static final LongAdder hashNanos = new LongAdder();
+    private static final AtomicLong maxHashNanos = new AtomicLong();
+    private static final LongAdder rejected = new LongAdder();
+    private static final LongAdder rehashed = new LongAdder();
+
+    static {
+        int workers = Math.max(1, Runtime.getRuntime().availableProcessors());
+        AtomicInteger n = new AtomicInteger();
+        pool = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workers * QUEUE_PER_WORKER), r -> {
+                    Thread t = new Thread(r, "password-hasher-" + n.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        iterations = calibrate(targetMillis());
+
+        Metrics.gauge("password_hash_queue_depth", "Hash jobs waiting for a worker", PasswordHasher::getQueueDepth);
+        Metrics.gauge("password_hash_active_workers", "Workers hashing right now", PasswordHasher::getActiveWorkers);
+        Metrics.gauge("password_hash_max_millis", "Slowest hash since start", PasswordHasher::getMaxHashMillis);
+        Metrics.counterFunction("password_hashes_total", "Hashes computed", hashes::sum);
+        Metrics.counterFunction("password_hash_seconds_total", "Time spent hashing", () -> hashNanos.sum() / 1e9);
+        Metrics.counterFunction("password_hash_rejected_total", "Hash jobs refused with a full queue", rejected::sum);
+        Metrics.counterFunction("password_rehashes_total", "Stored hashes upgraded at login", rehashed::sum);
+    }
+
+    private static int targetMillis() {
+        String value = EnvLoader.get("PASSWORD_HASH_TARGET_MS");
+        try {
+            return value == null ? 100 : Math.max(1, Integer.parseInt(value.trim()));
+        } catch (NumberFormatException e) {
+            return 100;
+        }
+    }
+
+    // Times a fixed probe (best of a few, after warm-up) and scales it to the target
+    private static int calibrate(int targetMillis) {
+        int probe = 20_000;
+        byte[] salt = new byte[SALT_BYTES];
+        char[] password = "calibration".toCharArray();
+        long best = Long.MAX_VALUE;
+        try {
+            for (int i = 0; i < 5; i++) {
+                long start = System.nanoTime();
+                derive(password, salt, probe);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+        } catch (GeneralSecurityException e) {
+            log.error("calibrate failed", e);
+            return MIN_ITERATIONS;
+        }
+        long tuned = probe * TimeUnit.MILLISECONDS.toNanos(targetMillis) / Math.max(1, best);
+        tuned = Math.max(MIN_ITERATIONS, Math.min(MAX_ITERATIONS, tuned));
+        return (int) (tuned / 1000 * 1000);
+    }
+
+    // --- PUBLIC API ---
+    public static String hash(String password) {
+        return submit(() -> {
+            byte[] salt = new byte[SALT_BYTES];
+            random.nextBytes(salt);
+            byte[] hash = timedDerive(password.toCharArray(), salt, iterations);
+            Base64.Encoder b64 = Base64.getEncoder().withoutPadding();
+            return PREFIX + "$" + iterations + "$" + b64.encodeToString(salt) + "$" + b64.encodeToString(hash);
+        });
+    }
+
+    /** Checks the password against a stored hash in either format. */
+    public static boolean verify(String password, String stored) {
+        if (password == null || stored == null)
+            return false;
+        if (isLegacy(stored))
+            return MessageDigest.isEqual(legacyHash(password).getBytes(StandardCharsets.US_ASCII),
+                    stored.toLowerCase().getBytes(StandardCharsets.US_ASCII));
+
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4 || !PREFIX.equals(parts[0]))
+            return false;
+        int storedIterations;
+        byte[] salt;
+        byte[] expected;
+        try {
+            storedIterations = Integer.parseInt(parts[1]);
+            salt = Base64.getDecoder().decode(parts[2]);
+            expected = Base64.getDecoder().decode(parts[3]);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        byte[] actual = submit(() -> timedDerive(password.toCharArray(), salt, storedIterations));
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    /**
+     * Spends the work of a failed {@link #verify} without a stored hash, so a
+     * login for an unknown email takes as long as one with a wrong password.
+     */
+    public static void verifyUnknownUser(String password) {
+        String stored = unknownUserHash;
+        if (stored == null) {
+            byte[] secret = new byte[SALT_BYTES];
+            random.nextBytes(secret);
+            stored = hash(Base64.getEncoder().encodeToString(secret));
+            unknownUserHash = stored; // a racing caller may build its own; either is fine
+        }
+        verify(password == null ? "" : password, stored);
+    }
+
+    /**
+     * True for legacy SHA-256 rows and for PBKDF2 rows well below the current
+     * setting. Calibration is re-measured each start and moves with timing
+     * noise, so a row is only upgraded when it falls under 80% of it; otherwise
+     * every restart that measured a little higher would rehash every login.
+     */
+    public static boolean needsRehash(String stored) {
+        if (stored == null || isLegacy(stored))
+            return true;
+        String[] parts = stored.split("\\$");
+        try {
+            return parts.length != 4 || Integer.parseInt(parts[1]) * 5L < iterations * 4L;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    static void recordRehash() {
+        rehashed.increment();
+    }
+
+    public static int getIterations() {
+        return iterations;
+    }
+
+    public static int getQueueDepth() {
+        return pool.getQueue().size();
+    }
+
+    public static int getActiveWorkers() {
+        return pool.getActiveCount();
+    }
+
+    public static long getHashCount() {
+        return hashes.sum();
+    }
+
+    public static double getMeanHashMillis() {
+        long n = hashes.sum();
+        return n == 0 ? 0 : hashNanos.sum() / 1e6 / n;
+    }
+
+    public static double getMaxHashMillis() {
+        return maxHashNanos.get() / 1e6;
+    }
+
+    public static long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public static long getRehashCount() {
+        return rehashed.sum();
+    }
+
+    // --- INTERNALS ---
+    private static <T> T submit(Callable<T> task) {
+        FxWatchdog.checkNotFxThread("password.hash");
+        Tracer.Span span = Tracer.start("PasswordHasher.hash");
+        try {
+            return await(task);
+        } finally {
+            span.close();
+        }
+    }
+
+    private static <T> T await(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = pool.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new OverloadedException();
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private static byte[] timedDerive(char[] password, byte[] salt, int rounds) throws GeneralSecurityException {
+        long start = System.nanoTime();
+        byte[] hash = derive(password, salt, rounds);
+        long elapsed = System.nanoTime() - start;
+        hashes.increment();
+        hashNanos.add(elapsed);
+        maxHashNanos.accumulateAndGet(elapsed, Math::max);
+        return hash;
+    }
+
+    private static byte[] derive(char[] password, byte[] salt, int rounds) throws GeneralSecurityException {
+        PBEKeySpec spec = new PBEKeySpec(password, salt, rounds, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    private static boolean isLegacy(String stored) {
+        return stored.length() == 64 && stored.chars().allMatch(c -> Character.digit(c, 16) >= 0);
+    }
+
+    // The original unsalted scheme, kept only to verify rows that predate PBKDF2
+    private static String legacyHash(String password) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(password.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(2 * digest.length);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
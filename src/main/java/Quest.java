@@ -7,12 +7,16 @@ public class Quest {
     private boolean isCompleted;
 
     public Quest(String id, String description, int target, int xpReward) {
+        this(id, description, target, xpReward, 0);
+    }
+
+    public Quest(String id, String description, int target, int xpReward, int progress) {
         this.id = id;
         this.description = description;
         this.target = target;
         this.xpReward = xpReward;
-        this.progress = 0;
-        this.isCompleted = false;
+        this.progress = Math.min(progress, target);
+        this.isCompleted = progress >= target;
     }
 
     public void addProgress(int amount) {
@@ -0,0 +1,334 @@
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Daily quests driven by journal events. Definitions live in
+ * quest_definitions and are loaded once into a per-trigger index sorted by
+ * threshold, so an event only visits the quests it can advance (a binary
+ * search finds where they start). Each user's progress for the current day
+ * is kept in memory and written back with one batched upsert per event.
+ */
+public class QuestEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(QuestEngine.class);
+
+    /** What a quest listens to. Every trigger matches when the event value is >= the quest threshold. */
+    public enum Trigger {
+        ENTRY_SAVED, // any save; threshold unused
+        ENTRY_LENGTH, // characters in the entry
+        TIME_OF_DAY, // hour the entry was saved, in the user's time zone
+        MOOD // mood score (1-5)
+    }
+
+    /** One journal save, as seen by the quest engine. The hour is the user's local hour. */
+    public static class JournalEvent {
+        final int length;
+        final int hour;
+        final int moodScore;
+
+        public JournalEvent(int length, int hour, int moodScore) {
+            this.length = length;
+            this.hour = hour;
+            this.moodScore = moodScore;
+        }
+
+        int valueFor(Trigger trigger) {
+            return switch (trigger) {
+                case ENTRY_SAVED -> 0;
+                case ENTRY_LENGTH -> length;
+                case TIME_OF_DAY -> hour;
+                case MOOD -> moodScore;
+            };
+        }
+    }
+
+    /** Result of one event: fresh quest snapshots and the XP earned by quests it completed. */
+    public static class Outcome {
+        public final List<Quest> quests;
+        public final int xpEarned;
+        public final List<Quest> completed;
+
+        Outcome(List<Quest> quests, int xpEarned, List<Quest> completed) {
+            this.quests = quests;
+            this.xpEarned = xpEarned;
+            this.completed = completed;
+        }
+    }
+
+    private static class Definition {
+        final int index;
+        final String id;
+        final String description;
+        final int threshold;
+        final int target;
+        final int xpReward;
+
+        Definition(int index, String id, String description, int threshold, int target, int xpReward) {
+            this.index = index;
+            this.id = id;
+            this.description = description;
+            this.threshold = threshold;
+            this.target = target;
+            this.xpReward = xpReward;
+        }
+    }
+
+    // Progress of one user for one day, indexed like the catalogue
+    private static class DailyState {
+        final LocalDate date;
+        final int[] progress;
+
+        DailyState(LocalDate date, int size) {
+            this.date = date;
+            this.progress = new int[size];
+        }
+    }
+
+    // --- CATALOGUE ---
+    private static volatile Definition[] catalogue;
+    private static volatile Map<Trigger, Definition[]> byTrigger;
+    private static volatile Map<Trigger, int[]> thresholds;
+
+    private static final Map<String, DailyState> states = new ConcurrentHashMap<>();
+
+    private static final Metrics.Call LOAD_CATALOGUE = Metrics.dbQuery("QuestEngine.loadCatalogue");
+    private static final Metrics.Call LOAD_PROGRESS = Metrics.dbQuery("QuestEngine.loadProgress");
+    private static final Metrics.Call SAVE_PROGRESS = Metrics.dbQuery("QuestEngine.saveProgress");
+
+    // Published only after a successful load; on failure nothing is cached and the next call retries
+    private static boolean ensureCatalogue() {
+        if (catalogue != null)
+            return true;
+        synchronized (QuestEngine.class) {
+            if (catalogue != null)
+                return true;
+            List<Definition> defs = new ArrayList<>();
+            Map<Trigger, List<Definition>> grouped = new EnumMap<>(Trigger.class);
+            String sql = "SELECT id, description, trigger_type, threshold, target, xp_reward FROM quest_definitions "
+                    + "WHERE active ORDER BY id";
+            Metrics.Span span = LOAD_CATALOGUE.begin();
+            try (Connection conn = DatabaseConnectionPool.getConnection();
+                    PreparedStatement ps = conn.prepareStatement(sql);
+                    ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Trigger trigger;
+                    try {
+                        trigger = Trigger.valueOf(rs.getString("trigger_type"));
+                    } catch (IllegalArgumentException e) {
+                        log.warn("Skipping quest with unknown trigger: {}", rs.getString("id"));
+                        continue;
+                    }
+                    Definition def = new Definition(defs.size(), rs.getString("id"), rs.getString("description"),
+                            rs.getInt("threshold"), Math.max(1, rs.getInt("target")), rs.getInt("xp_reward"));
+                    defs.add(def);
+                    grouped.computeIfAbsent(trigger, t -> new ArrayList<>()).add(def);
+                }
+                span.success(defs.size());
+            } catch (SQLException e) {
+                span.failure();
+                log.error("ensureCatalogue failed", e);
+                return false;
+            }
+
+            Map<Trigger, Definition[]> index = new EnumMap<>(Trigger.class);
+            Map<Trigger, int[]> keys = new EnumMap<>(Trigger.class);
+            for (Trigger trigger : Trigger.values()) {
+                Definition[] sorted = grouped.getOrDefault(trigger, List.of()).stream()
+                        .sorted((a, b) -> Integer.compare(a.threshold, b.threshold)).toArray(Definition[]::new);
+                int[] t = new int[sorted.length];
+                for (int i = 0; i < sorted.length; i++) {
+                    t[i] = sorted[i].threshold;
+                }
+                index.put(trigger, sorted);
+                keys.put(trigger, t);
+            }
+            byTrigger = index;
+            thresholds = keys;
+            catalogue = defs.toArray(new Definition[0]);
+            return true;
+        }
+    }
+
+    // --- PUBLIC API ---
+    /**
+     * The quests for the user's {@code today} with their progress; loads the day's
+     * row set once. Empty if the quests can't be loaded. Call off the FX thread.
+     */
+    public static List<Quest> getDailyQuests(User user, LocalDate today) {
+        DailyState state = state(user, today);
+        return state == null ? List.of() : snapshot(state);
+    }
+
+    /**
+     * Applies one save event to the quests of the user's {@code today} and persists whatever it changed.
+     * If the write fails the progress is rolled back and no XP is paid, so a restart can't pay it twice.
+     */
+    public static Outcome onJournalSaved(User user, LocalDate today, JournalEvent event) {
+        DailyState state = state(user, today);
+        if (state == null)
+            return new Outcome(List.of(), 0, List.of());
+        List<Definition> changed = new ArrayList<>();
+        List<Integer> previous = new ArrayList<>();
+        List<Quest> completed = new ArrayList<>();
+        int xp = 0;
+
+        synchronized (state) {
+            for (Trigger trigger : Trigger.values()) {
+                Definition[] defs = byTrigger.get(trigger);
+                int matching = countAtMost(thresholds.get(trigger), event.valueFor(trigger));
+                for (int i = 0; i < matching; i++) {
+                    Definition def = defs[i];
+                    int before = state.progress[def.index];
+                    if (before >= def.target)
+                        continue;
+                    state.progress[def.index] = before + 1;
+                    changed.add(def);
+                    previous.add(before);
+                    if (before + 1 == def.target) {
+                        xp += def.xpReward;
+                        completed.add(toQuest(def, def.target));
+                    }
+                }
+            }
+            if (!changed.isEmpty() && !persist(user.getEmail(), state, changed)) {
+                for (int i = 0; i < changed.size(); i++) {
+                    state.progress[changed.get(i).index] = previous.get(i);
+                }
+                xp = 0;
+                completed.clear();
+            }
+        }
+        return new Outcome(snapshot(state), xp, completed);
+    }
+
+    public static void evict(String email) {
+        states.remove(email);
+    }
+
+    // Number of leading thresholds <= value (upper bound in a sorted array)
+    private static int countAtMost(int[] sorted, int value) {
+        int lo = 0;
+        int hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] <= value)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+
+    // null if the catalogue or the day's progress can't be loaded
+    private static DailyState state(User user, LocalDate today) {
+        if (!ensureCatalogue())
+            return null;
+        DailyState state = states.get(user.getEmail());
+        if (state == null || !state.date.equals(today)) {
+            state = load(user.getEmail(), today);
+            if (state == null)
+                return null;
+            states.put(user.getEmail(), state);
+        }
+        return state;
+    }
+
+    private static List<Quest> snapshot(DailyState state) {
+        List<Quest> quests = new ArrayList<>(catalogue.length);
+        synchronized (state) {
+            for (Definition def : catalogue) {
+                quests.add(toQuest(def, state.progress[def.index]));
+            }
+        }
+        return quests;
+    }
+
+    private static Quest toQuest(Definition def, int progress) {
+        return new Quest(def.id, def.description, def.target, def.xpReward, progress);
+    }
+
+    // --- PERSISTENCE ---
+    static final String LOAD_PROGRESS_SQL = "SELECT quest_id, progress FROM user_quest_progress "
+            + "WHERE user_email = ? AND quest_date = ?";
+
+    private static DailyState load(String email, LocalDate day) {
+        DailyState state = new DailyState(day, catalogue.length);
+        Map<String, Integer> indexById = new HashMap<>();
+        for (Definition def : catalogue) {
+            indexById.put(def.id, def.index);
+        }
+        Metrics.Span span = LOAD_PROGRESS.begin();
+        try (Connection conn = DatabaseConnectionPool.getConnection();
+                PreparedStatement ps = conn.prepareStatement(LOAD_PROGRESS_SQL)) {
+            ps.setString(1, email);
+            ps.setDate(2, Date.valueOf(day));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Integer index = indexById.get(rs.getString(1));
+                    if (index != null)
+                        state.progress[index] = rs.getInt(2);
+                }
+            }
+            span.success();
+        } catch (SQLException e) {
+            // Not cached: zeroed progress would be written back over the stored rows by the next event
+            span.failure();
+            log.error("load failed", e);
+            return null;
+        }
+        return state;
+    }
+
+    static final String UPSERT_SQL = "INSERT INTO user_quest_progress "
+            + "(user_email, quest_date, quest_id, progress, completed_at) "
+            + "SELECT ?, ?, q.id, q.progress, CASE WHEN q.done THEN CURRENT_TIMESTAMP END "
+            + "FROM unnest(?::varchar[], ?::int[], ?::boolean[]) AS q(id, progress, done) "
+            + "ON CONFLICT (user_email, quest_date, quest_id) DO UPDATE SET progress = EXCLUDED.progress, "
+            + "completed_at = COALESCE(user_quest_progress.completed_at, EXCLUDED.completed_at)";
+
+    // Every quest the event touched, in one statement; false if nothing was written
+    private static boolean persist(String email, DailyState state, List<Definition> changed) {
+        String[] ids = new String[changed.size()];
+        Integer[] progress = new Integer[changed.size()];
+        Boolean[] done = new Boolean[changed.size()];
+        for (int i = 0; i < ids.length; i++) {
+            Definition def = changed.get(i);
+            ids[i] = def.id;
+            progress[i] = state.progress[def.index];
+            done[i] = progress[i] >= def.target;
+        }
+        Metrics.Span span = SAVE_PROGRESS.begin();
+        try (Connection conn = DatabaseConnectionPool.getConnection();
+                PreparedStatement ps = conn.prepareStatement(UPSERT_SQL)) {
+            Array idArray = conn.createArrayOf("varchar", ids);
+            Array progressArray = conn.createArrayOf("int4", progress);
+            Array doneArray = conn.createArrayOf("bool", done);
+            ps.setString(1, email);
+            ps.setDate(2, Date.valueOf(state.date));
+            ps.setArray(3, idArray);
+            ps.setArray(4, progressArray);
+            ps.setArray(5, doneArray);
+            int rows = ps.executeUpdate();
+            span.success(rows);
+            return true;
+        } catch (SQLException e) {
+            span.failure();
+            log.error("Quest progress not saved: {}", Arrays.toString(ids), e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Client-side quotas for the outbound AI calls, so bursts are smoothed here
+ * instead of coming back from Hugging Face / Gemini as 429s. Each upstream
+ * has a global bucket and one bucket per user; a call needs a token from both.
+ *
+ * <p>Buckets are lock-free: the whole state is one AtomicLong holding the
+ * time the bucket would be full again (GCRA, which is equivalent to a token
+ * bucket). Callers that find no token sleep until one is due, up to their
+ * deadline ({@link #DEADLINE_NANOS} by default), and only then give up.
+ */
+public class RateLimiter {
+
+    // Every caller is interactive (a save or a summary someone is waiting for)
+    static final long DEADLINE_NANOS = TimeUnit.SECONDS.toNanos(8);
+    private static final long MAX_USERS = 10_000;
+    private static final long SWEEP_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    // --- BUCKET ---
+    static class Bucket {
+        private final long interval; // nanos per token
+        private final long burst; // tokens
+        private final AtomicLong fullAt; // nanoTime at which the bucket is full again; <= now means full
+
+        Bucket(double perMinute, int burst) {
+            this.interval = (long) (TimeUnit.MINUTES.toNanos(1) / perMinute);
+            this.burst = burst;
+            this.fullAt = new AtomicLong(System.nanoTime());
+        }
+
+        /** Takes a token and returns 0, or returns how long to wait before one. */
+        long tryAcquire(long now) {
+            long limit = burst * interval;
+            while (true) {
+                long current = fullAt.get();
+                long next = Math.max(current, now) + interval;
+                long debt = next - now;
+                if (debt > limit)
+                    return Math.max(1, debt - limit);
+                if (fullAt.compareAndSet(current, next))
+                    return 0;
+            }
+        }
+
+        void refund() {
+            fullAt.addAndGet(-interval);
+        }
+
+        /** Upstream said 429: treat the bucket as empty for {@code nanos}. */
+        void penalize(long now, long nanos) {
+            long target = now + nanos + burst * interval;
+            fullAt.accumulateAndGet(target, Math::max);
+        }
+
+        double available(long now) {
+            return burst - (double) Math.max(0, fullAt.get() - now) / interval;
+        }
+
+        boolean isFull(long now) {
+            return fullAt.get() <= now;
+        }
+    }
+
+    // --- LIMITS ---
+    private static class Upstream {
+        final String name;
+        final double userPerMinute;
+        final int userBurst;
+        final Bucket global;
+        final Map<String, Bucket> users = new ConcurrentHashMap<>();
+        final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+
+        final LongAdder granted = new LongAdder();
+        final LongAdder delayed = new LongAdder();
+        final LongAdder waitNanos = new LongAdder();
+        final LongAdder throttled = new LongAdder();
+        final LongAdder upstreamLimited = new LongAdder();
+
+        Upstream(String name, double globalPerMinute, int globalBurst, double userPerMinute, int userBurst) {
+            this.name = name;
+            this.userPerMinute = userPerMinute;
+            this.userBurst = userBurst;
+            this.global = new Bucket(globalPerMinute, globalBurst);
+        }
+
+        Bucket userBucket(String user, long now) {
+            if (users.size() > MAX_USERS)
+                sweep(now);
+            return users.computeIfAbsent(user, u -> new Bucket(userPerMinute, userBurst));
+        }
+
+        // Only buckets that have refilled completely can go: a new one starts full, so nothing is forgiven.
+        // Partly drained buckets stay even past the cap. At most one sweep per second.
+        private void sweep(long now) {
+            long last = lastSweep.get();
+            if (now - last < SWEEP_NANOS || !lastSweep.compareAndSet(last, now))
+                return;
+            users.values().removeIf(bucket -> bucket.isFull(now));
+        }
+    }
+
+    private static final Map<String, Upstream> byEndpoint = new ConcurrentHashMap<>();
+
+    static {
+        register(API.MOOD_API_URL, "mood", "AI_MOOD", 120, 20, 30, 5);
+        register(API.SUMMARY_API_URL, "summary", "AI_SUMMARY", 10, 3, 2, 1);
+    }
+
+    // Rates can be overridden with <prefix>_RPM (global) and <prefix>_USER_RPM
+    private static void register(String url, String name, String envPrefix, double globalPerMinute,
+            int globalBurst, double userPerMinute, int userBurst) {
+        globalPerMinute = rate(envPrefix + "_RPM", globalPerMinute);
+        userPerMinute = rate(envPrefix + "_USER_RPM", userPerMinute);
+        Upstream u = new Upstream(name, globalPerMinute, globalBurst, userPerMinute, userBurst);
+        byEndpoint.put(keyOf(url), u);
+
+        Metrics.counterFunction("ai_quota_granted_total", "Calls let through by the limiter", u.granted::sum,
+                "upstream", name);
+        Metrics.counterFunction("ai_quota_delayed_total", "Calls that waited for a token", u.delayed::sum,
+                "upstream", name);
+        Metrics.counterFunction("ai_quota_wait_seconds_total", "Time spent waiting for tokens",
+                () -> u.waitNanos.sum() / 1e9, "upstream", name);
+        Metrics.counterFunction("ai_quota_throttled_total", "Calls dropped at their deadline", u.throttled::sum,
+                "upstream", name);
+        Metrics.counterFunction("ai_quota_upstream_limited_total", "429 responses from the provider",
+                u.upstreamLimited::sum, "upstream", name);
+        Metrics.gauge("ai_quota_available_tokens", "Tokens left in the global bucket",
+                () -> Math.max(0, u.global.available(System.nanoTime())), "upstream", name);
+    }
+
+    private static double rate(String key, double defaultPerMinute) {
+        String override = EnvLoader.get(key);
+        if (override != null) {
+            try {
+                return Math.max(0.001, Double.parseDouble(override.trim()));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return defaultPerMinute;
+    }
+
+    // Endpoint without the query string (the Gemini key is passed as ?key=)
+    private static String keyOf(String url) {
+        int query = url.indexOf('?');
+        return query < 0 ? url : url.substring(0, query);
+    }
+
+    // --- PUBLIC API ---
+    /**
+     * Blocks until the call to {@code url} is within quota, or returns false
+     * once {@link #DEADLINE_NANOS} would pass. Endpoints without a quota pass
+     * straight through; a null user only counts against the global bucket.
+     */
+    public static boolean acquire(String url, String user) {
+        return acquire(url, user, System.nanoTime() + DEADLINE_NANOS);
+    }
+
+    public static boolean acquire(String url, String user, long deadlineNanos) {
+        Upstream upstream = byEndpoint.get(keyOf(url));
+        if (upstream == null)
+            return true;
+
+        long start = System.nanoTime();
+        Bucket userBucket = user == null ? null : upstream.userBucket(user, start);
+        boolean waited = false;
+        while (true) {
+            long now = System.nanoTime();
+            long wait = userBucket == null ? 0 : userBucket.tryAcquire(now);
+            if (wait == 0) {
+                wait = upstream.global.tryAcquire(now);
+                if (wait == 0) {
+                    upstream.granted.increment();
+                    if (waited) {
+                        upstream.delayed.increment();
+                        upstream.waitNanos.add(System.nanoTime() - start);
+                    }
+                    return true;
+                }
+                if (userBucket != null)
+                    userBucket.refund();
+            }
+            if (now + wait > deadlineNanos || Thread.currentThread().isInterrupted()) {
+                upstream.throttled.increment();
+                return false;
+            }
+            waited = true;
+            LockSupport.parkNanos(wait);
+        }
+    }
+
+    /** Called when the upstream answered 429 anyway; holds everyone back for the hinted time. */
+    public static void onUpstreamLimited(String url, long retryAfterMillis) {
+        Upstream upstream = byEndpoint.get(keyOf(url));
+        if (upstream == null)
+            return;
+        upstream.upstreamLimited.increment();
+        upstream.global.penalize(System.nanoTime(), TimeUnit.MILLISECONDS.toNanos(Math.max(1000, retryAfterMillis)));
+    }
+
+    // --- STATS ---
+    public static class Stats {
+        public final String upstream;
+        public final long granted;
+        public final long delayed;
+        public final double meanWaitMillis;
+        public final long throttled;
+        public final long upstreamLimited;
+        public final double availableTokens;
+
+        Stats(Upstream u) {
+            this.upstream = u.name;
+            this.granted = u.granted.sum();
+            this.delayed = u.delayed.sum();
+            this.meanWaitMillis = delayed == 0 ? 0 : u.waitNanos.sum() / 1e6 / delayed;
+            this.throttled = u.throttled.sum();
+            this.upstreamLimited = u.upstreamLimited.sum();
+            this.availableTokens = Math.max(0, u.global.available(System.nanoTime()));
+        }
+    }
+
+    public static List<Stats> getStats() {
+        return byEndpoint.values().stream().map(Stats::new).sorted(Comparator.comparing(s -> s.upstream)).toList();
+    }
+}
@@ -0,0 +1,84 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A continuous flight recording that can be dumped to a .jfr file
+ * on demand (Settings, Diagnostics tab). Uses the JDK's "default" settings,
+ * which are designed to stay around 1% overhead, plus the app's own
+ * {@link JfrEvents}. Keeps the last JFR_MAX_AGE_MINUTES (default 30) of data.
+ *
+ * <p>Set JFR_CONTINUOUS=true to start it at launch; otherwise it is started
+ * from Settings.
+ */
+public class RecordingManager {
+
+    private static final Logger log = LoggerFactory.getLogger(RecordingManager.class);
+
+    private static final long MAX_SIZE_BYTES = 100L * 1024 * 1024;
+
+    private static Recording recording;
+
+    public static void startFromEnv() {
+        if ("true".equalsIgnoreCase(EnvLoader.get("JFR_CONTINUOUS")))
+            start();
+    }
+
+    public static synchronized boolean isRunning() {
+        return recording != null;
+    }
+
+    /** Starts the continuous recording; returns false if JFR is unavailable. */
+    public static synchronized boolean start() {
+        if (recording != null)
+            return true;
+        try {
+            Recording r = new Recording(Configuration.getConfiguration("default"));
+            r.setName("SmartJournal continuous");
+            r.setToDisk(true); // chunks rotate on disk, so memory stays flat
+            r.setMaxAge(Duration.ofMinutes(maxAgeMinutes()));
+            r.setMaxSize(MAX_SIZE_BYTES);
+            r.enable(JfrEvents.QueryEvent.class);
+            r.enable(JfrEvents.HttpCallEvent.class);
+            r.enable(JfrEvents.SaveEntryEvent.class);
+            r.enable(JfrEvents.SaveStageEvent.class);
+            r.enable(JfrEvents.SummaryEvent.class);
+            r.start();
+            recording = r;
+            log.info("Continuous flight recording started");
+            return true;
+        } catch (IOException | ParseException | IllegalStateException | SecurityException e) {
+            log.warn("Could not start recording: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    public static synchronized void stop() {
+        if (recording == null)
+            return;
+        recording.close();
+        recording = null;
+        log.info("Continuous flight recording stopped");
+    }
+
+    /** Writes everything recorded so far to {@code file}; the recording keeps running. */
+    public static synchronized void dump(Path file) throws IOException {
+        if (recording == null)
+            throw new IllegalStateException("No recording is running");
+        recording.dump(file);
+    }
+
+    private static int maxAgeMinutes() {
+        String value = EnvLoader.get("JFR_MAX_AGE_MINUTES");
+        try {
+            return value == null ? 30 : Math.max(1, Integer.parseInt(value.trim()));
+        } catch (NumberFormatException e) {
+            return 30;
+        }
+    }
+}
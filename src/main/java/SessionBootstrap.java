@@ -0,0 +1,99 @@
+import com.google.gson.annotations.SerializedName;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Everything the first screen needs after login, fetched by
+ * {@link JournalManager#loadSessionBootstrap(User)} as a single JSON document
+ * and deserialized by Gson in one pass.
+ */
+public class SessionBootstrap {
+
+    // --- JSON SHAPE (matches json_build_object keys in the bootstrap query) ---
+    static class UserRow {
+        @SerializedName("display_name")
+        String displayName;
+        @SerializedName("start_of_week")
+        String startOfWeek;
+    }
+
+    static class ProgressRow {
+        @SerializedName("current_streak")
+        int streak;
+        @SerializedName("total_xp")
+        int xp;
+        @SerializedName("current_level")
+        int level = 1;
+        @SerializedName("journal_days")
+        String journalDays; // base64 (MIME line breaks from Postgres encode())
+        @SerializedName("journal_days_base")
+        Long journalDaysBase;
+    }
+
+    static class EntryRow {
+        @SerializedName("entry_date")
+        String date;
+        String content;
+        String mood;
+        String weather;
+        @SerializedName("mood_score")
+        int moodScore;
+        @SerializedName("mood_confidence")
+        Float moodConfidence;
+    }
+
+    private UserRow user;
+    private ProgressRow progress;
+    private List<EntryRow> entries;
+    @SerializedName("unlocked_achievements")
+    private List<String> unlockedAchievements;
+
+    // --- ACCESSORS ---
+    public boolean hasUser() {
+        return user != null;
+    }
+
+    /** Copies the refreshed profile columns onto the logged-in user. */
+    public void applyTo(User target) {
+        if (user == null)
+            return;
+        if (user.displayName != null)
+            target.setDisplayName(user.displayName);
+        if (user.startOfWeek != null)
+            target.setStartOfWeek(user.startOfWeek);
+    }
+
+    /** Same layout as {@link JournalManager#loadUserProgress(User)}: streak, xp, level. */
+    public int[] getProgress() {
+        if (progress == null)
+            return new int[] { 0, 0, 1 };
+        return new int[] { progress.streak, progress.xp, progress.level };
+    }
+
+    /** The persisted streak calendar, or null if it hasn't been built for this user yet. */
+    public StreakEngine.JournalDays getJournalDays() {
+        if (progress == null || progress.journalDays == null || progress.journalDaysBase == null)
+            return null;
+        byte[] bytes = Base64.getMimeDecoder().decode(progress.journalDays);
+        return StreakEngine.JournalDays.fromBytes(progress.journalDaysBase, bytes);
+    }
+
+    public List<SmartJournal.JournalEntry> getRecentEntries() {
+        List<SmartJournal.JournalEntry> history = new ArrayList<>();
+        if (entries == null)
+            return history;
+        for (EntryRow row : entries) {
+            float confidence = row.moodConfidence == null ? Float.NaN : row.moodConfidence;
+            history.add(new SmartJournal.JournalEntry(LocalDate.parse(row.date), row.content, row.mood, row.weather,
+                    row.moodScore, confidence));
+        }
+        return history;
+    }
+
+    /** Ids only; titles and icons come from the {@link AchievementEngine} catalogue. */
+    public List<String> getUnlockedAchievementIds() {
+        return unlockedAchievements == null ? List.of() : unlockedAchievements;
+    }
+}
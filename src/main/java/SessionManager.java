@@ -0,0 +1,148 @@
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opaque bearer tokens for authenticated sessions. A token is 256 random bits
+ * and maps to the logged-in {@link User} in a bounded, concurrent cache, so
+ * requests carrying it are authenticated without touching the database.
+ * Sessions expire after {@link #IDLE_TTL_MILLIS} without use and after
+ * {@link #MAX_LIFETIME_MILLIS} in any case.
+ */
+public class SessionManager {
+
+    private static final long IDLE_TTL_MILLIS = 30 * 60_000L;
+    private static final long MAX_LIFETIME_MILLIS = 12 * 60 * 60_000L;
+    private static final int MAX_SESSIONS = 100_000;
+
+    public static class Session {
+        public final String token;
+        public final User user;
+        final long createdAt;
+        volatile long lastSeen;
+
+        Session(String token, User user, long now) {
+            this.token = token;
+            this.user = user;
+            this.createdAt = now;
+            this.lastSeen = now;
+        }
+
+        public long getExpiresAt() {
+            return Math.min(lastSeen + IDLE_TTL_MILLIS, createdAt + MAX_LIFETIME_MILLIS);
+        }
+
+        boolean isExpired(long now) {
+            return now >= getExpiresAt();
+        }
+    }
+
+    private static final SecureRandom random = new SecureRandom();
+    private static final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    // email -> that user's tokens, for invalidation on profile changes
+    private static final Map<String, Set<String>> byUser = new ConcurrentHashMap<>();
+
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+
+    static {
+        Metrics.cache("sessions", hits::sum, misses::sum);
+        Metrics.gauge("sessions_active", "Live session tokens", sessions::size);
+    }
+
+    // --- PUBLIC API ---
+    public static Session create(User user) {
+        long now = System.currentTimeMillis();
+        if (sessions.size() >= MAX_SESSIONS)
+            makeRoom(now);
+
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        Session session = new Session(token, user, now);
+        sessions.put(token, session);
+        byUser.computeIfAbsent(user.getEmail(), e -> ConcurrentHashMap.newKeySet()).add(token);
+        return session;
+    }
+
+    /** The session's user, or null if the token is unknown or expired. Extends the idle timeout. */
+    public static User lookup(String token) {
+        if (token == null) {
+            misses.increment();
+            return null;
+        }
+        Session session = sessions.get(token);
+        long now = System.currentTimeMillis();
+        if (session == null || session.isExpired(now)) {
+            if (session != null)
+                remove(session);
+            misses.increment();
+            return null;
+        }
+        session.lastSeen = now;
+        hits.increment();
+        return session.user;
+    }
+
+    public static void invalidate(String token) {
+        Session session = token == null ? null : sessions.get(token);
+        if (session != null)
+            remove(session);
+    }
+
+    /** Ends every session of the user, e.g. after a password or profile change. */
+    public static void invalidateUser(String email) {
+        Set<String> tokens = byUser.remove(email);
+        if (tokens == null)
+            return;
+        for (String token : tokens) {
+            sessions.remove(token);
+        }
+    }
+
+    public static int getActiveSessions() {
+        return sessions.size();
+    }
+
+    public static long getHitCount() {
+        return hits.sum();
+    }
+
+    public static long getMissCount() {
+        return misses.sum();
+    }
+
+    // --- EVICTION ---
+    private static void remove(Session session) {
+        sessions.remove(session.token, session);
+        Set<String> tokens = byUser.get(session.user.getEmail());
+        if (tokens != null) {
+            tokens.remove(session.token);
+            if (tokens.isEmpty())
+                byUser.remove(session.user.getEmail(), tokens);
+        }
+    }
+
+    // Drops expired sessions; if the cache is still full, the least recently used
+    // tenth goes too, so a full cache is swept once per MAX_SESSIONS / 10 logins
+    private static synchronized void makeRoom(long now) {
+        if (sessions.size() < MAX_SESSIONS)
+            return;
+        for (Session session : sessions.values()) {
+            if (session.isExpired(now))
+                remove(session);
+        }
+        if (sessions.size() < MAX_SESSIONS)
+            return;
+        long[] seen = sessions.values().stream().mapToLong(session -> session.lastSeen).sorted().toArray();
+        long cutoff = seen[Math.min(seen.length - 1, MAX_SESSIONS / 10)];
+        for (Session session : sessions.values()) {
+            if (session.lastSeen < cutoff)
+                remove(session);
+        }
+    }
+}
@@ -1,10 +1,11 @@
 import javafx.beans.property.*;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.application.Platform;
 import javafx.util.Pair;
+import java.sql.SQLException;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.temporal.TemporalAdjusters;
@@ -12,13 +13,17 @@ import java.util.List;
 import java.util.Random;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class SmartJournal {
 
-    private final ObservableList<JournalEntry> entries = FXCollections.observableArrayList();
-    private final ObservableList<JournalEntry> weeklyStats = FXCollections.observableArrayList();
+    private static final Logger log = LoggerFactory.getLogger(SmartJournal.class);
+
+    private final UiUpdateBus.BatchedList<JournalEntry> entries = new UiUpdateBus.BatchedList<>();
+    private final UiUpdateBus.BatchedList<JournalEntry> weeklyStats = new UiUpdateBus.BatchedList<>();
+    private final ObservableList<Achievement> achievements = FXCollections.observableArrayList();
+    private final ObservableList<Quest> quests = FXCollections.observableArrayList();
 
     // Gamification properties bound to UI
     private final IntegerProperty xp = new SimpleIntegerProperty(0);
@@ -27,7 +32,18 @@ public class SmartJournal {
 
     // Thread pool for background tasks
     private final ExecutorService executor = Executors.newCachedThreadPool();
-    private final Gson gson = new Gson();
+
+    // Background results reach the UI through the bus, batched once per pulse
+    private final UiUpdateBus uiBus = new UiUpdateBus();
+    private final UiUpdateBus.ListSync<JournalEntry, LocalDate> entriesSync = uiBus.bind(entries,
+            JournalEntry::getDate, (a, b) -> b.getDate().compareTo(a.getDate()));
+
+    // Weekly stats model: loaded once per range, then patched by processEntry
+    private final UiUpdateBus.ListSync<JournalEntry, LocalDate> weeklySync = uiBus.bind(weeklyStats,
+            JournalEntry::getDate, (a, b) -> a.getDate().compareTo(b.getDate()));
+    private final BooleanProperty weeklyStatsLoaded = new SimpleBooleanProperty(false);
+    private volatile Pair<LocalDate, LocalDate> weeklyRange;
+    private boolean weeklyStatsLoading;
 
     private User currentUser;
 
@@ -52,10 +68,10 @@ public class SmartJournal {
         return (hour < 12) ? "Good Morning" : (hour < 17) ? "Good Afternoon" : "Good Evening";
     }
 
-    public String getDailyQuote(String mood) {
-        if (mood == null)
-            mood = "Neutral";
-        String[] quotes = switch (mood.toLowerCase()) {
+    public String getDailyQuote(int moodScore) {
+        String mood = moodScore >= MoodScale.POSITIVE ? "positive"
+                : (MoodScale.isKnown(moodScore) && moodScore <= MoodScale.NEGATIVE) ? "negative" : "neutral";
+        String[] quotes = switch (mood) {
             case "positive" -> new String[] {
                     "Keep your face always toward the sunshine—and shadows will fall behind you.",
                     "Success is not final, failure is not fatal: it is the courage to continue that counts."
@@ -86,12 +102,68 @@ public class SmartJournal {
     }
 
     // --- DATA LOADING ---
+    // Single round trip after login; falls back to the individual queries if the
+    // bootstrap statement fails (e.g. older schema without achievements).
+    public void loadSession() {
+        if (currentUser == null)
+            return;
+        executor.submit(this::loadQuests);
+        executor.submit(() -> {
+            SessionBootstrap session = JournalManager.loadSessionBootstrap(currentUser);
+            if (session == null || !session.hasUser()) {
+                loadUserData();
+                loadHistory();
+                List<Achievement> fetched = GamificationManager.getAchievements(currentUser);
+                uiBus.post("achievements", () -> achievements.setAll(fetched));
+                return;
+            }
+            session.applyTo(currentUser);
+            int[] stats = session.getProgress();
+
+            // The stored streak may be stale (no entry since); derive it from the calendar
+            StreakEngine.JournalDays days = session.getJournalDays();
+            if (days == null) {
+                try {
+                    days = StreakEngine.rebuild(currentUser.getEmail());
+                } catch (SQLException e) {
+                    log.warn("Streak rebuild failed; showing the stored streak", e);
+                }
+            } else {
+                StreakEngine.install(currentUser, days);
+            }
+            if (days != null)
+                stats[0] = days.getCurrentStreak(LocalDate.now());
+
+            List<JournalEntry> history = session.getRecentEntries();
+            AchievementEngine.install(currentUser, session.getUnlockedAchievementIds());
+            // Catches up on anything earned before the rules existed
+            if (days != null)
+                AchievementEngine.evaluate(currentUser, days.getDayCount(), stats[0], stats[2]);
+            List<Achievement> unlocked = AchievementEngine.getAchievements(currentUser);
+            entriesSync.replaceAll(history);
+            uiBus.post("progress", () -> {
+                streak.set(stats[0]);
+                xp.set(stats[1]);
+                level.set(stats[2]);
+            });
+            uiBus.post("achievements", () -> achievements.setAll(unlocked));
+            uiBus.post("weekly-stats", () -> primeWeeklyStats(history));
+        });
+    }
+
     public void loadUserData() {
         if (currentUser == null)
             return;
         executor.submit(() -> {
             int[] stats = JournalManager.loadUserProgress(currentUser);
-            Platform.runLater(() -> {
+            if (stats == null)
+                return; // keep what's shown rather than zeroing it
+            try {
+                stats[0] = StreakEngine.getOrLoad(currentUser).getCurrentStreak(LocalDate.now());
+            } catch (SQLException e) {
+                log.warn("Streak calendar unavailable; showing the stored streak", e);
+            }
+            uiBus.post("progress", () -> {
                 streak.set(stats[0]);
                 xp.set(stats[1]);
                 level.set(stats[2]);
@@ -104,74 +176,116 @@ public class SmartJournal {
             return;
         executor.submit(() -> {
             List<JournalEntry> history = JournalManager.getRecentEntries(currentUser);
-            Platform.runLater(() -> {
-                entries.clear();
-                entries.addAll(history);
-                refreshWeeklyStats(); // NEW: Update stats when history loads
-            });
+            entriesSync.replaceAll(history);
+            uiBus.post("weekly-stats", () -> primeWeeklyStats(history)); // NEW: Update stats when history loads
         });
     }
 
-    private void refreshWeeklyStats() {
-        LocalDate oneWeekAgo = LocalDate.now().minusDays(7);
-        List<JournalEntry> lastWeek = entries.stream()
-                .filter(e -> !e.getDate().isBefore(oneWeekAgo))
-                .sorted((a, b) -> b.getDate().compareTo(a.getDate()))
-                .toList();
-        weeklyStats.setAll(lastWeek);
+    public void loadQuests() {
+        List<Quest> today = QuestEngine.getDailyQuests(currentUser, LocalDate.now());
+        uiBus.post("quests", () -> quests.setAll(today));
     }
 
-    // --- LOGIC ---
-    public void processEntry(LocalDate date, String text, String weather) {
-        if (text == null || text.trim().isEmpty())
+    // --- WEEKLY STATS MODEL ---
+    // The recent history (newest first, at most 20 rows) usually covers the whole
+    // week; if so the stats come for free, otherwise they're queried once.
+    private void primeWeeklyStats(List<JournalEntry> history) {
+        Pair<LocalDate, LocalDate> range = getWeeklyDateRange(currentUser.getStartOfWeek());
+        boolean covers = history.size() < 20
+                || history.get(history.size() - 1).getDate().isBefore(range.getKey());
+        if (!covers) {
+            loadWeeklyStats();
             return;
+        }
+        weeklyRange = range;
+        weeklySync.replaceAll(history.stream().filter(e -> isInRange(e.getDate(), range)).toList());
+        uiBus.post("weekly-stats-loaded", () -> weeklyStatsLoaded.set(true));
+    }
 
-        executor.submit(() -> {
-            boolean isUpdate = false;
-            JournalEntry existing = getEntryForDate(date);
-            isUpdate = (existing != null);
-
-            String mood = analyzeSentiment(text);
-            JournalEntry entryObj = new JournalEntry(date, text, mood, weather);
+    /**
+     * Loads the current week's entries in the background unless they are
+     * already cached for the same range. Must be called on the FX thread;
+     * watch {@link #weeklyStatsLoadedProperty()} for completion.
+     */
+    public void loadWeeklyStats() {
+        if (currentUser == null)
+            return;
+        Pair<LocalDate, LocalDate> range = getWeeklyDateRange(currentUser.getStartOfWeek());
+        if (weeklyStatsLoaded.get() && range.equals(weeklyRange))
+            return;
+        if (weeklyStatsLoading && range.equals(weeklyRange))
+            return;
 
-            // 1. Save Journal Entry (Content)
-            JournalManager.saveJournal(currentUser, entryObj);
+        weeklyRange = range;
+        weeklyStatsLoading = true;
+        weeklyStatsLoaded.set(false);
+        executor.submit(() -> {
+            List<JournalEntry> rawStats = JournalManager.getWeeklyStats(currentUser, range.getKey(), range.getValue());
+            // The range only changes on the FX thread, so the check and the queued rows can't interleave with it
+            uiBus.post("weekly-stats-loaded", () -> {
+                if (!range.equals(weeklyRange))
+                    return; // superseded by a newer range; its own load fills the list
+                weeklySync.replaceAll(rawStats);
+                // Lists apply first in a pulse, so the flag follows the rows
+                uiBus.post("weekly-stats-ready", () -> {
+                    if (!range.equals(weeklyRange))
+                        return;
+                    weeklyStatsLoading = false;
+                    weeklyStatsLoaded.set(true);
+                });
+            });
+        });
+    }
 
-            // 2. Calculate New Stats Locally
-            // Logic: 10 XP for update, 50+ chars for new.
-            int xpGained = isUpdate ? 10 : (50 + text.length());
-            int currentTotalXp = xp.get();
-            int newTotalXp = currentTotalXp + xpGained;
+    /** Drops the cached week, e.g. after the user changes their start of week. */
+    public void invalidateWeeklyStats() {
+        weeklyRange = null;
+        weeklyStatsLoaded.set(false);
+        weeklyStatsLoading = false;
+    }
 
-            // Logic: Level = 1 + (XP / 500)
-            int currentLvl = level.get();
-            int newLvl = GamificationManager.calculateLevel(newTotalXp);
+    private static boolean isInRange(LocalDate date, Pair<LocalDate, LocalDate> range) {
+        return !date.isBefore(range.getKey()) && !date.isAfter(range.getValue());
+    }
 
-            // Logic: Streak increments only if not updating existing
-            int newStreak = streak.get() + (isUpdate ? 0 : 1);
+    // --- LOGIC ---
+    public void processEntry(LocalDate date, String text, String weather) {
+        if (text == null || text.trim().isEmpty())
+            return;
 
-            // 3. SYNC FULL PROGRESS TO DB
-            JournalManager.saveUserProgress(currentUser, newStreak, newTotalXp, newLvl);
+        executor.submit(Tracer.wrap(() -> {
+            JournalService.SaveResult result;
+            try {
+                result = JournalService.saveEntry(currentUser, date, text, weather, LocalDateTime.now());
+            } catch (SQLException e) {
+                log.error("Save failed; the entry for {} was not written", date, e);
+                return;
+            }
+            JournalEntry entryObj = result.entry;
 
-            boolean finalIsUpdate = isUpdate;
-            Platform.runLater(() -> {
-                // Update UI List
-                if (finalIsUpdate) {
-                    entries.removeIf(e -> e.getDate().equals(date));
-                }
-                entries.add(0, entryObj);
-                FXCollections.sort(entries, (a, b) -> b.getDate().compareTo(a.getDate()));
+            uiBus.post("quests", () -> quests.setAll(result.quests));
+            if (!result.newAchievements.isEmpty()) {
+                List<Achievement> all = AchievementEngine.getAchievements(currentUser);
+                uiBus.post("achievements", () -> achievements.setAll(all));
+            }
 
+            // Update UI List (replaces any entry for the same date)
+            entriesSync.upsert(entryObj);
+            Pair<LocalDate, LocalDate> range = weeklyRange;
+            if (range != null && isInRange(date, range)) {
+                weeklySync.upsert(entryObj);
+            }
+            uiBus.post(() -> {
                 // Update UI Stats
-                xp.set(newTotalXp);
-                streak.set(newStreak);
-                level.set(newLvl);
+                xp.set(result.totalXp);
+                streak.set(result.streak);
+                level.set(result.level);
 
-                if (newLvl > currentLvl && onLevelUpCallback != null) {
+                if (result.isLevelUp() && onLevelUpCallback != null) {
                     onLevelUpCallback.run();
                 }
             });
-        });
+        }));
     }
 
     public JournalEntry getTodayEntry() {
@@ -187,52 +301,27 @@ public class SmartJournal {
         return null;
     }
 
-    private String analyzeSentiment(String text) {
-        try {
-            JsonObject jsonBody = new JsonObject();
-            jsonBody.addProperty("inputs", text);
-
-            String responseBody = API.post(API.MOOD_API_URL, gson.toJson(jsonBody));
-            if (responseBody == null)
-                return "Unknown";
-            return parseBestSentiment(responseBody);
-        } catch (Exception e) {
-            return "Neutral";
-        }
-    }
-
-    private String parseBestSentiment(String json) {
-        String bestLabel = "Neutral";
-        double maxScore = -1.0;
-        java.util.regex.Pattern pattern = java.util.regex.Pattern
-                .compile("\\{\"label\":\"(.*?)\",\"score\":([\\d\\.]+)\\}");
-        java.util.regex.Matcher matcher = pattern.matcher(json);
-        while (matcher.find()) {
-            String label = matcher.group(1);
-            try {
-                double score = Double.parseDouble(matcher.group(2));
-                if (score > maxScore) {
-                    maxScore = score;
-                    bestLabel = label;
-                }
-            } catch (NumberFormatException ignored) {
-            }
-        }
-        return bestLabel;
-    }
-
     // --- INNER CLASSES ---
     public static class JournalEntry {
         private final LocalDate date;
         private final String content;
         private final String aiMood;
         private final String weather;
+        private final int moodScore;
+        private final float moodConfidence;
 
         public JournalEntry(LocalDate date, String content, String mood, String weather) {
+            this(date, content, mood, weather, MoodScale.fromLabel(mood), Float.NaN);
+        }
+
+        public JournalEntry(LocalDate date, String content, String mood, String weather, int moodScore,
+                float moodConfidence) {
             this.date = date;
             this.content = content;
             this.aiMood = mood;
             this.weather = weather;
+            this.moodScore = moodScore;
+            this.moodConfidence = moodConfidence;
         }
 
         public LocalDate getDate() {
@@ -250,6 +339,16 @@ public class SmartJournal {
         public String getWeather() {
             return weather;
         }
+
+        /** Normalized 1-5 score, {@link MoodScale#UNKNOWN} if the label wasn't recognized. */
+        public int getMoodScore() {
+            return moodScore;
+        }
+
+        /** Model confidence for the label, NaN when not available (e.g. legacy rows). */
+        public float getMoodConfidence() {
+            return moodConfidence;
+        }
     }
 
     // --- GETTERS FOR UI BINDING ---
@@ -257,11 +356,25 @@ public class SmartJournal {
         return entries;
     }
 
-    // Wrapper for getWeeklyStats that calculates the correct range
+    public ObservableList<Quest> getQuests() {
+        return quests;
+    }
+
+    public ObservableList<Achievement> getAchievements() {
+        return achievements;
+    }
+
+    public UiUpdateBus getUiBus() {
+        return uiBus;
+    }
+
+    // Cached entries for the current week (oldest first); see loadWeeklyStats()
     public ObservableList<JournalEntry> getWeeklyStats() {
-        Pair<LocalDate, LocalDate> range = getWeeklyDateRange(currentUser.getStartOfWeek());
-        List<JournalEntry> rawStats = JournalManager.getWeeklyStats(currentUser, range.getKey(), range.getValue());
-        return FXCollections.observableArrayList(rawStats);
+        return weeklyStats;
+    }
+
+    public BooleanProperty weeklyStatsLoadedProperty() {
+        return weeklyStatsLoaded;
     }
 
     // Helper: Determine the start and end of the current "week" based on user
@@ -17,11 +17,16 @@ import javafx.util.Duration;
 import javafx.scene.web.WebView;
 import javafx.scene.web.WebEngine;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class SmartJournalApp extends Application {
 
+    private static final Logger log = LoggerFactory.getLogger(SmartJournalApp.class);
+
     private SmartJournal smartJournal;
     private User currentUser;
     private BorderPane rootLayout;
@@ -34,12 +39,27 @@ public class SmartJournalApp extends Application {
     private Label greetingLabel, quoteLabel;
     private String currentSummaryText;
 
-    @Override
-    public void start(Stage primaryStage) {
-        smartJournal = new SmartJournal();
+    // Cells skip their fade-in while the timeline moves faster than this, measured over its last step
+    private static final double FAST_SCROLL_ROWS_PER_SECOND = 20;
+    private static final long FAST_SCROLL_WINDOW_NANOS = 150_000_000L;
+    private static final long MIN_SCROLL_STEP_NANOS = 16_000_000L; // about one pulse
+    private long lastTimelineScrollNanos;
+    private double timelineScrollRowsPerSecond;
 
+    // Runs on the launcher thread, so schema setup doesn't hold up the FX thread
+    @Override
+    public void init() {
         // Initialize DB Schema
         DbManager.initializeDatabase();
+        Metrics.startFromEnv();
+        RecordingManager.startFromEnv();
+        Leaderboard.start();
+    }
+
+    @Override
+    public void start(Stage primaryStage) {
+        FxWatchdog.install();
+        smartJournal = new SmartJournal();
 
         // 1. Show Login.
         if (!showLoginDialog()) {
@@ -49,8 +69,7 @@ public class SmartJournalApp extends Application {
         // 2. Load Data
         smartJournal.setCurrentUser(currentUser);
         smartJournal.setOnLevelUp(() -> showLevelUpAlert());
-        smartJournal.loadUserData();
-        smartJournal.loadHistory();
+        smartJournal.loadSession();
 
         // 3. Build UI
         rootLayout = new BorderPane();
@@ -64,6 +83,7 @@ public class SmartJournalApp extends Application {
 
         // Responsive sizing
         mainScene = new Scene(rootLayout, 1100, 750);
+        FxWatchdog.watch(mainScene);
         loadCSS();
 
         if (currentUser == null) {
@@ -84,6 +104,8 @@ public class SmartJournalApp extends Application {
         ft.play();
 
         updateDynamicUI();
+        smartJournal.getEntries().addListener(
+                (javafx.collections.ListChangeListener<SmartJournal.JournalEntry>) c -> updateDynamicUI());
     }
 
     private void showLevelUpAlert() {
@@ -99,21 +121,22 @@ public class SmartJournalApp extends Application {
         if (getClass().getResource(cssPath) != null) {
             mainScene.getStylesheets().setAll(getClass().getResource(cssPath).toExternalForm());
         } else {
-            System.err.println("CSS NOT FOUND in " + cssPath);
+            log.warn("CSS not found: {}", cssPath);
         }
     }
 
     private void updateDynamicUI() {
-        Platform.runLater(() -> {
+        // Keyed so bursts of updates (bulk loads, saves) collapse into one refresh per pulse
+        smartJournal.getUiBus().post("dynamic-ui", () -> {
             greetingLabel.setText(
                     LanguageManager.get(smartJournal.getGreeting()) + ", " + currentUser.getDisplayName() + "!");
 
-            String mood = "Neutral";
+            int moodScore = MoodScale.NEUTRAL;
             if (!smartJournal.getEntries().isEmpty()) {
-                mood = smartJournal.getEntries().get(0).getAiMood();
+                moodScore = smartJournal.getEntries().get(0).getMoodScore();
             }
 
-            String rawQuote = smartJournal.getDailyQuote(mood);
+            String rawQuote = smartJournal.getDailyQuote(moodScore);
             quoteLabel.setText("\"" + LanguageManager.get(rawQuote) + "\"");
 
             SmartJournal.JournalEntry today = smartJournal.getTodayEntry();
@@ -230,15 +253,24 @@ public class SmartJournalApp extends Application {
             loginView.setDisable(true);
             loginError.setText("Signing in...");
             new Thread(() -> {
-                User user = new UserManager().login(eStr, pStr);
+                User user;
+                String error = "Invalid credentials or connection error.";
+                try {
+                    user = new UserManager().login(eStr, pStr);
+                } catch (PasswordHasher.OverloadedException ex) {
+                    user = null;
+                    error = ex.getMessage();
+                }
+                User signedIn = user;
+                String message = error;
                 Platform.runLater(() -> {
-                    if (user != null) {
-                        this.currentUser = user;
-                        dialog.setResult(user);
+                    if (signedIn != null) {
+                        this.currentUser = signedIn;
+                        dialog.setResult(signedIn);
                         dialog.close();
                     } else {
                         loginView.setDisable(false);
-                        loginError.setText("Invalid credentials or connection error.");
+                        loginError.setText(message);
                     }
                 });
             }).start();
@@ -261,15 +293,25 @@ public class SmartJournalApp extends Application {
                     Platform.runLater(() -> {
                         // Auto-login
                         new Thread(() -> {
-                            User user = new UserManager().login(eStr, pStr);
+                            User user;
+                            String error = "Registration successful, but login failed.";
+                            try {
+                                user = new UserManager().login(eStr, pStr);
+                            } catch (PasswordHasher.OverloadedException ex) {
+                                // The account exists now, so retrying means signing in, not registering again
+                                user = null;
+                                error = "Account created. " + ex.getMessage();
+                            }
+                            User signedIn = user;
+                            String message = error;
                             Platform.runLater(() -> {
-                                if (user != null) {
-                                    this.currentUser = user;
-                                    dialog.setResult(user);
+                                if (signedIn != null) {
+                                    this.currentUser = signedIn;
+                                    dialog.setResult(signedIn);
                                     dialog.close();
                                 } else {
                                     regView.setDisable(false);
-                                    regError.setText("Registration successful, but login failed.");
+                                    regError.setText(message);
                                 }
                             });
                         }).start();
@@ -308,13 +350,19 @@ public class SmartJournalApp extends Application {
     }
 
     private void performLogout(Stage stage) {
+        if (currentUser != null) {
+            // Drop the per-user caches so the next login starts from the database
+            AchievementEngine.evict(currentUser.getEmail());
+            QuestEngine.evict(currentUser.getEmail());
+            StreakEngine.evict(currentUser.getEmail());
+        }
         currentUser = null;
         stage.close();
         Platform.runLater(() -> {
             try {
                 new SmartJournalApp().start(new Stage());
             } catch (Exception e) {
-                e.printStackTrace();
+                log.error("Restart failed", e);
             }
         });
     }
@@ -337,10 +385,26 @@ public class SmartJournalApp extends Application {
         MenuItem summaryItem = new MenuItem(LanguageManager.get("menu.summary"));
         summaryItem.setOnAction(e -> showSummaryDialog());
 
+        MenuItem heatmapItem = new MenuItem(LanguageManager.get("menu.heatmap"));
+        heatmapItem.setOnAction(e -> showHeatmapDialog());
+
+        MenuItem insightsItem = new MenuItem(LanguageManager.get("menu.insights"));
+        insightsItem.setOnAction(e -> showInsightsDialog());
+
+        MenuItem leaderboardItem = new MenuItem(LanguageManager.get("menu.leaderboard"));
+        leaderboardItem.setOnAction(e -> showLeaderboardDialog());
+
+        MenuItem exportItem = new MenuItem(LanguageManager.get("menu.export"));
+        exportItem.setOnAction(e -> showExportDialog());
+
+        MenuItem importItem = new MenuItem(LanguageManager.get("menu.import"));
+        importItem.setOnAction(e -> showImportDialog());
+
         MenuItem logoutItem = new MenuItem(LanguageManager.get("menu.logout"));
         logoutItem.setOnAction(e -> performLogout(stage));
 
-        hamburger.getItems().addAll(profileItem, settingsItem, summaryItem, new SeparatorMenuItem(), logoutItem);
+        hamburger.getItems().addAll(profileItem, settingsItem, summaryItem, heatmapItem, insightsItem,
+                leaderboardItem, exportItem, importItem, new SeparatorMenuItem(), logoutItem);
 
         Label title = new Label("SmartJournal");
         title.setStyle("-fx-font-weight: 800; -fx-font-size: 18px; -fx-text-fill: -color-text-primary;");
@@ -381,17 +445,31 @@ public class SmartJournalApp extends Application {
             dialog.getDialogPane().getStylesheets().add(getClass().getResource("/journal_styles.css").toExternalForm());
         }
 
-        dialog.setResultConverter(btn -> {
-            if (btn == ButtonType.OK) {
-                String newPass = passField.getText().isEmpty() ? currentUser.getPassword() : passField.getText();
-                new UserManager().updateProfile(currentUser, nameField.getText(), newPass);
-                return true;
-            }
-            return false;
-        });
+        dialog.setResultConverter(btn -> btn == ButtonType.OK);
 
-        dialog.showAndWait();
-        updateDynamicUI();
+        if (!dialog.showAndWait().orElse(false))
+            return;
+        String name = nameField.getText();
+        String password = passField.getText();
+        // Hashing a new password takes ~100 ms and the update is a DB round trip; keep both off the FX thread
+        Thread worker = new Thread(() -> {
+            String error = null;
+            try {
+                // A blank field keeps the current password (updateProfile keeps the stored hash)
+                if (!new UserManager().updateProfile(currentUser, name, password))
+                    error = "Profile not updated. New passwords need at least 6 characters.";
+            } catch (PasswordHasher.OverloadedException ex) {
+                error = ex.getMessage();
+            }
+            String message = error;
+            Platform.runLater(() -> {
+                if (message != null)
+                    new Alert(Alert.AlertType.ERROR, message).show();
+                updateDynamicUI();
+            });
+        }, "profile-update");
+        worker.setDaemon(true);
+        worker.start();
     }
 
     private void showSettingsDialog(Stage stage) {
@@ -435,7 +513,13 @@ public class SmartJournalApp extends Application {
         weekStartBox.setOnAction(e -> {
             String newStart = weekStartBox.getValue();
             if (!newStart.equals(currentUser.getStartOfWeek())) {
-                new UserManager().updateProfile(currentUser, currentUser.getDisplayName(), null, newStart);
+                String name = currentUser.getDisplayName();
+                Thread worker = new Thread(() -> {
+                    new UserManager().updateProfile(currentUser, name, null, newStart);
+                    Platform.runLater(smartJournal::invalidateWeeklyStats);
+                }, "profile-update");
+                worker.setDaemon(true);
+                worker.start();
             }
         });
 
@@ -493,7 +577,67 @@ public class SmartJournalApp extends Application {
 
         Tab infoTab = new Tab("Info", infoBox);
 
-        tabPane.getTabs().addAll(generalTab, appearTab, infoTab);
+        // --- TAB 4: DIAGNOSTICS ---
+        GridPane diagGrid = new GridPane();
+        diagGrid.setHgap(20);
+        diagGrid.setVgap(20);
+        diagGrid.setPadding(new Insets(20));
+
+        CheckBox recordingBox = new CheckBox("Continuous flight recording");
+        recordingBox.setSelected(RecordingManager.isRunning());
+        Button dumpButton = new Button("Save Recording...");
+        dumpButton.setDisable(!recordingBox.isSelected());
+        Label recordingStatus = new Label("Keeps recent query, API and save timings; save a recording right after something was slow.");
+        recordingStatus.setWrapText(true);
+
+        recordingBox.setOnAction(e -> {
+            if (recordingBox.isSelected()) {
+                if (!RecordingManager.start()) {
+                    recordingBox.setSelected(false);
+                    recordingStatus.setText("Flight recording is not available in this runtime.");
+                }
+            } else {
+                RecordingManager.stop();
+            }
+            dumpButton.setDisable(!recordingBox.isSelected());
+        });
+        dumpButton.setOnAction(e -> {
+            FileChooser chooser = new FileChooser();
+            chooser.setTitle("Save Recording");
+            chooser.setInitialFileName("smartjournal_" + LocalDate.now() + ".jfr");
+            chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Flight Recordings", "*.jfr"));
+            File file = chooser.showSaveDialog(dialog.getOwner());
+            if (file == null)
+                return;
+            dumpButton.setDisable(true);
+            recordingStatus.setText("Saving...");
+            // Dumping copies up to 100 MB of chunks; keep it off the FX thread
+            Thread worker = new Thread(() -> {
+                String message;
+                try {
+                    RecordingManager.dump(file.toPath());
+                    message = "Saved " + file.getAbsolutePath() + " (open it in JDK Mission Control).";
+                } catch (Exception ex) {
+                    log.error("Recording dump failed", ex);
+                    message = "Error: " + ex.getMessage();
+                }
+                String result = message;
+                Platform.runLater(() -> {
+                    recordingStatus.setText(result);
+                    dumpButton.setDisable(!RecordingManager.isRunning());
+                });
+            }, "recording-dump");
+            worker.setDaemon(true);
+            worker.start();
+        });
+
+        diagGrid.add(recordingBox, 0, 0);
+        diagGrid.add(dumpButton, 1, 0);
+        diagGrid.add(recordingStatus, 0, 1, 2, 1);
+
+        Tab diagTab = new Tab("Diagnostics", diagGrid);
+
+        tabPane.getTabs().addAll(generalTab, appearTab, infoTab, diagTab);
 
         dialog.getDialogPane().setContent(tabPane);
         if (getClass().getResource("/journal_styles.css") != null) {
@@ -515,111 +659,324 @@ public class SmartJournalApp extends Application {
         VBox content = new VBox(15);
         content.setPadding(new Insets(20));
 
-        if (smartJournal.getWeeklyStats().isEmpty()) {
-            content.getChildren().add(new Label(LanguageManager.get("summary.noentries")));
+        // Opens immediately with a skeleton; the cached weekly model fills it in
+        smartJournal.loadWeeklyStats();
+        TableView<SmartJournal.JournalEntry> table = new TableView<>();
+        table.getStyleClass().add("summary-table");
+        table.setPlaceholder(new ProgressIndicator());
+
+        TableColumn<SmartJournal.JournalEntry, String> dateCol = new TableColumn<>(LanguageManager.get("col.date"));
+        dateCol.setCellValueFactory(cell -> new javafx.beans.property.SimpleStringProperty(
+                cell.getValue().getDate().toString()));
+        dateCol.setPrefWidth(150);
+
+        TableColumn<SmartJournal.JournalEntry, String> moodCol = new TableColumn<>(LanguageManager.get("col.mood"));
+        moodCol.setCellValueFactory(cell -> new javafx.beans.property.SimpleStringProperty(
+                cell.getValue().getAiMood()));
+        moodCol.setPrefWidth(120);
+
+        TableColumn<SmartJournal.JournalEntry, String> weatherCol = new TableColumn<>("Weather");
+        weatherCol.setCellValueFactory(cell -> new javafx.beans.property.SimpleStringProperty(
+                cell.getValue().getWeather()));
+        weatherCol.setPrefWidth(200);
+
+        table.getColumns().add(dateCol);
+        table.getColumns().add(moodCol);
+        table.getColumns().add(weatherCol);
+        table.setItems(smartJournal.getWeeklyStats());
+        table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_FLEX_LAST_COLUMN);
+        table.setPrefHeight(250);
+
+        // Row Color Factory
+        table.setRowFactory(tv -> new TableRow<SmartJournal.JournalEntry>() {
+            @Override
+            protected void updateItem(SmartJournal.JournalEntry item, boolean empty) {
+                super.updateItem(item, empty);
+                getStyleClass().removeAll(MoodScale.allRowClasses());
+                if (item == null || empty)
+                    return;
+
+                getStyleClass().add(MoodScale.rowClass(item.getMoodScore()));
+            }
+        });
+
+        Label assessmentLabel = new Label(LanguageManager.get("summary.assessment"));
+        assessmentLabel.getStyleClass().add("subheader-text");
+
+        // WEBVIEW FOR MARKDOWN CONTENT
+        WebView summaryView = new WebView();
+        WebEngine engine = summaryView.getEngine();
+        summaryView.setPrefHeight(300);
+
+        // Make WebView transparent-ish (requires JavaFX trickery, usually just matching
+        // background color is easier)
+        summaryView.setStyle("-fx-page-fill: transparent;");
+
+        // Initial loading state
+        boolean isDark = rootLayout.getStyleClass().contains("dark-theme");
+        engine.loadContent(MarkdownRenderer.renderHtml("*Gathering insights for you...*", isDark));
+
+        content.getChildren().addAll(table, assessmentLabel, summaryView);
+
+        Button exportBtn = new Button("Export to File");
+        exportBtn.getStyleClass().add("secondary-button");
+        exportBtn.setOnAction(e -> exportSummaryToFile());
+
+        content.getChildren().add(exportBtn);
+
+        Runnable onStatsReady = () -> {
+            if (smartJournal.getWeeklyStats().isEmpty()) {
+                content.getChildren().setAll(new Label(LanguageManager.get("summary.noentries")));
+                return;
+            }
+            // Snapshot on the FX thread; the model may change while the summary runs
+            List<SmartJournal.JournalEntry> snapshot = new ArrayList<>(smartJournal.getWeeklyStats());
+            generateSummaryAsync(snapshot, engine, isDark);
+        };
+        if (smartJournal.weeklyStatsLoadedProperty().get()) {
+            onStatsReady.run();
         } else {
-            TableView<SmartJournal.JournalEntry> table = new TableView<>();
-            table.getStyleClass().add("summary-table");
-
-            TableColumn<SmartJournal.JournalEntry, String> dateCol = new TableColumn<>(LanguageManager.get("col.date"));
-            dateCol.setCellValueFactory(cell -> new javafx.beans.property.SimpleStringProperty(
-                    cell.getValue().getDate().toString()));
-            dateCol.setPrefWidth(150);
-
-            TableColumn<SmartJournal.JournalEntry, String> moodCol = new TableColumn<>(LanguageManager.get("col.mood"));
-            moodCol.setCellValueFactory(cell -> new javafx.beans.property.SimpleStringProperty(
-                    cell.getValue().getAiMood()));
-            moodCol.setPrefWidth(120);
-
-            TableColumn<SmartJournal.JournalEntry, String> weatherCol = new TableColumn<>("Weather");
-            weatherCol.setCellValueFactory(cell -> new javafx.beans.property.SimpleStringProperty(
-                    cell.getValue().getWeather()));
-            weatherCol.setPrefWidth(200);
-
-            table.getColumns().add(dateCol);
-            table.getColumns().add(moodCol);
-            table.getColumns().add(weatherCol);
-            table.setItems(smartJournal.getWeeklyStats());
-            table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_FLEX_LAST_COLUMN);
-            table.setPrefHeight(250);
-
-            // Row Color Factory
-            table.setRowFactory(tv -> new TableRow<SmartJournal.JournalEntry>() {
+            smartJournal.weeklyStatsLoadedProperty().addListener(new javafx.beans.value.ChangeListener<>() {
                 @Override
-                protected void updateItem(SmartJournal.JournalEntry item, boolean empty) {
-                    super.updateItem(item, empty);
-                    getStyleClass().removeAll("table-row-very-positive", "table-row-positive",
-                            "table-row-very-negative", "table-row-negative", "table-row-neutral");
-                    if (item == null || empty)
-                        return;
-
-                    String mood = item.getAiMood();
-                    if (mood == null)
-                        mood = "Neutral";
-
-                    if (mood.contains("5 stars") || "Very Positive".equalsIgnoreCase(mood)) {
-                        getStyleClass().add("table-row-very-positive");
-                    } else if (mood.contains("4 stars") || "Positive".equalsIgnoreCase(mood)) {
-                        getStyleClass().add("table-row-positive");
-                    } else if (mood.contains("1 star") || "Very Negative".equalsIgnoreCase(mood)) {
-                        getStyleClass().add("table-row-very-negative");
-                    } else if (mood.contains("2 stars") || "Negative".equalsIgnoreCase(mood)) {
-                        getStyleClass().add("table-row-negative");
-                    } else {
-                        getStyleClass().add("table-row-neutral");
+                public void changed(javafx.beans.value.ObservableValue<? extends Boolean> obs, Boolean was,
+                        Boolean loaded) {
+                    if (loaded) {
+                        obs.removeListener(this);
+                        if (dialog.isShowing())
+                            onStatsReady.run();
                     }
                 }
             });
+        }
 
-            Label assessmentLabel = new Label(LanguageManager.get("summary.assessment"));
-            assessmentLabel.getStyleClass().add("subheader-text");
+        dialog.getDialogPane().setContent(content);
+        if (getClass().getResource("/journal_styles.css") != null) {
+            dialog.getDialogPane().getStylesheets().add(getClass().getResource("/journal_styles.css").toExternalForm());
+        }
+        dialog.showAndWait();
+    }
 
-            // WEBVIEW FOR MARKDOWN CONTENT
-            WebView summaryView = new WebView();
-            WebEngine engine = summaryView.getEngine();
-            summaryView.setPrefHeight(300);
+    private void generateSummaryAsync(List<SmartJournal.JournalEntry> stats, WebEngine engine, boolean isDark) {
+        new Thread(() -> {
+            try (Tracer.Span trace = Tracer.startRoot("journal.summary")) {
+                boolean isEnglish = "English".equals(LanguageManager.getCurrentLanguage());
+                String summary = SummaryGenerator.generate(currentUser, stats, isEnglish);
+                trace.attr("chars", summary == null ? 0 : summary.length());
+                currentSummaryText = summary;
+                Platform.runLater(Tracer.wrap("render", () -> {
+                    boolean darkTheme = rootLayout.getStyleClass().contains("dark-theme");
+                    String htmlContent = MarkdownRenderer.renderHtml(summary, darkTheme);
+                    engine.loadContent(htmlContent);
+                }));
+            } catch (Exception e) {
+                log.error("Summary generation failed", e);
+                Platform.runLater(() -> {
+                    engine.loadContent(
+                            MarkdownRenderer.renderHtml("Error generating summary: " + e.getMessage(), isDark));
+                });
+            }
+        }).start();
+    }
 
-            // Make WebView transparent-ish (requires JavaFX trickery, usually just matching
-            // background color is easier)
-            summaryView.setStyle("-fx-page-fill: transparent;");
+    private void showHeatmapDialog() {
+        Dialog<Void> dialog = new Dialog<>();
+        dialog.setTitle(LanguageManager.get("heatmap.title"));
+        dialog.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
 
-            // Initial loading state
-            boolean isDark = rootLayout.getStyleClass().contains("dark-theme");
-            engine.loadContent(MarkdownRenderer.renderHtml("*Gathering insights for you...*", isDark));
+        MoodHeatmapView view = new MoodHeatmapView(currentUser, LocalDate.now().getYear());
+        dialog.getDialogPane().setContent(view);
+        if (getClass().getResource("/journal_styles.css") != null) {
+            dialog.getDialogPane().getStylesheets().add(getClass().getResource("/journal_styles.css").toExternalForm());
+        }
+        dialog.showAndWait();
+        view.dispose();
+    }
 
-            content.getChildren().addAll(table, assessmentLabel, summaryView);
+    private void showInsightsDialog() {
+        Dialog<Void> dialog = new Dialog<>();
+        dialog.setTitle(LanguageManager.get("insights.title"));
+        dialog.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
+        dialog.setResizable(true);
 
-            Button exportBtn = new Button("Export to File");
-            exportBtn.getStyleClass().add("secondary-button");
-            exportBtn.setOnAction(e -> exportSummaryToFile());
+        InsightsView view = new InsightsView(currentUser);
+        dialog.getDialogPane().setContent(view);
+        if (getClass().getResource("/journal_styles.css") != null) {
+            dialog.getDialogPane().getStylesheets().add(getClass().getResource("/journal_styles.css").toExternalForm());
+        }
+        dialog.showAndWait();
+        view.dispose();
+    }
 
-            content.getChildren().add(exportBtn);
+    private void showLeaderboardDialog() {
+        Dialog<Void> dialog = new Dialog<>();
+        dialog.setTitle(LanguageManager.get("leaderboard.title"));
+        dialog.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
+        dialog.getDialogPane().setContent(new LeaderboardView(currentUser));
+        if (getClass().getResource("/journal_styles.css") != null) {
+            dialog.getDialogPane().getStylesheets().add(getClass().getResource("/journal_styles.css").toExternalForm());
+        }
+        dialog.showAndWait();
+    }
 
-            new Thread(() -> {
-                try {
-                    boolean isEnglish = "English".equals(LanguageManager.getCurrentLanguage());
-                    String summary = SummaryGenerator.generate(smartJournal.getWeeklyStats(), isEnglish);
-                    currentSummaryText = summary;
-                    Platform.runLater(() -> {
-                        boolean darkTheme = rootLayout.getStyleClass().contains("dark-theme");
-                        String htmlContent = MarkdownRenderer.renderHtml(summary, darkTheme);
-                        engine.loadContent(htmlContent);
-                    });
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    Platform.runLater(() -> {
-                        engine.loadContent(
-                                MarkdownRenderer.renderHtml("Error generating summary: " + e.getMessage(), isDark));
-                    });
-                }
-            }).start();
+    private void showExportDialog() {
+        ChoiceDialog<JournalExporter.Format> formatDialog = new ChoiceDialog<>(JournalExporter.Format.NDJSON,
+                JournalExporter.Format.values());
+        formatDialog.setTitle(LanguageManager.get("export.title"));
+        formatDialog.setHeaderText(LanguageManager.get("export.format"));
+        Optional<JournalExporter.Format> choice = formatDialog.showAndWait();
+        if (choice.isEmpty())
+            return;
+        JournalExporter.Format format = choice.get();
+
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle(LanguageManager.get("export.title"));
+        fileChooser.setInitialFileName("journal_" + LocalDate.now() + format.extension.substring(1));
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter(format.label, format.extension));
+        File file = fileChooser.showSaveDialog(null);
+        if (file == null)
+            return;
+
+        ProgressBar bar = new ProgressBar(0);
+        bar.setPrefWidth(320);
+        Label status = new Label(LanguageManager.get("export.running"));
+        VBox content = new VBox(10, status, bar);
+        content.setPadding(new Insets(10));
+
+        Dialog<Void> dialog = new Dialog<>();
+        dialog.setTitle(LanguageManager.get("export.title"));
+        dialog.getDialogPane().setContent(content);
+        dialog.getDialogPane().getButtonTypes().add(ButtonType.CANCEL);
+        if (getClass().getResource("/journal_styles.css") != null) {
+            dialog.getDialogPane().getStylesheets().add(getClass().getResource("/journal_styles.css").toExternalForm());
+        }
+
+        java.util.concurrent.atomic.AtomicBoolean cancelled = new java.util.concurrent.atomic.AtomicBoolean();
+        dialog.setOnCloseRequest(e -> cancelled.set(true));
+
+        UiUpdateBus bus = smartJournal.getUiBus();
+        Thread worker = new Thread(() -> {
+            long[] lastPercent = { -1 };
+            try {
+                long count = JournalExporter.export(currentUser, format, file.toPath(), (done, total) -> {
+                    // One coalesced UI update per percent, not per row
+                    long percent = total == 0 ? 100 : done * 100 / total;
+                    if (percent != lastPercent[0]) {
+                        lastPercent[0] = percent;
+                        bus.post("export-progress", () -> {
+                            bar.setProgress(percent / 100.0);
+                            status.setText(done + " / " + total);
+                        });
+                    }
+                }, cancelled::get);
+                bus.post("export-progress", () -> {
+                    bar.setProgress(1);
+                    status.setText(count + " " + LanguageManager.get("export.done") + " " + file.getAbsolutePath());
+                    dialog.getDialogPane().getButtonTypes().setAll(ButtonType.CLOSE);
+                });
+            } catch (java.util.concurrent.CancellationException e) {
+                // Dialog already closed; partial file was removed
+            } catch (Exception e) {
+                log.error("Export failed", e);
+                bus.post("export-progress", () -> {
+                    status.setText("Error: " + e.getMessage());
+                    dialog.getDialogPane().getButtonTypes().setAll(ButtonType.CLOSE);
+                });
+            }
+        }, "journal-export");
+        worker.setDaemon(true);
+        worker.start();
+
+        dialog.showAndWait();
+        cancelled.set(true);
+    }
+
+    private void showImportDialog() {
+        ButtonType fileButton = new ButtonType(LanguageManager.get("import.file"), ButtonBar.ButtonData.LEFT);
+        ButtonType folderButton = new ButtonType(LanguageManager.get("import.folder"), ButtonBar.ButtonData.LEFT);
+        CheckBox dryRunBox = new CheckBox(LanguageManager.get("import.dryrun"));
+        Label hint = new Label(LanguageManager.get("import.hint"));
+        hint.setWrapText(true);
+        hint.setMaxWidth(360);
+
+        Dialog<ButtonType> sourceDialog = new Dialog<>();
+        sourceDialog.setTitle(LanguageManager.get("import.title"));
+        sourceDialog.getDialogPane().setContent(new VBox(10, hint, dryRunBox));
+        sourceDialog.getDialogPane().getButtonTypes().addAll(fileButton, folderButton, ButtonType.CANCEL);
+        Optional<ButtonType> picked = sourceDialog.showAndWait();
+        if (picked.isEmpty() || picked.get() == ButtonType.CANCEL)
+            return;
+
+        File source;
+        if (picked.get() == folderButton) {
+            javafx.stage.DirectoryChooser chooser = new javafx.stage.DirectoryChooser();
+            chooser.setTitle(LanguageManager.get("import.title"));
+            source = chooser.showDialog(null);
+        } else {
+            FileChooser chooser = new FileChooser();
+            chooser.setTitle(LanguageManager.get("import.title"));
+            chooser.getExtensionFilters().addAll(
+                    new FileChooser.ExtensionFilter("Journal exports", "*.csv", "*.ndjson", "*.jsonl", "*.zip"),
+                    new FileChooser.ExtensionFilter("All Files", "*.*"));
+            source = chooser.showOpenDialog(null);
         }
+        if (source == null)
+            return;
+        boolean dryRun = dryRunBox.isSelected();
+
+        ProgressBar bar = new ProgressBar(ProgressBar.INDETERMINATE_PROGRESS);
+        bar.setPrefWidth(320);
+        Label status = new Label(LanguageManager.get("import.running"));
+        status.setWrapText(true);
+        status.setMaxWidth(360);
+        VBox content = new VBox(10, status, bar);
+        content.setPadding(new Insets(10));
 
+        Dialog<Void> dialog = new Dialog<>();
+        dialog.setTitle(LanguageManager.get("import.title"));
         dialog.getDialogPane().setContent(content);
+        dialog.getDialogPane().getButtonTypes().add(ButtonType.CANCEL);
         if (getClass().getResource("/journal_styles.css") != null) {
             dialog.getDialogPane().getStylesheets().add(getClass().getResource("/journal_styles.css").toExternalForm());
         }
+
+        java.util.concurrent.atomic.AtomicBoolean cancelled = new java.util.concurrent.atomic.AtomicBoolean();
+        dialog.setOnCloseRequest(e -> cancelled.set(true));
+
+        UiUpdateBus bus = smartJournal.getUiBus();
+        Thread worker = new Thread(() -> {
+            try {
+                JournalImporter.Result result = JournalImporter.importFrom(currentUser, source.toPath(), dryRun,
+                        (done, total) -> bus.post("import-progress",
+                                () -> bar.setProgress(total == 0 ? 1 : done / (double) total)),
+                        cancelled::get);
+                StringBuilder summary = new StringBuilder(result.toString());
+                for (String error : result.errors) {
+                    summary.append('\n').append(error);
+                }
+                bus.post("import-progress", () -> {
+                    bar.setProgress(1);
+                    status.setText(summary.toString());
+                    dialog.getDialogPane().getButtonTypes().setAll(ButtonType.CLOSE);
+                    if (!result.dryRun) {
+                        smartJournal.invalidateWeeklyStats();
+                        smartJournal.loadSession();
+                    }
+                });
+            } catch (java.util.concurrent.CancellationException e) {
+                // Dialog already closed; the transaction was rolled back
+            } catch (Exception e) {
+                log.error("Import failed", e);
+                bus.post("import-progress", () -> {
+                    status.setText("Error: " + e.getMessage());
+                    dialog.getDialogPane().getButtonTypes().setAll(ButtonType.CLOSE);
+                });
+            }
+        }, "journal-import");
+        worker.setDaemon(true);
+        worker.start();
+
         dialog.showAndWait();
+        cancelled.set(true);
     }
 
     private void exportSummaryToFile() {
@@ -698,6 +1055,7 @@ public class SmartJournalApp extends Application {
         timelineList.getStyleClass().add("timeline-list");
         timelineList.setItems(smartJournal.getEntries());
         timelineList.setCellFactory(param -> new TimelineCell(this));
+        trackTimelineScrolling();
 
         VBox.setVgrow(timelineList, Priority.ALWAYS);
 
@@ -717,6 +1075,37 @@ public class SmartJournalApp extends Application {
         return splitPane;
     }
 
+    private void trackTimelineScrolling() {
+        // Wheel, drag and keyboard paging all move the bar, so its value is the one scroll signal
+        timelineList.skinProperty().addListener((obs, oldSkin, newSkin) -> {
+            for (Node node : timelineList.lookupAll(".scroll-bar")) {
+                if (node instanceof ScrollBar bar && bar.getOrientation() == javafx.geometry.Orientation.VERTICAL) {
+                    bar.valueProperty().addListener((o, a, b) -> {
+                        double range = bar.getMax() - bar.getMin();
+                        if (range > 0) {
+                            double rows = Math.abs(b.doubleValue() - a.doubleValue()) / range
+                                    * timelineList.getItems().size();
+                            onTimelineScrolled(rows);
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    private void onTimelineScrolled(double rows) {
+        long now = System.nanoTime();
+        // Several bar updates can land in one pulse; don't read them as near-infinite speed
+        long elapsed = Math.max(now - lastTimelineScrollNanos, MIN_SCROLL_STEP_NANOS);
+        timelineScrollRowsPerSecond = rows / (elapsed / 1e9);
+        lastTimelineScrollNanos = now;
+    }
+
+    boolean isTimelineScrolling() {
+        return System.nanoTime() - lastTimelineScrollNanos < FAST_SCROLL_WINDOW_NANOS
+                && timelineScrollRowsPerSecond >= FAST_SCROLL_ROWS_PER_SECOND;
+    }
+
     private Node createGamificationPanel() {
         VBox vbox = new VBox(20);
         vbox.getStyleClass().add("gamification-content");
@@ -766,29 +1155,62 @@ public class SmartJournalApp extends Application {
         questsTitle.getStyleClass().add("section-title");
 
         VBox questsBox = new VBox(15);
-        for (Quest q : GamificationManager.getDailyQuests(currentUser)) {
+        // Filled by the quest engine; replaced whenever a save advances a quest
+        renderQuests(questsBox, smartJournal.getQuests());
+        smartJournal.getQuests().addListener(
+                (javafx.collections.ListChangeListener<Quest>) c -> renderQuests(questsBox, smartJournal.getQuests()));
+
+        // --- ACHIEVEMENTS ---
+        Label achTitle = new Label(LanguageManager.get("gamification.achievements"));
+        achTitle.getStyleClass().add("section-title");
+
+        FlowPane achPane = new FlowPane();
+        achPane.getStyleClass().add("achievement-grid");
+        achPane.setPrefWrapLength(250); // Improved wrap
+
+        // Filled in by the session bootstrap; rebuilt whenever the list changes
+        renderAchievements(achPane, smartJournal.getAchievements());
+        smartJournal.getAchievements().addListener(
+                (javafx.collections.ListChangeListener<Achievement>) c -> renderAchievements(achPane,
+                        smartJournal.getAchievements()));
+
+        vbox.getChildren().addAll(
+                title, levelBox,
+                xpLabel, xpProgressBar,
+                questsTitle, questsBox,
+                achTitle, achPane);
+
+        ScrollPane scroll = new ScrollPane(vbox);
+        scroll.setFitToWidth(true);
+        scroll.getStyleClass().add("gamification-scroll");
+        return scroll;
+    }
+
+    private void renderQuests(VBox questsBox, java.util.List<Quest> list) {
+        questsBox.getChildren().clear();
+        for (Quest q : list) {
             VBox qCard = new VBox(5);
             qCard.getStyleClass().add("quest-card");
+            if (q.isCompleted())
+                qCard.setOpacity(0.6);
 
-            Label qDesc = new Label(q.getDescription());
+            Label qDesc = new Label((q.isCompleted() ? "✔ " : "") + q.getDescription());
             qDesc.getStyleClass().add("quest-desc");
 
-            Label qRew = new Label("REWARD: +" + q.getXpReward() + " XP");
+            ProgressBar qProgress = new ProgressBar(q.getProgress() / (double) q.getTarget());
+            qProgress.setMaxWidth(Double.MAX_VALUE);
+
+            Label qRew = new Label(q.getProgress() + "/" + q.getTarget() + "  ·  REWARD: +" + q.getXpReward() + " XP");
             qRew.getStyleClass().add("quest-reward");
 
-            qCard.getChildren().addAll(qDesc, qRew);
+            qCard.getChildren().addAll(qDesc, qProgress, qRew);
             questsBox.getChildren().add(qCard);
         }
+    }
 
-        // --- ACHIEVEMENTS ---
-        Label achTitle = new Label(LanguageManager.get("gamification.achievements"));
-        achTitle.getStyleClass().add("section-title");
-
-        FlowPane achPane = new FlowPane();
-        achPane.getStyleClass().add("achievement-grid");
-        achPane.setPrefWrapLength(250); // Improved wrap
-
-        for (Achievement a : GamificationManager.getAchievements(currentUser)) {
+    private void renderAchievements(FlowPane achPane, java.util.List<Achievement> list) {
+        achPane.getChildren().clear();
+        for (Achievement a : list) {
             VBox aBadge = new VBox(5);
             aBadge.getStyleClass().add("achievement-badge");
             if (a.isUnlocked()) {
@@ -810,17 +1232,6 @@ public class SmartJournalApp extends Application {
 
             achPane.getChildren().add(aBadge);
         }
-
-        vbox.getChildren().addAll(
-                title, levelBox,
-                xpLabel, xpProgressBar,
-                questsTitle, questsBox,
-                achTitle, achPane);
-
-        ScrollPane scroll = new ScrollPane(vbox);
-        scroll.setFitToWidth(true);
-        scroll.getStyleClass().add("gamification-scroll");
-        return scroll;
     }
 
     // --- EDITOR ---
@@ -862,21 +1273,25 @@ public class SmartJournalApp extends Application {
             LocalDate targetDate = (existingEntry != null) ? existingEntry.getDate() : LocalDate.now();
 
             new Thread(() -> {
-                String weather;
-                if (existingEntry != null) {
-                    weather = existingEntry.getWeather();
-                } else {
-                    boolean isEnglish = "English".equals(LanguageManager.getCurrentLanguage());
-                    // Use new robust WeatherManager
-                    weather = WeatherManager.getCurrentWeather(isEnglish);
-                }
+                // One trace for the whole save; the executor and UI hops below carry it along
+                try (Tracer.Span trace = Tracer.startRoot("journal.save")) {
+                    trace.attr("chars", text.length());
+                    String weather;
+                    if (existingEntry != null) {
+                        weather = existingEntry.getWeather();
+                    } else {
+                        boolean isEnglish = "English".equals(LanguageManager.getCurrentLanguage());
+                        // Use new robust WeatherManager
+                        weather = WeatherManager.getCurrentWeather(isEnglish);
+                    }
 
-                smartJournal.processEntry(targetDate, text, weather);
+                    smartJournal.processEntry(targetDate, text, weather);
 
-                Platform.runLater(() -> {
-                    modal.close();
-                    updateDynamicUI();
-                });
+                    smartJournal.getUiBus().post(() -> {
+                        modal.close();
+                        updateDynamicUI();
+                    });
+                }
             }).start();
         });
 
@@ -913,6 +1328,9 @@ public class SmartJournalApp extends Application {
         private final SmartJournalApp app;
 
         private SmartJournal.JournalEntry lastItem = null;
+        private String currentMoodClass = "tag-neutral";
+        private boolean isTodayStyled = false;
+        private final FadeTransition fadeIn = new FadeTransition(Duration.millis(300), root);
 
         public TimelineCell(SmartJournalApp app) {
             this.app = app;
@@ -965,6 +1383,15 @@ public class SmartJournalApp extends Application {
             headerPane.setLeft(dateLabel);
             headerPane.setRight(editBtn);
 
+            moodTag.getStyleClass().setAll("tag", currentMoodClass);
+            weatherTag.getStyleClass().setAll("tag", "tag-weather");
+            editBtn.setOnAction(e -> {
+                if (getItem() != null)
+                    app.openJournalEditor(getItem());
+            });
+            fadeIn.setFromValue(0);
+            fadeIn.setToValue(1);
+
             tagsBox.getChildren().addAll(moodTag, weatherTag);
             cardContainer.getChildren().addAll(headerPane, contentPreview, tagsBox);
 
@@ -987,49 +1414,41 @@ public class SmartJournalApp extends Application {
                 boolean isSameItem = (lastItem == item);
                 lastItem = item;
 
-                dateLabel.setText(item.getDate().format(DateTimeFormatter.ofPattern("EEEE, MMM dd, yyyy")));
-                dotLabel.setText(String.valueOf(item.getDate().getDayOfMonth()));
-
-                String text = item.getContent().replace("\n", " ");
-                if (text.length() > 140)
-                    text = text.substring(0, 140) + "...";
-                contentPreview.setText(text);
-
-                // Mood Tag Logic (retained)
-                String mood = item.getAiMood();
-                if (mood == null)
-                    mood = "Neutral";
-                moodTag.setText(mood);
-                weatherTag.setText("☁ " + item.getWeather());
-
-                String moodClass = "tag-neutral";
-                if (mood.contains("5 stars") || "Very Positive".equalsIgnoreCase(mood)) {
-                    moodClass = "tag-very-positive";
-                } else if (mood.contains("4 stars") || "Positive".equalsIgnoreCase(mood)) {
-                    moodClass = "tag-positive";
-                } else if (mood.contains("1 star") || "Very Negative".equalsIgnoreCase(mood)) {
-                    moodClass = "tag-very-negative";
-                } else if (mood.contains("2 stars") || "Negative".equalsIgnoreCase(mood)) {
-                    moodClass = "tag-negative";
+                // All strings come precomputed from the render model
+                EntryRenderModel model = EntryRenderModel.of(item);
+                dateLabel.setText(model.getFormattedDate());
+                dotLabel.setText(model.getDayOfMonth());
+                contentPreview.setText(model.getPreview());
+                moodTag.setText(model.getMoodText());
+                weatherTag.setText(model.getWeatherText());
+
+                String moodClass = model.getMoodStyleClass();
+                if (!moodClass.equals(currentMoodClass)) {
+                    moodTag.getStyleClass().remove(currentMoodClass);
+                    moodTag.getStyleClass().add(moodClass);
+                    currentMoodClass = moodClass;
                 }
-                moodTag.getStyleClass().setAll("tag", moodClass);
-                weatherTag.getStyleClass().setAll("tag", "tag-weather");
 
-                editBtn.setOnAction(e -> app.openJournalEditor(item));
-
-                if (item.getDate().equals(LocalDate.now())) {
-                    dotShape.getStyleClass().add("timeline-dot-today");
-                } else {
-                    dotShape.getStyleClass().remove("timeline-dot-today");
+                boolean today = model.isToday();
+                if (today != isTodayStyled) {
+                    if (today) {
+                        dotShape.getStyleClass().add("timeline-dot-today");
+                    } else {
+                        dotShape.getStyleClass().remove("timeline-dot-today");
+                    }
+                    isTodayStyled = today;
                 }
 
                 setGraphic(root);
 
                 if (!isSameItem) {
-                    FadeTransition ft = new FadeTransition(Duration.millis(300), root);
-                    ft.setFromValue(0);
-                    ft.setToValue(1);
-                    ft.play();
+                    // No fade while flicking through the list; cells just snap in
+                    if (app.isTimelineScrolling()) {
+                        fadeIn.stop();
+                        root.setOpacity(1);
+                    } else {
+                        fadeIn.playFromStart();
+                    }
                 }
             }
         }
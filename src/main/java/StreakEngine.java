@@ -0,0 +1,434 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Streak tracking from each user's journaled days, kept as a bitset of epoch
+ * days. Appending the next consecutive day is O(1); back-dated entries merge
+ * the runs on either side using word-level scans. The bitset is persisted in
+ * user_progress so streaks never have to be recomputed from journals.
+ */
+public class StreakEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(StreakEngine.class);
+
+    private static final Map<String, JournalDays> calendars = new ConcurrentHashMap<>();
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+
+    static {
+        Metrics.cache("journal_days", hits::sum, misses::sum);
+    }
+
+    // --- PER-USER CALENDAR ---
+    public static class JournalDays {
+        private long baseDay; // epoch day of bit 0, always a multiple of 64
+        private long[] words = new long[0];
+
+        private int dayCount;
+        private long lastDay = Long.MIN_VALUE;
+        private int currentRun; // length of the run ending at lastDay
+        private int longestRun;
+
+        public synchronized boolean isJournaled(LocalDate date) {
+            return isSet(date.toEpochDay());
+        }
+
+        /**
+         * Marks a day as journaled.
+         *
+         * @return false if the day was already marked (an edit), true otherwise
+         */
+        public synchronized boolean record(LocalDate date) {
+            long day = date.toEpochDay();
+            if (isSet(day))
+                return false;
+            ensureCapacity(day);
+            long idx = day - baseDay;
+            words[(int) (idx >>> 6)] |= 1L << (idx & 63);
+            dayCount++;
+
+            if (dayCount == 1) {
+                lastDay = day;
+                currentRun = 1;
+                longestRun = Math.max(longestRun, 1);
+                return true;
+            }
+
+            // Common case: journaling the day after the last entry
+            if (day == lastDay + 1) {
+                lastDay = day;
+                currentRun++;
+                longestRun = Math.max(longestRun, currentRun);
+                return true;
+            }
+
+            // Back-dated or gap: join the runs on either side of the new day
+            int left = runBackward(day - 1);
+            int right = runForward(day + 1);
+            int run = left + 1 + right;
+            longestRun = Math.max(longestRun, run);
+            if (day > lastDay) {
+                lastDay = day;
+                currentRun = run;
+            } else if (day + right == lastDay) {
+                currentRun = run;
+            }
+            return true;
+        }
+
+        /** Streak as of {@code today}: the latest run counts while it ends today or yesterday. */
+        public synchronized int getCurrentStreak(LocalDate today) {
+            if (dayCount == 0)
+                return 0;
+            return lastDay >= today.toEpochDay() - 1 ? currentRun : 0;
+        }
+
+        public synchronized int getLongestStreak() {
+            return longestRun;
+        }
+
+        public synchronized int getDayCount() {
+            return dayCount;
+        }
+
+        // --- BIT OPERATIONS ---
+        private boolean isSet(long day) {
+            long idx = day - baseDay;
+            if (idx < 0 || idx >= (long) words.length << 6)
+                return false;
+            return (words[(int) (idx >>> 6)] & (1L << (idx & 63))) != 0;
+        }
+
+        /** Number of consecutive marked days starting at {@code day} going forward. */
+        private int runForward(long day) {
+            long idx = day - baseDay;
+            if (idx < 0)
+                return 0;
+            long limit = (long) words.length << 6;
+            int count = 0;
+            while (idx < limit) {
+                int bit = (int) (idx & 63);
+                long ones = Long.numberOfTrailingZeros(~(words[(int) (idx >>> 6)] >>> bit));
+                int avail = 64 - bit;
+                if (ones < avail)
+                    return count + (int) ones;
+                count += avail;
+                idx += avail;
+            }
+            return count;
+        }
+
+        /** Number of consecutive marked days ending at {@code day} going backward. */
+        private int runBackward(long day) {
+            long idx = day - baseDay;
+            long limit = (long) words.length << 6;
+            if (idx >= limit)
+                return 0;
+            int count = 0;
+            while (idx >= 0) {
+                int bit = (int) (idx & 63);
+                long ones = Long.numberOfLeadingZeros(~(words[(int) (idx >>> 6)] << (63 - bit)));
+                int avail = bit + 1;
+                if (ones < avail)
+                    return count + (int) ones;
+                count += avail;
+                idx -= avail;
+            }
+            return count;
+        }
+
+        private void ensureCapacity(long day) {
+            long wordBase = Math.floorDiv(day, 64) * 64;
+            if (words.length == 0) {
+                baseDay = wordBase;
+                words = new long[1];
+                return;
+            }
+            if (day < baseDay) {
+                int shift = (int) ((baseDay - wordBase) >>> 6);
+                long[] grown = new long[words.length + shift];
+                System.arraycopy(words, 0, grown, shift, words.length);
+                words = grown;
+                baseDay = wordBase;
+            } else if (day - baseDay >= (long) words.length << 6) {
+                int needed = (int) ((day - baseDay) >>> 6) + 1;
+                long[] grown = new long[Math.max(needed, words.length * 2)];
+                System.arraycopy(words, 0, grown, 0, words.length);
+                words = grown;
+            }
+        }
+
+        /** Recomputes the derived counters after loading raw words. */
+        private void recomputeSummary() {
+            dayCount = 0;
+            longestRun = 0;
+            lastDay = Long.MIN_VALUE;
+            currentRun = 0;
+            for (int w = words.length - 1; w >= 0; w--) {
+                if (words[w] != 0) {
+                    lastDay = baseDay + ((long) w << 6) + 63 - Long.numberOfLeadingZeros(words[w]);
+                    break;
+                }
+            }
+            if (lastDay == Long.MIN_VALUE)
+                return;
+
+            for (long word : words) {
+                dayCount += Long.bitCount(word);
+            }
+            currentRun = runBackward(lastDay);
+
+            // Walk run by run: skip zeros with trailing-zero counts, measure ones with runForward
+            long idx = 0;
+            long limit = (long) words.length << 6;
+            while (idx < limit) {
+                int w = (int) (idx >>> 6);
+                long rest = words[w] >>> (idx & 63);
+                if (rest == 0) {
+                    idx = (long) (w + 1) << 6;
+                    continue;
+                }
+                idx += Long.numberOfTrailingZeros(rest);
+                int run = runForward(baseDay + idx);
+                longestRun = Math.max(longestRun, run);
+                idx += run;
+            }
+        }
+
+        // --- SERIALIZATION (little-endian words) ---
+        public synchronized byte[] toBytes() {
+            // Trim trailing empty words
+            int used = words.length;
+            while (used > 0 && words[used - 1] == 0)
+                used--;
+            ByteBuffer buf = ByteBuffer.allocate(used * 8).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < used; i++) {
+                buf.putLong(words[i]);
+            }
+            return buf.array();
+        }
+
+        public synchronized long getBaseDay() {
+            return baseDay;
+        }
+
+        public static JournalDays fromBytes(long baseDay, byte[] bytes) {
+            JournalDays days = new JournalDays();
+            ByteBuffer buf = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+            days.baseDay = baseDay;
+            days.words = new long[bytes.length / 8];
+            for (int i = 0; i < days.words.length; i++) {
+                days.words[i] = buf.getLong();
+            }
+            days.recomputeSummary();
+            return days;
+        }
+
+        public static JournalDays fromEpochDays(long[] epochDays) {
+            JournalDays days = new JournalDays();
+            if (epochDays.length == 0)
+                return days;
+            long min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+            for (long d : epochDays) {
+                min = Math.min(min, d);
+                max = Math.max(max, d);
+            }
+            days.baseDay = Math.floorDiv(min, 64) * 64;
+            days.words = new long[(int) ((max - days.baseDay) >>> 6) + 1];
+            for (long d : epochDays) {
+                long idx = d - days.baseDay;
+                days.words[(int) (idx >>> 6)] |= 1L << (idx & 63);
+            }
+            days.recomputeSummary();
+            return days;
+        }
+    }
+
+    // --- REGISTRY ---
+    public static JournalDays get(User user) {
+        return calendars.get(user.getEmail());
+    }
+
+    public static void install(User user, JournalDays days) {
+        calendars.put(user.getEmail(), days);
+    }
+
+    /**
+     * Returns the cached calendar, loading it (or rebuilding it from journals once) if needed.
+     *
+     * @throws SQLException if the calendar can't be read; nothing is cached, so the next call retries
+     */
+    public static JournalDays getOrLoad(User user) throws SQLException {
+        JournalDays days = calendars.get(user.getEmail());
+        if (days != null) {
+            hits.increment();
+            return days;
+        }
+        misses.increment();
+        days = load(user.getEmail());
+        if (days == null)
+            days = rebuild(user.getEmail());
+        calendars.put(user.getEmail(), days);
+        return days;
+    }
+
+    public static void evict(String email) {
+        calendars.remove(email);
+    }
+
+    // --- DB OPERATIONS ---
+    // null only when the user has no stored calendar yet
+    private static JournalDays load(String email) throws SQLException {
+        String sql = "SELECT journal_days, journal_days_base FROM user_progress WHERE user_email = ?";
+        try (Connection conn = DatabaseConnectionPool.getConnection();
+                PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, email);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    byte[] bytes = rs.getBytes("journal_days");
+                    if (bytes != null)
+                        return JournalDays.fromBytes(rs.getLong("journal_days_base"), bytes);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Rebuilds one user's calendar from journals and persists it. The result is
+     * cached only once both the read and the write have succeeded.
+     */
+    public static JournalDays rebuild(String email) throws SQLException {
+        String sql = "SELECT array_agg(entry_date - DATE '1970-01-01') FROM journals WHERE user_email = ?";
+        JournalDays days = new JournalDays();
+        try (Connection conn = DatabaseConnectionPool.getConnection();
+                PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, email);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next())
+                    days = JournalDays.fromEpochDays(toEpochDays(rs.getArray(1)));
+            }
+            try (PreparedStatement update = conn.prepareStatement(UPSERT_DAYS_SQL)) {
+                bindDays(update, email, days);
+                update.executeUpdate();
+            }
+        }
+        calendars.put(email, days);
+        return days;
+    }
+
+    private static final String UPSERT_DAYS_SQL = "INSERT INTO user_progress "
+            + "(user_email, current_streak, longest_streak, journal_days, journal_days_base, last_journal_date) "
+            + "VALUES (?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT (user_email) DO UPDATE SET current_streak = EXCLUDED.current_streak, "
+            + "longest_streak = EXCLUDED.longest_streak, journal_days = EXCLUDED.journal_days, "
+            + "journal_days_base = EXCLUDED.journal_days_base, last_journal_date = EXCLUDED.last_journal_date";
+
+    private static void bindDays(PreparedStatement ps, String email, JournalDays days) throws SQLException {
+        ps.setString(1, email);
+        ps.setInt(2, days.getCurrentStreak(LocalDate.now()));
+        ps.setInt(3, days.getLongestStreak());
+        ps.setBytes(4, days.toBytes());
+        ps.setInt(5, (int) days.getBaseDay());
+        synchronized (days) {
+            if (days.dayCount == 0)
+                ps.setNull(6, java.sql.Types.DATE);
+            else
+                ps.setDate(6, Date.valueOf(LocalDate.ofEpochDay(days.lastDay)));
+        }
+    }
+
+    private static long[] toEpochDays(Array array) throws SQLException {
+        if (array == null)
+            return new long[0];
+        Object[] values = (Object[]) array.getArray();
+        long[] days = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            days[i] = ((Number) values[i]).longValue();
+        }
+        return days;
+    }
+
+    /**
+     * One-off backfill of every user's calendar and streaks from journals.
+     * Users are split into hash partitions, each handled by its own worker and
+     * pooled connection, and written back with batched upserts.
+     */
+    public static int backfillAll(int workers) {
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int part = 0; part < workers; part++) {
+            final int partition = part;
+            results.add(pool.submit(() -> backfillPartition(partition, workers)));
+        }
+        int total = 0;
+        try {
+            for (Future<Integer> f : results) {
+                total += f.get();
+            }
+        } catch (Exception e) {
+            log.error("backfillAll failed", e);
+        } finally {
+            pool.shutdown();
+        }
+        return total;
+    }
+
+    private static int backfillPartition(int partition, int partitions) throws SQLException {
+        String sql = "SELECT user_email, array_agg(entry_date - DATE '1970-01-01') FROM journals "
+                + "WHERE mod(abs(hashtext(user_email)), ?) = ? GROUP BY user_email";
+        int count = 0;
+        try (Connection conn = DatabaseConnectionPool.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(sql);
+                    PreparedStatement update = conn.prepareStatement(UPSERT_DAYS_SQL)) {
+                ps.setInt(1, partitions);
+                ps.setInt(2, partition);
+                ps.setFetchSize(500);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        String email = rs.getString(1);
+                        JournalDays days = JournalDays.fromEpochDays(toEpochDays(rs.getArray(2)));
+                        bindDays(update, email, days);
+                        update.addBatch();
+                        if (++count % 500 == 0)
+                            update.executeBatch();
+                    }
+                }
+                update.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+        return count;
+    }
+
+    public static void main(String[] args) {
+        DbManager.initializeDatabase();
+        int workers = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        long start = System.nanoTime();
+        int users = backfillAll(workers);
+        System.out.printf("[StreakEngine] Backfilled %d users in %d ms%n", users,
+                (System.nanoTime() - start) / 1_000_000);
+        DatabaseConnectionPool.close();
+    }
+}
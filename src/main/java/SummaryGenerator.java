@@ -1,9 +1,18 @@
 import java.util.List;
 import java.io.IOException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class SummaryGenerator {
 
+    private static final Logger log = LoggerFactory.getLogger(SummaryGenerator.class);
+
     public static String generate(List<SmartJournal.JournalEntry> entries, boolean isEnglish) {
+        return generate(null, entries, isEnglish);
+    }
+
+    /** Counts against {@code user}'s summary quota as well as the global one. */
+    public static String generate(User user, List<SmartJournal.JournalEntry> entries, boolean isEnglish) {
         if (entries == null || entries.isEmpty()) {
             return isEnglish ? "No data available for analysis." : "Tiada data untuk analisis.";
         }
@@ -12,6 +21,48 @@ public class SummaryGenerator {
         int limit = Math.min(entries.size(), 7);
         List<SmartJournal.JournalEntry> recentEntries = entries.subList(0, limit);
 
+        JfrEvents.SummaryEvent event = new JfrEvents.SummaryEvent();
+        event.begin();
+        try (Tracer.Span span = Tracer.start("SummaryGenerator.generate")) {
+            span.attr("entries", limit);
+            return request(user, recentEntries, isEnglish, event);
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.entries = limit;
+                event.english = isEnglish;
+                event.commit();
+            }
+        }
+    }
+
+    private static String request(User user, List<SmartJournal.JournalEntry> recentEntries, boolean isEnglish,
+            JfrEvents.SummaryEvent event) {
+        String jsonInput = buildRequest(recentEntries, isEnglish);
+        event.promptChars = jsonInput.length();
+
+        String apiKey = EnvLoader.get("GEMINI_API_KEY");
+        if (apiKey == null) {
+            return "Error: GEMINI_API_KEY not found in .env";
+        }
+
+        String fullUrl = API.SUMMARY_API_URL + "?key=" + apiKey;
+        log.debug("AI summary request len={}", jsonInput.length());
+
+        String response = API.post(fullUrl, jsonInput, user == null ? null : user.getEmail());
+
+        if (response == null || response.isEmpty()) {
+            return isEnglish ? "Could not generate summary at this time."
+                    : "Tidak dapat menjana ringkasan pada masa ini.";
+        }
+
+        String summary = cleanResponse(response);
+        event.responseChars = summary.length();
+        return summary;
+    }
+
+    /** The Gemini request body for these entries; no I/O, so it can be benchmarked on its own. */
+    static String buildRequest(List<SmartJournal.JournalEntry> recentEntries, boolean isEnglish) {
         StringBuilder prompt = new StringBuilder();
 
         // Detailed User Prompt Structure
@@ -62,31 +113,14 @@ public class SummaryGenerator {
         prompt.append("\nSummary:");
 
         // Gemini JSON Payload: { "contents": [{ "parts": [{"text": "..."}] }] }
-        String jsonInput = "{"
+        return "{"
                 + "\"contents\": [{"
                 + "\"parts\": [{\"text\": \"" + escapeJson(prompt.toString()) + "\"}]"
                 + "}]"
                 + "}";
-
-        String apiKey = EnvLoader.get("GEMINI_API_KEY");
-        if (apiKey == null) {
-            return "Error: GEMINI_API_KEY not found in .env";
-        }
-
-        String fullUrl = API.SUMMARY_API_URL + "?key=" + apiKey;
-        System.out.println("DEBUG: AI Summary Prompt len=" + prompt.length());
-
-        String response = API.post(fullUrl, jsonInput);
-
-        if (response == null || response.isEmpty()) {
-            return isEnglish ? "Could not generate summary at this time."
-                    : "Tidak dapat menjana ringkasan pada masa ini.";
-        }
-
-        return cleanResponse(response);
     }
 
-    private static String escapeJson(String text) {
+    static String escapeJson(String text) {
         return text.replace("\\", "\\\\")
                 .replace("\"", "\\\"")
                 .replace("\n", "\\n")
@@ -159,11 +193,12 @@ public class SummaryGenerator {
     }
 
     public static boolean saveToTextFile(String summary, java.io.File file) {
-        try (java.io.FileWriter writer = new java.io.FileWriter(file)) {
+        try (java.io.Writer writer = java.nio.file.Files.newBufferedWriter(file.toPath(),
+                java.nio.charset.StandardCharsets.UTF_8)) {
             writer.write(summary);
             return true;
         } catch (IOException e) {
-            e.printStackTrace();
+            log.error("Could not save summary to {}", file, e);
             return false;
         }
     }
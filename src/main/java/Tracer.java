@@ -0,0 +1,344 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import com.google.gson.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Span-based tracing for whole operations (a save, a summary, a server
+ * request). A trace starts with {@link #startRoot}; code underneath opens
+ * child spans with {@link #start}, which are no-ops when no trace is active,
+ * so instrumented library code costs nothing outside traced operations. The current span lives in a ThreadLocal and is
+ * carried across executor, thread and {@code runLater} hops with
+ * {@link #wrap}.
+ *
+ * <p>A trace is written once its last span has ended, including spans on
+ * other threads, as Chrome Trace Event JSON (open it in ui.perfetto.dev or
+ * chrome://tracing). Cross-thread hops are drawn as flow arrows. Tracing is
+ * on when TRACE_FILE is set; TRACE_SLOW_MS (default 0) keeps only traces at
+ * least that long.
+ */
+public class Tracer {
+
+    private static final Logger log = LoggerFactory.getLogger(Tracer.class);
+
+    private static final Path file;
+    private static final long slowNanos;
+    private static final ThreadLocal<Span> current = new ThreadLocal<>();
+
+    // Converts System.nanoTime() to epoch microseconds, so traces from several runs line up in one file
+    private static final long epochOffsetNanos = System.currentTimeMillis() * 1_000_000L - System.nanoTime();
+    private static final long pid = ProcessHandle.current().pid();
+
+    static {
+        String path = EnvLoader.get("TRACE_FILE");
+        file = path == null || path.isBlank() ? null : Path.of(path.trim());
+        long slowMillis = 0;
+        String slow = EnvLoader.get("TRACE_SLOW_MS");
+        if (slow != null) {
+            try {
+                slowMillis = Math.max(0, Long.parseLong(slow.trim()));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        slowNanos = slowMillis * 1_000_000L;
+    }
+
+    public static boolean isEnabled() {
+        return file != null;
+    }
+
+    // --- SPANS ---
+    /** One timed step. Close it on the thread that opened it (try-with-resources), or end() it anywhere. */
+    public static class Span implements AutoCloseable {
+        final Trace trace;
+        final Span parent;
+        final long id;
+        final String name;
+        final long startNanos = System.nanoTime();
+        final long threadId;
+        final String threadName;
+        private Map<String, Object> attrs;
+        volatile long endNanos;
+        private Span previous; // what was current on the opening thread
+        private boolean scoped;
+
+        Span(Trace trace, Span parent, String name) {
+            this.trace = trace;
+            this.parent = parent;
+            this.name = name;
+            this.id = ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE;
+            Thread t = Thread.currentThread();
+            this.threadId = t.threadId();
+            this.threadName = t.getName().isEmpty() ? (t.isVirtual() ? "virtual-" : "thread-") + threadId
+                    : t.getName();
+        }
+
+        /** Adds an argument shown with the span in the viewer. */
+        public synchronized Span attr(String key, Object value) {
+            if (attrs == null)
+                attrs = new LinkedHashMap<>();
+            attrs.put(key, value);
+            return this;
+        }
+
+        /** Ends the span and, on its opening thread, restores the span that was current before it. */
+        @Override
+        public void close() {
+            if (scoped && current.get() == this) {
+                if (previous == null)
+                    current.remove();
+                else
+                    current.set(previous);
+            }
+            end();
+        }
+
+        /** Ends the span from any thread without touching the current span. */
+        public void end() {
+            if (endNanos != 0)
+                return;
+            endNanos = System.nanoTime();
+            trace.finished(this);
+        }
+
+        synchronized Map<String, Object> attrs() {
+            return attrs == null ? Map.of() : new LinkedHashMap<>(attrs);
+        }
+    }
+
+    // Returned when tracing is off or there's no trace to join; every call is a no-op
+    private static final Span NOOP = new Span(null, null, "noop") {
+        @Override
+        public Span attr(String key, Object value) {
+            return this;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public void end() {
+        }
+    };
+
+    /** Starts a new trace whose root is current on this thread until closed. */
+    public static Span startRoot(String name) {
+        if (file == null)
+            return NOOP;
+        return scope(new Span(new Trace(), null, name));
+    }
+
+    /** A child of the current span, or a no-op if this thread isn't inside a trace. */
+    public static Span start(String name) {
+        Span parent = current.get();
+        if (parent == null)
+            return NOOP;
+        return scope(new Span(parent.trace, parent, name));
+    }
+
+    /** Adds an argument to the current span, if any. */
+    public static void annotate(String key, Object value) {
+        Span span = current.get();
+        if (span != null)
+            span.attr(key, value);
+    }
+
+    private static Span scope(Span span) {
+        span.trace.open.incrementAndGet();
+        span.previous = current.get();
+        span.scoped = true;
+        current.set(span);
+        return span;
+    }
+
+    // --- CONTEXT PROPAGATION ---
+    /** Runs {@code task} under the current span, wherever it ends up executing. */
+    public static Runnable wrap(Runnable task) {
+        return wrap(current.get(), task);
+    }
+
+    /** Like {@link #wrap(Runnable)}, and shows the task itself as a span called {@code name}. */
+    public static Runnable wrap(String name, Runnable task) {
+        if (current.get() == null)
+            return task;
+        return wrap(() -> {
+            Span span = start(name);
+            try {
+                task.run();
+            } finally {
+                span.close();
+            }
+        });
+    }
+
+    /** Runs {@code task} under {@code parent}; the trace stays open until the task has run. */
+    public static Runnable wrap(Span parent, Runnable task) {
+        if (parent == null || parent == NOOP)
+            return task;
+        parent.trace.open.incrementAndGet(); // a pending hop keeps the trace from being written early
+        return () -> {
+            Span previous = current.get();
+            current.set(parent);
+            try {
+                task.run();
+            } finally {
+                if (previous == null)
+                    current.remove();
+                else
+                    current.set(previous);
+                parent.trace.release();
+            }
+        };
+    }
+
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        Span parent = current.get();
+        if (parent == null)
+            return task;
+        parent.trace.open.incrementAndGet();
+        return () -> {
+            Span previous = current.get();
+            current.set(parent);
+            try {
+                return task.call();
+            } finally {
+                if (previous == null)
+                    current.remove();
+                else
+                    current.set(previous);
+                parent.trace.release();
+            }
+        };
+    }
+
+    // --- TRACE ASSEMBLY ---
+    private static class Trace {
+        final long id = ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE;
+        // Spans not yet ended plus hops not yet run; the trace is written when this drops to 0
+        final AtomicInteger open = new AtomicInteger();
+        final ConcurrentLinkedQueue<Span> spans = new ConcurrentLinkedQueue<>();
+
+        void finished(Span span) {
+            spans.add(span);
+            release();
+        }
+
+        void release() {
+            if (open.decrementAndGet() == 0)
+                writer.execute(() -> {
+                    try {
+                        export(this);
+                    } catch (RuntimeException e) {
+                        log.error("Trace export failed", e); // a broken trace must not kill the writer
+                    }
+                });
+        }
+    }
+
+    // --- EXPORT (Chrome Trace Event format) ---
+    private static final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "trace-writer");
+        t.setDaemon(true);
+        return t;
+    });
+    private static boolean wroteHeader;
+
+    // Runs on the writer thread only
+    private static void export(Trace trace) {
+        List<Span> spans = new ArrayList<>(trace.spans);
+        if (spans.isEmpty())
+            return;
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        for (Span s : spans) {
+            first = Math.min(first, s.startNanos);
+            last = Math.max(last, s.endNanos);
+        }
+        if (last - first < slowNanos)
+            return;
+
+        List<JsonObject> events = new ArrayList<>();
+        // Named per trace rather than once per process: thread ids aren't reused for long (virtual threads
+        // never), so a process-wide set would only grow, and each trace stays readable on its own
+        Set<Long> namedThreads = new HashSet<>();
+        for (Span s : spans) {
+            if (namedThreads.add(s.threadId)) {
+                JsonObject meta = event("M", "thread_name", s.threadId, s.startNanos);
+                JsonObject args = new JsonObject();
+                args.addProperty("name", s.threadName);
+                meta.add("args", args);
+                events.add(meta);
+            }
+            JsonObject slice = event("X", s.name, s.threadId, s.startNanos);
+            slice.addProperty("dur", (s.endNanos - s.startNanos) / 1000.0);
+            JsonObject args = new JsonObject();
+            args.addProperty("trace", Long.toHexString(trace.id));
+            args.addProperty("span", Long.toHexString(s.id));
+            if (s.parent != null)
+                args.addProperty("parent", Long.toHexString(s.parent.id));
+            for (Map.Entry<String, Object> a : s.attrs().entrySet()) {
+                args.addProperty(a.getKey(), String.valueOf(a.getValue()));
+            }
+            slice.add("args", args);
+            events.add(slice);
+
+            // Arrow from the parent's thread to the child's, where the work hopped threads
+            if (s.parent != null && s.parent.threadId != s.threadId) {
+                long from = Math.max(s.parent.startNanos, Math.min(s.startNanos, s.parent.endNanos));
+                JsonObject out = event("s", "hop", s.parent.threadId, from);
+                out.addProperty("id", Long.toHexString(s.id));
+                JsonObject in = event("f", "hop", s.threadId, s.startNanos);
+                in.addProperty("id", Long.toHexString(s.id));
+                in.addProperty("bp", "e");
+                events.add(out);
+                events.add(in);
+            }
+        }
+
+        try {
+            if (file.getParent() != null)
+                Files.createDirectories(file.getParent());
+            // JSON Array Format: the closing bracket is optional, so events can simply be appended
+            boolean fresh = !wroteHeader && (!Files.exists(file) || Files.size(file) == 0);
+            try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND)) {
+                for (int i = 0; i < events.size(); i++) {
+                    out.write(fresh && i == 0 ? "[\n" : ",\n");
+                    out.write(events.get(i).toString());
+                }
+            }
+            wroteHeader = true;
+        } catch (IOException e) {
+            log.warn("Could not write trace: {}", e.getMessage());
+        }
+    }
+
+    private static JsonObject event(String phase, String name, long threadId, long nanos) {
+        JsonObject e = new JsonObject();
+        e.addProperty("ph", phase);
+        e.addProperty("name", name);
+        e.addProperty("cat", "smartjournal");
+        e.addProperty("pid", pid);
+        e.addProperty("tid", threadId);
+        e.addProperty("ts", (epochOffsetNanos + nanos) / 1000.0);
+        return e;
+    }
+}
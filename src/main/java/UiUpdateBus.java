@@ -0,0 +1,352 @@
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.collections.ModifiableObservableListBase;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects model changes posted from background threads and applies them on the
+ * FX thread once per pulse. List changes are merged and applied to each bound
+ * list as one diff, so a bulk load or sync fires one change event that only
+ * touches the rows that actually changed. Tasks run in the order they were
+ * posted; keyed tasks are coalesced, so only the latest task for a key runs and
+ * it takes the position of that latest post.
+ */
+public class UiUpdateBus {
+
+    private static final Logger log = LoggerFactory.getLogger(UiUpdateBus.class);
+
+    // Time budget for plain tasks per pulse; the remainder carries over to the next one
+    private static final long TASK_BUDGET_NANOS = 8_000_000L;
+
+    private final List<ListSync<?, ?>> syncs = new CopyOnWriteArrayList<>();
+    private final ConcurrentLinkedQueue<Task> tasks = new ConcurrentLinkedQueue<>();
+    // Latest task per key; older tasks for the key stay queued and are skipped when reached
+    private final Map<String, Task> keyedTasks = new ConcurrentHashMap<>();
+    private final AtomicInteger superseded = new AtomicInteger();
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    // --- LATENCY STATS (enqueue -> applied on FX thread) ---
+    private static final Metrics.Timer LATENCY = Metrics.timer("ui_update_latency_seconds",
+            "Wait between posting a UI update and applying it on the FX thread");
+    private static final AtomicLong MAX_LATENCY_NANOS = new AtomicLong();
+
+    // Gauges are process-wide, so they sum over every live bus instead of following the newest one
+    private static final Set<UiUpdateBus> BUSES = Collections.synchronizedSet(
+            Collections.newSetFromMap(new WeakHashMap<>()));
+
+    static {
+        Metrics.gauge("ui_update_queue_depth", "UI updates waiting for the next pulse", () -> {
+            synchronized (BUSES) {
+                int depth = 0;
+                for (UiUpdateBus bus : BUSES) {
+                    depth += bus.getQueueDepth();
+                }
+                return depth;
+            }
+        });
+        Metrics.gauge("ui_update_max_latency_seconds", "Slowest UI update since start",
+                () -> MAX_LATENCY_NANOS.get() / 1e9);
+    }
+
+    private final AnimationTimer pump = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            drain();
+        }
+    };
+
+    public UiUpdateBus() {
+        BUSES.add(this);
+    }
+
+    private static final class Task {
+        final String key;
+        final Runnable action;
+        final long enqueuedAt = System.nanoTime();
+
+        Task(String key, Runnable action) {
+            this.key = key;
+            this.action = action;
+        }
+    }
+
+    /**
+     * Observable list whose batched edits reach listeners as a single change
+     * event. Targets of a {@link ListSync} are this type so a pulse's diff
+     * fires once, however many rows it touches.
+     */
+    public static final class BatchedList<T> extends ModifiableObservableListBase<T> {
+        private final List<T> items = new ArrayList<>();
+
+        @Override
+        public T get(int index) {
+            return items.get(index);
+        }
+
+        @Override
+        public int size() {
+            return items.size();
+        }
+
+        @Override
+        protected void doAdd(int index, T element) {
+            items.add(index, element);
+        }
+
+        @Override
+        protected T doSet(int index, T element) {
+            return items.set(index, element);
+        }
+
+        @Override
+        protected T doRemove(int index) {
+            return items.remove(index);
+        }
+
+        private void batch(Runnable edits) {
+            beginChange();
+            try {
+                edits.run();
+            } finally {
+                endChange();
+            }
+        }
+    }
+
+    /**
+     * Keyed view of a {@link BatchedList}: background threads queue upserts,
+     * removals or full replacements, and the bus folds them into one sorted
+     * diff per pulse.
+     */
+    public final class ListSync<T, K> {
+        private final BatchedList<T> target;
+        private final Function<T, K> keyFn;
+        private final Comparator<T> order;
+        private final ConcurrentLinkedQueue<Op<T, K>> pending = new ConcurrentLinkedQueue<>();
+
+        private ListSync(BatchedList<T> target, Function<T, K> keyFn, Comparator<T> order) {
+            this.target = target;
+            this.keyFn = keyFn;
+            this.order = order;
+        }
+
+        public void replaceAll(List<T> items) {
+            // Pre-sort off the FX thread; the pulse only has to merge
+            List<T> sorted = new ArrayList<>(items);
+            sorted.sort(order);
+            enqueue(new Op<>(OpType.REPLACE_ALL, sorted, null, null));
+        }
+
+        public void upsert(T item) {
+            enqueue(new Op<>(OpType.UPSERT, null, item, keyFn.apply(item)));
+        }
+
+        public void remove(K key) {
+            enqueue(new Op<>(OpType.REMOVE, null, null, key));
+        }
+
+        private void enqueue(Op<T, K> op) {
+            pending.add(op);
+            schedule();
+        }
+
+        private void apply() {
+            if (pending.isEmpty())
+                return;
+
+            List<Op<T, K>> ops = new ArrayList<>();
+            Op<T, K> op;
+            while ((op = pending.poll()) != null) {
+                ops.add(op);
+            }
+
+            // Only ops after the last full replacement matter
+            int start = 0;
+            List<T> base = target;
+            for (int i = ops.size() - 1; i >= 0; i--) {
+                if (ops.get(i).type == OpType.REPLACE_ALL) {
+                    start = i + 1;
+                    base = ops.get(i).items;
+                    break;
+                }
+            }
+
+            Map<K, T> merged = new LinkedHashMap<>();
+            for (T item : base) {
+                merged.put(keyFn.apply(item), item);
+            }
+            for (int i = start; i < ops.size(); i++) {
+                Op<T, K> o = ops.get(i);
+                if (o.type == OpType.UPSERT) {
+                    merged.put(o.key, o.item);
+                } else {
+                    merged.remove(o.key);
+                }
+            }
+
+            List<T> result = new ArrayList<>(merged.values());
+            if (start < ops.size())
+                result.sort(order);
+            if (target.isEmpty())
+                target.setAll(result);
+            else if (!result.equals(target))
+                target.batch(() -> patch(result));
+
+            long now = System.nanoTime();
+            for (Op<T, K> o : ops) {
+                recordLatency(now - o.enqueuedAt);
+            }
+        }
+
+        // Walks target and result in step: matching rows stay, changed rows are set in place,
+        // and only missing or moved rows are inserted or removed
+        private void patch(List<T> result) {
+            Map<K, Integer> position = new HashMap<>();
+            for (int i = 0; i < result.size(); i++) {
+                position.put(keyFn.apply(result.get(i)), i);
+            }
+
+            int p = 0;
+            while (p < result.size()) {
+                T want = result.get(p);
+                if (p < target.size()) {
+                    T have = target.get(p);
+                    Integer at = position.get(keyFn.apply(have));
+                    if (at == null || at < p) {
+                        // Gone, or already placed earlier in the result
+                        target.remove(p);
+                        continue;
+                    }
+                    if (at == p) {
+                        if (!have.equals(want))
+                            target.set(p, want);
+                        p++;
+                        continue;
+                    }
+                }
+                target.add(p, want);
+                p++;
+            }
+            if (target.size() > result.size())
+                target.remove(result.size(), target.size());
+        }
+    }
+
+    private enum OpType {
+        REPLACE_ALL, UPSERT, REMOVE
+    }
+
+    private static final class Op<T, K> {
+        final OpType type;
+        final List<T> items;
+        final T item;
+        final K key;
+        final long enqueuedAt = System.nanoTime();
+
+        Op(OpType type, List<T> items, T item, K key) {
+            this.type = type;
+            this.items = items;
+            this.item = item;
+            this.key = key;
+        }
+    }
+
+    // --- PUBLIC API ---
+    public <T, K> ListSync<T, K> bind(BatchedList<T> list, Function<T, K> keyFn, Comparator<T> order) {
+        ListSync<T, K> sync = new ListSync<>(list, keyFn, order);
+        syncs.add(sync);
+        return sync;
+    }
+
+    /** Runs the action on the FX thread during the next pulse. */
+    public void post(Runnable action) {
+        // Only unkeyed tasks carry a trace: coalescing could drop a keyed one and leave its trace open
+        tasks.add(new Task(null, Tracer.wrap("UiUpdateBus.post", action)));
+        schedule();
+    }
+
+    /**
+     * Like {@link #post(Runnable)}, but a later action with the same key replaces an unapplied
+     * earlier one and runs in the later post's place.
+     */
+    public void post(String key, Runnable action) {
+        Task task = new Task(key, action);
+        if (keyedTasks.put(key, task) != null)
+            superseded.incrementAndGet();
+        tasks.add(task);
+        schedule();
+    }
+
+    public int getQueueDepth() {
+        // Briefly low while a keyed post sits between its map and queue updates
+        int depth = Math.max(0, tasks.size() - superseded.get());
+        for (ListSync<?, ?> sync : syncs) {
+            depth += sync.pending.size();
+        }
+        return depth;
+    }
+
+    // --- PULSE HANDLING ---
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            Platform.runLater(pump::start);
+        }
+    }
+
+    private void drain() {
+        // Lists first so tasks in the same pulse observe the merged state
+        for (ListSync<?, ?> sync : syncs) {
+            sync.apply();
+        }
+
+        long deadline = System.nanoTime() + TASK_BUDGET_NANOS;
+        Task task;
+        while (System.nanoTime() < deadline && (task = tasks.poll()) != null) {
+            if (task.key != null && !keyedTasks.remove(task.key, task)) {
+                superseded.decrementAndGet(); // a later post for the key is still queued
+                continue;
+            }
+            run(task);
+        }
+
+        if (getQueueDepth() == 0) {
+            pump.stop();
+            scheduled.set(false);
+            // A post may have slipped in between the check and the reset
+            if (getQueueDepth() > 0 && scheduled.compareAndSet(false, true)) {
+                pump.start();
+            }
+        }
+    }
+
+    private void run(Task task) {
+        try {
+            task.action.run();
+        } catch (Exception e) {
+            log.error("UI update failed", e);
+        }
+        recordLatency(System.nanoTime() - task.enqueuedAt);
+    }
+
+    private void recordLatency(long nanos) {
+        LATENCY.record(nanos);
+        MAX_LATENCY_NANOS.accumulateAndGet(nanos, Math::max);
+    }
+}
@@ -1,51 +1,93 @@
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.sql.*;
-import java.nio.charset.StandardCharsets;
 import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class UserManager {
-    private Connection dbConnection;
+
+    private static final Logger log = LoggerFactory.getLogger(UserManager.class);
+
     private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@(.+)$");
 
-    public UserManager() {
-        this.dbConnection = DbManager.getConnection();
-    }
+    // Connections are borrowed from the pool per call; an unreachable database
+    // surfaces as an SQLException and is handled like any other query failure
+    private static final Metrics.Call LOGIN = Metrics.dbQuery("UserManager.login");
+    private static final Metrics.Call REHASH = Metrics.dbQuery("UserManager.rehash");
+    private static final Metrics.Call REGISTER = Metrics.dbQuery("UserManager.register");
+    private static final Metrics.Call UPDATE_PROFILE = Metrics.dbQuery("UserManager.updateProfile");
+    private static final Metrics.Call USER_EXISTS = Metrics.dbQuery("UserManager.isUserExist");
 
     // --- AUTHENTICATION ---
+    // The stored hash is salted, so the row is found by email and the password
+    // checked here; legacy or weaker hashes are replaced after a successful check
     public User login(String email, String password) {
-        if (dbConnection == null)
-            return null;
-
-        String hashedPassword = hashPassword(password);
-        if (hashedPassword == null)
-            return null; // Hashing fail
-
-        String sql = "SELECT email, display_name, start_of_week FROM users WHERE email = ? AND password_hash = ?";
-        try (PreparedStatement ps = dbConnection.prepareStatement(sql)) {
+        String sql = "SELECT display_name, start_of_week, password_hash FROM users WHERE email = ?";
+        String displayName;
+        String startOfWeek;
+        String storedHash;
+        Metrics.Span span = LOGIN.begin();
+        try (Connection conn = DatabaseConnectionPool.getConnection();
+                PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, email);
-            ps.setString(2, hashedPassword);
             try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    String displayName = rs.getString("display_name");
-                    String startOfWeek = rs.getString("start_of_week");
-
-                    User user = new User(email, displayName, hashedPassword);
-                    if (startOfWeek != null)
-                        user.setStartOfWeek(startOfWeek);
-                    return user;
+                span.success();
+                if (!rs.next()) {
+                    displayName = null;
+                    startOfWeek = null;
+                    storedHash = null;
+                } else {
+                    displayName = rs.getString("display_name");
+                    startOfWeek = rs.getString("start_of_week");
+                    storedHash = rs.getString("password_hash");
                 }
             }
         } catch (SQLException e) {
-            System.err.println("Login database error: " + e.getMessage());
+            span.failure();
+            log.error("Login database error: {}", e.getMessage());
+            return null;
+        }
+
+        if (storedHash == null) {
+            // Same cost as a wrong password, so response times don't reveal which emails exist
+            PasswordHasher.verifyUnknownUser(password);
+            return null;
         }
-        return null;
+
+        if (!PasswordHasher.verify(password, storedHash))
+            return null;
+        if (PasswordHasher.needsRehash(storedHash))
+            storedHash = rehash(email, storedHash, password);
+
+        User user = new User(email, displayName, storedHash);
+        if (startOfWeek != null)
+            user.setStartOfWeek(startOfWeek);
+        return user;
     }
 
-    public void register(String email, String displayName, String password) {
-        if (dbConnection == null)
-            throw new RuntimeException("Database connection unavailable.");
+    // Only replaces the row if nobody changed the password in the meantime
+    private String rehash(String email, String oldHash, String password) {
+        String newHash = PasswordHasher.hash(password);
+        Metrics.Span span = REHASH.begin();
+        try (Connection conn = DatabaseConnectionPool.getConnection();
+                PreparedStatement ps = conn.prepareStatement(
+                        "UPDATE users SET password_hash = ? WHERE email = ? AND password_hash = ?")) {
+            ps.setString(1, newHash);
+            ps.setString(2, email);
+            ps.setString(3, oldHash);
+            int rows = ps.executeUpdate();
+            span.success(rows);
+            if (rows > 0) {
+                PasswordHasher.recordRehash();
+                return newHash;
+            }
+        } catch (SQLException e) {
+            span.failure();
+            log.error("rehash failed", e);
+        }
+        return oldHash;
+    }
 
+    public void register(String email, String displayName, String password) {
         // VALIDATION
         if (!isValidEmail(email)) {
             throw new IllegalArgumentException("Invalid email format.");
@@ -57,50 +99,55 @@ public class UserManager {
         if (isUserExist(email))
             throw new IllegalArgumentException("Email already taken.");
 
-        String hashedPassword = hashPassword(password);
-        if (hashedPassword == null)
-            throw new RuntimeException("Secure hashing failed.");
+        String hashedPassword = PasswordHasher.hash(password);
 
         String sql = "INSERT INTO users (email, display_name, password_hash, start_of_week) VALUES (?, ?, ?, 'SUNDAY')";
-        try (PreparedStatement ps = dbConnection.prepareStatement(sql)) {
+        Metrics.Span span = REGISTER.begin();
+        try (Connection conn = DatabaseConnectionPool.getConnection();
+                PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, email);
             ps.setString(2, displayName);
             ps.setString(3, hashedPassword);
             int rows = ps.executeUpdate();
+            span.success(rows);
             if (rows <= 0)
                 throw new RuntimeException("Database insert failed.");
         } catch (SQLException e) {
+            span.failure();
             throw new RuntimeException("Registration error: " + e.getMessage());
         }
     }
 
     public boolean updateProfile(User user, String newName, String newPassword, String newStartOfWeek) {
-        if (dbConnection == null)
-            return false;
-
         String sql = "UPDATE users SET display_name = ?, password_hash = ?, start_of_week = ? WHERE email = ?";
 
         String finalPassHash = user.getPassword(); // Default to old hash
         if (newPassword != null && !newPassword.trim().isEmpty()) {
             if (newPassword.length() < 6)
                 return false;
-            finalPassHash = hashPassword(newPassword);
+            finalPassHash = PasswordHasher.hash(newPassword);
         }
 
-        try (PreparedStatement ps = dbConnection.prepareStatement(sql)) {
+        Metrics.Span span = UPDATE_PROFILE.begin();
+        try (Connection conn = DatabaseConnectionPool.getConnection();
+                PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, newName);
             ps.setString(2, finalPassHash);
             ps.setString(3, newStartOfWeek);
             ps.setString(4, user.getEmail());
             int rows = ps.executeUpdate();
+            span.success(rows);
             if (rows > 0) {
+                // Cached sessions hold the old profile (and were issued for the old password)
+                SessionManager.invalidateUser(user.getEmail());
                 user.setDisplayName(newName);
                 user.setPassword(finalPassHash);
                 user.setStartOfWeek(newStartOfWeek);
                 return true;
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            span.failure();
+            log.error("updateProfile failed", e);
         }
         return false;
     }
@@ -113,14 +160,17 @@ public class UserManager {
 
     // --- HELPERS ---
     private boolean isUserExist(String email) {
-        if (dbConnection == null)
-            return false;
-        try (PreparedStatement ps = dbConnection.prepareStatement("SELECT 1 FROM users WHERE email = ?")) {
+        Metrics.Span span = USER_EXISTS.begin();
+        try (Connection conn = DatabaseConnectionPool.getConnection();
+                PreparedStatement ps = conn.prepareStatement("SELECT 1 FROM users WHERE email = ?")) {
             ps.setString(1, email);
             try (ResultSet rs = ps.executeQuery()) {
-                return rs.next();
+                boolean exists = rs.next();
+                span.success(exists ? 1 : 0);
+                return exists;
             }
         } catch (SQLException e) {
+            span.failure();
             return false;
         }
     }
@@ -128,27 +178,4 @@ public class UserManager {
     private boolean isValidEmail(String email) {
         return email != null && EMAIL_PATTERN.matcher(email).matches();
     }
-
-    private String hashPassword(String originalPassword) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] encodedhash = digest.digest(originalPassword.getBytes(StandardCharsets.UTF_8));
-            return bytesToHex(encodedhash);
-        } catch (NoSuchAlgorithmException e) {
-            e.printStackTrace();
-            return null;
-        }
-    }
-
-    private static String bytesToHex(byte[] hash) {
-        StringBuilder hexString = new StringBuilder(2 * hash.length);
-        for (byte b : hash) {
-            String hex = Integer.toHexString(0xff & b);
-            if (hex.length() == 1) {
-                hexString.append('0');
-            }
-            hexString.append(hex);
-        }
-        return hexString.toString();
-    }
-}
\ No newline at end of file
+}
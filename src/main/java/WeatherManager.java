@@ -1,13 +1,18 @@
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Manages weather data retrieval using IP geolocation and Open-Meteo API.
  * Designed to be robust, supporting IPv6 via ip2location.io.
  */
 public class WeatherManager {
-    private static final String IP2LOC_BASE_URL = "https://api.ip2location.io/?";
-    private static final String WEATHER_API_BASE = "https://api.open-meteo.com/v1/forecast";
+
+    private static final Logger log = LoggerFactory.getLogger(WeatherManager.class);
+
+    private static final String IP2LOC_BASE_URL = API.endpoint("IP2LOCATION_API_URL", "https://api.ip2location.io/?");
+    private static final String WEATHER_API_BASE = API.endpoint("WEATHER_API_URL", "https://api.open-meteo.com/v1/forecast");
 
     private static class LocationData {
         String city;
@@ -26,27 +31,29 @@ public class WeatherManager {
      * @return Formatted string "City: Weather (Updated: Time)"
      */
     public static String getCurrentWeather(boolean translateToEnglish) {
-        try {
-            System.out.println("[WeatherManager] Detecting location strategy: IP2Location...");
+        try (Tracer.Span span = Tracer.start("WeatherManager.getCurrentWeather")) {
+            log.debug("Detecting location strategy: IP2Location");
             LocationData loc = fetchLocationData();
 
             if (loc == null || (loc.city != null && loc.city.startsWith("Error:"))
                     || "Location Unavailable".equals(loc.city) || "Location Not Found".equals(loc.city)) {
+                span.attr("failed", "location");
                 if (loc != null)
                     return loc.city;
                 return "Location Unavailable";
             }
 
-            System.out.println("[WeatherManager] Location found: " + loc.city);
+            log.debug("Location found: {}", loc.city);
             String weatherData = fetchWeatherData(loc);
 
             if (weatherData == null || weatherData.isEmpty()) {
+                span.attr("failed", "weather");
                 return loc.city + ": Weather Data Unavailable";
             }
             return parseAndFormatWeather(loc.city, weatherData, translateToEnglish);
 
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Weather lookup failed", e);
             return "Weather Error";
         }
     }
@@ -55,7 +62,7 @@ public class WeatherManager {
         try {
             String key = EnvLoader.get("IP2LOCATION_KEY");
             if (key == null || key.isEmpty()) {
-                System.err.println("[WeatherManager] Missing IP2LOCATION_KEY in .env");
+                log.warn("Missing IP2LOCATION_KEY in .env");
                 return new LocationData("Error: No API Key", 0, 0);
             }
 
@@ -80,12 +87,12 @@ public class WeatherManager {
 
                     return new LocationData(city, lat, lon);
                 } catch (NumberFormatException e) {
-                    System.err.println("[WeatherManager] Error parsing coordinates: " + e.getMessage());
+                    log.warn("Error parsing coordinates: {}", e.getMessage());
                     return new LocationData("Error: Data Parse", 0, 0);
                 }
             }
         } catch (Exception e) {
-            System.err.println("[WeatherManager] Location fetch error: " + e.getMessage());
+            log.warn("Location fetch error: {}", e.getMessage());
             return new LocationData("Error: Exception", 0, 0);
         }
         return new LocationData("Location Unavailable", 0, 0);
@@ -206,6 +213,36 @@ public class WeatherManager {
         }
     }
 
+    // --- CATEGORIES (for analytics over stored weather strings) ---
+    public static final String[] CATEGORIES = { "Clear", "Cloudy", "Fog", "Drizzle", "Rain", "Showers",
+            "Thunderstorms", "Unknown" };
+    public static final int CATEGORY_UNKNOWN = CATEGORIES.length - 1;
+
+    // Descriptions as written by parseAndFormatWeather, English and Malay.
+    // Longer prefixes first ("Hujan Lebat" before "Hujan").
+    private static final String[] DESC_PREFIXES = { "Clear Sky", "Cerah", "Partly Cloudy", "Cloudy", "Mendung",
+            "Foggy", "Kababus", "Drizzle", "Gerimis", "Showers", "Hujan Lebat", "Rain", "Hujan",
+            "Severe Thunderstorms", "Thunderstorms", "Ribut Petir" };
+    private static final int[] DESC_CATEGORIES = { 0, 0, 1, 1, 1, 2, 2, 3, 3, 5, 5, 4, 4, 6, 6, 6 };
+
+    /**
+     * Maps a stored "City: Description (Updated: ...)" string to a category
+     * index without allocating; anything else (errors, legacy text) is Unknown.
+     */
+    public static int categoryOf(String weather) {
+        if (weather == null)
+            return CATEGORY_UNKNOWN;
+        int colon = weather.indexOf(": ");
+        if (colon < 0)
+            return CATEGORY_UNKNOWN;
+        int start = colon + 2;
+        for (int i = 0; i < DESC_PREFIXES.length; i++) {
+            if (weather.startsWith(DESC_PREFIXES[i], start))
+                return DESC_CATEGORIES[i];
+        }
+        return CATEGORY_UNKNOWN;
+    }
+
     private static String translateToMalay(String eng) {
         if (eng.contains("Thunder"))
             return "Ribut Petir";
@@ -60,3 +60,106 @@ VALUES
     ('ach_7', 'Consistency', '7 Day Streak', '🔥'),
     ('ach_100', 'Century', 'Reach Level 100', '💯')
 ON CONFLICT (id) DO NOTHING;
+
+-- MIGRATION: Normalized mood score (1-5, 0 = unknown) and model confidence next to the raw label
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns 
+                   WHERE table_name='journals' AND column_name='mood_score') THEN
+        ALTER TABLE journals ADD COLUMN mood_score SMALLINT;
+        ALTER TABLE journals ADD COLUMN mood_confidence REAL;
+        -- Backfill rows saved before the score existed (mirrors MoodScale.fromLabel); runs once, with the column
+        UPDATE journals SET mood_score = CASE LOWER(TRIM(mood))
+                WHEN 'very negative' THEN 1 WHEN '1 star' THEN 1
+                WHEN 'negative' THEN 2 WHEN '2 stars' THEN 2
+                WHEN 'neutral' THEN 3 WHEN '3 stars' THEN 3
+                WHEN 'positive' THEN 4 WHEN '4 stars' THEN 4
+                WHEN 'very positive' THEN 5 WHEN '5 stars' THEN 5
+                ELSE 0 END;
+    END IF;
+END $$;
+
+CREATE INDEX IF NOT EXISTS idx_journals_user_mood ON journals (user_email, mood_score);
+
+-- MIGRATION: Streak engine state (bitset of journaled epoch days, see StreakEngine)
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns 
+                   WHERE table_name='user_progress' AND column_name='journal_days') THEN
+        ALTER TABLE user_progress ADD COLUMN journal_days BYTEA;
+        ALTER TABLE user_progress ADD COLUMN journal_days_base INT;
+        ALTER TABLE user_progress ADD COLUMN longest_streak INT DEFAULT 0;
+    END IF;
+END $$;
+
+-- MIGRATION: When an entry was last written (hour-of-day analytics).
+-- Added without a default first so existing rows stay NULL instead of "now".
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns 
+                   WHERE table_name='journals' AND column_name='saved_at') THEN
+        ALTER TABLE journals ADD COLUMN saved_at TIMESTAMPTZ;
+        ALTER TABLE journals ALTER COLUMN saved_at SET DEFAULT CURRENT_TIMESTAMP;
+    END IF;
+END $$;
+
+-- Quest catalogue (see QuestEngine). A quest advances by one for every save whose
+-- trigger value (length in chars, local hour, mood score) is >= threshold.
+CREATE TABLE IF NOT EXISTS quest_definitions (
+    id VARCHAR(50) PRIMARY KEY,
+    description TEXT NOT NULL,
+    trigger_type VARCHAR(30) NOT NULL,
+    threshold INT NOT NULL DEFAULT 0,
+    target INT NOT NULL DEFAULT 1,
+    xp_reward INT NOT NULL DEFAULT 0,
+    active BOOLEAN NOT NULL DEFAULT TRUE
+);
+
+INSERT INTO quest_definitions (id, description, trigger_type, threshold, target, xp_reward)
+VALUES
+    ('q_entry', 'Write a journal entry', 'ENTRY_SAVED', 0, 1, 50),
+    ('q_long', 'Write over 100 characters', 'ENTRY_LENGTH', 101, 1, 100),
+    ('q_night', 'Journal after 8 PM', 'TIME_OF_DAY', 20, 1, 150),
+    ('q_bright', 'Log a positive mood', 'MOOD', 4, 1, 75)
+ON CONFLICT (id) DO NOTHING;
+
+-- Daily quest progress, one row per user, day and quest
+CREATE TABLE IF NOT EXISTS user_quest_progress (
+    user_email VARCHAR(255) REFERENCES users(email),
+    quest_date DATE NOT NULL,
+    quest_id VARCHAR(50) REFERENCES quest_definitions(id),
+    progress INT NOT NULL DEFAULT 0,
+    completed_at TIMESTAMPTZ,
+    PRIMARY KEY (user_email, quest_date, quest_id)
+);
+
+-- MIGRATION: Achievement rules (see AchievementEngine). A NULL rule_type means the
+-- achievement is only unlocked explicitly.
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns 
+                   WHERE table_name='achievement_definitions' AND column_name='rule_type') THEN
+        ALTER TABLE achievement_definitions ADD COLUMN rule_type VARCHAR(30);
+        ALTER TABLE achievement_definitions ADD COLUMN threshold INT NOT NULL DEFAULT 0;
+        UPDATE achievement_definitions SET rule_type = 'ENTRY_COUNT', threshold = 1 WHERE id = 'ach_1';
+        UPDATE achievement_definitions SET rule_type = 'STREAK', threshold = 7 WHERE id = 'ach_7';
+        UPDATE achievement_definitions SET rule_type = 'LEVEL', threshold = 100 WHERE id = 'ach_100';
+    END IF;
+END $$;
+
+-- MIGRATION: Leaderboard (see Leaderboard). Users are hidden unless they opt in;
+-- week_xp counts XP earned since week_start (ISO Monday).
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns 
+                   WHERE table_name='users' AND column_name='leaderboard_opt_in') THEN
+        ALTER TABLE users ADD COLUMN leaderboard_opt_in BOOLEAN NOT NULL DEFAULT FALSE;
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns 
+                   WHERE table_name='user_progress' AND column_name='week_xp') THEN
+        ALTER TABLE user_progress ADD COLUMN week_xp INT NOT NULL DEFAULT 0;
+        ALTER TABLE user_progress ADD COLUMN week_start DATE;
+    END IF;
+END $$;
+
+CREATE INDEX IF NOT EXISTS idx_users_leaderboard ON users (email) WHERE leaderboard_opt_in;
@@ -0,0 +1,60 @@
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class FxWatchdogTest {
+
+    @AfterEach
+    void clearStrict() {
+        System.clearProperty("FX_STRICT");
+    }
+
+    // Installs the watchdog on a fresh thread standing in for the FX thread, then runs the body there
+    private static Throwable onSimulatedFxThread(Runnable body) throws InterruptedException {
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+        Thread fx = new Thread(() -> {
+            FxWatchdog.install();
+            try {
+                body.run();
+            } catch (Throwable t) {
+                thrown.set(t);
+            }
+        }, "JavaFX Application Thread");
+        fx.start();
+        fx.join();
+        return thrown.get();
+    }
+
+    @Test
+    void strictModeThrowsOnBlockingCallFromFxThread() throws InterruptedException {
+        System.setProperty("FX_STRICT", "true");
+        Throwable thrown = onSimulatedFxThread(() -> {
+            try {
+                DatabaseConnectionPool.getConnection().close();
+            } catch (SQLException e) {
+                throw new AssertionError("reached the pool", e);
+            }
+        });
+        assertInstanceOf(IllegalStateException.class, thrown);
+        assertTrue(thrown.getMessage().contains("db.connection"));
+    }
+
+    @Test
+    void lenientModeOnlyReports() throws InterruptedException {
+        System.setProperty("FX_STRICT", "false");
+        assertNull(onSimulatedFxThread(() -> FxWatchdog.checkNotFxThread("test.lenient")));
+    }
+
+    @Test
+    void strictModeIgnoresOtherThreads() throws InterruptedException {
+        System.setProperty("FX_STRICT", "true");
+        onSimulatedFxThread(() -> { });
+        assertDoesNotThrow(() -> FxWatchdog.checkNotFxThread("test.background"));
+    }
+}
@@ -0,0 +1,172 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import org.junit.jupiter.api.Test;
+
+class JournalDaysTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 14);
+
+    private static StreakEngine.JournalDays record(LocalDate... dates) {
+        StreakEngine.JournalDays days = new StreakEngine.JournalDays();
+        for (LocalDate date : dates) {
+            days.record(date);
+        }
+        return days;
+    }
+
+    // --- SERIALIZATION ---
+    @Test
+    void bytesRoundTrip() {
+        StreakEngine.JournalDays days = record(DAY, DAY.plusDays(1), DAY.plusDays(2), DAY.plusDays(10),
+                DAY.minusDays(200), DAY.plusDays(90));
+        StreakEngine.JournalDays copy = StreakEngine.JournalDays.fromBytes(days.getBaseDay(), days.toBytes());
+
+        assertEquals(days.getBaseDay(), copy.getBaseDay());
+        assertArrayEquals(days.toBytes(), copy.toBytes());
+        assertEquals(6, copy.getDayCount());
+        assertEquals(3, copy.getLongestStreak());
+        assertEquals(1, copy.getCurrentStreak(DAY.plusDays(90)));
+        assertTrue(copy.isJournaled(DAY.minusDays(200)));
+        assertFalse(copy.isJournaled(DAY.plusDays(3)));
+    }
+
+    @Test
+    void trailingEmptyWordsAreTrimmed() {
+        // The third word doubles the array to four; only the three used words are written
+        StreakEngine.JournalDays days = record(DAY, DAY.plusDays(64), DAY.plusDays(128));
+        assertEquals(3 * Long.BYTES, days.toBytes().length);
+        assertEquals(0, new StreakEngine.JournalDays().toBytes().length);
+    }
+
+    @Test
+    void emptyBytesLoadAsEmptyCalendar() {
+        StreakEngine.JournalDays days = StreakEngine.JournalDays.fromBytes(0, new byte[0]);
+        assertEquals(0, days.getDayCount());
+        assertEquals(0, days.getCurrentStreak(DAY));
+        assertEquals(0, days.getLongestStreak());
+    }
+
+    @Test
+    void fromEpochDaysMatchesRecording() {
+        LocalDate[] dates = { DAY.minusDays(70), DAY.minusDays(3), DAY.minusDays(2), DAY, DAY.minusDays(1) };
+        long[] epochDays = new long[dates.length];
+        for (int i = 0; i < dates.length; i++) {
+            epochDays[i] = dates[i].toEpochDay();
+        }
+        StreakEngine.JournalDays built = StreakEngine.JournalDays.fromEpochDays(epochDays);
+        StreakEngine.JournalDays recorded = record(dates);
+
+        assertEquals(recorded.getBaseDay(), built.getBaseDay());
+        assertArrayEquals(recorded.toBytes(), built.toBytes());
+        assertEquals(4, built.getCurrentStreak(DAY));
+        assertEquals(4, built.getLongestStreak());
+    }
+
+    // --- STREAKS ---
+    @Test
+    void currentStreakCountsWhileItEndsTodayOrYesterday() {
+        StreakEngine.JournalDays days = record(DAY.minusDays(2), DAY.minusDays(1), DAY);
+        assertEquals(3, days.getCurrentStreak(DAY));
+        assertEquals(3, days.getCurrentStreak(DAY.plusDays(1)));
+        assertEquals(0, days.getCurrentStreak(DAY.plusDays(2)));
+        assertEquals(3, days.getLongestStreak());
+    }
+
+    @Test
+    void gapStartsANewRun() {
+        StreakEngine.JournalDays days = record(DAY, DAY.plusDays(1), DAY.plusDays(2), DAY.plusDays(5));
+        assertEquals(1, days.getCurrentStreak(DAY.plusDays(5)));
+        assertEquals(3, days.getLongestStreak());
+
+        days.record(DAY.plusDays(6));
+        assertEquals(2, days.getCurrentStreak(DAY.plusDays(6)));
+        assertEquals(3, days.getLongestStreak());
+    }
+
+    @Test
+    void backDatedEntryBridgesRuns() {
+        StreakEngine.JournalDays days = record(DAY, DAY.plusDays(1), DAY.plusDays(3), DAY.plusDays(4));
+        assertEquals(2, days.getCurrentStreak(DAY.plusDays(4)));
+
+        assertTrue(days.record(DAY.plusDays(2)));
+        assertEquals(5, days.getCurrentStreak(DAY.plusDays(4)));
+        assertEquals(5, days.getLongestStreak());
+    }
+
+    @Test
+    void runsAcrossWordBoundaries() {
+        // 100 consecutive days span at least two 64-bit words
+        LocalDate[] dates = new LocalDate[100];
+        for (int i = 0; i < dates.length; i++) {
+            dates[i] = DAY.plusDays(i);
+        }
+        StreakEngine.JournalDays days = record(dates);
+        assertEquals(100, days.getCurrentStreak(DAY.plusDays(99)));
+        assertEquals(100, days.getLongestStreak());
+
+        StreakEngine.JournalDays copy = StreakEngine.JournalDays.fromBytes(days.getBaseDay(), days.toBytes());
+        assertEquals(100, copy.getCurrentStreak(DAY.plusDays(99)));
+        assertEquals(100, copy.getLongestStreak());
+    }
+
+    @Test
+    void recordingTheSameDayTwiceIsAnEdit() {
+        StreakEngine.JournalDays days = record(DAY);
+        assertFalse(days.record(DAY));
+        assertEquals(1, days.getDayCount());
+    }
+
+    // --- BASE DAY ---
+    @Test
+    void baseDayIsWordAligned() {
+        StreakEngine.JournalDays days = record(DAY);
+        assertEquals(0, days.getBaseDay() % 64);
+        assertTrue(days.getBaseDay() <= DAY.toEpochDay());
+        assertTrue(DAY.toEpochDay() - days.getBaseDay() < 64);
+    }
+
+    @Test
+    void earlierDayShiftsBaseDown() {
+        StreakEngine.JournalDays days = record(DAY, DAY.plusDays(1));
+        long base = days.getBaseDay();
+
+        days.record(DAY.minusDays(300));
+        assertTrue(days.getBaseDay() < base);
+        assertEquals(0, days.getBaseDay() % 64);
+        assertTrue(days.isJournaled(DAY.minusDays(300)));
+        assertTrue(days.isJournaled(DAY));
+        assertTrue(days.isJournaled(DAY.plusDays(1)));
+        assertEquals(3, days.getDayCount());
+        assertEquals(2, days.getCurrentStreak(DAY.plusDays(1)));
+
+        StreakEngine.JournalDays copy = StreakEngine.JournalDays.fromBytes(days.getBaseDay(), days.toBytes());
+        assertTrue(copy.isJournaled(DAY.minusDays(300)));
+        assertEquals(2, copy.getCurrentStreak(DAY.plusDays(1)));
+    }
+
+    @Test
+    void backDatedDayBeforeBaseJoinsRun() {
+        // The current run starts on the first day of a word; the day before it lives in the previous word
+        LocalDate wordStart = LocalDate.ofEpochDay(Math.floorDiv(DAY.toEpochDay(), 64) * 64);
+        StreakEngine.JournalDays days = record(wordStart, wordStart.plusDays(1));
+
+        days.record(wordStart.minusDays(1));
+        assertEquals(3, days.getCurrentStreak(wordStart.plusDays(1)));
+        assertEquals(3, days.getLongestStreak());
+    }
+
+    @Test
+    void daysBeforeTheEpoch() {
+        LocalDate old = LocalDate.of(1969, 12, 30);
+        StreakEngine.JournalDays days = record(old, old.plusDays(1), old.plusDays(2));
+        assertEquals(3, days.getLongestStreak());
+        assertEquals(0, days.getBaseDay() % 64);
+
+        StreakEngine.JournalDays copy = StreakEngine.JournalDays.fromBytes(days.getBaseDay(), days.toBytes());
+        assertEquals(3, copy.getCurrentStreak(old.plusDays(2)));
+    }
+}
@@ -0,0 +1,109 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class JournalRoundTripTest {
+
+    private static final String TRICKY = "Said \"hi\", then left.\nSecond line, with a comma\nété ☀";
+
+    // Writes date, mood, moodScore, weather, content rows through an exporter format
+    private static byte[] export(boolean markdown, Object[]... rows) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JournalExporter.RowWriter writer = markdown ? new JournalExporter.MarkdownZipWriter(out)
+                : new JournalExporter.CsvWriter(out);
+        for (Object[] row : rows) {
+            writer.write((String) row[0], (String) row[1], (Integer) row[2], (String) row[3], (String) row[4]);
+        }
+        writer.finish();
+        return out.toByteArray();
+    }
+
+    private static List<List<String>> readCsv(String text) throws IOException {
+        JournalImporter.CsvReader csv = new JournalImporter.CsvReader(new StringReader(text));
+        List<List<String>> rows = new ArrayList<>();
+        List<String> row;
+        while ((row = csv.next()) != null) {
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    // The importer's staged COPY rows: seq, date, content, weather, mood, mood_score
+    private static List<List<String>> staged(StringWriter copy) throws IOException {
+        return readCsv(copy.toString());
+    }
+
+    private static JournalImporter.RowSink sink(StringWriter copy, JournalImporter.Result result) {
+        return new JournalImporter.RowSink(copy, result, () -> false);
+    }
+
+    // --- CSV ---
+    @Test
+    void csvReaderReadsExporterOutput() throws IOException {
+        byte[] csv = export(false,
+                new Object[] { "2024-02-29", "Very Positive", 5, "Sunny, 21°C", TRICKY + "\r\nCRLF kept" },
+                new Object[] { "2024-03-01", null, 0, null, "" });
+
+        List<List<String>> rows = readCsv(new String(csv, StandardCharsets.UTF_8));
+        assertEquals(3, rows.size());
+        assertEquals(List.of("date", "mood", "mood_score", "weather", "content"), rows.get(0));
+        assertEquals(List.of("2024-02-29", "Very Positive", "5", "Sunny, 21°C", TRICKY + "\r\nCRLF kept"),
+                rows.get(1));
+
+        // Unquoted empty is null, quoted empty is an empty string
+        assertEquals(Arrays.asList("2024-03-01", null, "0", null, ""), rows.get(2));
+    }
+
+    @Test
+    void csvImportStagesExportedRows() throws IOException {
+        byte[] csv = export(false,
+                new Object[] { "2024-02-29", "Very Positive", 5, "Sunny, 21°C", TRICKY },
+                new Object[] { "2024-03-01", null, 0, null, "Plain" },
+                new Object[] { "2024-03-02", "Negative", 2, "Rain", "" });
+
+        StringWriter copy = new StringWriter();
+        JournalImporter.Result result = new JournalImporter.Result();
+        JournalImporter.parseCsv(new StringReader(new String(csv, StandardCharsets.UTF_8)), sink(copy, result));
+
+        assertEquals(3, result.parsed);
+        assertEquals(1, result.invalid); // empty content is rejected
+        List<List<String>> rows = staged(copy);
+        assertEquals(2, rows.size());
+        assertEquals(List.of("0", "2024-02-29", TRICKY, "Sunny, 21°C", "Very Positive", "5"), rows.get(0));
+        assertEquals(Arrays.asList("1", "2024-03-01", "Plain", null, null, "0"), rows.get(1));
+    }
+
+    // --- MARKDOWN ---
+    @Test
+    void markdownImportStagesExportedRows() throws IOException {
+        byte[] zip = export(true,
+                new Object[] { "2024-02-29", "Positive", 4, "Fog", TRICKY },
+                new Object[] { "2024-03-01", null, 0, null, "**Bold** start\n\n# Not a heading" });
+
+        StringWriter copy = new StringWriter();
+        JournalImporter.Result result = new JournalImporter.Result();
+        JournalImporter.parseMarkdownZip(new ByteArrayInputStream(zip), sink(copy, result));
+
+        assertEquals(2, result.parsed);
+        assertEquals(0, result.invalid);
+        List<List<String>> rows = staged(copy);
+        assertEquals(List.of("0", "2024-02-29", TRICKY, "Fog", "Positive", "4"), rows.get(0));
+
+        // "Unknown" mood and "-" weather read back as missing
+        List<String> plain = rows.get(1);
+        assertEquals("**Bold** start\n\n# Not a heading", plain.get(2));
+        assertNull(plain.get(3));
+        assertNull(plain.get(4));
+        assertEquals("0", plain.get(5));
+    }
+}
@@ -0,0 +1,114 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class RankIndexTest {
+
+    private static Leaderboard.RankIndex index(int... scores) {
+        Leaderboard.RankIndex index = new Leaderboard.RankIndex();
+        for (int i = 0; i < scores.length; i++) {
+            index.put("u" + i, "User " + i, scores[i]);
+        }
+        return index;
+    }
+
+    // --- RANKS ---
+    @Test
+    void tiesShareACompetitionRank() {
+        Leaderboard.RankIndex index = index(500, 300, 300, 100);
+        assertEquals(1, index.rankOf("u0"));
+        assertEquals(2, index.rankOf("u1"));
+        assertEquals(2, index.rankOf("u2"));
+        assertEquals(4, index.rankOf("u3"));
+        assertEquals(0, index.rankOf("nobody"));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void updatesAndRemovalsMoveRanks() {
+        Leaderboard.RankIndex index = index(500, 300, 100);
+        index.put("u2", "User 2", 900);
+        assertEquals(1, index.rankOf("u2"));
+        assertEquals(2, index.rankOf("u0"));
+
+        index.remove("u2");
+        assertEquals(1, index.rankOf("u0"));
+        assertEquals(2, index.size());
+        assertEquals(0, index.scoreOf("u2"));
+    }
+
+    @Test
+    void negativeScoresCountAsZero() {
+        Leaderboard.RankIndex index = index(-5, 0, 10);
+        assertEquals(0, index.scoreOf("u0"));
+        assertEquals(2, index.rankOf("u0"));
+        assertEquals(2, index.rankOf("u1"));
+    }
+
+    // --- BUCKETS ---
+    @Test
+    void scoresInOneBucketKeepTheirOrder() {
+        // 1_000_000 and 1_000_001 share a log-scaled bucket
+        assertEquals(Leaderboard.RankIndex.bucketOf(1_000_000), Leaderboard.RankIndex.bucketOf(1_000_001));
+        Leaderboard.RankIndex index = index(1_000_000, 1_000_001, 1_000_000, 2_000_000);
+        assertEquals(1, index.rankOf("u3"));
+        assertEquals(2, index.rankOf("u1"));
+        assertEquals(3, index.rankOf("u0"));
+        assertEquals(3, index.rankOf("u2"));
+    }
+
+    @Test
+    void bucketsCoverTheWholeIntRange() {
+        assertEquals(Leaderboard.RankIndex.BUCKETS - 1, Leaderboard.RankIndex.bucketOf(Integer.MAX_VALUE));
+        assertEquals(Integer.MAX_VALUE, Leaderboard.RankIndex.bucketTop(Integer.MAX_VALUE));
+        Leaderboard.RankIndex index = index(Integer.MAX_VALUE, Integer.MAX_VALUE - 1, 7);
+        assertEquals(1, index.rankOf("u0"));
+        assertEquals(2, index.rankOf("u1"));
+        assertEquals(3, index.rankOf("u2"));
+    }
+
+    @Test
+    void bucketsAreMonotonic() {
+        int previous = -1;
+        for (long score = 0; score <= Integer.MAX_VALUE; score = score < 4096 ? score + 1 : score * 17 / 16) {
+            int bucket = Leaderboard.RankIndex.bucketOf((int) score);
+            assertTrue(bucket >= previous, "bucket went down at " + score);
+            assertEquals(bucket, Leaderboard.RankIndex.bucketOf(Leaderboard.RankIndex.bucketTop((int) score)));
+            previous = bucket;
+        }
+    }
+
+    @Test
+    void ranksMatchACountOfHigherScores() {
+        Random random = new Random(42);
+        int[] scores = new int[500];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = random.nextInt(4) == 0 ? random.nextInt(50) : random.nextInt(5_000_000);
+        }
+        Leaderboard.RankIndex index = index(scores);
+        for (int i = 0; i < scores.length; i++) {
+            int higher = 0;
+            for (int other : scores) {
+                if (other > scores[i])
+                    higher++;
+            }
+            assertEquals(1 + higher, index.rankOf("u" + i), "rank of score " + scores[i]);
+        }
+    }
+
+    // --- PAGES ---
+    @Test
+    void pagesFollowScoreThenEmail() {
+        Leaderboard.RankIndex index = index(100, 300, 300, 200);
+        List<Leaderboard.Row> top = index.page(0, 3);
+        assertEquals(List.of("u1", "u2", "u3"), top.stream().map(r -> r.email).toList());
+        assertEquals(List.of(1, 1, 3), top.stream().map(r -> r.rank).toList());
+
+        List<Leaderboard.Row> rest = index.page(3, 10);
+        assertEquals(1, rest.size());
+        assertEquals(4, rest.get(0).rank);
+    }
+}
@@ -0,0 +1,102 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class RateLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    // One token per second, three in reserve; starts full
+    private static RateLimiter.Bucket bucket() {
+        return new RateLimiter.Bucket(60, 3);
+    }
+
+    // --- ACCEPT / REJECT ---
+    @Test
+    void burstThenExactWait() {
+        RateLimiter.Bucket bucket = bucket();
+        long t0 = System.nanoTime();
+        assertEquals(0, bucket.tryAcquire(t0));
+        assertEquals(0, bucket.tryAcquire(t0));
+        assertEquals(0, bucket.tryAcquire(t0));
+        assertEquals(SECOND, bucket.tryAcquire(t0));
+        assertEquals(SECOND / 2, bucket.tryAcquire(t0 + SECOND / 2));
+        assertEquals(0, bucket.tryAcquire(t0 + SECOND));
+    }
+
+    @Test
+    void rejectionTakesNoToken() {
+        RateLimiter.Bucket bucket = bucket();
+        long t0 = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            bucket.tryAcquire(t0);
+        }
+        for (int i = 0; i < 10; i++) {
+            assertEquals(SECOND, bucket.tryAcquire(t0));
+        }
+        assertEquals(0, bucket.tryAcquire(t0 + SECOND));
+    }
+
+    @Test
+    void steadyRateAfterBurst() {
+        RateLimiter.Bucket bucket = bucket();
+        long t0 = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            bucket.tryAcquire(t0);
+        }
+        for (int i = 1; i <= 5; i++) {
+            long now = t0 + i * SECOND;
+            assertEquals(0, bucket.tryAcquire(now));
+            assertTrue(bucket.tryAcquire(now) > 0, "second call in tick " + i);
+        }
+    }
+
+    // --- REFILL ---
+    @Test
+    void idleTimeRefillsUpToBurstOnly() {
+        RateLimiter.Bucket bucket = bucket();
+        long t0 = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            bucket.tryAcquire(t0);
+        }
+        assertEquals(0, bucket.available(t0), 1e-9);
+        assertFalse(bucket.isFull(t0 + 2 * SECOND));
+        assertEquals(2, bucket.available(t0 + 2 * SECOND), 1e-9);
+
+        long later = t0 + 60 * SECOND;
+        assertTrue(bucket.isFull(later));
+        assertEquals(3, bucket.available(later), 1e-9);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(later));
+        }
+        assertTrue(bucket.tryAcquire(later) > 0);
+    }
+
+    @Test
+    void refundReturnsAToken() {
+        RateLimiter.Bucket bucket = bucket();
+        long t0 = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            bucket.tryAcquire(t0);
+        }
+        bucket.refund();
+        assertEquals(0, bucket.tryAcquire(t0));
+        assertTrue(bucket.tryAcquire(t0) > 0);
+    }
+
+    @Test
+    void penaltyEmptiesTheBucketForItsDuration() {
+        RateLimiter.Bucket bucket = bucket();
+        long t0 = System.nanoTime();
+        bucket.penalize(t0, 5 * SECOND);
+        assertEquals(0, bucket.available(t0 + 5 * SECOND), 1e-9);
+        assertTrue(bucket.tryAcquire(t0 + 5 * SECOND) > 0);
+        assertEquals(0, bucket.tryAcquire(t0 + 6 * SECOND));
+
+        // A shorter penalty never shortens a longer one
+        bucket.penalize(t0, SECOND);
+        assertTrue(bucket.tryAcquire(t0 + 6 * SECOND) > 0);
+    }
+}